@@ -0,0 +1,300 @@
+delete
+from orveus.ao_betrifft_pe
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.ao_betrifft_hst
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.ao_zu_v
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.ao_setztab_ao
+where ao_id1 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id1
+);
+
+delete
+from orveus.ao_setztab_ao
+where ao_id2 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id2
+);
+
+delete
+from orveus.aoa_fuer_ao
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.aad_aendert_ada
+where ao_id1 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id1
+);
+
+delete
+from orveus.aae_aendert_ane
+where ao_id1 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id1
+);
+
+delete
+from orveus.ann_eintrag_hle
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordanneinzel
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordannahm
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordeinzel
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordaender
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordaenderdauer
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordannsammel
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anordauseinzel
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+delete
+from orveus.anordaussammelhaus
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+delete
+from orveus.anordaussammelpers
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+delete
+from orveus.anordauszahl
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+delete
+from orveus.anorddauer
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+delete
+from orveus.anordsammel
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+delete
+from orveus.aus_eintrag_hla
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+
+delete
+from orveus.bel_fuer_auh
+where ao_id not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id
+);
+
+
+
+delete
+from orveus.extmusiker
+where em_agentur_pe not in (
+    select b.pe_id
+    from orveus.person b
+    where b.pe_id = em_agentur_pe
+);
+
+
+
+delete
+from orveus.extmusiker
+where em_finanzamt_pe not in (
+    select b.pe_id
+    from orveus.person b
+    where b.pe_id = em_finanzamt_pe
+);
+
+
+delete
+from orveus.extmusiker
+where pe_id not in (
+    select b.pe_id
+    from orveus.person b
+    where b.pe_id = pe_id
+);
+
+
+delete
+from orveus.hst_deckt_hst
+where hst_id2 not in (
+    select b.hst_id
+    from orveus.haushaltsstelle b
+    where b.hst_id = hst_id2
+);
+
+
+
+delete
+from orveus.hst_deckt_hst
+where hst_id1 not in (
+    select b.hst_id
+    from orveus.haushaltsstelle b
+    where b.hst_id = hst_id1
+);
+
+
+delete
+from orveus.aag_aendert_aag
+where ao_id1 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id1
+);
+
+delete
+from orveus.aas_folgt_aas
+where ao_id1 not in (
+    select b.ao_id
+    from orveus.anordnung b
+    where b.ao_id = ao_id1
+);
+
+UPDATE orveus.person
+set DELETED = 1
+where pe_vorname = 'GELÖSCHTE PERSON         ';
+
+DELETE
+FROM orveus.personenklasse
+where pk_kuerzel is null
+   or pk_bedeutung is null;
+
+INSERT INTO orveus.personenklasse (pk_bedeutung, pk_kuerzel)
+VALUES ('GELÖSCHTE PERSONENKLASSE', 'DEL');
+
+UPDATE orveus.person
+SET pe_klasse_pk = (SELECT pk_id from orveus.personenklasse where pk_kuerzel = 'DEL')
+where pe_klasse_pk NOT IN (SELECT pk_id from orveus.personenklasse);
+
+INSERT INTO [orveus].[user] (username, id, recorded, updated, deleted, password, user_details_id)
+SELECT adistinct.hle_name, (NEXT VALUE FOR orveus.orveus_seq), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, '', NULL
+FROM (SELECT DISTINCT a.hle_name
+      from orveus.huele a
+      where a.hle_name not in (select b.username from [orveus].[user] b where b.username = a.hle_name)) adistinct;
+
+INSERT INTO orveus.[user] (username, id, recorded, updated, deleted, password, user_details_id)
+SELECT adistinct.hla_name, (NEXT VALUE FOR orveus.orveus_seq), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, '', NULL
+FROM (SELECT DISTINCT a.hla_name
+      from orveus.huela a
+      where a.hla_name not in (select b.username from [orveus].[user] b where b.username = a.hla_name)) adistinct;
+
+
+insert into orveus.user_details (firstname, lastname, id, user_id, recorded, updated)
+select '',
+       '',
+       (NEXT VALUE FOR orveus.orveus_seq),
+       usr.id,
+       CURRENT_TIMESTAMP,
+       CURRENT_TIMESTAMP
+from [orveus].[user] usr
+where not exists(select ex_user.id from orveus.user_details ex_user where ex_user.user_id = usr.id);
+
+
+update USR
+set user_details_id = (SELECT det.id from orveus.user_details det where det.user_id = USR.id)
+from [orveus].[user] USR
+where user_details_id is null;
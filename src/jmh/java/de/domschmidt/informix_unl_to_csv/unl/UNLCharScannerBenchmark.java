@@ -0,0 +1,127 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetDecoder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// both scanners on the same 16 MiB of unl, once the bare search over the decoded chars and once the whole record reader
+// including the decoding, the forked jvm gets the vector module
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UNLCharScannerBenchmark {
+
+    private static final int UNL_SIZE = 16 * 1024 * 1024;
+    private static final int READ_SIZE = 1024 * 1024;
+
+    @Param({"SCALAR", "VECTOR"})
+    public UNLCharScannerType scannerType;
+
+    // narrow: 12 short columns (keys, codes, dates, amounts), wide: two text columns of about 600 chars
+    @Param({"NARROW", "WIDE"})
+    public String recordShape;
+
+    private IUNLCharScanner charScanner;
+    private byte[] unl;
+    private char[] unlChars;
+    private UNLRecordReader recordReader;
+    private CharsetDecoder decoder;
+    private char[] byteChars;
+    private final UNLRecord record = new UNLRecord();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.charScanner = this.scannerType.create();
+        final String unlString = "WIDE".equals(this.recordShape) ? createWideUNL() : createNarrowUNL();
+        this.unl = unlString.getBytes(TableConverter.UNL_CHARSET);
+        this.unlChars = unlString.toCharArray();
+        this.recordReader = new UNLRecordReader(this.charScanner);
+        this.decoder = TableConverter.UNL_CHARSET.newDecoder();
+        this.byteChars = SingleByteCharsetTable.create(this.decoder);
+    }
+
+    @Benchmark
+    public int scan() {
+        int specialCharCount = 0;
+        int currentCharIdx = this.charScanner.indexOfSpecialChar(this.unlChars, 0, this.unlChars.length);
+        while (currentCharIdx < this.unlChars.length) {
+            specialCharCount++;
+            currentCharIdx = this.charScanner.indexOfSpecialChar(this.unlChars, currentCharIdx + 1, this.unlChars.length);
+        }
+        return specialCharCount;
+    }
+
+    @Benchmark
+    public long readRecords() throws IOException {
+        this.recordReader.reset(Channels.newChannel(new ByteArrayInputStream(this.unl)), this.decoder, this.byteChars, READ_SIZE);
+        long fieldCount = 0;
+        while (this.recordReader.next(this.record)) {
+            fieldCount += this.record.getFieldCount();
+        }
+        return fieldCount;
+    }
+
+    private static String createNarrowUNL() {
+        final Random random = new Random(42);
+        final StringBuilder unl = new StringBuilder(UNL_SIZE + 1024);
+        for (int currentRecordIdx = 0; unl.length() < UNL_SIZE; currentRecordIdx++) {
+            unl.append(currentRecordIdx).append('|')
+                    .append(random.nextInt(1000)).append('|')
+                    .append("KD").append(random.nextInt(100)).append('|')
+                    .append(String.format("%02d.%02d.%04d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1990 + random.nextInt(30))).append('|')
+                    .append(random.nextInt(100000) / 100.0).append('|')
+                    .append(random.nextBoolean() ? "J" : "N").append('|')
+                    .append('|')
+                    .append(random.nextInt(10)).append('|')
+                    .append("Müller").append('|')
+                    .append(random.nextInt(99999)).append('|')
+                    .append("DE").append('|')
+                    .append(random.nextLong()).append("|\n");
+        }
+        return unl.toString();
+    }
+
+    // with an escaped line feed and an escaped delimiter now and then
+    private static String createWideUNL() {
+        final Random random = new Random(42);
+        final String words = "Lorem ipsum dolor sit amet, consetetur sadipscing elitr, sed diam nonumy eirmod tempor invidunt ut labore "
+                + "et dolore magna aliquyam erat, sed diam voluptua. At vero eos et accusam et justo duo dolores et ea rebum. Stet "
+                + "clita kasd gubergren, no sea takimata sanctus est Lorem ipsum dolor sit amet. ";
+        final StringBuilder unl = new StringBuilder(UNL_SIZE + 4096);
+        for (int currentRecordIdx = 0; unl.length() < UNL_SIZE; currentRecordIdx++) {
+            unl.append(currentRecordIdx).append('|');
+            for (int currentTextIdx = 0; currentTextIdx < 2; currentTextIdx++) {
+                final int start = random.nextInt(words.length());
+                for (int currentCharIdx = 0; currentCharIdx < 600; currentCharIdx++) {
+                    unl.append(words.charAt((start + currentCharIdx) % words.length()));
+                }
+                if (random.nextInt(8) == 0) {
+                    unl.append(random.nextBoolean() ? "\\\n" : "\\|");
+                }
+                unl.append('|');
+            }
+            unl.append(String.format("%02d.%02d.%04d", 1 + random.nextInt(28), 1 + random.nextInt(12), 1990 + random.nextInt(30))).append("|\n");
+        }
+        return unl.toString();
+    }
+}
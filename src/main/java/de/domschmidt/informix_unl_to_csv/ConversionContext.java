@@ -0,0 +1,139 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.unl.IUNLCharScanner;
+import de.domschmidt.informix_unl_to_csv.unl.SingleByteCharsetTable;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.*;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// buffers, coders and the current row of a converting worker, reused from table to table
+public class ConversionContext {
+
+    public static final int DEFAULT_READ_SIZE = 64 * 1024;
+
+    private final Map<Charset, CharsetDecoder> decoders = new HashMap<>();
+    private final Map<Charset, CharsetEncoder> encoders = new HashMap<>();
+    // null values for multi byte charsets
+    private final Map<Charset, char[]> singleByteCharsetTables = new HashMap<>();
+    private final UNLRecordReader recordReader;
+    private final UNLRecord record = new UNLRecord();
+    private final ConvertedRow convertedRow = new ConvertedRow();
+    private ByteBuffer outputBytes = ByteBuffer.allocate(64 * 1024);
+    // direct buffers of the AsyncFileWriter, allocated once per context as they are expensive
+    private ByteBuffer[] directOutputBuffers = new ByteBuffer[0];
+
+    public ConversionContext(final IUNLCharScanner charScanner) {
+        this.recordReader = new UNLRecordReader(charScanner);
+    }
+    private char[] outputChars = new char[64 * 1024];
+    private int outputLength;
+
+    // readSize is the size of a single channel read, a small file is read with one call
+    public UNLRecordReader openUNL(final ReadableByteChannel channel, final Charset charset, final int readSize) {
+        final CharsetDecoder decoder = this.decoders.computeIfAbsent(charset, key -> key.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        if (!this.singleByteCharsetTables.containsKey(charset)) {
+            this.singleByteCharsetTables.put(charset, SingleByteCharsetTable.create(decoder));
+        }
+        this.recordReader.reset(channel, decoder, this.singleByteCharsetTables.get(charset), readSize);
+        return this.recordReader;
+    }
+
+    public UNLRecord getRecord() {
+        return this.record;
+    }
+
+    public ConvertedRow getConvertedRow() {
+        return this.convertedRow;
+    }
+
+    public ByteBuffer[] getDirectOutputBuffers(final int bufferSize, final int bufferCount) {
+        if (this.directOutputBuffers.length != bufferCount || this.directOutputBuffers[0].capacity() != bufferSize) {
+            this.directOutputBuffers = new ByteBuffer[bufferCount];
+            for (int currentBufferIdx = 0; currentBufferIdx < bufferCount; currentBufferIdx++) {
+                this.directOutputBuffers[currentBufferIdx] = ByteBuffer.allocateDirect(bufferSize);
+            }
+        }
+        return this.directOutputBuffers;
+    }
+
+    // collects the output in memory, closing the writer writes the file with a single write
+    public Writer newOutputWriter(final Path path, final Charset charset) {
+        this.outputLength = 0;
+        return new Writer() {
+            @Override
+            public void write(final char[] chars, final int offset, final int length) {
+                ensureOutputCapacity(length);
+                System.arraycopy(chars, offset, outputChars, outputLength, length);
+                outputLength += length;
+            }
+
+            @Override
+            public void write(final String string, final int offset, final int length) {
+                ensureOutputCapacity(length);
+                string.getChars(offset, offset + length, outputChars, outputLength);
+                outputLength += length;
+            }
+
+            @Override
+            public void write(final int character) {
+                ensureOutputCapacity(1);
+                outputChars[outputLength++] = (char) character;
+            }
+
+            @Override
+            public void flush() {
+                // everything is written on close
+            }
+
+            @Override
+            public void close() throws IOException {
+                writeOutput(path, charset);
+            }
+        };
+    }
+
+    private void ensureOutputCapacity(final int additionalChars) {
+        if (this.outputLength + additionalChars > this.outputChars.length) {
+            final char[] grownOutputChars = new char[Math.max(this.outputChars.length * 2, this.outputLength + additionalChars)];
+            System.arraycopy(this.outputChars, 0, grownOutputChars, 0, this.outputLength);
+            this.outputChars = grownOutputChars;
+        }
+    }
+
+    private void writeOutput(final Path path, final Charset charset) throws IOException {
+        final CharsetEncoder encoder = this.encoders.computeIfAbsent(charset, Charset::newEncoder);
+        // room for a byte order mark
+        final int maxBytes = (int) Math.ceil((this.outputLength + 1) * (double) encoder.maxBytesPerChar());
+        if (this.outputBytes.capacity() < maxBytes) {
+            this.outputBytes = ByteBuffer.allocate(maxBytes);
+        }
+        this.outputBytes.clear();
+        encoder.reset();
+        final CoderResult encodeResult = encoder.encode(CharBuffer.wrap(this.outputChars, 0, this.outputLength), this.outputBytes, true);
+        if (encodeResult.isError()) {
+            encodeResult.throwException();
+        }
+        encoder.flush(this.outputBytes);
+        this.outputBytes.flip();
+
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (this.outputBytes.hasRemaining()) {
+                channel.write(this.outputBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.unl.IUNLCharScanner;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// virtual threads are never reused, so the conversion contexts are pooled instead of kept per thread
+public class ConversionContextPool {
+
+    private final ConcurrentLinkedQueue<ConversionContext> conversionContexts = new ConcurrentLinkedQueue<>();
+    // stateless, shared by all contexts
+    private final IUNLCharScanner charScanner;
+
+    public ConversionContextPool(final IUNLCharScanner charScanner) {
+        this.charScanner = charScanner;
+    }
+
+    public ConversionContext acquire() {
+        final ConversionContext conversionContext = this.conversionContexts.poll();
+        return conversionContext != null ? conversionContext : new ConversionContext(this.charScanner);
+    }
+
+    public void release(final ConversionContext conversionContext) {
+        this.conversionContexts.offer(conversionContext);
+    }
+}
@@ -0,0 +1,78 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+import de.domschmidt.informix_unl_to_csv.sink.CsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+// converts a single table from a unl stream (e.g. an unload to a pipe) into a csv stream, without intermediate files
+public class PipeConversionTask implements Callable<Long> {
+
+    private final String tableName;
+    private final TableConverter tableConverter;
+    private final ReadableByteChannel unlChannel;
+    private final OutputStream csvStream;
+    private final Charset csvCharset;
+    private final CsvFormat csvFormat;
+    // of the single reads and writes, a pipe is read and written in large chunks
+    private final int bufferSize;
+    private final Path rejectPath;
+    private final ErrorLimit errorLimit;
+    private final ConversionContextPool conversionContextPool;
+
+    public PipeConversionTask(final String tableName,
+                              final TableConverter tableConverter,
+                              final ReadableByteChannel unlChannel,
+                              final OutputStream csvStream,
+                              final Charset csvCharset,
+                              final CsvFormat csvFormat,
+                              final int bufferSize,
+                              final Path rejectPath,
+                              final ErrorLimit errorLimit,
+                              final ConversionContextPool conversionContextPool) {
+        this.tableName = tableName;
+        this.tableConverter = tableConverter;
+        this.unlChannel = unlChannel;
+        this.csvStream = csvStream;
+        this.csvCharset = csvCharset;
+        this.csvFormat = csvFormat;
+        this.bufferSize = bufferSize;
+        this.rejectPath = rejectPath;
+        this.errorLimit = errorLimit;
+        this.conversionContextPool = conversionContextPool;
+    }
+
+    // returns the converted row count
+    @Override
+    public Long call() throws IOException {
+        final ConversionContext conversionContext = this.conversionContextPool.acquire();
+        final long rowCount;
+        try (final RejectFile rejectFile = new RejectFile(this.rejectPath, TableConverter.UNL_CHARSET, this.errorLimit);
+             final ITableOutputSink outputSink = new CsvTableOutputSink(
+                     new BufferedWriter(new OutputStreamWriter(this.csvStream, this.csvCharset), this.bufferSize), this.csvFormat)) {
+            rowCount = this.tableConverter.convert(
+                    conversionContext.openUNL(this.unlChannel, TableConverter.UNL_CHARSET, this.bufferSize),
+                    conversionContext,
+                    outputSink,
+                    null,
+                    rejectFile
+            );
+            if (rejectFile.getRejectedCount() > 0) {
+                System.err.println("rejected " + rejectFile.getRejectedCount() + " records of table " + this.tableName + " to " + this.rejectPath);
+            }
+        } finally {
+            this.conversionContextPool.release(conversionContext);
+        }
+        return rowCount;
+    }
+}
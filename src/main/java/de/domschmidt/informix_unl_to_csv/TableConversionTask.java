@@ -0,0 +1,183 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.analyze.TableStatistics;
+import de.domschmidt.informix_unl_to_csv.importscript.ConvertedTable;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSinkFactory;
+import de.domschmidt.informix_unl_to_csv.sink.PartitionedCsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+import de.domschmidt.informix_unl_to_csv.verify.TableVerification;
+import de.domschmidt.informix_unl_to_csv.verify.VerificationReport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+public class TableConversionTask implements Callable<List<ConvertedTable>> {
+
+    private static final int MAX_READ_SIZE = 16 * 1024 * 1024;
+
+    private final String tableName;
+    private final Path unlPath;
+    private final TableConverter tableConverter;
+    private final Path outputPath;
+    private final ITableOutputSinkFactory outputSinkFactory;
+    // null if not verifying
+    private final VerificationReport verificationReport;
+    private final ErrorLimit errorLimit;
+    // limits the tables converting at once, only held around the conversion itself, so opening the files, reading the
+    // small ones and finishing and writing the output overlap with the conversion of other tables
+    private final Semaphore cpuPermits;
+    private final long smallTableSize;
+    private final ConversionContextPool conversionContextPool;
+    // null without a previous analysis
+    private final TableStatistics tableStatistics;
+
+    public TableConversionTask(final String tableName,
+                               final Path unlPath,
+                               final TableConverter tableConverter,
+                               final Path outputPath,
+                               final ITableOutputSinkFactory outputSinkFactory,
+                               final VerificationReport verificationReport,
+                               final ErrorLimit errorLimit,
+                               final Semaphore cpuPermits,
+                               final long smallTableSize,
+                               final ConversionContextPool conversionContextPool,
+                               final TableStatistics tableStatistics) {
+        this.tableName = tableName;
+        this.unlPath = unlPath;
+        this.tableConverter = tableConverter;
+        this.outputPath = outputPath;
+        this.outputSinkFactory = outputSinkFactory;
+        this.verificationReport = verificationReport;
+        this.errorLimit = errorLimit;
+        this.cpuPermits = cpuPermits;
+        this.smallTableSize = smallTableSize;
+        this.conversionContextPool = conversionContextPool;
+        this.tableStatistics = tableStatistics;
+    }
+
+    // one converted table per csv part
+    @Override
+    public List<ConvertedTable> call() throws IOException, InterruptedException {
+        final String csvName = this.tableName + ".csv";
+        final List<ConvertedTable> convertedTables = new ArrayList<>();
+        final TableVerification tableVerification = this.verificationReport != null ? this.tableConverter.newTableVerification(this.tableName) : null;
+        try (final FileChannel unlChannel = FileChannel.open(this.unlPath, StandardOpenOption.READ);
+             final RejectFile rejectFile = new RejectFile(this.outputPath.resolve(this.tableName + ".rejects.unl"), TableConverter.UNL_CHARSET, this.errorLimit)) {
+            // small tables are read and written with a single call and without their own log line
+            final boolean smallTable = unlChannel.size() <= this.smallTableSize;
+            if (!smallTable) {
+                System.out.println("processing " + this.unlPath + " for table " + this.tableName);
+            }
+
+            final ConversionContext conversionContext = this.conversionContextPool.acquire();
+            try (final ITableOutputSink outputSink = this.outputSinkFactory.open(this.tableName, this.tableConverter.getOutputColumnNames(), conversionContext, smallTable)) {
+                try {
+                    // a small table is read with one call, which waits without the permit, the sort buffer of a large table
+                    // is only filled while holding it
+                    final UNLRecordReader recordReader = conversionContext.openUNL(smallTable ? new PermitReleasingChannel(unlChannel, this.cpuPermits) : unlChannel,
+                            TableConverter.UNL_CHARSET, getReadSize(unlChannel.size(), smallTable));
+                    this.cpuPermits.acquire();
+                    try {
+                        this.tableConverter.convert(recordReader, conversionContext, outputSink, tableVerification, rejectFile);
+                    } finally {
+                        this.cpuPermits.release();
+                    }
+                    // a sorted sink merges its runs here
+                    outputSink.finish();
+                } catch (final IOException | RuntimeException e) {
+                    // closing must not load the rows converted so far
+                    outputSink.abort();
+                    throw e;
+                }
+                for (final String partCsvName : outputSink.getCsvNames().isEmpty() ? List.of(csvName) : outputSink.getCsvNames()) {
+                    convertedTables.add(new ConvertedTable(this.tableName, partCsvName, outputSink.getOrderColumnNames()));
+                }
+            } catch (final IOException | RuntimeException e) {
+                // no half written csv file is left behind
+                Files.deleteIfExists(this.outputPath.resolve(csvName));
+                PartitionedCsvTableOutputSink.deleteParts(this.outputPath, this.tableName);
+                throw e;
+            } finally {
+                this.conversionContextPool.release(conversionContext);
+            }
+
+            // the output side is read back from the closed files, so it covers what was escaped, encoded and written
+            if (tableVerification != null) {
+                for (final ConvertedTable convertedTable : convertedTables) {
+                    tableVerification.addOutputCsv(this.outputPath.resolve(convertedTable.getCsvName()),
+                            this.verificationReport.getCsvCharset(), this.verificationReport.getCsvFormat());
+                }
+                this.verificationReport.add(tableVerification);
+            }
+
+            this.tableConverter.getFormatterResultCaches().forEach((columnName, formatterResultCache) -> {
+                if (formatterResultCache.isEnabled()) {
+                    System.out.printf("formatter cache of %s.%s: %d hits, %d misses (%.1f%%)%n", this.tableName, columnName,
+                            formatterResultCache.getHits(), formatterResultCache.getMisses(), formatterResultCache.getHitRate() * 100);
+                }
+            });
+            if (this.tableConverter.getFilteredRecordCount() > 0) {
+                System.out.println("filtered " + this.tableConverter.getFilteredRecordCount() + " records of table " + this.tableName);
+            }
+            if (rejectFile.getRejectedCount() > 0) {
+                System.out.println("rejected " + rejectFile.getRejectedCount() + " records of table " + this.tableName);
+            }
+        }
+        return convertedTables;
+    }
+
+    // wide records are read in larger chunks, so the buffer holds many of them
+    private int getReadSize(final long unlSize, final boolean smallTable) {
+        if (smallTable) {
+            return (int) unlSize;
+        }
+        if (this.tableStatistics != null) {
+            return (int) Math.min(MAX_READ_SIZE, Math.max(ConversionContext.DEFAULT_READ_SIZE, this.tableStatistics.getMaxRecordWidth() * 256L));
+        }
+        return ConversionContext.DEFAULT_READ_SIZE;
+    }
+
+    // gives the cpu permit of the converting table back while a read waits for the file
+    private static class PermitReleasingChannel implements ReadableByteChannel {
+
+        private final ReadableByteChannel channel;
+        private final Semaphore cpuPermits;
+
+        private PermitReleasingChannel(final ReadableByteChannel channel, final Semaphore cpuPermits) {
+            this.channel = channel;
+            this.cpuPermits = cpuPermits;
+        }
+
+        @Override
+        public int read(final ByteBuffer dst) throws IOException {
+            this.cpuPermits.release();
+            try {
+                return this.channel.read(dst);
+            } finally {
+                this.cpuPermits.acquireUninterruptibly();
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.channel.isOpen();
+        }
+
+        // the unl channel is closed by the task
+        @Override
+        public void close() {
+        }
+    }
+}
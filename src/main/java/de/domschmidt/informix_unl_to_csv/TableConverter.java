@@ -0,0 +1,229 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.analyze.ColumnStatistics;
+import de.domschmidt.informix_unl_to_csv.analyze.TableStatistics;
+import de.domschmidt.informix_unl_to_csv.defaults.ITableDefaultValue;
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNode;
+import de.domschmidt.informix_unl_to_csv.expression.ValueNode;
+import de.domschmidt.informix_unl_to_csv.formatter.ColumnFormatterChain;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterResultCache;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+import de.domschmidt.informix_unl_to_csv.verify.TableVerification;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TableConverter {
+
+    public static final Charset UNL_CHARSET = Charset.forName("IBM850");
+
+    private final int unlColumnCount;
+    private final List<String> outputColumnNames;
+    // per output column, index of the unl cell or -1 for a column filled by a default or derived
+    private final int[] unlCellIndices;
+    // per output column, null unless computed from the cells of the record
+    private final ValueNode[] derivedColumns;
+    // null to convert every record, otherwise only those it is true for
+    private final PredicateNode rowFilter;
+    private long filteredRecordCount;
+    private final ColumnFormatterChain[] formatterChains;
+    // per output column, null unless a formatter converts a unl cell
+    private final FormatterResultCache[] formatterResultCaches;
+    private final ITableDefaultValue[] columnDefaults;
+    // reused for every formatted cell
+    private final FormatterOutput formatterOutput = new FormatterOutput();
+    private final FormatterOutput defaultValueChars = new FormatterOutput();
+
+    public TableConverter(final List<String> importOrderedColumnNames,
+                          final List<String> outputColumnNames,
+                          final Map<String, List<IColumnFormatter>> customTableFormatters,
+                          final Map<String, ITableDefaultValue> customTableDefaults,
+                          final Map<String, ValueNode> derivedColumns,
+                          final PredicateNode rowFilter,
+                          final FormatterCacheMode formatterCacheMode,
+                          final int formatterCacheSize,
+                          final TableStatistics tableStatistics) {
+        this.unlColumnCount = importOrderedColumnNames.size();
+        this.outputColumnNames = outputColumnNames;
+        this.unlCellIndices = new int[outputColumnNames.size()];
+        this.formatterChains = new ColumnFormatterChain[outputColumnNames.size()];
+        this.formatterResultCaches = new FormatterResultCache[outputColumnNames.size()];
+        this.columnDefaults = new ITableDefaultValue[outputColumnNames.size()];
+        this.derivedColumns = new ValueNode[outputColumnNames.size()];
+        this.rowFilter = rowFilter;
+
+        for (int currentColumnIdx = 0; currentColumnIdx < outputColumnNames.size(); currentColumnIdx++) {
+            final String currentColumnName = outputColumnNames.get(currentColumnIdx);
+            if (derivedColumns != null && derivedColumns.containsKey(currentColumnName)) {
+                // replaces the unl cell of the same name, derived columns are not formatted
+                this.derivedColumns[currentColumnIdx] = derivedColumns.get(currentColumnName);
+                this.unlCellIndices[currentColumnIdx] = -1;
+                continue;
+            }
+            this.unlCellIndices[currentColumnIdx] = importOrderedColumnNames.indexOf(currentColumnName);
+            if (this.unlCellIndices[currentColumnIdx] < 0) {
+                if (customTableDefaults == null || !customTableDefaults.containsKey(currentColumnName)) {
+                    throw new IllegalArgumentException("no default for column " + currentColumnName);
+                }
+                this.columnDefaults[currentColumnIdx] = customTableDefaults.get(currentColumnName);
+            }
+            if (customTableFormatters != null && customTableFormatters.containsKey(currentColumnName)) {
+                this.formatterChains[currentColumnIdx] = new ColumnFormatterChain(customTableFormatters.get(currentColumnName));
+            }
+            if (this.formatterChains[currentColumnIdx] != null && this.unlCellIndices[currentColumnIdx] >= 0) {
+                this.formatterResultCaches[currentColumnIdx] = new FormatterResultCache(this.formatterChains[currentColumnIdx], formatterCacheMode, formatterCacheSize);
+                final ColumnStatistics columnStatistics = tableStatistics != null ? tableStatistics.getColumnStatistics(currentColumnName) : null;
+                if (columnStatistics != null) {
+                    this.formatterResultCaches[currentColumnIdx].setDistinctEstimate(columnStatistics.getDistinctEstimate(), tableStatistics.getRecordCount());
+                }
+            }
+        }
+    }
+
+    public List<String> getOutputColumnNames() {
+        return this.outputColumnNames;
+    }
+
+    public long getFilteredRecordCount() {
+        return this.filteredRecordCount;
+    }
+
+    // formatter caches by output column name
+    public Map<String, FormatterResultCache> getFormatterResultCaches() {
+        final Map<String, FormatterResultCache> formatterResultCaches = new LinkedHashMap<>();
+        for (int currentColumnIdx = 0; currentColumnIdx < this.formatterResultCaches.length; currentColumnIdx++) {
+            if (this.formatterResultCaches[currentColumnIdx] != null) {
+                formatterResultCaches.put(this.outputColumnNames.get(currentColumnIdx), this.formatterResultCaches[currentColumnIdx]);
+            }
+        }
+        return formatterResultCaches;
+    }
+
+    public TableVerification newTableVerification(final String tableName) {
+        final int[] comparableUnlCellIndices = new int[this.unlCellIndices.length];
+        for (int currentColumnIdx = 0; currentColumnIdx < this.unlCellIndices.length; currentColumnIdx++) {
+            comparableUnlCellIndices[currentColumnIdx] = this.formatterChains[currentColumnIdx] == null ? this.unlCellIndices[currentColumnIdx] : -1;
+        }
+        return new TableVerification(tableName, this.unlColumnCount, this.outputColumnNames, comparableUnlCellIndices);
+    }
+
+    // tableVerification is optional, records which cannot be converted go to the rejectFile
+    public long convert(final UNLRecordReader recordReader,
+                        final ConversionContext conversionContext,
+                        final ITableOutputSink outputSink,
+                        final TableVerification tableVerification,
+                        final RejectFile rejectFile) throws IOException {
+        final UNLRecord record = conversionContext.getRecord();
+        final ConvertedRow convertedRow = conversionContext.getConvertedRow();
+        long rowCount = 0;
+        while (recordReader.next(record)) {
+            // the record ends with a delimiter, so there is one field more than columns
+            if (record.getFieldCount() <= this.unlColumnCount) {
+                rejectRecord(record, "expected " + this.unlColumnCount + " fields, found " + (record.getFieldCount() - 1), tableVerification, rejectFile);
+                continue;
+            }
+
+            try {
+                // dropped before anything is formatted, escaped or encoded
+                if (this.rowFilter != null && this.rowFilter.test(record) != PredicateNode.TRUE) {
+                    this.filteredRecordCount++;
+                    if (tableVerification != null) {
+                        tableVerification.addFilteredRecord();
+                    }
+                    continue;
+                }
+                convertRow(record, convertedRow);
+            } catch (final RuntimeException e) {
+                rejectRecord(record, e.getClass().getSimpleName() + ": " + e.getMessage(), tableVerification, rejectFile);
+                continue;
+            }
+            if (tableVerification != null) {
+                tableVerification.addUnlRecord(record);
+            }
+            outputSink.writeRow(convertedRow);
+            rowCount++;
+        }
+        return rowCount;
+    }
+
+    private static void rejectRecord(final UNLRecord record,
+                                     final String reason,
+                                     final TableVerification tableVerification,
+                                     final RejectFile rejectFile) throws IOException {
+        if (tableVerification != null) {
+            tableVerification.addRejectedRecord();
+        }
+        rejectFile.reject(record, reason);
+    }
+
+    // plain columns only reference the record, no string is created for them, nulls are not formatted
+    private void convertRow(final UNLRecord record, final ConvertedRow convertedRow) {
+        convertedRow.reset(record.getChars(), this.unlCellIndices.length);
+        for (int currentColumnIdx = 0; currentColumnIdx < this.unlCellIndices.length; currentColumnIdx++) {
+            final int unlCellIdx = this.unlCellIndices[currentColumnIdx];
+            if (this.derivedColumns[currentColumnIdx] != null) {
+                setDerivedValue(record, convertedRow, currentColumnIdx, this.derivedColumns[currentColumnIdx]);
+            } else if (unlCellIdx >= 0 && record.isNull(unlCellIdx)) {
+                convertedRow.setNull(currentColumnIdx);
+            } else if (this.formatterResultCaches[currentColumnIdx] != null) {
+                this.formatterResultCaches[currentColumnIdx].format(record.getChars(), record.getFieldStart(unlCellIdx), record.getFieldLength(unlCellIdx), this.formatterOutput);
+                setFormatterOutput(convertedRow, currentColumnIdx, this.formatterOutput);
+            } else if (this.formatterChains[currentColumnIdx] != null) {
+                // a formatted default
+                final String defaultValue = this.columnDefaults[currentColumnIdx].get();
+                if (defaultValue == null) {
+                    convertedRow.setNull(currentColumnIdx);
+                    continue;
+                }
+                this.defaultValueChars.clear();
+                this.defaultValueChars.append(defaultValue);
+                this.formatterOutput.clear();
+                this.formatterChains[currentColumnIdx].format(this.defaultValueChars.getChars(), 0, this.defaultValueChars.getLength(), this.formatterOutput);
+                setFormatterOutput(convertedRow, currentColumnIdx, this.formatterOutput);
+            } else if (unlCellIdx < 0) {
+                setValueOrNull(convertedRow, currentColumnIdx, this.columnDefaults[currentColumnIdx].get());
+            } else {
+                convertedRow.setRecordRange(currentColumnIdx, record.getFieldStart(unlCellIdx), record.getFieldLength(unlCellIdx));
+            }
+        }
+    }
+
+    // a value still referencing the record chars (e.g. a substr) is not copied
+    private static void setDerivedValue(final UNLRecord record, final ConvertedRow convertedRow, final int columnIdx, final ValueNode derivedColumn) {
+        derivedColumn.evaluate(record);
+        if (derivedColumn.isNull()) {
+            convertedRow.setNull(columnIdx);
+        } else if (derivedColumn.getChars() == record.getChars()) {
+            convertedRow.setRecordRange(columnIdx, derivedColumn.getStart(), derivedColumn.getLength());
+        } else {
+            convertedRow.setValue(columnIdx, derivedColumn.getChars(), derivedColumn.getStart(), derivedColumn.getLength());
+        }
+    }
+
+    private static void setFormatterOutput(final ConvertedRow convertedRow, final int columnIdx, final FormatterOutput formatterOutput) {
+        if (formatterOutput.isNull()) {
+            convertedRow.setNull(columnIdx);
+        } else {
+            convertedRow.setValue(columnIdx, formatterOutput.getChars(), 0, formatterOutput.getLength());
+        }
+    }
+
+    // a default may return null
+    private static void setValueOrNull(final ConvertedRow convertedRow, final int columnIdx, final String value) {
+        if (value != null) {
+            convertedRow.setValue(columnIdx, value);
+        } else {
+            convertedRow.setNull(columnIdx);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.analyze.TableStatistics;
+import de.domschmidt.informix_unl_to_csv.defaults.ITableDefaultValue;
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionParser;
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNode;
+import de.domschmidt.informix_unl_to_csv.expression.ValueNode;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+import de.domschmidt.informix_unl_to_csv.schema.Table;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// the built in and the configured customizations of every table, all maps are keyed by the table name without schema,
+// the methods take the normalized table name
+public class TableConverterFactory {
+
+    private final Map<String, Map<String, IColumnFormatter>> customTableConverters;
+    private final Map<String, Map<String, ITableDefaultValue>> customTableColumnDefaults;
+    private final Map<String, List<String>> customTableColumnOrder;
+    private final Map<String, Map<String, List<IColumnFormatter>>> tableColumnFormatters;
+    private final Map<String, Map<String, String>> tableDerivedColumns;
+    private final Map<String, Map<String, IColumnFormatter>> tableColumnMasks;
+    private final Map<String, String> tableRowFilters;
+    private final FormatterCacheMode formatterCacheMode;
+    private final int formatterCacheSize;
+
+    public TableConverterFactory(final Map<String, Map<String, IColumnFormatter>> customTableConverters,
+                                 final Map<String, Map<String, ITableDefaultValue>> customTableColumnDefaults,
+                                 final Map<String, List<String>> customTableColumnOrder,
+                                 final Map<String, Map<String, List<IColumnFormatter>>> tableColumnFormatters,
+                                 final Map<String, Map<String, String>> tableDerivedColumns,
+                                 final Map<String, Map<String, IColumnFormatter>> tableColumnMasks,
+                                 final Map<String, String> tableRowFilters,
+                                 final FormatterCacheMode formatterCacheMode,
+                                 final int formatterCacheSize) {
+        this.customTableConverters = customTableConverters;
+        this.customTableColumnDefaults = customTableColumnDefaults;
+        this.customTableColumnOrder = customTableColumnOrder;
+        this.tableColumnFormatters = tableColumnFormatters;
+        this.tableDerivedColumns = tableDerivedColumns;
+        this.tableColumnMasks = tableColumnMasks;
+        this.tableRowFilters = tableRowFilters;
+        this.formatterCacheMode = formatterCacheMode;
+        this.formatterCacheSize = formatterCacheSize;
+    }
+
+    // tableStatistics may be null
+    public TableConverter newTableConverter(final String normalizedTableName,
+                                            final Table table,
+                                            final PredicateNode rowFilter,
+                                            final TableStatistics tableStatistics) throws IOException {
+        return newTableConverter(normalizedTableName, table, compileDerivedColumns(normalizedTableName, table), rowFilter, tableStatistics);
+    }
+
+    // every pass of a diff gets a converter of its own, the diff filter replaces the row filter
+    public Function<PredicateNode, TableConverter> getDiffConverterFactory(final String normalizedTableName, final Table table) throws IOException {
+        final Map<String, ValueNode> derivedColumns = compileDerivedColumns(normalizedTableName, table);
+        return diffFilter -> newTableConverter(normalizedTableName, table, derivedColumns, diffFilter, null);
+    }
+
+    private TableConverter newTableConverter(final String normalizedTableName,
+                                             final Table table,
+                                             final Map<String, ValueNode> derivedColumns,
+                                             final PredicateNode rowFilter,
+                                             final TableStatistics tableStatistics) {
+        return new TableConverter(
+                table.getColumnNames(),
+                getOutputColumnNames(normalizedTableName, table),
+                getColumnFormatters(normalizedTableName),
+                getColumnDefaults(normalizedTableName),
+                derivedColumns,
+                rowFilter,
+                this.formatterCacheMode,
+                this.formatterCacheSize,
+                tableStatistics
+        );
+    }
+
+    // the custom or unl order, derived columns which are not a unl column are appended
+    public List<String> getOutputColumnNames(final String normalizedTableName, final Table table) {
+        final List<String> outputColumnNames = new ArrayList<>(this.customTableColumnOrder.getOrDefault(getTableNameWithoutSchema(normalizedTableName), table.getColumnNames()));
+        for (final String derivedColumnName : getDerivedColumnExpressions(normalizedTableName).keySet()) {
+            if (!outputColumnNames.contains(derivedColumnName)) {
+                outputColumnNames.add(derivedColumnName);
+            }
+        }
+        return outputColumnNames;
+    }
+
+    // the configured chains replace the built in formatter of their column, a mask is applied to the formatted value
+    public Map<String, List<IColumnFormatter>> getColumnFormatters(final String normalizedTableName) {
+        final String tableNameWithoutSchema = getTableNameWithoutSchema(normalizedTableName);
+        final Map<String, List<IColumnFormatter>> columnFormatters = new HashMap<>();
+        if (this.customTableConverters.containsKey(tableNameWithoutSchema)) {
+            for (final Map.Entry<String, IColumnFormatter> columnFormatter : this.customTableConverters.get(tableNameWithoutSchema).entrySet()) {
+                columnFormatters.put(columnFormatter.getKey(), List.of(columnFormatter.getValue()));
+            }
+        }
+        columnFormatters.putAll(this.tableColumnFormatters.getOrDefault(tableNameWithoutSchema, Map.of()));
+        for (final Map.Entry<String, IColumnFormatter> columnMask : this.tableColumnMasks.getOrDefault(tableNameWithoutSchema, Map.of()).entrySet()) {
+            final List<IColumnFormatter> maskedChain = new ArrayList<>(columnFormatters.getOrDefault(columnMask.getKey(), List.of()));
+            maskedChain.add(columnMask.getValue());
+            columnFormatters.put(columnMask.getKey(), maskedChain);
+        }
+        return columnFormatters;
+    }
+
+    // null without defaults
+    public Map<String, ITableDefaultValue> getColumnDefaults(final String normalizedTableName) {
+        return this.customTableColumnDefaults.get(getTableNameWithoutSchema(normalizedTableName));
+    }
+
+    public Set<String> getDerivedColumnNames(final String normalizedTableName) {
+        return getDerivedColumnExpressions(normalizedTableName).keySet();
+    }
+
+    public Set<String> getMaskedColumnNames(final String normalizedTableName) {
+        return this.tableColumnMasks.getOrDefault(getTableNameWithoutSchema(normalizedTableName), Map.of()).keySet();
+    }
+
+    // compiled for every converter, the nodes keep the values of the record being converted
+    public Map<String, ValueNode> compileDerivedColumns(final String normalizedTableName, final Table table) throws IOException {
+        final Map<String, ValueNode> derivedColumns = new HashMap<>();
+        for (final Map.Entry<String, String> derivedColumnExpression : getDerivedColumnExpressions(normalizedTableName).entrySet()) {
+            derivedColumns.put(derivedColumnExpression.getKey(), ExpressionParser.parseValue(derivedColumnExpression.getValue(), table.getColumns()));
+        }
+        return derivedColumns;
+    }
+
+    // null without a filter
+    public PredicateNode compileRowFilter(final String normalizedTableName, final Table table) throws IOException {
+        final String rowFilterExpression = this.tableRowFilters.get(getTableNameWithoutSchema(normalizedTableName));
+        return rowFilterExpression != null ? ExpressionParser.parsePredicate(rowFilterExpression, table.getColumns()) : null;
+    }
+
+    private Map<String, String> getDerivedColumnExpressions(final String normalizedTableName) {
+        return this.tableDerivedColumns.getOrDefault(getTableNameWithoutSchema(normalizedTableName), Map.of());
+    }
+
+    private static String getTableNameWithoutSchema(final String normalizedTableName) {
+        return normalizedTableName.substring(normalizedTableName.indexOf(".") + 1);
+    }
+}
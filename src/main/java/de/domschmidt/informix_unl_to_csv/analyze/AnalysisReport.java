@@ -0,0 +1,102 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class AnalysisReport {
+
+    private static final String HEADER = "table;column;records;bytes;max_record_width;min_width;max_width;avg_width;null_count;distinct_estimate";
+
+    private final Map<String, TableStatistics> tableStatistics = new LinkedHashMap<>();
+
+    public synchronized void add(final TableStatistics tableStatistics) {
+        this.tableStatistics.put(tableStatistics.getTableName(), tableStatistics);
+    }
+
+    // null if the table was not analyzed
+    public synchronized TableStatistics get(final String tableName) {
+        return this.tableStatistics.get(tableName);
+    }
+
+    public synchronized long getRecordCount() {
+        return this.tableStatistics.values().stream().mapToLong(TableStatistics::getRecordCount).sum();
+    }
+
+    public synchronized long getBytes() {
+        return this.tableStatistics.values().stream().mapToLong(TableStatistics::getBytes).sum();
+    }
+
+    // one line per unl column, the table values are repeated on every line
+    public synchronized void write(final Path reportPath) throws IOException {
+        try (final BufferedWriter reportWriter = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            reportWriter.write(HEADER + "\n");
+            for (final TableStatistics currentTableStatistics : this.tableStatistics.values()) {
+                for (final ColumnStatistics columnStatistics : currentTableStatistics.getColumnStatistics()) {
+                    reportWriter.write(currentTableStatistics.getTableName()
+                            + ";" + columnStatistics.getColumnName()
+                            + ";" + currentTableStatistics.getRecordCount()
+                            + ";" + currentTableStatistics.getBytes()
+                            + ";" + currentTableStatistics.getMaxRecordWidth()
+                            + ";" + columnStatistics.getMinWidth()
+                            + ";" + columnStatistics.getMaxWidth()
+                            + ";" + String.format(Locale.ROOT, "%.1f", columnStatistics.getAverageWidth())
+                            + ";" + columnStatistics.getNullCount()
+                            + ";" + columnStatistics.getDistinctEstimate() + "\n");
+                }
+            }
+        }
+    }
+
+    // reads a report written by a previous --analyze run
+    public static AnalysisReport read(final Path reportPath) throws IOException {
+        final List<String> lines = Files.readAllLines(reportPath, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IOException(reportPath + " is not an analysis report");
+        }
+        final Map<String, List<ColumnStatistics>> columnStatisticsPerTable = new LinkedHashMap<>();
+        final Map<String, String[]> tableValuesPerTable = new LinkedHashMap<>();
+        for (final String line : lines.subList(1, lines.size())) {
+            final String[] values = line.split(";");
+            if (values.length != 10) {
+                throw new IOException("invalid line in " + reportPath + ": " + line);
+            }
+            try {
+                Long.parseLong(values[2]);
+                Long.parseLong(values[3]);
+                Integer.parseInt(values[4]);
+                columnStatisticsPerTable.computeIfAbsent(values[0], tableName -> new ArrayList<>()).add(new ColumnStatistics(
+                        values[1],
+                        Integer.parseInt(values[5]),
+                        Integer.parseInt(values[6]),
+                        Double.parseDouble(values[7]),
+                        Long.parseLong(values[8]),
+                        Long.parseLong(values[9])
+                ));
+            } catch (final NumberFormatException e) {
+                throw new IOException("invalid line in " + reportPath + ": " + line, e);
+            }
+            tableValuesPerTable.put(values[0], values);
+        }
+
+        final AnalysisReport analysisReport = new AnalysisReport();
+        columnStatisticsPerTable.forEach((tableName, columnStatistics) -> {
+            final String[] tableValues = tableValuesPerTable.get(tableName);
+            analysisReport.add(new TableStatistics(
+                    tableName,
+                    Long.parseLong(tableValues[3]),
+                    Long.parseLong(tableValues[2]),
+                    Integer.parseInt(tableValues[4]),
+                    columnStatistics
+            ));
+        });
+        return analysisReport;
+    }
+}
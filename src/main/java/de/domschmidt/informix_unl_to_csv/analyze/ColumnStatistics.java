@@ -0,0 +1,50 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+public class ColumnStatistics {
+
+    private final String columnName;
+    // widths in chars after unescaping, a null does not count, an empty string does
+    private final int minWidth;
+    private final int maxWidth;
+    private final double averageWidth;
+    private final long nullCount;
+    private final long distinctEstimate;
+
+    public ColumnStatistics(final String columnName,
+                            final int minWidth,
+                            final int maxWidth,
+                            final double averageWidth,
+                            final long nullCount,
+                            final long distinctEstimate) {
+        this.columnName = columnName;
+        this.minWidth = minWidth;
+        this.maxWidth = maxWidth;
+        this.averageWidth = averageWidth;
+        this.nullCount = nullCount;
+        this.distinctEstimate = distinctEstimate;
+    }
+
+    public String getColumnName() {
+        return this.columnName;
+    }
+
+    public int getMinWidth() {
+        return this.minWidth;
+    }
+
+    public int getMaxWidth() {
+        return this.maxWidth;
+    }
+
+    public double getAverageWidth() {
+        return this.averageWidth;
+    }
+
+    public long getNullCount() {
+        return this.nullCount;
+    }
+
+    public long getDistinctEstimate() {
+        return this.distinctEstimate;
+    }
+}
@@ -0,0 +1,95 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContext;
+import de.domschmidt.informix_unl_to_csv.ConversionContextPool;
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+// streams a unl file once without converting it
+public class TableAnalysisTask implements Callable<TableStatistics> {
+
+    private static final int READ_SIZE = 1024 * 1024;
+
+    private final String tableName;
+    private final Path unlPath;
+    private final List<String> columnNames;
+    private final ConversionContextPool conversionContextPool;
+
+    public TableAnalysisTask(final String tableName,
+                             final Path unlPath,
+                             final List<String> columnNames,
+                             final ConversionContextPool conversionContextPool) {
+        this.tableName = tableName;
+        this.unlPath = unlPath;
+        this.columnNames = columnNames;
+        this.conversionContextPool = conversionContextPool;
+    }
+
+    @Override
+    public TableStatistics call() throws IOException {
+        final int columnCount = this.columnNames.size();
+        final int[] minWidths = new int[columnCount];
+        final int[] maxWidths = new int[columnCount];
+        final long[] totalWidths = new long[columnCount];
+        final long[] nullCounts = new long[columnCount];
+        final HyperLogLog[] distinctCounters = new HyperLogLog[columnCount];
+        Arrays.fill(minWidths, Integer.MAX_VALUE);
+        for (int currentColumnIdx = 0; currentColumnIdx < columnCount; currentColumnIdx++) {
+            distinctCounters[currentColumnIdx] = new HyperLogLog();
+        }
+        long recordCount = 0;
+        int maxRecordWidth = 0;
+
+        final long bytes;
+        final ConversionContext conversionContext = this.conversionContextPool.acquire();
+        try (final FileChannel unlChannel = FileChannel.open(this.unlPath, StandardOpenOption.READ)) {
+            bytes = unlChannel.size();
+            final UNLRecordReader recordReader = conversionContext.openUNL(unlChannel, TableConverter.UNL_CHARSET, (int) Math.min(bytes, READ_SIZE));
+            final UNLRecord record = conversionContext.getRecord();
+            while (recordReader.next(record)) {
+                int recordWidth = 0;
+                // a record with too few fields is counted, but only its existing fields are analyzed
+                for (int currentColumnIdx = 0; currentColumnIdx < columnCount && currentColumnIdx < record.getFieldCount(); currentColumnIdx++) {
+                    final int width = record.getFieldLength(currentColumnIdx);
+                    recordWidth += width + 1;
+                    if (record.isNull(currentColumnIdx)) {
+                        nullCounts[currentColumnIdx]++;
+                        continue;
+                    }
+                    minWidths[currentColumnIdx] = Math.min(minWidths[currentColumnIdx], width);
+                    maxWidths[currentColumnIdx] = Math.max(maxWidths[currentColumnIdx], width);
+                    totalWidths[currentColumnIdx] += width;
+                    distinctCounters[currentColumnIdx].add(record.getChars(), record.getFieldStart(currentColumnIdx), width);
+                }
+                maxRecordWidth = Math.max(maxRecordWidth, recordWidth);
+                recordCount++;
+            }
+        } finally {
+            this.conversionContextPool.release(conversionContext);
+        }
+
+        final List<ColumnStatistics> columnStatistics = new ArrayList<>();
+        for (int currentColumnIdx = 0; currentColumnIdx < columnCount; currentColumnIdx++) {
+            final long valueCount = recordCount - nullCounts[currentColumnIdx];
+            columnStatistics.add(new ColumnStatistics(
+                    this.columnNames.get(currentColumnIdx),
+                    valueCount > 0 ? minWidths[currentColumnIdx] : 0,
+                    maxWidths[currentColumnIdx],
+                    valueCount > 0 ? (double) totalWidths[currentColumnIdx] / valueCount : 0,
+                    nullCounts[currentColumnIdx],
+                    distinctCounters[currentColumnIdx].estimate()
+            ));
+        }
+        return new TableStatistics(this.tableName, bytes, recordCount, maxRecordWidth, columnStatistics);
+    }
+}
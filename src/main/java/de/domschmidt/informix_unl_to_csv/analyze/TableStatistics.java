@@ -0,0 +1,55 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+import java.util.List;
+
+public class TableStatistics {
+
+    private final String tableName;
+    private final long bytes;
+    private final long recordCount;
+    private final int maxRecordWidth;
+    // in unl column order
+    private final List<ColumnStatistics> columnStatistics;
+
+    public TableStatistics(final String tableName,
+                           final long bytes,
+                           final long recordCount,
+                           final int maxRecordWidth,
+                           final List<ColumnStatistics> columnStatistics) {
+        this.tableName = tableName;
+        this.bytes = bytes;
+        this.recordCount = recordCount;
+        this.maxRecordWidth = maxRecordWidth;
+        this.columnStatistics = columnStatistics;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    public int getMaxRecordWidth() {
+        return this.maxRecordWidth;
+    }
+
+    public List<ColumnStatistics> getColumnStatistics() {
+        return this.columnStatistics;
+    }
+
+    // null if the column was not analyzed
+    public ColumnStatistics getColumnStatistics(final String columnName) {
+        for (final ColumnStatistics currentColumnStatistics : this.columnStatistics) {
+            if (currentColumnStatistics.getColumnName().equals(columnName)) {
+                return currentColumnStatistics;
+            }
+        }
+        return null;
+    }
+}
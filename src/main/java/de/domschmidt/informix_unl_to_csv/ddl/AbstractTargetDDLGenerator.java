@@ -0,0 +1,198 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+import de.domschmidt.informix_unl_to_csv.schema.ColumnType;
+import de.domschmidt.informix_unl_to_csv.schema.Constraint;
+import de.domschmidt.informix_unl_to_csv.schema.ConstraintType;
+import de.domschmidt.informix_unl_to_csv.schema.Index;
+import de.domschmidt.informix_unl_to_csv.schema.Schema;
+import de.domschmidt.informix_unl_to_csv.schema.Table;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// create.<dialect>.sql creates the bare tables, post-load.<dialect>.sql adds keys, indexes and checks after the bulk load
+public abstract class AbstractTargetDDLGenerator {
+
+    protected final TypeMapping typeMapping;
+
+    protected AbstractTargetDDLGenerator(final Map<String, String> defaultTypeTemplates, final Map<String, String> typeTemplateOverrides) {
+        this.typeMapping = new TypeMapping(defaultTypeTemplates, typeTemplateOverrides);
+    }
+
+    // targetTableNames maps the informix names to the (remapped) target names, targetColumnNames are by target name
+    public void generate(final Path outputPath,
+                         final Schema schema,
+                         final Map<String, String> targetTableNames,
+                         final Map<String, List<String>> targetColumnNames) throws IOException {
+        try (final BufferedWriter createWriter = newScriptWriter(outputPath.resolve("create." + getDialectName() + ".sql"))) {
+            final Set<String> targetSchemaNames = new LinkedHashSet<>();
+            for (final String targetTableName : targetTableNames.values()) {
+                if (targetTableName.contains(".")) {
+                    targetSchemaNames.add(targetTableName.substring(0, targetTableName.indexOf('.')));
+                }
+            }
+            for (final String targetSchemaName : targetSchemaNames) {
+                writeCreateSchema(createWriter, targetSchemaName);
+            }
+            createWriter.write("\n");
+
+            for (final Map.Entry<String, String> targetTableName : targetTableNames.entrySet()) {
+                final Table table = schema.getTable(targetTableName.getKey());
+                writeCreateTable(createWriter, targetTableName.getValue(), table, targetColumnNames.get(targetTableName.getValue()));
+            }
+        }
+
+        // keys first, as the foreign keys need the referenced keys
+        try (final BufferedWriter postLoadWriter = newScriptWriter(outputPath.resolve("post-load." + getDialectName() + ".sql"))) {
+            for (final Map.Entry<String, String> targetTableName : targetTableNames.entrySet()) {
+                final Table table = schema.getTable(targetTableName.getKey());
+                for (final Constraint constraint : table.getConstraints()) {
+                    if (constraint.getType() == ConstraintType.PRIMARY_KEY || constraint.getType() == ConstraintType.UNIQUE) {
+                        writeAddConstraint(postLoadWriter, targetTableName.getValue(), constraint, constraint.getType() == ConstraintType.PRIMARY_KEY ? "PRIMARY KEY" : "UNIQUE",
+                                "(" + quoteColumnNames(constraint.getColumnNames()) + ")");
+                    }
+                }
+                for (final Column column : table.getColumns()) {
+                    if (column.isSerial() && targetColumnNames.get(targetTableName.getValue()).contains(column.getName())) {
+                        writeSerialReset(postLoadWriter, targetTableName.getValue(), column, this.typeMapping.map(column.getType()));
+                    }
+                }
+            }
+            postLoadWriter.write("\n");
+
+            for (final Index index : schema.getIndexes()) {
+                if (targetTableNames.containsKey(index.getTableName())) {
+                    writeCreateIndex(postLoadWriter, targetTableNames.get(index.getTableName()), index);
+                }
+            }
+            postLoadWriter.write("\n");
+
+            for (final Map.Entry<String, String> targetTableName : targetTableNames.entrySet()) {
+                final Table table = schema.getTable(targetTableName.getKey());
+                for (final Constraint constraint : table.getConstraints()) {
+                    if (constraint.getType() == ConstraintType.FOREIGN_KEY) {
+                        writeForeignKey(postLoadWriter, schema, targetTableNames, targetTableName.getValue(), constraint);
+                    } else if (constraint.getType() == ConstraintType.CHECK) {
+                        writeAddConstraint(postLoadWriter, targetTableName.getValue(), constraint, "CHECK", "(" + constraint.getCheckCondition() + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    protected abstract String getDialectName();
+
+    protected abstract String quoteIdentifier(String identifier);
+
+    protected abstract void writeCreateSchema(BufferedWriter createWriter, String schemaName) throws IOException;
+
+    // the next generated value has to follow the loaded values
+    protected abstract void writeSerialReset(BufferedWriter postLoadWriter, String tableName, Column column, String targetType) throws IOException;
+
+    protected abstract String getCurrentDateExpression();
+
+    protected abstract String getCurrentTimestampExpression();
+
+    // the order of the output columns, columns without informix type are filled by defaults
+    protected void writeCreateTable(final BufferedWriter createWriter, final String tableName, final Table table, final List<String> columnNames) throws IOException {
+        createWriter.write("CREATE TABLE " + quoteTableName(tableName) + " (\n");
+        for (int currentColumnIdx = 0; currentColumnIdx < columnNames.size(); currentColumnIdx++) {
+            final Column column = table.getColumn(columnNames.get(currentColumnIdx));
+            createWriter.write("    " + quoteIdentifier(columnNames.get(currentColumnIdx)) + " ");
+            if (column == null) {
+                createWriter.write(this.typeMapping.map(new ColumnType(TypeMapping.UNKNOWN_TYPE, -1, -1, null)));
+            } else {
+                createWriter.write(this.typeMapping.map(column.getType()));
+                final String defaultValue = mapDefaultValue(column.getDefaultValue());
+                if (defaultValue != null) {
+                    createWriter.write(" DEFAULT " + defaultValue);
+                }
+                if (!column.isNullable()) {
+                    createWriter.write(" NOT NULL");
+                }
+            }
+            createWriter.write(currentColumnIdx < columnNames.size() - 1 ? ",\n" : "\n");
+        }
+        createWriter.write(");\n\n");
+    }
+
+    // literals are kept, today and current become the functions of the target, anything else is dropped
+    protected String mapDefaultValue(final String defaultValue) {
+        if (defaultValue == null || defaultValue.equals("null")) {
+            return null;
+        } else if (defaultValue.startsWith("'") || defaultValue.matches("-?[\\d.]+")) {
+            return defaultValue;
+        } else if (defaultValue.equals("today")) {
+            return getCurrentDateExpression();
+        } else if (defaultValue.startsWith("current")) {
+            return getCurrentTimestampExpression();
+        }
+        return null;
+    }
+
+    protected void writeAddConstraint(final BufferedWriter postLoadWriter,
+                                      final String tableName,
+                                      final Constraint constraint,
+                                      final String constraintKind,
+                                      final String constraintDefinition) throws IOException {
+        postLoadWriter.write("ALTER TABLE " + quoteTableName(tableName) + " ADD "
+                + (constraint.getName() != null ? "CONSTRAINT " + quoteIdentifier(constraint.getName()) + " " : "")
+                + constraintKind + " " + constraintDefinition + ";\n");
+    }
+
+    // references to tables which are not converted are left out
+    protected void writeForeignKey(final BufferedWriter postLoadWriter,
+                                   final Schema schema,
+                                   final Map<String, String> targetTableNames,
+                                   final String tableName,
+                                   final Constraint foreignKey) throws IOException {
+        final String referencedTableName = targetTableNames.get(foreignKey.getReferencedTableName());
+        if (referencedTableName == null) {
+            postLoadWriter.write("-- " + tableName + " references " + foreignKey.getReferencedTableName() + ", which is not converted\n");
+            return;
+        }
+        List<String> referencedColumnNames = foreignKey.getReferencedColumnNames();
+        if (referencedColumnNames.isEmpty() && schema.getTable(foreignKey.getReferencedTableName()).getPrimaryKey() != null) {
+            referencedColumnNames = schema.getTable(foreignKey.getReferencedTableName()).getPrimaryKey().getColumnNames();
+        }
+        writeAddConstraint(postLoadWriter, tableName, foreignKey, "FOREIGN KEY",
+                "(" + quoteColumnNames(foreignKey.getColumnNames()) + ") REFERENCES " + quoteTableName(referencedTableName)
+                        + (referencedColumnNames.isEmpty() ? "" : " (" + quoteColumnNames(referencedColumnNames) + ")")
+                        + (foreignKey.isCascadingDelete() ? " ON DELETE CASCADE" : ""));
+    }
+
+    protected void writeCreateIndex(final BufferedWriter postLoadWriter, final String tableName, final Index index) throws IOException {
+        final String indexColumns = index.getColumnNames().stream()
+                .map(columnName -> columnName.endsWith(" desc")
+                        ? quoteIdentifier(columnName.substring(0, columnName.length() - " desc".length())) + " DESC"
+                        : quoteIdentifier(columnName))
+                .collect(Collectors.joining(", "));
+        postLoadWriter.write("CREATE " + (index.isUnique() ? "UNIQUE " : "") + "INDEX " + quoteIdentifier(index.getName())
+                + " ON " + quoteTableName(tableName) + " (" + indexColumns + ");\n");
+    }
+
+    // schema.table, every part quoted
+    protected String quoteTableName(final String tableName) {
+        if (tableName.contains(".")) {
+            return quoteIdentifier(tableName.substring(0, tableName.indexOf('.'))) + "." + quoteIdentifier(tableName.substring(tableName.indexOf('.') + 1));
+        }
+        return quoteIdentifier(tableName);
+    }
+
+    protected String quoteColumnNames(final List<String> columnNames) {
+        return columnNames.stream().map(this::quoteIdentifier).collect(Collectors.joining(", "));
+    }
+
+    protected BufferedWriter newScriptWriter(final Path scriptPath) throws IOException {
+        return Files.newBufferedWriter(scriptPath, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Map;
+
+public class MSSQLTargetDDLGenerator extends AbstractTargetDDLGenerator {
+
+    // the csv files are utf-16, so the character types are the national ones
+    private static final Map<String, String> DEFAULT_TYPE_TEMPLATES = Map.ofEntries(
+            Map.entry("char", "nchar({precision})"),
+            Map.entry("character", "nchar({precision})"),
+            Map.entry("nchar", "nchar({precision})"),
+            Map.entry("varchar", "nvarchar({precision})"),
+            Map.entry("nvarchar", "nvarchar({precision})"),
+            Map.entry("lvarchar", "nvarchar(max)"),
+            Map.entry("text", "nvarchar(max)"),
+            Map.entry("clob", "nvarchar(max)"),
+            Map.entry("byte", "varbinary(max)"),
+            Map.entry("blob", "varbinary(max)"),
+            Map.entry("smallint", "smallint"),
+            Map.entry("integer", "int"),
+            Map.entry("int", "int"),
+            Map.entry("int8", "bigint"),
+            Map.entry("bigint", "bigint"),
+            Map.entry("serial", "int IDENTITY"),
+            Map.entry("serial8", "bigint IDENTITY"),
+            Map.entry("bigserial", "bigint IDENTITY"),
+            Map.entry("decimal", "decimal({precision}, {scale})"),
+            Map.entry("dec", "decimal({precision}, {scale})"),
+            Map.entry("numeric", "numeric({precision}, {scale})"),
+            Map.entry("money", "decimal({precision}, {scale})"),
+            Map.entry("smallfloat", "real"),
+            Map.entry("real", "real"),
+            Map.entry("float", "float"),
+            Map.entry("double precision", "float"),
+            Map.entry("boolean", "bit"),
+            Map.entry("date", "date"),
+            Map.entry("datetime", "datetime2"),
+            Map.entry("datetime year to day", "date"),
+            Map.entry("datetime hour to second", "time"),
+            Map.entry("datetime hour to fraction", "time"),
+            Map.entry("interval", "nvarchar(30)"),
+            Map.entry(TypeMapping.UNKNOWN_TYPE, "nvarchar(255)")
+    );
+
+    public MSSQLTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+        super(DEFAULT_TYPE_TEMPLATES, typeTemplateOverrides);
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "mssql";
+    }
+
+    @Override
+    protected String quoteIdentifier(final String identifier) {
+        return "[" + identifier.replace("]", "]]") + "]";
+    }
+
+    @Override
+    protected void writeCreateSchema(final BufferedWriter createWriter, final String schemaName) throws IOException {
+        createWriter.write("IF SCHEMA_ID('" + schemaName + "') IS NULL EXEC('CREATE SCHEMA " + quoteIdentifier(schemaName) + "');\n");
+    }
+
+    @Override
+    protected void writeSerialReset(final BufferedWriter postLoadWriter, final String tableName, final Column column, final String targetType) throws IOException {
+        // without a new value the identity is raised to the largest loaded value
+        postLoadWriter.write("DBCC CHECKIDENT ('" + quoteTableName(tableName) + "', RESEED);\n");
+    }
+
+    @Override
+    protected String getCurrentDateExpression() {
+        return "CAST(GETDATE() AS date)";
+    }
+
+    @Override
+    protected String getCurrentTimestampExpression() {
+        return "SYSDATETIME()";
+    }
+}
@@ -0,0 +1,84 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Map;
+
+public class MySQLTargetDDLGenerator extends AbstractTargetDDLGenerator {
+
+    // an auto increment column has to be a key, so serials become auto increment in the post-load script
+    private static final Map<String, String> DEFAULT_TYPE_TEMPLATES = Map.ofEntries(
+            Map.entry("char", "char({precision})"),
+            Map.entry("character", "char({precision})"),
+            Map.entry("nchar", "char({precision})"),
+            Map.entry("varchar", "varchar({precision})"),
+            Map.entry("nvarchar", "varchar({precision})"),
+            Map.entry("lvarchar", "longtext"),
+            Map.entry("text", "longtext"),
+            Map.entry("clob", "longtext"),
+            Map.entry("byte", "longblob"),
+            Map.entry("blob", "longblob"),
+            Map.entry("smallint", "smallint"),
+            Map.entry("integer", "int"),
+            Map.entry("int", "int"),
+            Map.entry("int8", "bigint"),
+            Map.entry("bigint", "bigint"),
+            Map.entry("serial", "int"),
+            Map.entry("serial8", "bigint"),
+            Map.entry("bigserial", "bigint"),
+            Map.entry("decimal", "decimal({precision}, {scale})"),
+            Map.entry("dec", "decimal({precision}, {scale})"),
+            Map.entry("numeric", "decimal({precision}, {scale})"),
+            Map.entry("money", "decimal({precision}, {scale})"),
+            Map.entry("smallfloat", "float"),
+            Map.entry("real", "float"),
+            Map.entry("float", "double"),
+            Map.entry("double precision", "double"),
+            Map.entry("boolean", "tinyint(1)"),
+            Map.entry("date", "date"),
+            Map.entry("datetime", "datetime(6)"),
+            Map.entry("datetime year to day", "date"),
+            Map.entry("datetime year to second", "datetime"),
+            Map.entry("datetime hour to second", "time"),
+            Map.entry("datetime hour to fraction", "time(6)"),
+            Map.entry("interval", "varchar(30)"),
+            Map.entry(TypeMapping.UNKNOWN_TYPE, "varchar(255)")
+    );
+
+    public MySQLTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+        super(DEFAULT_TYPE_TEMPLATES, typeTemplateOverrides);
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "mysql";
+    }
+
+    @Override
+    protected String quoteIdentifier(final String identifier) {
+        return "`" + identifier.replace("`", "``") + "`";
+    }
+
+    @Override
+    protected void writeCreateSchema(final BufferedWriter createWriter, final String schemaName) throws IOException {
+        createWriter.write("CREATE DATABASE IF NOT EXISTS " + quoteIdentifier(schemaName) + " CHARACTER SET utf8mb4;\n");
+    }
+
+    @Override
+    protected void writeSerialReset(final BufferedWriter postLoadWriter, final String tableName, final Column column, final String targetType) throws IOException {
+        // the counter continues after the largest loaded value
+        postLoadWriter.write("ALTER TABLE " + quoteTableName(tableName) + " MODIFY " + quoteIdentifier(column.getName()) + " " + targetType + " NOT NULL AUTO_INCREMENT;\n");
+    }
+
+    @Override
+    protected String getCurrentDateExpression() {
+        return "(CURRENT_DATE)";
+    }
+
+    @Override
+    protected String getCurrentTimestampExpression() {
+        return "CURRENT_TIMESTAMP";
+    }
+}
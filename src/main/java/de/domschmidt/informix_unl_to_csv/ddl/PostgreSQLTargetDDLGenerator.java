@@ -0,0 +1,82 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.Map;
+
+public class PostgreSQLTargetDDLGenerator extends AbstractTargetDDLGenerator {
+
+    private static final Map<String, String> DEFAULT_TYPE_TEMPLATES = Map.ofEntries(
+            Map.entry("char", "char({precision})"),
+            Map.entry("character", "char({precision})"),
+            Map.entry("nchar", "char({precision})"),
+            Map.entry("varchar", "varchar({precision})"),
+            Map.entry("nvarchar", "varchar({precision})"),
+            Map.entry("lvarchar", "text"),
+            Map.entry("text", "text"),
+            Map.entry("clob", "text"),
+            Map.entry("byte", "bytea"),
+            Map.entry("blob", "bytea"),
+            Map.entry("smallint", "smallint"),
+            Map.entry("integer", "integer"),
+            Map.entry("int", "integer"),
+            Map.entry("int8", "bigint"),
+            Map.entry("bigint", "bigint"),
+            Map.entry("serial", "integer GENERATED BY DEFAULT AS IDENTITY"),
+            Map.entry("serial8", "bigint GENERATED BY DEFAULT AS IDENTITY"),
+            Map.entry("bigserial", "bigint GENERATED BY DEFAULT AS IDENTITY"),
+            Map.entry("decimal", "numeric({precision}, {scale})"),
+            Map.entry("dec", "numeric({precision}, {scale})"),
+            Map.entry("numeric", "numeric({precision}, {scale})"),
+            Map.entry("money", "numeric({precision}, {scale})"),
+            Map.entry("smallfloat", "real"),
+            Map.entry("real", "real"),
+            Map.entry("float", "double precision"),
+            Map.entry("double precision", "double precision"),
+            Map.entry("boolean", "boolean"),
+            Map.entry("date", "date"),
+            Map.entry("datetime", "timestamp"),
+            Map.entry("datetime year to day", "date"),
+            Map.entry("datetime hour to second", "time"),
+            Map.entry("datetime hour to fraction", "time"),
+            Map.entry("interval", "interval"),
+            Map.entry(TypeMapping.UNKNOWN_TYPE, "text")
+    );
+
+    public PostgreSQLTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+        super(DEFAULT_TYPE_TEMPLATES, typeTemplateOverrides);
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "postgresql";
+    }
+
+    @Override
+    protected String quoteIdentifier(final String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    protected void writeCreateSchema(final BufferedWriter createWriter, final String schemaName) throws IOException {
+        createWriter.write("CREATE SCHEMA IF NOT EXISTS " + quoteIdentifier(schemaName) + ";\n");
+    }
+
+    @Override
+    protected void writeSerialReset(final BufferedWriter postLoadWriter, final String tableName, final Column column, final String targetType) throws IOException {
+        postLoadWriter.write("SELECT setval(pg_get_serial_sequence('" + quoteTableName(tableName).replace("'", "''") + "', '" + column.getName() + "'), "
+                + "coalesce(max(" + quoteIdentifier(column.getName()) + "), 0) + 1, false) FROM " + quoteTableName(tableName) + ";\n");
+    }
+
+    @Override
+    protected String getCurrentDateExpression() {
+        return "CURRENT_DATE";
+    }
+
+    @Override
+    protected String getCurrentTimestampExpression() {
+        return "CURRENT_TIMESTAMP";
+    }
+}
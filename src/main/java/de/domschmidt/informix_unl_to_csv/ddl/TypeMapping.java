@@ -0,0 +1,74 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.ColumnType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// informix type to target type templates, e.g. decimal=numeric({precision}, {scale})
+public class TypeMapping {
+
+    // used for columns without an informix type, e.g. those filled by a default
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    private static final List<String> DATETIME_UNITS = List.of("year", "month", "day", "hour", "minute", "second", "fraction");
+
+    private final Map<String, String> templates;
+
+    // the overrides replace single default templates
+    public TypeMapping(final Map<String, String> defaultTemplates, final Map<String, String> overrideTemplates) {
+        this.templates = new HashMap<>(defaultTemplates);
+        this.templates.putAll(overrideTemplates);
+    }
+
+    // the qualifier without precisions is tried first, e.g. "datetime year to fraction" before "datetime"
+    public String map(final ColumnType columnType) {
+        String template = null;
+        if (columnType.getQualifier() != null) {
+            final String plainQualifier = columnType.getQualifier().replaceAll("\\(\\d+\\)", "");
+            template = this.templates.get(columnType.getName() + ' ' + plainQualifier);
+            if (template == null && columnType.getName().equals("datetime")) {
+                template = getDateTimeKindTemplate(plainQualifier);
+            }
+        }
+        if (template == null) {
+            template = this.templates.get(columnType.getName());
+        }
+        if (template == null) {
+            throw new IllegalArgumentException("no target type for informix type " + columnType);
+        }
+        return render(template, columnType.getPrecision(), columnType.getScale());
+    }
+
+    // a qualifier without its own template is a time if it starts at hour or later, a date if it ends at day or earlier and
+    // a timestamp otherwise, e.g. "hour to minute" is mapped like "hour to second"
+    private String getDateTimeKindTemplate(final String plainQualifier) {
+        final String[] units = plainQualifier.split(" to ");
+        final int startUnitIdx = DATETIME_UNITS.indexOf(units[0]);
+        final int endUnitIdx = DATETIME_UNITS.indexOf(units[units.length - 1]);
+        if (startUnitIdx < 0 || endUnitIdx < 0) {
+            return null;
+        }
+        final boolean fraction = units[units.length - 1].equals("fraction");
+        if (startUnitIdx >= DATETIME_UNITS.indexOf("hour")) {
+            return this.templates.get(fraction ? "datetime hour to fraction" : "datetime hour to second");
+        } else if (endUnitIdx <= DATETIME_UNITS.indexOf("day")) {
+            return this.templates.get("datetime year to day");
+        }
+        // null falls back to the template of datetime, a timestamp
+        return this.templates.get(fraction ? "datetime year to fraction" : "datetime year to second");
+    }
+
+    // a missing scale drops ", {scale}", a missing precision drops the parentheses around it
+    private static String render(final String template, final int precision, final int scale) {
+        String rendered = template;
+        if (scale < 0) {
+            rendered = rendered.replaceAll("\\s*,\\s*\\{scale}", "");
+        }
+        if (precision < 0) {
+            rendered = rendered.replaceAll("\\(\\s*\\{precision}\\s*\\)", "");
+        }
+        return rendered.replace("{precision}", String.valueOf(precision)).replace("{scale}", String.valueOf(scale));
+    }
+}
@@ -0,0 +1,45 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// only the counts are kept, so the key maps of the finished tables can be freed
+public class DiffReport {
+
+    private static final String HEADER = "table;inserted;updated;deleted;unchanged";
+
+    // table -> inserted, updated, deleted, unchanged
+    private final Map<String, long[]> tableCounts = new LinkedHashMap<>();
+
+    public synchronized void add(final TableSnapshotDiff tableSnapshotDiff) {
+        this.tableCounts.put(tableSnapshotDiff.getTableName(), new long[]{
+                tableSnapshotDiff.getInsertedCount(),
+                tableSnapshotDiff.getUpdatedCount(),
+                tableSnapshotDiff.getDeletedCount(),
+                tableSnapshotDiff.getUnchangedCount()
+        });
+    }
+
+    public synchronized long getChangedCount() {
+        return this.tableCounts.values().stream().mapToLong(counts -> counts[0] + counts[1] + counts[2]).sum();
+    }
+
+    public synchronized long getUnchangedCount() {
+        return this.tableCounts.values().stream().mapToLong(counts -> counts[3]).sum();
+    }
+
+    public synchronized void write(final Path reportPath) throws IOException {
+        try (final BufferedWriter reportWriter = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            reportWriter.write(HEADER + "\n");
+            for (final Map.Entry<String, long[]> tableCount : this.tableCounts.entrySet()) {
+                final long[] counts = tableCount.getValue();
+                reportWriter.write(tableCount.getKey() + ";" + counts[0] + ";" + counts[1] + ";" + counts[2] + ";" + counts[3] + "\n");
+            }
+        }
+    }
+}
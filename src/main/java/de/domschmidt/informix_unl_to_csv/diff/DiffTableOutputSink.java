@@ -0,0 +1,40 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+
+import java.io.IOException;
+
+// the rows passed by the new export filter of the diff, each written right after its record was tested
+public class DiffTableOutputSink implements ITableOutputSink {
+
+    private final TableSnapshotDiff tableSnapshotDiff;
+    private final ITableOutputSink insertSink;
+    private final ITableOutputSink updateSink;
+
+    public DiffTableOutputSink(final TableSnapshotDiff tableSnapshotDiff, final ITableOutputSink insertSink, final ITableOutputSink updateSink) {
+        this.tableSnapshotDiff = tableSnapshotDiff;
+        this.insertSink = insertSink;
+        this.updateSink = updateSink;
+    }
+
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        if (this.tableSnapshotDiff.isLastInserted()) {
+            this.insertSink.writeRow(convertedRow);
+        } else {
+            this.updateSink.writeRow(convertedRow);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.insertSink.finish();
+        this.updateSink.finish();
+    }
+
+    // the sinks are closed by their owner
+    @Override
+    public void close() {
+    }
+}
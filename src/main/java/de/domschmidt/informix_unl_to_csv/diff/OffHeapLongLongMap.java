@@ -0,0 +1,154 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// long -> long with open addressing and linear probing outside of the heap: in direct buffers up to maxDirectBytes,
+// beyond that in a memory mapped temp file the os pages out when memory is short, the key 0 marks a free slot and is
+// kept on its own
+public class OffHeapLongLongMap {
+
+    // slots per buffer, 16 bytes each, so a buffer stays below 2 GiB
+    private static final int CHUNK_SHIFT = 26;
+    private static final int MIN_CAPACITY = 1 << 12;
+
+    private final long maxDirectBytes;
+    private final Path tempPath;
+    private LongBuffer[] chunks;
+    private int chunkSlotMask;
+    // a power of 2
+    private long capacity;
+    private int shift;
+    private long size;
+    private boolean containsZero;
+    private long zeroValue;
+
+    public OffHeapLongLongMap(final long maxDirectBytes, final Path tempPath) throws IOException {
+        this.maxDirectBytes = maxDirectBytes;
+        this.tempPath = tempPath;
+        allocate(MIN_CAPACITY);
+    }
+
+    // false if the key is already contained, its value is kept then
+    public boolean putIfAbsent(final long key, final long value) throws IOException {
+        if (key == 0) {
+            if (this.containsZero) {
+                return false;
+            }
+            this.containsZero = true;
+            this.zeroValue = value;
+            return true;
+        }
+        long slot = getSlot(key);
+        long slotKey;
+        while ((slotKey = getKey(slot)) != 0) {
+            if (slotKey == key) {
+                return false;
+            }
+            slot = (slot + 1) & (this.capacity - 1);
+        }
+        setSlot(slot, key, value);
+        // at most half full, so a probe ends after a few slots
+        if (++this.size > this.capacity >> 1) {
+            grow();
+        }
+        return true;
+    }
+
+    // the previous value, absentValue if the key is not contained, nothing is stored then
+    public long getAndReplace(final long key, final long value, final long absentValue) {
+        if (key == 0) {
+            if (!this.containsZero) {
+                return absentValue;
+            }
+            final long previousValue = this.zeroValue;
+            this.zeroValue = value;
+            return previousValue;
+        }
+        long slot = getSlot(key);
+        long slotKey;
+        while ((slotKey = getKey(slot)) != 0) {
+            if (slotKey == key) {
+                final long previousValue = getValue(slot);
+                setSlot(slot, key, value);
+                return previousValue;
+            }
+            slot = (slot + 1) & (this.capacity - 1);
+        }
+        return absentValue;
+    }
+
+    public long size() {
+        return this.size + (this.containsZero ? 1 : 0);
+    }
+
+    private void allocate(final long capacity) throws IOException {
+        final int chunkSlots = (int) Math.min(capacity, 1L << CHUNK_SHIFT);
+        final long chunkBytes = (long) chunkSlots * 2 * Long.BYTES;
+        this.chunks = new LongBuffer[(int) (capacity / chunkSlots)];
+        this.chunkSlotMask = chunkSlots - 1;
+        this.capacity = capacity;
+        this.shift = 64 - Long.numberOfTrailingZeros(capacity);
+        if (capacity * 2 * Long.BYTES <= this.maxDirectBytes) {
+            try {
+                for (int currentChunkIdx = 0; currentChunkIdx < this.chunks.length; currentChunkIdx++) {
+                    this.chunks[currentChunkIdx] = ByteBuffer.allocateDirect((int) chunkBytes).order(ByteOrder.nativeOrder()).asLongBuffer();
+                }
+                return;
+            } catch (final OutOfMemoryError e) {
+                // the direct memory of the jvm is shared by the tables diffed at the same time, the file still works
+            }
+        }
+        // the mappings stay valid after the channel is closed and the file deleted, a sparse file takes no disk space
+        // for the slots never written
+        try (final FileChannel mapChannel = FileChannel.open(Files.createTempFile(this.tempPath, "diff.", ".map"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE)) {
+            for (int currentChunkIdx = 0; currentChunkIdx < this.chunks.length; currentChunkIdx++) {
+                this.chunks[currentChunkIdx] = mapChannel.map(FileChannel.MapMode.READ_WRITE, currentChunkIdx * chunkBytes, chunkBytes)
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+    }
+
+    private void grow() throws IOException {
+        final LongBuffer[] previousChunks = this.chunks;
+        allocate(this.capacity << 1);
+        for (final LongBuffer previousChunk : previousChunks) {
+            for (int currentIdx = 0; currentIdx < previousChunk.capacity(); currentIdx += 2) {
+                final long key = previousChunk.get(currentIdx);
+                if (key != 0) {
+                    long slot = getSlot(key);
+                    while (getKey(slot) != 0) {
+                        slot = (slot + 1) & (this.capacity - 1);
+                    }
+                    setSlot(slot, key, previousChunk.get(currentIdx + 1));
+                }
+            }
+        }
+    }
+
+    // fibonacci hashing, the high bits of the product spread consecutive ids over the table
+    private long getSlot(final long key) {
+        return (key * 0x9e3779b97f4a7c15L) >>> this.shift;
+    }
+
+    private long getKey(final long slot) {
+        return this.chunks[(int) (slot >>> CHUNK_SHIFT)].get(((int) slot & this.chunkSlotMask) << 1);
+    }
+
+    private long getValue(final long slot) {
+        return this.chunks[(int) (slot >>> CHUNK_SHIFT)].get((((int) slot & this.chunkSlotMask) << 1) + 1);
+    }
+
+    private void setSlot(final long slot, final long key, final long value) {
+        final LongBuffer chunk = this.chunks[(int) (slot >>> CHUNK_SHIFT)];
+        chunk.put(((int) slot & this.chunkSlotMask) << 1, key);
+        chunk.put((((int) slot & this.chunkSlotMask) << 1) + 1, value);
+    }
+}
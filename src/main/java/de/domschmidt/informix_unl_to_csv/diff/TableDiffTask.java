@@ -0,0 +1,132 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContext;
+import de.domschmidt.informix_unl_to_csv.ConversionContextPool;
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNode;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+import de.domschmidt.informix_unl_to_csv.sink.CsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+// writes the inserted, updated and deleted rows of a table as <table>.inserts.csv, .updates.csv and .deletes.csv, the old
+// export is read once for its key map and a second time only if keys are missing in the new one
+public class TableDiffTask implements Callable<TableSnapshotDiff> {
+
+    private static final int READ_SIZE = 1024 * 1024;
+
+    private final String tableName;
+    // null if the table is not in the old export, all its rows are inserted then
+    private final Path oldUnlPath;
+    private final Path newUnlPath;
+    // in unl order
+    private final int[] keyCellIdxs;
+    private final int unlColumnCount;
+    private final boolean integerKey;
+    // null without a filter
+    private final PredicateNode rowFilter;
+    // a converter of the table with the given diff filter as its row filter
+    private final Function<PredicateNode, TableConverter> tableConverterFactory;
+    private final Path outputPath;
+    private final Charset csvCharset;
+    private final CsvFormat csvFormat;
+    private final long maxDirectBytes;
+    private final Path tempPath;
+    private final ErrorLimit errorLimit;
+    private final ConversionContextPool conversionContextPool;
+
+    public TableDiffTask(final String tableName,
+                         final Path oldUnlPath,
+                         final Path newUnlPath,
+                         final int[] keyCellIdxs,
+                         final int unlColumnCount,
+                         final boolean integerKey,
+                         final PredicateNode rowFilter,
+                         final Function<PredicateNode, TableConverter> tableConverterFactory,
+                         final Path outputPath,
+                         final Charset csvCharset,
+                         final CsvFormat csvFormat,
+                         final long maxDirectBytes,
+                         final Path tempPath,
+                         final ErrorLimit errorLimit,
+                         final ConversionContextPool conversionContextPool) {
+        this.tableName = tableName;
+        this.oldUnlPath = oldUnlPath;
+        this.newUnlPath = newUnlPath;
+        this.keyCellIdxs = keyCellIdxs;
+        this.unlColumnCount = unlColumnCount;
+        this.integerKey = integerKey;
+        this.rowFilter = rowFilter;
+        this.tableConverterFactory = tableConverterFactory;
+        this.outputPath = outputPath;
+        this.csvCharset = csvCharset;
+        this.csvFormat = csvFormat;
+        this.maxDirectBytes = maxDirectBytes;
+        this.tempPath = tempPath;
+        this.errorLimit = errorLimit;
+        this.conversionContextPool = conversionContextPool;
+    }
+
+    // the key map is only referenced while the task runs, the returned diff only has the counts
+    @Override
+    public TableSnapshotDiff call() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = new TableSnapshotDiff(this.tableName, new OffHeapLongLongMap(this.maxDirectBytes, this.tempPath),
+                this.keyCellIdxs, this.unlColumnCount, this.integerKey, this.rowFilter);
+        final ConversionContext conversionContext = this.conversionContextPool.acquire();
+        try {
+            if (this.oldUnlPath != null) {
+                try (final FileChannel oldUnlChannel = FileChannel.open(this.oldUnlPath, StandardOpenOption.READ)) {
+                    tableSnapshotDiff.readOldExport(openUNL(conversionContext, oldUnlChannel), conversionContext.getRecord());
+                }
+            }
+
+            try (final FileChannel newUnlChannel = FileChannel.open(this.newUnlPath, StandardOpenOption.READ);
+                 final RejectFile rejectFile = new RejectFile(this.outputPath.resolve(this.tableName + ".rejects.unl"), TableConverter.UNL_CHARSET, this.errorLimit);
+                 final ITableOutputSink insertSink = newCsvSink(".inserts.csv");
+                 final ITableOutputSink updateSink = newCsvSink(".updates.csv")) {
+                final DiffTableOutputSink diffSink = new DiffTableOutputSink(tableSnapshotDiff, insertSink, updateSink);
+                this.tableConverterFactory.apply(tableSnapshotDiff.newNewExportFilter())
+                        .convert(openUNL(conversionContext, newUnlChannel), conversionContext, diffSink, null, rejectFile);
+                diffSink.finish();
+                if (rejectFile.getRejectedCount() > 0) {
+                    System.out.println("rejected " + rejectFile.getRejectedCount() + " records of table " + this.tableName);
+                }
+            }
+
+            // the old export was loaded before, its rejects do not count against the error limit
+            try (final ITableOutputSink deleteSink = newCsvSink(".deletes.csv")) {
+                if (this.oldUnlPath != null && tableSnapshotDiff.hasDeletedKeys()) {
+                    try (final FileChannel oldUnlChannel = FileChannel.open(this.oldUnlPath, StandardOpenOption.READ);
+                         final RejectFile oldRejectFile = new RejectFile(this.outputPath.resolve(this.tableName + ".old.rejects.unl"), TableConverter.UNL_CHARSET, new ErrorLimit(-1))) {
+                        this.tableConverterFactory.apply(tableSnapshotDiff.newDeletedFilter())
+                                .convert(openUNL(conversionContext, oldUnlChannel), conversionContext, deleteSink, null, oldRejectFile);
+                    }
+                }
+                deleteSink.finish();
+            }
+        } finally {
+            this.conversionContextPool.release(conversionContext);
+            tableSnapshotDiff.releaseOldRecordHashes();
+        }
+        return tableSnapshotDiff;
+    }
+
+    private static UNLRecordReader openUNL(final ConversionContext conversionContext, final FileChannel unlChannel) throws IOException {
+        return conversionContext.openUNL(unlChannel, TableConverter.UNL_CHARSET, (int) Math.min(unlChannel.size(), READ_SIZE));
+    }
+
+    private ITableOutputSink newCsvSink(final String csvSuffix) throws IOException {
+        return new CsvTableOutputSink(Files.newBufferedWriter(this.outputPath.resolve(this.tableName + csvSuffix), this.csvCharset), this.csvFormat);
+    }
+}
@@ -0,0 +1,199 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNode;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+
+import java.io.IOException;
+
+// compares the unl records of a table in two exports by key: the old export is reduced to a map of key -> 64 bit hash of
+// its record, the new one is streamed against it, the old keys never seen are deleted. The passes over the new export and
+// the deleted records run as row filters, so unchanged records are never formatted.
+public class TableSnapshotDiff {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    // beyond any char, so a field boundary or null never hashes like a char
+    private static final int FIELD_END = 0x10000;
+    private static final int NULL_FIELD = 0x10001;
+    // record hashes are even, the lowest bit marks the keys found in the new export
+    private static final long SEEN = 1;
+    private static final long ABSENT = 3;
+
+    private final String tableName;
+    // null once released
+    private OffHeapLongLongMap oldRecordHashes;
+    // in unl order
+    private final int[] keyCellIdxs;
+    private final int[] recordCellIdxs;
+    // a single integer key is its own map key, any other key is hashed
+    private final boolean integerKey;
+    // null without a filter
+    private final PredicateNode rowFilter;
+    private long insertedCount;
+    private long updatedCount;
+    private long unchangedCount;
+    private long deletedCount;
+    private boolean lastInserted;
+
+    public TableSnapshotDiff(final String tableName,
+                             final OffHeapLongLongMap oldRecordHashes,
+                             final int[] keyCellIdxs,
+                             final int unlColumnCount,
+                             final boolean integerKey,
+                             final PredicateNode rowFilter) {
+        this.tableName = tableName;
+        this.oldRecordHashes = oldRecordHashes;
+        this.keyCellIdxs = keyCellIdxs;
+        this.recordCellIdxs = new int[unlColumnCount];
+        for (int currentCellIdx = 0; currentCellIdx < unlColumnCount; currentCellIdx++) {
+            this.recordCellIdxs[currentCellIdx] = currentCellIdx;
+        }
+        this.integerKey = integerKey;
+        this.rowFilter = rowFilter;
+    }
+
+    // the old export is only read, records with too few fields are skipped as a conversion rejects them
+    public void readOldExport(final UNLRecordReader recordReader, final UNLRecord record) throws IOException {
+        while (recordReader.next(record)) {
+            if (record.getFieldCount() <= this.recordCellIdxs.length || isFiltered(record)) {
+                continue;
+            }
+            final long key;
+            try {
+                key = getKey(record);
+            } catch (final IllegalArgumentException e) {
+                continue;
+            }
+            // of a duplicate key the first record counts
+            this.oldRecordHashes.putIfAbsent(key, hash(record, this.recordCellIdxs) & ~SEEN);
+        }
+    }
+
+    // passes the inserted and updated records of the new export, isLastInserted tells them apart
+    public PredicateNode newNewExportFilter() {
+        return new PredicateNode() {
+            @Override
+            public int test(final UNLRecord record) {
+                if (isFiltered(record)) {
+                    return FALSE;
+                }
+                final long oldRecordHash = TableSnapshotDiff.this.oldRecordHashes.getAndReplace(getKey(record), SEEN, ABSENT);
+                if (oldRecordHash == ABSENT || oldRecordHash == SEEN) {
+                    TableSnapshotDiff.this.insertedCount++;
+                    TableSnapshotDiff.this.lastInserted = true;
+                    return TRUE;
+                }
+                if (oldRecordHash == (hash(record, TableSnapshotDiff.this.recordCellIdxs) & ~SEEN)) {
+                    TableSnapshotDiff.this.unchangedCount++;
+                    return FALSE;
+                }
+                TableSnapshotDiff.this.updatedCount++;
+                TableSnapshotDiff.this.lastInserted = false;
+                return TRUE;
+            }
+        };
+    }
+
+    // passes the records of the old export whose key is not in the new one, after newNewExportFilter
+    public PredicateNode newDeletedFilter() {
+        return new PredicateNode() {
+            @Override
+            public int test(final UNLRecord record) {
+                if (isFiltered(record)) {
+                    return FALSE;
+                }
+                // marked, so a duplicate key is deleted once
+                final long oldRecordHash = TableSnapshotDiff.this.oldRecordHashes.getAndReplace(getKey(record), SEEN, ABSENT);
+                if (oldRecordHash == ABSENT || oldRecordHash == SEEN) {
+                    return FALSE;
+                }
+                TableSnapshotDiff.this.deletedCount++;
+                return TRUE;
+            }
+        };
+    }
+
+    // the buffers of the map are freed once it is unreachable, the counts stay
+    public void releaseOldRecordHashes() {
+        this.oldRecordHashes = null;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public boolean isLastInserted() {
+        return this.lastInserted;
+    }
+
+    // known after the new export, the old one has to be read again only if there are any
+    public boolean hasDeletedKeys() {
+        return this.oldRecordHashes.size() > this.updatedCount + this.unchangedCount;
+    }
+
+    public long getInsertedCount() {
+        return this.insertedCount;
+    }
+
+    public long getUpdatedCount() {
+        return this.updatedCount;
+    }
+
+    public long getUnchangedCount() {
+        return this.unchangedCount;
+    }
+
+    public long getDeletedCount() {
+        return this.deletedCount;
+    }
+
+    private boolean isFiltered(final UNLRecord record) {
+        return this.rowFilter != null && this.rowFilter.test(record) != PredicateNode.TRUE;
+    }
+
+    private long getKey(final UNLRecord record) {
+        if (!this.integerKey) {
+            return hash(record, this.keyCellIdxs);
+        }
+        final int keyCellIdx = this.keyCellIdxs[0];
+        final char[] chars = record.getChars();
+        final int start = record.getFieldStart(keyCellIdx);
+        final int end = start + record.getFieldLength(keyCellIdx);
+        final boolean negative = start < end && chars[start] == '-';
+        if (record.isNull(keyCellIdx) || start + (negative ? 1 : 0) == end || end - start > 19) {
+            throw new IllegalArgumentException("not an integer key: " + record.getField(keyCellIdx));
+        }
+        long key = 0;
+        for (int currentIdx = negative ? start + 1 : start; currentIdx < end; currentIdx++) {
+            if (chars[currentIdx] < '0' || chars[currentIdx] > '9') {
+                throw new IllegalArgumentException("not an integer key: " + record.getField(keyCellIdx));
+            }
+            key = key * 10 + (chars[currentIdx] - '0');
+        }
+        return negative ? -key : key;
+    }
+
+    // fnv-1a over the chars of the fields and their ends, finished with the murmur3 mix to spread the bits
+    private static long hash(final UNLRecord record, final int[] cellIdxs) {
+        long hash = FNV_OFFSET_BASIS;
+        for (final int cellIdx : cellIdxs) {
+            if (record.isNull(cellIdx)) {
+                hash = (hash ^ NULL_FIELD) * FNV_PRIME;
+                continue;
+            }
+            final char[] chars = record.getChars();
+            final int end = record.getFieldStart(cellIdx) + record.getFieldLength(cellIdx);
+            for (int currentIdx = record.getFieldStart(cellIdx); currentIdx < end; currentIdx++) {
+                hash = (hash ^ chars[currentIdx]) * FNV_PRIME;
+            }
+            hash = (hash ^ FIELD_END) * FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
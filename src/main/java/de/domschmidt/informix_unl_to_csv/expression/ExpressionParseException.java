@@ -0,0 +1,18 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.schema.DDLToken;
+
+import java.io.IOException;
+
+public class ExpressionParseException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExpressionParseException(final String expression, final DDLToken token, final String message) {
+        super(expression + ", at " + token + ": " + message);
+    }
+
+    public ExpressionParseException(final String expression, final String message) {
+        super(expression + ": " + message);
+    }
+}
@@ -0,0 +1,340 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNodes.ComparisonOperator;
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+import de.domschmidt.informix_unl_to_csv.schema.DDLParseException;
+import de.domschmidt.informix_unl_to_csv.schema.DDLToken;
+import de.domschmidt.informix_unl_to_csv.schema.DDLTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// compiles an sql like expression on the unl cells of a table into a tree of nodes, once per table:
+//   values      'text', 12.5, null, column, a || b, case [value] when ... then ... [else ...] end,
+//               substr(value, start[, length]), trim, upper, lower, year, month, day, coalesce
+//   conditions  = <> != < <= > >=, [not] in (...), is [not] null, and, or, not, ( ... )
+// comparisons of date columns compare dates, of numeric columns numbers, everything else strings
+public class ExpressionParser {
+
+    private final String expression;
+    private final List<DDLToken> tokens;
+    // in unl order
+    private final List<Column> columns;
+    private int position;
+
+    private ExpressionParser(final String expression, final List<DDLToken> tokens, final List<Column> columns) {
+        this.expression = expression;
+        this.tokens = tokens;
+        this.columns = columns;
+    }
+
+    public static ValueNode parseValue(final String expression, final List<Column> columns) throws ExpressionParseException {
+        final ExpressionParser parser = new ExpressionParser(expression, tokenize(expression), columns);
+        final ValueNode value = parser.parseConcat();
+        parser.expectEnd();
+        return value;
+    }
+
+    public static PredicateNode parsePredicate(final String expression, final List<Column> columns) throws ExpressionParseException {
+        final ExpressionParser parser = new ExpressionParser(expression, tokenize(expression), columns);
+        final PredicateNode predicate = parser.parseOr();
+        parser.expectEnd();
+        return predicate;
+    }
+
+    // the tokens are those of the ddl, so strings, numbers and identifiers are written the same way
+    private static List<DDLToken> tokenize(final String expression) throws ExpressionParseException {
+        try {
+            return new DDLTokenizer(expression).tokenize();
+        } catch (final DDLParseException e) {
+            throw new ExpressionParseException(expression, e.getMessage());
+        }
+    }
+
+    private PredicateNode parseOr() throws ExpressionParseException {
+        PredicateNode predicate = parseAnd();
+        while (acceptWord("or")) {
+            predicate = new PredicateNodes.OrNode(predicate, parseAnd());
+        }
+        return predicate;
+    }
+
+    private PredicateNode parseAnd() throws ExpressionParseException {
+        PredicateNode predicate = parseNot();
+        while (acceptWord("and")) {
+            predicate = new PredicateNodes.AndNode(predicate, parseNot());
+        }
+        return predicate;
+    }
+
+    // values are never in parentheses, so an opening parenthesis always groups conditions
+    private PredicateNode parseNot() throws ExpressionParseException {
+        if (acceptWord("not")) {
+            return new PredicateNodes.NotNode(parseNot());
+        }
+        if (acceptSymbol('(')) {
+            final PredicateNode predicate = parseOr();
+            expectSymbol(')');
+            return predicate;
+        }
+        return parseComparison();
+    }
+
+    private PredicateNode parseComparison() throws ExpressionParseException {
+        final ValueNode left = parseConcat();
+        if (acceptWord("is")) {
+            final boolean negated = acceptWord("not");
+            expectWord("null");
+            return new PredicateNodes.IsNullNode(left, negated);
+        }
+        if (peek().isWord("in") || (peek().isWord("not") && peek(1).isWord("in"))) {
+            final boolean negated = acceptWord("not");
+            expectWord("in");
+            expectSymbol('(');
+            final List<ValueNode> items = new ArrayList<>();
+            do {
+                items.add(parseConcat());
+            } while (acceptSymbol(','));
+            expectSymbol(')');
+            final List<ValueNode> comparedValues = new ArrayList<>(items);
+            comparedValues.add(left);
+            return new PredicateNodes.InNode(left, items.toArray(new ValueNode[0]), getComparisonType(comparedValues), negated);
+        }
+        final ComparisonOperator operator = parseComparisonOperator();
+        final ValueNode right = parseConcat();
+        return new PredicateNodes.ComparisonNode(left, operator, right, getComparisonType(List.of(left, right)));
+    }
+
+    private ComparisonOperator parseComparisonOperator() throws ExpressionParseException {
+        final DDLToken token = next();
+        if (token.isSymbol('=')) {
+            return ComparisonOperator.EQUAL;
+        } else if (token.isSymbol('!')) {
+            expectSymbol('=');
+            return ComparisonOperator.NOT_EQUAL;
+        } else if (token.isSymbol('<')) {
+            if (acceptSymbol('=')) {
+                return ComparisonOperator.LESS_OR_EQUAL;
+            }
+            return acceptSymbol('>') ? ComparisonOperator.NOT_EQUAL : ComparisonOperator.LESS;
+        } else if (token.isSymbol('>')) {
+            return acceptSymbol('=') ? ComparisonOperator.GREATER_OR_EQUAL : ComparisonOperator.GREATER;
+        }
+        throw new ExpressionParseException(this.expression, token, "expected a comparison");
+    }
+
+    // a date or number on either side decides, the literals are checked now instead of on every record
+    private ExpressionType getComparisonType(final List<ValueNode> values) throws ExpressionParseException {
+        ExpressionType comparisonType = ExpressionType.STRING;
+        for (final ValueNode value : values) {
+            if (value.getType() == ExpressionType.DATE || (value.getType() == ExpressionType.NUMBER && comparisonType == ExpressionType.STRING)) {
+                comparisonType = value.getType();
+            }
+        }
+        for (final ValueNode value : values) {
+            if (value.isConstant() && !value.isNull()) {
+                checkLiteral(value, comparisonType);
+            }
+        }
+        return comparisonType;
+    }
+
+    private void checkLiteral(final ValueNode literal, final ExpressionType comparisonType) throws ExpressionParseException {
+        final String literalText = new String(literal.getChars(), literal.getStart(), literal.getLength());
+        if (comparisonType == ExpressionType.DATE) {
+            try {
+                ExpressionValues.parseDate(literal.getChars(), literal.getStart(), literal.getLength());
+            } catch (final IllegalArgumentException e) {
+                throw new ExpressionParseException(this.expression, "not a date: " + literalText + ", expected dd.mm.yyyy or yyyy-mm-dd");
+            }
+        } else if (comparisonType == ExpressionType.NUMBER && !ExpressionValues.isPlainDecimal(literal.getChars(), literal.getStart(), literal.getLength())) {
+            throw new ExpressionParseException(this.expression, "not a number: " + literalText);
+        }
+    }
+
+    private ValueNode parseConcat() throws ExpressionParseException {
+        final ValueNode first = parseTerm();
+        if (!(peek().isSymbol('|') && peek(1).isSymbol('|'))) {
+            return first;
+        }
+        final List<ValueNode> parts = new ArrayList<>();
+        parts.add(first);
+        while (peek().isSymbol('|') && peek(1).isSymbol('|')) {
+            next();
+            next();
+            parts.add(parseTerm());
+        }
+        return new ValueNodes.ConcatNode(parts.toArray(new ValueNode[0]));
+    }
+
+    private ValueNode parseTerm() throws ExpressionParseException {
+        final DDLToken token = next();
+        if (token.getType() == DDLToken.Type.STRING) {
+            return new ValueNodes.LiteralNode(token.getText(), ExpressionType.STRING);
+        } else if (token.getType() == DDLToken.Type.NUMBER) {
+            return newNumberLiteral(token, token.getText());
+        } else if (token.isSymbol('-') && peek().getType() == DDLToken.Type.NUMBER) {
+            return newNumberLiteral(token, "-" + next().getText());
+        } else if (token.isWord("null")) {
+            return new ValueNodes.LiteralNode(null, ExpressionType.STRING);
+        } else if (token.isWord("case")) {
+            return parseCase();
+        } else if (token.getType() == DDLToken.Type.WORD && peek().isSymbol('(')) {
+            next();
+            return parseFunction(token);
+        } else if (token.isIdentifier()) {
+            for (int currentColumnIdx = 0; currentColumnIdx < this.columns.size(); currentColumnIdx++) {
+                final Column column = this.columns.get(currentColumnIdx);
+                if (column.getName().replaceAll("\"", "").equals(token.getText())) {
+                    return new ValueNodes.ColumnNode(currentColumnIdx, ExpressionType.of(column.getType()));
+                }
+            }
+            throw new ExpressionParseException(this.expression, token, "unknown column");
+        }
+        throw new ExpressionParseException(this.expression, token, "expected a value");
+    }
+
+    private ValueNode newNumberLiteral(final DDLToken token, final String number) throws ExpressionParseException {
+        if (!ExpressionValues.isPlainDecimal(number.toCharArray(), 0, number.length())) {
+            throw new ExpressionParseException(this.expression, token, "not a number");
+        }
+        return new ValueNodes.LiteralNode(number, ExpressionType.NUMBER);
+    }
+
+    // the opening parenthesis is read
+    private ValueNode parseFunction(final DDLToken nameToken) throws ExpressionParseException {
+        final List<ValueNode> arguments = new ArrayList<>();
+        if (!acceptSymbol(')')) {
+            do {
+                arguments.add(parseConcat());
+            } while (acceptSymbol(','));
+            expectSymbol(')');
+        }
+        switch (nameToken.getText()) {
+            case "substr":
+            case "substring":
+                checkArgumentCount(nameToken, arguments, 2, 3);
+                return new ValueNodes.SubstrNode(arguments.get(0), arguments.get(1), arguments.size() > 2 ? arguments.get(2) : null);
+            case "trim":
+                checkArgumentCount(nameToken, arguments, 1, 1);
+                return new ValueNodes.TrimNode(arguments.get(0));
+            case "upper":
+            case "lower":
+                checkArgumentCount(nameToken, arguments, 1, 1);
+                return new ValueNodes.CaseConversionNode(arguments.get(0), nameToken.isWord("upper"));
+            case "year":
+                checkArgumentCount(nameToken, arguments, 1, 1);
+                return new ValueNodes.DatePartNode(arguments.get(0), ValueNodes.DatePartNode.YEAR);
+            case "month":
+                checkArgumentCount(nameToken, arguments, 1, 1);
+                return new ValueNodes.DatePartNode(arguments.get(0), ValueNodes.DatePartNode.MONTH);
+            case "day":
+                checkArgumentCount(nameToken, arguments, 1, 1);
+                return new ValueNodes.DatePartNode(arguments.get(0), ValueNodes.DatePartNode.DAY);
+            case "coalesce":
+            case "nvl":
+                checkArgumentCount(nameToken, arguments, 1, Integer.MAX_VALUE);
+                return new ValueNodes.CoalesceNode(arguments.toArray(new ValueNode[0]), getCommonType(arguments));
+            default:
+                throw new ExpressionParseException(this.expression, nameToken, "unknown function");
+        }
+    }
+
+    private void checkArgumentCount(final DDLToken nameToken,
+                                    final List<ValueNode> arguments,
+                                    final int minArgumentCount,
+                                    final int maxArgumentCount) throws ExpressionParseException {
+        if (arguments.size() < minArgumentCount || arguments.size() > maxArgumentCount) {
+            throw new ExpressionParseException(this.expression, nameToken, "wrong number of arguments: " + arguments.size());
+        }
+    }
+
+    // case is read, the simple case (case value when 'A' then ...) compares the value to every when
+    private ValueNode parseCase() throws ExpressionParseException {
+        final ValueNode caseValue = peek().isWord("when") ? null : parseConcat();
+        final List<PredicateNode> conditions = new ArrayList<>();
+        final List<ValueNode> results = new ArrayList<>();
+        do {
+            expectWord("when");
+            if (caseValue == null) {
+                conditions.add(parseOr());
+            } else {
+                final ValueNode whenValue = parseConcat();
+                conditions.add(new PredicateNodes.ComparisonNode(caseValue, ComparisonOperator.EQUAL, whenValue, getComparisonType(List.of(caseValue, whenValue))));
+            }
+            expectWord("then");
+            results.add(parseConcat());
+        } while (peek().isWord("when"));
+        final ValueNode elseResult = acceptWord("else") ? parseConcat() : new ValueNodes.LiteralNode(null, ExpressionType.STRING);
+        expectWord("end");
+
+        final List<ValueNode> allResults = new ArrayList<>(results);
+        allResults.add(elseResult);
+        return new ValueNodes.CaseNode(conditions.toArray(new PredicateNode[0]), results.toArray(new ValueNode[0]), elseResult, getCommonType(allResults));
+    }
+
+    // the type shared by all values apart from null literals, otherwise a string
+    private static ExpressionType getCommonType(final List<ValueNode> values) {
+        ExpressionType commonType = null;
+        for (final ValueNode value : values) {
+            if (value.isConstant() && value.isNull()) {
+                continue;
+            }
+            if (commonType != null && commonType != value.getType()) {
+                return ExpressionType.STRING;
+            }
+            commonType = value.getType();
+        }
+        return commonType != null ? commonType : ExpressionType.STRING;
+    }
+
+    private DDLToken peek() {
+        return peek(0);
+    }
+
+    private DDLToken peek(final int offset) {
+        return this.tokens.get(Math.min(this.position + offset, this.tokens.size() - 1));
+    }
+
+    private DDLToken next() {
+        final DDLToken token = peek();
+        if (token.getType() != DDLToken.Type.END) {
+            this.position++;
+        }
+        return token;
+    }
+
+    private boolean acceptWord(final String word) {
+        if (peek().isWord(word)) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean acceptSymbol(final char symbol) {
+        if (peek().isSymbol(symbol)) {
+            this.position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expectWord(final String word) throws ExpressionParseException {
+        if (!acceptWord(word)) {
+            throw new ExpressionParseException(this.expression, peek(), "expected " + word);
+        }
+    }
+
+    private void expectSymbol(final char symbol) throws ExpressionParseException {
+        if (!acceptSymbol(symbol)) {
+            throw new ExpressionParseException(this.expression, peek(), "expected " + symbol);
+        }
+    }
+
+    private void expectEnd() throws ExpressionParseException {
+        if (peek().getType() != DDLToken.Type.END) {
+            throw new ExpressionParseException(this.expression, peek(), "expected the end of the expression");
+        }
+    }
+}
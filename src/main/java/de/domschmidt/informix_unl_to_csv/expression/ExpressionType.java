@@ -0,0 +1,26 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.schema.ColumnType;
+
+import java.util.Set;
+
+// decides how two values are compared, taken from the informix type of the columns
+public enum ExpressionType {
+    STRING,
+    // decimal text, compared by its digits
+    NUMBER,
+    // dd.mm.yyyy as unloaded or yyyy-mm-dd
+    DATE;
+
+    private static final Set<String> NUMBER_TYPES = Set.of(
+            "smallint", "integer", "int", "bigint", "int8", "serial", "serial8", "bigserial",
+            "decimal", "dec", "numeric", "money", "float", "smallfloat", "real", "double"
+    );
+
+    public static ExpressionType of(final ColumnType columnType) {
+        if (columnType.getName().equals("date")) {
+            return DATE;
+        }
+        return NUMBER_TYPES.contains(columnType.getName()) ? NUMBER : STRING;
+    }
+}
@@ -0,0 +1,199 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import java.util.Arrays;
+
+// comparisons and conversions on char ranges, without creating strings for well formed values
+public final class ExpressionValues {
+
+    private ExpressionValues() {
+    }
+
+    static int compare(final ExpressionType type, final ValueNode left, final ValueNode right) {
+        return compare(type, left.getChars(), left.getStart(), left.getLength(), right.getChars(), right.getStart(), right.getLength());
+    }
+
+    // strings by their chars, a value which is no number or date throws an IllegalArgumentException
+    public static int compare(final ExpressionType type,
+                              final char[] leftChars, final int leftStart, final int leftLength,
+                              final char[] rightChars, final int rightStart, final int rightLength) {
+        switch (type) {
+            case NUMBER:
+                return compareNumbers(leftChars, leftStart, leftLength, rightChars, rightStart, rightLength);
+            case DATE:
+                return Integer.compare(parseDate(leftChars, leftStart, leftLength), parseDate(rightChars, rightStart, rightLength));
+            default:
+                return Arrays.compare(leftChars, leftStart, leftStart + leftLength, rightChars, rightStart, rightStart + rightLength);
+        }
+    }
+
+    // plain decimals by their digits, anything else (e.g. a float with exponent) as double
+    static int compareNumbers(final char[] leftChars, final int leftStart, final int leftLength,
+                              final char[] rightChars, final int rightStart, final int rightLength) {
+        if (!isPlainDecimal(leftChars, leftStart, leftLength) || !isPlainDecimal(rightChars, rightStart, rightLength)) {
+            return Double.compare(parseDouble(leftChars, leftStart, leftLength), parseDouble(rightChars, rightStart, rightLength));
+        }
+        final boolean leftNegative = leftChars[leftStart] == '-' && !isZero(leftChars, leftStart, leftLength);
+        final boolean rightNegative = rightChars[rightStart] == '-' && !isZero(rightChars, rightStart, rightLength);
+        if (leftNegative != rightNegative) {
+            return leftNegative ? -1 : 1;
+        }
+        final int magnitudeComparison = compareMagnitudes(leftChars, skipSign(leftChars, leftStart), leftStart + leftLength,
+                rightChars, skipSign(rightChars, rightStart), rightStart + rightLength);
+        return leftNegative ? -magnitudeComparison : magnitudeComparison;
+    }
+
+    // an optional sign, digits and at most one dot
+    static boolean isPlainDecimal(final char[] chars, final int start, final int length) {
+        final int end = start + length;
+        int digitCount = 0;
+        boolean dot = false;
+        for (int currentIdx = start < end ? skipSign(chars, start) : start; currentIdx < end; currentIdx++) {
+            if (chars[currentIdx] >= '0' && chars[currentIdx] <= '9') {
+                digitCount++;
+            } else if (chars[currentIdx] == '.' && !dot) {
+                dot = true;
+            } else {
+                return false;
+            }
+        }
+        return digitCount > 0;
+    }
+
+    // yyyymmdd of dd.mm.yyyy or yyyy-mm-dd
+    static int parseDate(final char[] chars, final int start, final int length) {
+        final int year;
+        final int month;
+        final int day;
+        if (length == 10 && chars[start + 2] == '.' && chars[start + 5] == '.') {
+            day = parseDigits(chars, start, 2);
+            month = parseDigits(chars, start + 3, 2);
+            year = parseDigits(chars, start + 6, 4);
+        } else if (length == 10 && chars[start + 4] == '-' && chars[start + 7] == '-') {
+            year = parseDigits(chars, start, 4);
+            month = parseDigits(chars, start + 5, 2);
+            day = parseDigits(chars, start + 8, 2);
+        } else {
+            throw new IllegalArgumentException("not a date: " + new String(chars, start, length));
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > getMonthLength(year, month)) {
+            throw new IllegalArgumentException("not a date: " + new String(chars, start, length));
+        }
+        return year * 10000 + month * 100 + day;
+    }
+
+    static long parseLong(final char[] chars, final int start, final int length) {
+        if (length == 0 || !isPlainDecimal(chars, start, length)) {
+            throw new IllegalArgumentException("not an integer: " + new String(chars, start, length));
+        }
+        final int digitsStart = skipSign(chars, start);
+        long value = 0;
+        for (int currentIdx = digitsStart; currentIdx < start + length; currentIdx++) {
+            if (chars[currentIdx] == '.') {
+                throw new IllegalArgumentException("not an integer: " + new String(chars, start, length));
+            }
+            value = value * 10 + (chars[currentIdx] - '0');
+        }
+        return chars[start] == '-' ? -value : value;
+    }
+
+    // the decimal digits of a non negative value, returns the length
+    static int writeDigits(final int value, final char[] chars) {
+        int digitCount = 1;
+        for (int remaining = value / 10; remaining > 0; remaining /= 10) {
+            digitCount++;
+        }
+        int remaining = value;
+        for (int currentIdx = digitCount - 1; currentIdx >= 0; currentIdx--) {
+            chars[currentIdx] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        return digitCount;
+    }
+
+    private static int parseDigits(final char[] chars, final int start, final int length) {
+        int value = 0;
+        for (int currentIdx = start; currentIdx < start + length; currentIdx++) {
+            if (chars[currentIdx] < '0' || chars[currentIdx] > '9') {
+                return -1;
+            }
+            value = value * 10 + (chars[currentIdx] - '0');
+        }
+        return value;
+    }
+
+    private static int getMonthLength(final int year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int skipSign(final char[] chars, final int start) {
+        return chars[start] == '-' || chars[start] == '+' ? start + 1 : start;
+    }
+
+    private static boolean isZero(final char[] chars, final int start, final int length) {
+        for (int currentIdx = start; currentIdx < start + length; currentIdx++) {
+            if (chars[currentIdx] >= '1' && chars[currentIdx] <= '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the integer digits without leading zeros by count, then digit by digit including the fraction
+    private static int compareMagnitudes(final char[] leftChars, final int leftStart, final int leftEnd,
+                                         final char[] rightChars, final int rightStart, final int rightEnd) {
+        final int leftDot = indexOfDot(leftChars, leftStart, leftEnd);
+        final int rightDot = indexOfDot(rightChars, rightStart, rightEnd);
+        int leftIdx = leftStart;
+        while (leftIdx < leftDot && leftChars[leftIdx] == '0') {
+            leftIdx++;
+        }
+        int rightIdx = rightStart;
+        while (rightIdx < rightDot && rightChars[rightIdx] == '0') {
+            rightIdx++;
+        }
+        if (leftDot - leftIdx != rightDot - rightIdx) {
+            return Integer.compare(leftDot - leftIdx, rightDot - rightIdx);
+        }
+        while (leftIdx < leftDot) {
+            if (leftChars[leftIdx] != rightChars[rightIdx]) {
+                return Character.compare(leftChars[leftIdx], rightChars[rightIdx]);
+            }
+            leftIdx++;
+            rightIdx++;
+        }
+        // the fractions, a missing digit counts as 0
+        leftIdx = leftDot + 1;
+        rightIdx = rightDot + 1;
+        while (leftIdx < leftEnd || rightIdx < rightEnd) {
+            final char leftDigit = leftIdx < leftEnd ? leftChars[leftIdx] : '0';
+            final char rightDigit = rightIdx < rightEnd ? rightChars[rightIdx] : '0';
+            if (leftDigit != rightDigit) {
+                return Character.compare(leftDigit, rightDigit);
+            }
+            leftIdx++;
+            rightIdx++;
+        }
+        return 0;
+    }
+
+    // end if there is no dot
+    private static int indexOfDot(final char[] chars, final int start, final int end) {
+        for (int currentIdx = start; currentIdx < end; currentIdx++) {
+            if (chars[currentIdx] == '.') {
+                return currentIdx;
+            }
+        }
+        return end;
+    }
+
+    private static double parseDouble(final char[] chars, final int start, final int length) {
+        try {
+            return Double.parseDouble(new String(chars, start, length));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + new String(chars, start, length));
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+// a compiled condition with the three values of sql, a comparison with null is unknown
+public abstract class PredicateNode {
+
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+    public static final int UNKNOWN = 2;
+
+    public abstract int test(UNLRecord record);
+}
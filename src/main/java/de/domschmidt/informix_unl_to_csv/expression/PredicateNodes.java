@@ -0,0 +1,178 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+// the node of every condition, created by the ExpressionParser
+final class PredicateNodes {
+
+    private PredicateNodes() {
+    }
+
+    enum ComparisonOperator {
+        EQUAL,
+        NOT_EQUAL,
+        LESS,
+        LESS_OR_EQUAL,
+        GREATER,
+        GREATER_OR_EQUAL;
+
+        boolean matches(final int comparison) {
+            switch (this) {
+                case EQUAL:
+                    return comparison == 0;
+                case NOT_EQUAL:
+                    return comparison != 0;
+                case LESS:
+                    return comparison < 0;
+                case LESS_OR_EQUAL:
+                    return comparison <= 0;
+                case GREATER:
+                    return comparison > 0;
+                default:
+                    return comparison >= 0;
+            }
+        }
+    }
+
+    static class ComparisonNode extends PredicateNode {
+
+        private final ValueNode left;
+        private final ComparisonOperator operator;
+        private final ValueNode right;
+        private final ExpressionType comparisonType;
+
+        ComparisonNode(final ValueNode left, final ComparisonOperator operator, final ValueNode right, final ExpressionType comparisonType) {
+            this.left = left;
+            this.operator = operator;
+            this.right = right;
+            this.comparisonType = comparisonType;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            this.left.evaluate(record);
+            this.right.evaluate(record);
+            if (this.left.isNull() || this.right.isNull()) {
+                return UNKNOWN;
+            }
+            return this.operator.matches(ExpressionValues.compare(this.comparisonType, this.left, this.right)) ? TRUE : FALSE;
+        }
+    }
+
+    // value [not] in (a, b, ...), unknown if nothing matches but a null is in the list
+    static class InNode extends PredicateNode {
+
+        private final ValueNode value;
+        private final ValueNode[] items;
+        private final ExpressionType comparisonType;
+        private final boolean negated;
+
+        InNode(final ValueNode value, final ValueNode[] items, final ExpressionType comparisonType, final boolean negated) {
+            this.value = value;
+            this.items = items;
+            this.comparisonType = comparisonType;
+            this.negated = negated;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            this.value.evaluate(record);
+            if (this.value.isNull()) {
+                return UNKNOWN;
+            }
+            boolean nullItem = false;
+            for (final ValueNode item : this.items) {
+                item.evaluate(record);
+                if (item.isNull()) {
+                    nullItem = true;
+                } else if (ExpressionValues.compare(this.comparisonType, this.value, item) == 0) {
+                    return this.negated ? FALSE : TRUE;
+                }
+            }
+            if (nullItem) {
+                return UNKNOWN;
+            }
+            return this.negated ? TRUE : FALSE;
+        }
+    }
+
+    static class IsNullNode extends PredicateNode {
+
+        private final ValueNode value;
+        private final boolean negated;
+
+        IsNullNode(final ValueNode value, final boolean negated) {
+            this.value = value;
+            this.negated = negated;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            this.value.evaluate(record);
+            return this.value.isNull() != this.negated ? TRUE : FALSE;
+        }
+    }
+
+    static class AndNode extends PredicateNode {
+
+        private final PredicateNode left;
+        private final PredicateNode right;
+
+        AndNode(final PredicateNode left, final PredicateNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            final int leftResult = this.left.test(record);
+            if (leftResult == FALSE) {
+                return FALSE;
+            }
+            final int rightResult = this.right.test(record);
+            if (rightResult == FALSE) {
+                return FALSE;
+            }
+            return leftResult == TRUE && rightResult == TRUE ? TRUE : UNKNOWN;
+        }
+    }
+
+    static class OrNode extends PredicateNode {
+
+        private final PredicateNode left;
+        private final PredicateNode right;
+
+        OrNode(final PredicateNode left, final PredicateNode right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            final int leftResult = this.left.test(record);
+            if (leftResult == TRUE) {
+                return TRUE;
+            }
+            final int rightResult = this.right.test(record);
+            if (rightResult == TRUE) {
+                return TRUE;
+            }
+            return leftResult == FALSE && rightResult == FALSE ? FALSE : UNKNOWN;
+        }
+    }
+
+    static class NotNode extends PredicateNode {
+
+        private final PredicateNode predicate;
+
+        NotNode(final PredicateNode predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public int test(final UNLRecord record) {
+            final int result = this.predicate.test(record);
+            return result == UNKNOWN ? UNKNOWN : result == TRUE ? FALSE : TRUE;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+// a compiled expression, evaluate leaves the value of the current record in the node itself,
+// so nothing is allocated per record. The value may reference the record chars or the chars of a child node
+public abstract class ValueNode {
+
+    private final ExpressionType type;
+    private char[] chars;
+    private int start;
+    private int length;
+    private boolean isNull;
+    // of the nodes building their value
+    private char[] ownChars = new char[0];
+
+    protected ValueNode(final ExpressionType type) {
+        this.type = type;
+    }
+
+    public abstract void evaluate(UNLRecord record);
+
+    public ExpressionType getType() {
+        return this.type;
+    }
+
+    // literals are evaluated once, when compiled
+    public boolean isConstant() {
+        return false;
+    }
+
+    public boolean isNull() {
+        return this.isNull;
+    }
+
+    public char[] getChars() {
+        return this.chars;
+    }
+
+    public int getStart() {
+        return this.start;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    protected void setValue(final char[] chars, final int start, final int length) {
+        this.chars = chars;
+        this.start = start;
+        this.length = length;
+        this.isNull = false;
+    }
+
+    protected void setValue(final ValueNode node) {
+        this.chars = node.chars;
+        this.start = node.start;
+        this.length = node.length;
+        this.isNull = node.isNull;
+    }
+
+    protected void setNull() {
+        this.isNull = true;
+        this.length = 0;
+    }
+
+    // grown as needed and kept for the next records
+    protected char[] getOwnChars(final int capacity) {
+        if (this.ownChars.length < capacity) {
+            this.ownChars = new char[Math.max(this.ownChars.length * 2, capacity)];
+        }
+        return this.ownChars;
+    }
+}
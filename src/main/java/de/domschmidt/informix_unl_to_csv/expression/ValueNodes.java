@@ -0,0 +1,259 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+// the node of every value expression, created by the ExpressionParser
+final class ValueNodes {
+
+    private ValueNodes() {
+    }
+
+    // references the unl cell, nothing is copied
+    static class ColumnNode extends ValueNode {
+
+        private final int unlCellIdx;
+
+        ColumnNode(final int unlCellIdx, final ExpressionType type) {
+            super(type);
+            this.unlCellIdx = unlCellIdx;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            if (record.isNull(this.unlCellIdx)) {
+                setNull();
+            } else {
+                setValue(record.getChars(), record.getFieldStart(this.unlCellIdx), record.getFieldLength(this.unlCellIdx));
+            }
+        }
+    }
+
+    static class LiteralNode extends ValueNode {
+
+        // null for the null literal
+        LiteralNode(final String value, final ExpressionType type) {
+            super(type);
+            if (value == null) {
+                setNull();
+            } else {
+                setValue(value.toCharArray(), 0, value.length());
+            }
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            // the value is set once
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    // a || b, null if any part is null
+    static class ConcatNode extends ValueNode {
+
+        private final ValueNode[] parts;
+
+        ConcatNode(final ValueNode[] parts) {
+            super(ExpressionType.STRING);
+            this.parts = parts;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            int length = 0;
+            for (final ValueNode part : this.parts) {
+                part.evaluate(record);
+                if (part.isNull()) {
+                    setNull();
+                    return;
+                }
+                length += part.getLength();
+            }
+            final char[] chars = getOwnChars(length);
+            int position = 0;
+            for (final ValueNode part : this.parts) {
+                System.arraycopy(part.getChars(), part.getStart(), chars, position, part.getLength());
+                position += part.getLength();
+            }
+            setValue(chars, 0, length);
+        }
+    }
+
+    // substr(value, start[, length]) with the first char at 1, references the chars of the value
+    static class SubstrNode extends ValueNode {
+
+        private final ValueNode value;
+        private final ValueNode start;
+        // null up to the end
+        private final ValueNode length;
+
+        SubstrNode(final ValueNode value, final ValueNode start, final ValueNode length) {
+            super(ExpressionType.STRING);
+            this.value = value;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            this.value.evaluate(record);
+            this.start.evaluate(record);
+            if (this.length != null) {
+                this.length.evaluate(record);
+            }
+            if (this.value.isNull() || this.start.isNull() || (this.length != null && this.length.isNull())) {
+                setNull();
+                return;
+            }
+            final long firstChar = Math.max(1, ExpressionValues.parseLong(this.start.getChars(), this.start.getStart(), this.start.getLength()));
+            final int offset = (int) Math.min(firstChar - 1, this.value.getLength());
+            int substrLength = this.value.getLength() - offset;
+            if (this.length != null) {
+                substrLength = (int) Math.max(0, Math.min(substrLength,
+                        ExpressionValues.parseLong(this.length.getChars(), this.length.getStart(), this.length.getLength())));
+            }
+            setValue(this.value.getChars(), this.value.getStart() + offset, substrLength);
+        }
+    }
+
+    // leading and trailing blanks, references the chars of the value
+    static class TrimNode extends ValueNode {
+
+        private final ValueNode value;
+
+        TrimNode(final ValueNode value) {
+            super(ExpressionType.STRING);
+            this.value = value;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            this.value.evaluate(record);
+            if (this.value.isNull()) {
+                setNull();
+                return;
+            }
+            int start = this.value.getStart();
+            int end = start + this.value.getLength();
+            while (start < end && this.value.getChars()[start] == ' ') {
+                start++;
+            }
+            while (end > start && this.value.getChars()[end - 1] == ' ') {
+                end--;
+            }
+            setValue(this.value.getChars(), start, end - start);
+        }
+    }
+
+    // upper and lower
+    static class CaseConversionNode extends ValueNode {
+
+        private final ValueNode value;
+        private final boolean upperCase;
+
+        CaseConversionNode(final ValueNode value, final boolean upperCase) {
+            super(ExpressionType.STRING);
+            this.value = value;
+            this.upperCase = upperCase;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            this.value.evaluate(record);
+            if (this.value.isNull()) {
+                setNull();
+                return;
+            }
+            final char[] chars = getOwnChars(this.value.getLength());
+            for (int currentIdx = 0; currentIdx < this.value.getLength(); currentIdx++) {
+                final char currentChar = this.value.getChars()[this.value.getStart() + currentIdx];
+                chars[currentIdx] = this.upperCase ? Character.toUpperCase(currentChar) : Character.toLowerCase(currentChar);
+            }
+            setValue(chars, 0, this.value.getLength());
+        }
+    }
+
+    // year, month and day of a date, without leading zeros
+    static class DatePartNode extends ValueNode {
+
+        static final int YEAR = 0;
+        static final int MONTH = 1;
+        static final int DAY = 2;
+
+        private final ValueNode value;
+        private final int datePart;
+
+        DatePartNode(final ValueNode value, final int datePart) {
+            super(ExpressionType.NUMBER);
+            this.value = value;
+            this.datePart = datePart;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            this.value.evaluate(record);
+            if (this.value.isNull()) {
+                setNull();
+                return;
+            }
+            final int date = ExpressionValues.parseDate(this.value.getChars(), this.value.getStart(), this.value.getLength());
+            final int datePartValue = this.datePart == YEAR ? date / 10000 : this.datePart == MONTH ? date / 100 % 100 : date % 100;
+            final char[] chars = getOwnChars(4);
+            setValue(chars, 0, ExpressionValues.writeDigits(datePartValue, chars));
+        }
+    }
+
+    // the first value which is not null
+    static class CoalesceNode extends ValueNode {
+
+        private final ValueNode[] values;
+
+        CoalesceNode(final ValueNode[] values, final ExpressionType type) {
+            super(type);
+            this.values = values;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            for (final ValueNode value : this.values) {
+                value.evaluate(record);
+                if (!value.isNull()) {
+                    setValue(value);
+                    return;
+                }
+            }
+            setNull();
+        }
+    }
+
+    // case when ... then ... else ... end, the value of the first true condition
+    static class CaseNode extends ValueNode {
+
+        private final PredicateNode[] conditions;
+        private final ValueNode[] results;
+        private final ValueNode elseResult;
+
+        CaseNode(final PredicateNode[] conditions, final ValueNode[] results, final ValueNode elseResult, final ExpressionType type) {
+            super(type);
+            this.conditions = conditions;
+            this.results = results;
+            this.elseResult = elseResult;
+        }
+
+        @Override
+        public void evaluate(final UNLRecord record) {
+            for (int currentConditionIdx = 0; currentConditionIdx < this.conditions.length; currentConditionIdx++) {
+                if (this.conditions[currentConditionIdx].test(record) == PredicateNode.TRUE) {
+                    this.results[currentConditionIdx].evaluate(record);
+                    setValue(this.results[currentConditionIdx]);
+                    return;
+                }
+            }
+            this.elseResult.evaluate(record);
+            setValue(this.elseResult);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+import java.util.List;
+
+// the formatters of one column of one table, each one formats the output of the one before, a null value ends the chain,
+// holds the intermediate results and is therefore only used by one thread
+public class ColumnFormatterChain {
+
+    private final IColumnFormatter[] formatters;
+    private final FormatterOutput[] intermediateOutputs = {new FormatterOutput(), new FormatterOutput()};
+
+    public ColumnFormatterChain(final List<IColumnFormatter> formatters) {
+        if (formatters.isEmpty()) {
+            throw new IllegalArgumentException("a formatter chain needs at least one formatter");
+        }
+        this.formatters = formatters.toArray(new IColumnFormatter[0]);
+    }
+
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        char[] currentChars = chars;
+        int currentStart = start;
+        int currentLength = length;
+        for (int currentFormatterIdx = 0; currentFormatterIdx < this.formatters.length; currentFormatterIdx++) {
+            final FormatterOutput currentOutput = currentFormatterIdx == this.formatters.length - 1
+                    ? output
+                    : this.intermediateOutputs[currentFormatterIdx & 1];
+            currentOutput.clear();
+            this.formatters[currentFormatterIdx].format(currentChars, currentStart, currentLength, currentOutput);
+            if (currentOutput.isNull()) {
+                output.setNull();
+                return;
+            }
+            currentChars = currentOutput.getChars();
+            currentStart = 0;
+            currentLength = currentOutput.getLength();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+// the formatters found by the ServiceLoader on the classpath by their simple class name, string based
+// ICustomTableColumnFormatter services are adapted, so a formatter jar works without rebuilding the tool
+public class ColumnFormatterRegistry {
+
+    private final Map<String, IColumnFormatter> formatters = new HashMap<>();
+
+    public ColumnFormatterRegistry() {
+        for (final IColumnFormatter formatter : ServiceLoader.load(IColumnFormatter.class)) {
+            register(formatter.getClass().getSimpleName(), formatter);
+        }
+        for (final ICustomTableColumnFormatter formatter : ServiceLoader.load(ICustomTableColumnFormatter.class)) {
+            register(formatter.getClass().getSimpleName(), new StringColumnFormatterAdapter(formatter));
+        }
+    }
+
+    private void register(final String name, final IColumnFormatter formatter) {
+        if (this.formatters.putIfAbsent(name, formatter) != null) {
+            throw new IllegalStateException("formatter " + name + " is registered twice");
+        }
+    }
+
+    // e.g. "DATE_FORMATTER" or "TRIM_FORMATTER, DATE_FORMATTER", applied from left to right
+    public List<IColumnFormatter> getChain(final String formatterNames) {
+        final List<IColumnFormatter> chain = new ArrayList<>();
+        for (final String formatterName : formatterNames.split(",")) {
+            final IColumnFormatter formatter = this.formatters.get(formatterName.trim());
+            if (formatter == null) {
+                throw new IllegalArgumentException("unknown formatter " + formatterName.trim() + ", known are " + this.formatters.keySet());
+            }
+            chain.add(formatter);
+        }
+        return chain;
+    }
+}
@@ -1,15 +1,34 @@
 package de.domschmidt.informix_unl_to_csv.formatter;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 
-public class DATE_FORMATTER implements ICustomTableColumnFormatter {
+public class DATE_FORMATTER implements IColumnFormatter {
 
     private final static DateTimeFormatter INPUT_PATTERN = DateTimeFormatter.ofPattern("dd.MM.yyyy");
     private final static DateTimeFormatter OUTPUT_PATTERN = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    // a valid dd.MM.yyyy is only rearranged, everything else takes the parser
     @Override
-    public String convert(final String contentRaw) {
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        if (length == 10 && chars[start + 2] == '.' && chars[start + 5] == '.') {
+            final int day = FormatterDigits.parse(chars, start, 2);
+            final int month = FormatterDigits.parse(chars, start + 3, 2);
+            final int year = FormatterDigits.parse(chars, start + 6, 4);
+            if (year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= YearMonth.of(year, month).lengthOfMonth()) {
+                output.append(chars, start + 6, 4)
+                        .append('-')
+                        .append(chars, start + 3, 2)
+                        .append('-')
+                        .append(chars, start, 2);
+                return;
+            }
+        }
+        output.append(convert(new String(chars, start, length)));
+    }
+
+    private static String convert(final String contentRaw) {
         if (!contentRaw.trim().equals("")) {
             final LocalDate parsedDate = LocalDate.parse(contentRaw, INPUT_PATTERN);
             return parsedDate.format(OUTPUT_PATTERN);
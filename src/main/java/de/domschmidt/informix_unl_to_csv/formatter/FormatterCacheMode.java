@@ -0,0 +1,8 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+public enum FormatterCacheMode {
+    // caches columns whose sampled values repeat often enough
+    AUTO,
+    ALWAYS,
+    NEVER
+}
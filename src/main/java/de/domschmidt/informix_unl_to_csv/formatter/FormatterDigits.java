@@ -0,0 +1,20 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+class FormatterDigits {
+
+    private FormatterDigits() {
+    }
+
+    // the value of length ascii digits or -1 if there is any other char
+    static int parse(final char[] chars, final int start, final int length) {
+        int value = 0;
+        for (int currentCharIdx = start; currentCharIdx < start + length; currentCharIdx++) {
+            final char currentChar = chars[currentCharIdx];
+            if (currentChar < '0' || currentChar > '9') {
+                return -1;
+            }
+            value = value * 10 + currentChar - '0';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,65 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+// the reusable result of a formatter
+public class FormatterOutput {
+
+    private char[] chars = new char[64];
+    private int length;
+    private boolean nullValue;
+
+    public void clear() {
+        this.length = 0;
+        this.nullValue = false;
+    }
+
+    public FormatterOutput append(final char character) {
+        ensureCapacity(1);
+        this.chars[this.length++] = character;
+        return this;
+    }
+
+    public FormatterOutput append(final char[] characters, final int start, final int length) {
+        ensureCapacity(length);
+        System.arraycopy(characters, start, this.chars, this.length, length);
+        this.length += length;
+        return this;
+    }
+
+    public FormatterOutput append(final CharSequence characters) {
+        ensureCapacity(characters.length());
+        if (characters instanceof String) {
+            ((String) characters).getChars(0, characters.length(), this.chars, this.length);
+            this.length += characters.length();
+        } else {
+            for (int currentCharIdx = 0; currentCharIdx < characters.length(); currentCharIdx++) {
+                this.chars[this.length++] = characters.charAt(currentCharIdx);
+            }
+        }
+        return this;
+    }
+
+    public void setNull() {
+        this.length = 0;
+        this.nullValue = true;
+    }
+
+    public boolean isNull() {
+        return this.nullValue;
+    }
+
+    public char[] getChars() {
+        return this.chars;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    private void ensureCapacity(final int additionalChars) {
+        if (this.length + additionalChars > this.chars.length) {
+            final char[] grownChars = new char[Math.max(this.chars.length * 2, this.length + additionalChars)];
+            System.arraycopy(this.chars, 0, grownChars, 0, this.length);
+            this.chars = grownChars;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// bounded lru cache of the results of a column formatter, keyed on the raw cell chars
+public class FormatterResultCache {
+
+    // in auto mode the cache is kept if at most every second sampled cell was a new value
+    private static final int SAMPLE_SIZE = 1024;
+
+    // a cached null value
+    private static final char[] NULL_RESULT = new char[0];
+
+    private final ColumnFormatterChain formatterChain;
+    private final int capacity;
+    private final Map<CellKey, char[]> results;
+    // reused for lookups, only a miss copies the chars into a key of its own
+    private final CellKey lookupKey = new CellKey();
+    private boolean sampling;
+    private boolean enabled;
+    private long hits;
+    private long misses;
+
+    public FormatterResultCache(final ColumnFormatterChain formatterChain,
+                                final FormatterCacheMode mode,
+                                final int capacity) {
+        this.formatterChain = formatterChain;
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CellKey, char[]> eldest) {
+                return size() > FormatterResultCache.this.capacity;
+            }
+        };
+        this.enabled = mode != FormatterCacheMode.NEVER && capacity > 0;
+        this.sampling = this.enabled && mode == FormatterCacheMode.AUTO;
+    }
+
+    // the distinct count of a previous analysis decides right away instead of a sample
+    public void setDistinctEstimate(final long distinctEstimate, final long recordCount) {
+        if (this.sampling) {
+            this.sampling = false;
+            this.enabled = distinctEstimate <= this.capacity && distinctEstimate * 2 <= recordCount;
+        }
+    }
+
+    // output is cleared first
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        output.clear();
+        if (!this.enabled) {
+            this.formatterChain.format(chars, start, length, output);
+            return;
+        }
+        this.lookupKey.set(chars, start, length);
+        final char[] cachedResult = this.results.get(this.lookupKey);
+        if (cachedResult != null) {
+            this.hits++;
+            if (cachedResult == NULL_RESULT) {
+                output.setNull();
+            } else {
+                output.append(cachedResult, 0, cachedResult.length);
+            }
+            return;
+        }
+        this.misses++;
+        this.formatterChain.format(chars, start, length, output);
+        this.results.put(this.lookupKey.copy(), output.isNull() ? NULL_RESULT : Arrays.copyOf(output.getChars(), output.getLength()));
+
+        if (this.sampling && this.hits + this.misses >= SAMPLE_SIZE) {
+            this.sampling = false;
+            if (this.misses * 2 > SAMPLE_SIZE) {
+                this.enabled = false;
+                this.results.clear();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public long getHits() {
+        return this.hits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public double getHitRate() {
+        return this.hits + this.misses > 0 ? (double) this.hits / (this.hits + this.misses) : 0;
+    }
+
+    private static class CellKey {
+
+        private char[] chars;
+        private int start;
+        private int length;
+        private int hash;
+
+        private void set(final char[] chars, final int start, final int length) {
+            this.chars = chars;
+            this.start = start;
+            this.length = length;
+            int hash = 1;
+            for (int currentCharIdx = start; currentCharIdx < start + length; currentCharIdx++) {
+                hash = 31 * hash + chars[currentCharIdx];
+            }
+            this.hash = hash;
+        }
+
+        private CellKey copy() {
+            final CellKey copy = new CellKey();
+            copy.chars = Arrays.copyOfRange(this.chars, this.start, this.start + this.length);
+            copy.length = this.length;
+            copy.hash = this.hash;
+            return copy;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof CellKey)) {
+                return false;
+            }
+            final CellKey otherKey = (CellKey) other;
+            return this.hash == otherKey.hash && Arrays.equals(this.chars, this.start, this.start + this.length,
+                    otherKey.chars, otherKey.start, otherKey.start + otherKey.length);
+        }
+    }
+}
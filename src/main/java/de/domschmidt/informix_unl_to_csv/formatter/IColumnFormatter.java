@@ -0,0 +1,10 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+// formats a cell without creating strings, implementations are shared by the converting threads and must be stateless,
+// further formatters are registered in META-INF/services/de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter
+public interface IColumnFormatter {
+
+    // output is empty when called, setting it null makes the cell null, a RuntimeException rejects the record
+    void format(char[] chars, int start, int length, FormatterOutput output);
+
+}
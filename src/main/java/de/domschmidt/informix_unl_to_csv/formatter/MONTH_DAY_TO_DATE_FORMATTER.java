@@ -1,15 +1,29 @@
 package de.domschmidt.informix_unl_to_csv.formatter;
 
+import java.time.Month;
 import java.time.MonthDay;
 import java.time.format.DateTimeFormatter;
 
-public class MONTH_DAY_TO_DATE_FORMATTER implements ICustomTableColumnFormatter {
+public class MONTH_DAY_TO_DATE_FORMATTER implements IColumnFormatter {
 
     private final static DateTimeFormatter INPUT_PATTERN = DateTimeFormatter.ofPattern("MM-dd");
     private final static DateTimeFormatter OUTPUT_PATTERN = DateTimeFormatter.ofPattern("'1970'-MM-dd");
 
+    // a valid MM-dd is only prefixed, everything else takes the parser
     @Override
-    public String convert(final String contentRaw) {
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        if (length == 5 && chars[start + 2] == '-') {
+            final int month = FormatterDigits.parse(chars, start, 2);
+            final int day = FormatterDigits.parse(chars, start + 3, 2);
+            if (month >= 1 && month <= 12 && day >= 1 && day <= Month.of(month).maxLength()) {
+                output.append("1970-").append(chars, start, 5);
+                return;
+            }
+        }
+        output.append(convert(new String(chars, start, length)));
+    }
+
+    private static String convert(final String contentRaw) {
         if (!contentRaw.trim().equals("")) {
             final MonthDay parsedDate = MonthDay.parse(contentRaw, INPUT_PATTERN);
             return parsedDate.format(OUTPUT_PATTERN);
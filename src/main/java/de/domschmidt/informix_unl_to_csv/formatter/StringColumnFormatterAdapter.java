@@ -0,0 +1,25 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+// runs an ICustomTableColumnFormatter as IColumnFormatter, a null result is a null value
+public class StringColumnFormatterAdapter implements IColumnFormatter {
+
+    private final ICustomTableColumnFormatter formatter;
+
+    public StringColumnFormatterAdapter(final ICustomTableColumnFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        final String result = this.formatter.convert(new String(chars, start, length));
+        if (result != null) {
+            output.append(result);
+        } else {
+            output.setNull();
+        }
+    }
+
+    public ICustomTableColumnFormatter getFormatter() {
+        return this.formatter;
+    }
+}
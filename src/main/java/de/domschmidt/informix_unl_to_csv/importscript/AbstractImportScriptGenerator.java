@@ -0,0 +1,118 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public abstract class AbstractImportScriptGenerator implements IImportScriptGenerator {
+
+    protected final String pathPrefix;
+    protected final int batchSize;
+    protected final int sessions;
+    protected final String fixupSql;
+
+    protected AbstractImportScriptGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+        this.pathPrefix = pathPrefix;
+        this.batchSize = batchSize;
+        this.sessions = sessions;
+        this.fixupSql = fixupSql;
+    }
+
+    @Override
+    public void generate(final Path outputPath, final List<List<ConvertedTable>> loadWaves) throws IOException {
+        final List<ConvertedTable> orderedTables = new ArrayList<>();
+        for (final List<ConvertedTable> currentWave : loadWaves) {
+            orderedTables.addAll(currentWave);
+        }
+        generateImportScript(outputPath, orderedTables);
+
+        if (this.sessions > 0) {
+            generateWaveScripts(outputPath, loadWaves);
+        }
+    }
+
+    // the import script loading every table in dependency order with the constraints disabled
+    protected abstract void generateImportScript(Path outputPath, List<ConvertedTable> orderedTables) throws IOException;
+
+    protected abstract String getDialectName();
+
+    // settings of a wave session, constraints stay enabled there
+    protected abstract void writeWaveSessionSettings(BufferedWriter importFileWriter) throws IOException;
+
+    protected abstract void writeLoadStatement(BufferedWriter importFileWriter, ConvertedTable convertedTable, boolean checkConstraints) throws IOException;
+
+    // wave_<wave>.session_<session>.sql, all sessions of a wave can run concurrently, the next wave has to wait for them
+    protected void generateWaveScripts(final Path outputPath, final List<List<ConvertedTable>> loadWaves) throws IOException {
+        final Path waveScriptPath = outputPath.resolve("import." + getDialectName() + ".waves");
+        Files.createDirectories(waveScriptPath);
+
+        for (int currentWaveIdx = 0; currentWaveIdx < loadWaves.size(); currentWaveIdx++) {
+            final List<List<ConvertedTable>> tablesPerSession = distributeToSessions(outputPath, loadWaves.get(currentWaveIdx));
+            for (int currentSessionIdx = 0; currentSessionIdx < tablesPerSession.size(); currentSessionIdx++) {
+                final String waveScriptName = String.format("wave_%03d.session_%02d.sql", currentWaveIdx + 1, currentSessionIdx + 1);
+                try (final BufferedWriter waveScriptWriter = newScriptWriter(waveScriptPath.resolve(waveScriptName))) {
+                    writeWaveSessionSettings(waveScriptWriter);
+                    for (final ConvertedTable convertedTable : tablesPerSession.get(currentSessionIdx)) {
+                        writeLoadStatement(waveScriptWriter, convertedTable, true);
+                    }
+                }
+            }
+        }
+    }
+
+    // largest files first, each one to the session with the least bytes so far
+    protected List<List<ConvertedTable>> distributeToSessions(final Path outputPath, final List<ConvertedTable> wave) throws IOException {
+        final List<ConvertedTable> tablesBySize = new ArrayList<>(wave);
+        final List<Long> csvSizes = new ArrayList<>();
+        for (final ConvertedTable convertedTable : tablesBySize) {
+            final Path csvPath = outputPath.resolve(convertedTable.getCsvName());
+            csvSizes.add(Files.exists(csvPath) ? Files.size(csvPath) : 0L);
+        }
+        final List<Integer> tableIndices = new ArrayList<>();
+        for (int currentIdx = 0; currentIdx < tablesBySize.size(); currentIdx++) {
+            tableIndices.add(currentIdx);
+        }
+        tableIndices.sort(Comparator.comparing(csvSizes::get).reversed());
+
+        final int sessionCount = Math.min(this.sessions, wave.size());
+        final List<List<ConvertedTable>> tablesPerSession = new ArrayList<>();
+        final long[] bytesPerSession = new long[sessionCount];
+        for (int currentSessionIdx = 0; currentSessionIdx < sessionCount; currentSessionIdx++) {
+            tablesPerSession.add(new ArrayList<>());
+        }
+        for (final Integer currentTableIdx : tableIndices) {
+            int smallestSessionIdx = 0;
+            for (int currentSessionIdx = 1; currentSessionIdx < sessionCount; currentSessionIdx++) {
+                if (bytesPerSession[currentSessionIdx] < bytesPerSession[smallestSessionIdx]) {
+                    smallestSessionIdx = currentSessionIdx;
+                }
+            }
+            tablesPerSession.get(smallestSessionIdx).add(tablesBySize.get(currentTableIdx));
+            bytesPerSession[smallestSessionIdx] += csvSizes.get(currentTableIdx);
+        }
+        return tablesPerSession;
+    }
+
+    protected String getCsvPath(final ConvertedTable convertedTable) {
+        return this.pathPrefix + convertedTable.getCsvName();
+    }
+
+    protected void writeFixupSql(final BufferedWriter importFileWriter) throws IOException {
+        if (this.fixupSql != null && !this.fixupSql.isBlank()) {
+            importFileWriter.write(this.fixupSql);
+            if (!this.fixupSql.endsWith("\n")) {
+                importFileWriter.write("\n");
+            }
+            importFileWriter.write("\n");
+        }
+    }
+
+    protected BufferedWriter newScriptWriter(final Path scriptPath) throws IOException {
+        return Files.newBufferedWriter(scriptPath, StandardCharsets.UTF_8);
+    }
+}
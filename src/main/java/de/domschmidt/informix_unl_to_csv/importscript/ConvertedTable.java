@@ -0,0 +1,33 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import java.util.List;
+
+public class ConvertedTable {
+
+    private final String tableName;
+    private final String csvName;
+    // empty if the rows are not ordered
+    private final List<String> orderColumnNames;
+
+    public ConvertedTable(final String tableName, final String csvName) {
+        this(tableName, csvName, List.of());
+    }
+
+    public ConvertedTable(final String tableName, final String csvName, final List<String> orderColumnNames) {
+        this.tableName = tableName;
+        this.csvName = csvName;
+        this.orderColumnNames = orderColumnNames;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public String getCsvName() {
+        return this.csvName;
+    }
+
+    public List<String> getOrderColumnNames() {
+        return this.orderColumnNames;
+    }
+}
@@ -0,0 +1,21 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.List;
+
+public interface IImportScriptGenerator {
+
+    // encoding the csv files have to be written in, so that the target is able to load them
+    Charset getCsvCharset();
+
+    // how null values and escapes have to be written, so that the target loads nulls as such
+    CsvFormat getCsvFormat();
+
+    // load waves as returned by TableDependencyGraph, tables of one wave do not reference each other
+    void generate(Path outputPath, List<List<ConvertedTable>> loadWaves) throws IOException;
+
+}
@@ -0,0 +1,50 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import de.domschmidt.informix_unl_to_csv.ddl.AbstractTargetDDLGenerator;
+import de.domschmidt.informix_unl_to_csv.ddl.MSSQLTargetDDLGenerator;
+import de.domschmidt.informix_unl_to_csv.ddl.MySQLTargetDDLGenerator;
+import de.domschmidt.informix_unl_to_csv.ddl.PostgreSQLTargetDDLGenerator;
+
+import java.util.Map;
+
+public enum ImportScriptTarget {
+
+    MSSQL {
+        @Override
+        public IImportScriptGenerator createGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+            return new MSSQLImportScriptGenerator(pathPrefix, batchSize, sessions, fixupSql);
+        }
+
+        @Override
+        public AbstractTargetDDLGenerator createTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+            return new MSSQLTargetDDLGenerator(typeTemplateOverrides);
+        }
+    },
+    POSTGRESQL {
+        @Override
+        public IImportScriptGenerator createGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+            return new PostgreSQLImportScriptGenerator(pathPrefix, batchSize, sessions, fixupSql);
+        }
+
+        @Override
+        public AbstractTargetDDLGenerator createTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+            return new PostgreSQLTargetDDLGenerator(typeTemplateOverrides);
+        }
+    },
+    MYSQL {
+        @Override
+        public IImportScriptGenerator createGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+            return new MySQLImportScriptGenerator(pathPrefix, batchSize, sessions, fixupSql);
+        }
+
+        @Override
+        public AbstractTargetDDLGenerator createTargetDDLGenerator(final Map<String, String> typeTemplateOverrides) {
+            return new MySQLTargetDDLGenerator(typeTemplateOverrides);
+        }
+    };
+
+    public abstract IImportScriptGenerator createGenerator(String pathPrefix, int batchSize, int sessions, String fixupSql);
+
+    public abstract AbstractTargetDDLGenerator createTargetDDLGenerator(Map<String, String> typeTemplateOverrides);
+
+}
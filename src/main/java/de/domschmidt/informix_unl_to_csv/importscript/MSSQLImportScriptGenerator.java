@@ -0,0 +1,67 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+public class MSSQLImportScriptGenerator extends AbstractImportScriptGenerator {
+
+    public MSSQLImportScriptGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+        super(pathPrefix, batchSize, sessions, fixupSql);
+    }
+
+    @Override
+    public Charset getCsvCharset() {
+        return StandardCharsets.UTF_16;
+    }
+
+    @Override
+    public CsvFormat getCsvFormat() {
+        return CsvFormat.RFC_4180;
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "mssql";
+    }
+
+    @Override
+    protected void generateImportScript(final Path outputPath, final List<ConvertedTable> orderedTables) throws IOException {
+        try (final BufferedWriter importFileWriter = newScriptWriter(outputPath.resolve("import.mssql.sql"))) {
+            importFileWriter.write("EXEC sp_msforeachtable 'ALTER TABLE ? NOCHECK CONSTRAINT ALL';\n");
+            importFileWriter.write("EXEC sp_msforeachtable 'DISABLE TRIGGER ALL ON ?';\n\n");
+
+            for (final ConvertedTable convertedTable : orderedTables) {
+                writeLoadStatement(importFileWriter, convertedTable, false);
+            }
+
+            writeFixupSql(importFileWriter);
+
+            importFileWriter.write("EXEC sp_msforeachtable 'ENABLE TRIGGER ALL ON ?';\n");
+            importFileWriter.write("EXEC sp_msforeachtable 'ALTER TABLE ? WITH CHECK CHECK CONSTRAINT ALL';\n");
+        }
+    }
+
+    @Override
+    protected void writeWaveSessionSettings(final BufferedWriter importFileWriter) throws IOException {
+        // bulk insert does not fire triggers by default, nothing to switch off
+    }
+
+    @Override
+    protected void writeLoadStatement(final BufferedWriter importFileWriter, final ConvertedTable convertedTable, final boolean checkConstraints) throws IOException {
+        // TABLOCK allows minimal logging as long as the database uses the simple or bulk logged recovery model,
+        // KEEPNULLS loads the unquoted empty fields as null instead of the column default
+        importFileWriter.write("BULK INSERT " + convertedTable.getTableName()
+                + "\n FROM '" + getCsvPath(convertedTable) + "'"
+                + "\n WITH (FORMAT = \"CSV\", ROWTERMINATOR = \"\\n\", KEEPIDENTITY, KEEPNULLS, TABLOCK"
+                + (this.batchSize > 0 ? ", BATCHSIZE = " + this.batchSize : "")
+                + (checkConstraints ? ", CHECK_CONSTRAINTS" : "")
+                + (convertedTable.getOrderColumnNames().isEmpty() ? "" : ", ORDER (" + String.join(" ASC, ", convertedTable.getOrderColumnNames()) + " ASC)")
+                + ");\n\n");
+    }
+}
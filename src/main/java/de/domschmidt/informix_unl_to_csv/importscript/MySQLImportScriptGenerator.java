@@ -0,0 +1,67 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+public class MySQLImportScriptGenerator extends AbstractImportScriptGenerator {
+
+    public MySQLImportScriptGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+        super(pathPrefix, batchSize, sessions, fixupSql);
+    }
+
+    @Override
+    public Charset getCsvCharset() {
+        // LOAD DATA does not support utf-16 input
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public CsvFormat getCsvFormat() {
+        return CsvFormat.MYSQL;
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "mysql";
+    }
+
+    @Override
+    protected void generateImportScript(final Path outputPath, final List<ConvertedTable> orderedTables) throws IOException {
+        try (final BufferedWriter importFileWriter = newScriptWriter(outputPath.resolve("import.mysql.sql"))) {
+            importFileWriter.write("SET SESSION sql_log_bin = 0;\n");
+            importFileWriter.write("SET SESSION foreign_key_checks = 0;\n");
+            importFileWriter.write("SET SESSION unique_checks = 0;\n\n");
+
+            for (final ConvertedTable convertedTable : orderedTables) {
+                writeLoadStatement(importFileWriter, convertedTable, false);
+            }
+
+            writeFixupSql(importFileWriter);
+
+            importFileWriter.write("SET SESSION unique_checks = 1;\n");
+            importFileWriter.write("SET SESSION foreign_key_checks = 1;\n");
+            importFileWriter.write("SET SESSION sql_log_bin = 1;\n");
+        }
+    }
+
+    @Override
+    protected void writeWaveSessionSettings(final BufferedWriter importFileWriter) throws IOException {
+        importFileWriter.write("SET SESSION sql_log_bin = 0;\n");
+        importFileWriter.write("SET SESSION unique_checks = 0;\n\n");
+    }
+
+    @Override
+    protected void writeLoadStatement(final BufferedWriter importFileWriter, final ConvertedTable convertedTable, final boolean checkConstraints) throws IOException {
+        importFileWriter.write("LOAD DATA INFILE '" + getCsvPath(convertedTable) + "'"
+                + "\n INTO TABLE " + convertedTable.getTableName()
+                + "\n CHARACTER SET utf8mb4"
+                + "\n FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+                + "\n LINES TERMINATED BY '\\n';\n\n");
+    }
+}
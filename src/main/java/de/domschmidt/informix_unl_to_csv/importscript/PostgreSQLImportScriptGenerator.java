@@ -0,0 +1,79 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class PostgreSQLImportScriptGenerator extends AbstractImportScriptGenerator {
+
+    private static final String PER_TABLE_SCRIPT_DIRECTORY = "import.postgresql";
+
+    public PostgreSQLImportScriptGenerator(final String pathPrefix, final int batchSize, final int sessions, final String fixupSql) {
+        super(pathPrefix, batchSize, sessions, fixupSql);
+    }
+
+    @Override
+    public Charset getCsvCharset() {
+        // COPY does not support utf-16 input
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public CsvFormat getCsvFormat() {
+        return CsvFormat.RFC_4180;
+    }
+
+    @Override
+    protected String getDialectName() {
+        return "postgresql";
+    }
+
+    @Override
+    protected void generateImportScript(final Path outputPath, final List<ConvertedTable> orderedTables) throws IOException {
+        // every table gets its own script, so the scripts can be run in parallel psql sessions
+        // e.g. ls import.postgresql/*.sql | xargs -P 8 -n 1 psql -f
+        final Path perTableScriptPath = outputPath.resolve(PER_TABLE_SCRIPT_DIRECTORY);
+        Files.createDirectories(perTableScriptPath);
+
+        try (final BufferedWriter importFileWriter = newScriptWriter(outputPath.resolve("import.postgresql.sql"))) {
+            for (final ConvertedTable convertedTable : orderedTables) {
+                // named after the csv, so every part of a split table gets its own script
+                final String perTableScriptName = convertedTable.getCsvName().replaceAll("\\.csv$", "") + ".sql";
+                try (final BufferedWriter perTableWriter = newScriptWriter(perTableScriptPath.resolve(perTableScriptName))) {
+                    writeSessionSettings(perTableWriter);
+                    writeLoadStatement(perTableWriter, convertedTable, false);
+                }
+                importFileWriter.write("\\ir " + PER_TABLE_SCRIPT_DIRECTORY + "/" + perTableScriptName + "\n");
+            }
+            importFileWriter.write("\n");
+
+            writeSessionSettings(importFileWriter);
+            writeFixupSql(importFileWriter);
+            importFileWriter.write("SET session_replication_role = DEFAULT;\n");
+        }
+    }
+
+    protected void writeSessionSettings(final BufferedWriter importFileWriter) throws IOException {
+        importFileWriter.write("SET synchronous_commit = off;\n");
+        // replica role skips triggers and therefore the foreign key checks
+        importFileWriter.write("SET session_replication_role = replica;\n\n");
+    }
+
+    @Override
+    protected void writeWaveSessionSettings(final BufferedWriter importFileWriter) throws IOException {
+        importFileWriter.write("SET synchronous_commit = off;\n\n");
+    }
+
+    @Override
+    protected void writeLoadStatement(final BufferedWriter importFileWriter, final ConvertedTable convertedTable, final boolean checkConstraints) throws IOException {
+        importFileWriter.write("COPY " + convertedTable.getTableName()
+                + "\n FROM '" + getCsvPath(convertedTable) + "'"
+                + "\n WITH (FORMAT csv, ENCODING 'UTF8');\n\n");
+    }
+}
@@ -0,0 +1,155 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class TableDependencyGraph {
+
+    // table name, names of the tables it references
+    private final Map<String, Set<String>> referencedTables = new HashMap<>();
+
+    public void addTable(final String tableName) {
+        this.referencedTables.computeIfAbsent(tableName, key -> new HashSet<>());
+    }
+
+    public void addReference(final String tableName, final String referencedTableName) {
+        addTable(tableName);
+        // a self reference cannot be resolved by ordering
+        if (!tableName.equals(referencedTableName)) {
+            this.referencedTables.get(tableName).add(referencedTableName);
+        }
+    }
+
+    // every wave only references tables of earlier waves, the tables of one wave can be loaded concurrently; the
+    // tables of a reference cycle are loaded together in a wave of their own, the tables referencing them after it
+    public List<List<String>> getLoadWaves() {
+        final List<List<String>> components = getComponents();
+        final Map<String, Integer> tableComponents = new HashMap<>();
+        for (int currentComponentIdx = 0; currentComponentIdx < components.size(); currentComponentIdx++) {
+            for (final String tableName : components.get(currentComponentIdx)) {
+                tableComponents.put(tableName, currentComponentIdx);
+            }
+        }
+
+        // component, the components it references
+        final Map<Integer, Set<Integer>> pendingReferences = new TreeMap<>();
+        for (int currentComponentIdx = 0; currentComponentIdx < components.size(); currentComponentIdx++) {
+            final Set<Integer> componentReferences = new HashSet<>();
+            for (final String tableName : components.get(currentComponentIdx)) {
+                for (final String referencedTableName : this.referencedTables.get(tableName)) {
+                    // references to tables which are not loaded do not block anything
+                    final Integer referencedComponentIdx = tableComponents.get(referencedTableName);
+                    if (referencedComponentIdx != null && referencedComponentIdx != currentComponentIdx) {
+                        componentReferences.add(referencedComponentIdx);
+                    }
+                }
+            }
+            pendingReferences.put(currentComponentIdx, componentReferences);
+        }
+
+        final List<List<String>> loadWaves = new ArrayList<>();
+        while (!pendingReferences.isEmpty()) {
+            final List<Integer> loadedComponents = new ArrayList<>();
+            final List<String> currentWave = new ArrayList<>();
+            final List<List<String>> cyclicWaves = new ArrayList<>();
+            for (final Map.Entry<Integer, Set<Integer>> currentComponent : pendingReferences.entrySet()) {
+                if (currentComponent.getValue().isEmpty()) {
+                    loadedComponents.add(currentComponent.getKey());
+                    final List<String> componentTables = components.get(currentComponent.getKey());
+                    if (componentTables.size() > 1) {
+                        cyclicWaves.add(componentTables);
+                    } else {
+                        currentWave.addAll(componentTables);
+                    }
+                }
+            }
+
+            if (!currentWave.isEmpty()) {
+                Collections.sort(currentWave);
+                loadWaves.add(currentWave);
+            }
+            loadWaves.addAll(cyclicWaves);
+            for (final Integer loadedComponent : loadedComponents) {
+                pendingReferences.remove(loadedComponent);
+            }
+            for (final Set<Integer> currentReferences : pendingReferences.values()) {
+                currentReferences.removeAll(loadedComponents);
+            }
+        }
+        return loadWaves;
+    }
+
+    // the tables of every reference cycle, sorted, they cannot be loaded with their foreign keys enabled
+    public List<List<String>> getCycles() {
+        final List<List<String>> cycles = new ArrayList<>();
+        for (final List<String> component : getComponents()) {
+            if (component.size() > 1) {
+                cycles.add(component);
+            }
+        }
+        return cycles;
+    }
+
+    // the strongly connected components by tarjan, a table outside a cycle is a component of its own; the tables of a
+    // component are sorted, the components ordered by their first table
+    private List<List<String>> getComponents() {
+        final TarjanState tarjanState = new TarjanState();
+        for (final String tableName : new TreeSet<>(this.referencedTables.keySet())) {
+            if (!tarjanState.tableIndexes.containsKey(tableName)) {
+                visit(tableName, tarjanState);
+            }
+        }
+        tarjanState.components.sort((firstComponent, secondComponent) -> firstComponent.get(0).compareTo(secondComponent.get(0)));
+        return tarjanState.components;
+    }
+
+    private void visit(final String tableName, final TarjanState tarjanState) {
+        final int tableIndex = tarjanState.tableIndexes.size();
+        tarjanState.tableIndexes.put(tableName, tableIndex);
+        tarjanState.lowLinks.put(tableName, tableIndex);
+        tarjanState.stack.push(tableName);
+        tarjanState.stackedTables.add(tableName);
+
+        for (final String referencedTableName : new TreeSet<>(this.referencedTables.get(tableName))) {
+            if (!this.referencedTables.containsKey(referencedTableName)) {
+                continue;
+            }
+            if (!tarjanState.tableIndexes.containsKey(referencedTableName)) {
+                visit(referencedTableName, tarjanState);
+                tarjanState.lowLinks.put(tableName, Math.min(tarjanState.lowLinks.get(tableName), tarjanState.lowLinks.get(referencedTableName)));
+            } else if (tarjanState.stackedTables.contains(referencedTableName)) {
+                tarjanState.lowLinks.put(tableName, Math.min(tarjanState.lowLinks.get(tableName), tarjanState.tableIndexes.get(referencedTableName)));
+            }
+        }
+
+        // the root of a component, the tables above it on the stack belong to it
+        if (tarjanState.lowLinks.get(tableName) == tableIndex) {
+            final List<String> component = new ArrayList<>();
+            String componentTableName;
+            do {
+                componentTableName = tarjanState.stack.pop();
+                tarjanState.stackedTables.remove(componentTableName);
+                component.add(componentTableName);
+            } while (!componentTableName.equals(tableName));
+            Collections.sort(component);
+            tarjanState.components.add(component);
+        }
+    }
+
+    private static class TarjanState {
+        private final Map<String, Integer> tableIndexes = new HashMap<>();
+        private final Map<String, Integer> lowLinks = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> stackedTables = new HashSet<>();
+        private final List<List<String>> components = new ArrayList<>();
+    }
+}
@@ -1,34 +1,69 @@
 package de.domschmidt.informix_unl_to_csv;
 
+import de.domschmidt.informix_unl_to_csv.analyze.AnalysisReport;
+import de.domschmidt.informix_unl_to_csv.analyze.TableAnalysisTask;
+import de.domschmidt.informix_unl_to_csv.analyze.TableStatistics;
 import de.domschmidt.informix_unl_to_csv.defaults.AutoIncreaseColumnDefault;
 import de.domschmidt.informix_unl_to_csv.defaults.ITableDefaultValue;
 import de.domschmidt.informix_unl_to_csv.defaults.StaticStringDefault;
+import de.domschmidt.informix_unl_to_csv.diff.DiffReport;
+import de.domschmidt.informix_unl_to_csv.diff.TableDiffTask;
+import de.domschmidt.informix_unl_to_csv.diff.TableSnapshotDiff;
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionType;
+import de.domschmidt.informix_unl_to_csv.formatter.ColumnFormatterRegistry;
 import de.domschmidt.informix_unl_to_csv.formatter.DATE_FORMATTER;
-import de.domschmidt.informix_unl_to_csv.formatter.ICustomTableColumnFormatter;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
 import de.domschmidt.informix_unl_to_csv.formatter.MONTH_DAY_TO_DATE_FORMATTER;
+import de.domschmidt.informix_unl_to_csv.importscript.ConvertedTable;
+import de.domschmidt.informix_unl_to_csv.importscript.IImportScriptGenerator;
+import de.domschmidt.informix_unl_to_csv.importscript.ImportScriptTarget;
+import de.domschmidt.informix_unl_to_csv.importscript.TableDependencyGraph;
+import de.domschmidt.informix_unl_to_csv.mask.DigitScrambleMask;
+import de.domschmidt.informix_unl_to_csv.mask.MaskingKey;
+import de.domschmidt.informix_unl_to_csv.mask.MaskingRules;
+import de.domschmidt.informix_unl_to_csv.orphan.KeyCollectingTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.orphan.OrphanPlaceholderRule;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+import de.domschmidt.informix_unl_to_csv.schema.Constraint;
+import de.domschmidt.informix_unl_to_csv.schema.ConstraintType;
+import de.domschmidt.informix_unl_to_csv.schema.DDLParser;
+import de.domschmidt.informix_unl_to_csv.schema.Schema;
+import de.domschmidt.informix_unl_to_csv.schema.Table;
+import de.domschmidt.informix_unl_to_csv.sink.AsyncFileWriter;
+import de.domschmidt.informix_unl_to_csv.sink.CsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSinkFactory;
+import de.domschmidt.informix_unl_to_csv.sink.JdbcSinkSettings;
+import de.domschmidt.informix_unl_to_csv.sink.JdbcTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.PartitionedCsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.sink.SortKey;
+import de.domschmidt.informix_unl_to_csv.sink.SortingTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.IUNLCharScanner;
+import de.domschmidt.informix_unl_to_csv.unl.UNLCharScannerType;
+import de.domschmidt.informix_unl_to_csv.verify.VerificationReport;
 import org.apache.commons.cli.*;
 
 import java.io.*;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
 public class informixUNLToCSVMain {
 
-    private static final Map<String, String> unlFilePerTable = new HashMap<>();
-    private static final Pattern databaseNamePattern = Pattern.compile("^\\{ DATABASE ([\\w]+).*$");
-    private static final Pattern tablePattern = Pattern.compile("^\\{ TABLE ([\\\"\\w\\.]+).*$");
-    private static final Pattern tableUNLPattern = Pattern.compile("^\\{ unload file name = ([\\\"\\w\\.]+).*$");
 
     // table name, column idx, custom formatter class
-    private static final Map<String, Map<String, ICustomTableColumnFormatter>> CUSTOM_TABLE_CONVERTERS;
+    private static final Map<String, Map<String, IColumnFormatter>> CUSTOM_TABLE_CONVERTERS;
     // table name, list of strings to be appended
     private static final Map<String, Map<String, ITableDefaultValue>> CUSTOM_TABLE_COLUMN_DEFAULTS;
     // table name, custom schema name
@@ -36,8 +71,13 @@ public class informixUNLToCSVMain {
     // table name, column idx, column name
     private static final Map<String, List<String>> CUSTOM_TABLE_COLUMN_ORDER;
 
+    private static final Set<String> INTEGER_TYPES = Set.of("smallint", "integer", "int", "bigint", "int8", "serial", "serial8", "bigserial");
+
+    // marks the key column of an orphan placeholder rule, followed by the referencing table.columns
+    private static final String REFERENCES_PREFIX = "references ";
+
     static {
-        final Map<String, Map<String, ICustomTableColumnFormatter>> newCustomConverters = new HashMap<>();
+        final Map<String, Map<String, IColumnFormatter>> newCustomConverters = new HashMap<>();
 
         newCustomConverters.put("termin", Map.of("te_datum", new DATE_FORMATTER()));
         newCustomConverters.put("konzertsaal", Map.of("ks_datum", new DATE_FORMATTER()));
@@ -1263,579 +1303,309 @@ public class informixUNLToCSVMain {
 
         final Option input = new Option("i", "input", true, "dbimport or dbexport file path");
         final Option output = new Option("o", "output", true, "output path");
-        input.setRequired(true);
-        output.setRequired(true);
+        final Option target = new Option("t", "target", true, "import script target: mssql (default), postgresql or mysql");
+        final Option pathPrefix = new Option("p", "path-prefix", true, "path prefix of the csv files used in the import script");
+        final Option batchSize = new Option("b", "batch-size", true, "rows per batch of the bulk load, if supported by the target");
+        final Option fixupSql = new Option("f", "fixup-sql", true, "sql file appended to the import script after the bulk load");
+        final Option sessions = new Option("s", "sessions", true, "parallel load sessions per dependency wave, generates additional wave scripts keeping the constraints enabled");
+        final Option jdbcUrl = new Option(null, "jdbc-url", true, "loads the rows directly into this jdbc target instead of writing csv files");
+        final Option jdbcUser = new Option(null, "jdbc-user", true, "user of the jdbc target");
+        final Option jdbcPassword = new Option(null, "jdbc-password", true, "password of the jdbc target");
+        final Option jdbcBatchSize = new Option(null, "jdbc-batch-size", true, "rows per jdbc batch (default 1000)");
+        final Option jdbcConnections = new Option(null, "jdbc-connections", true, "parallel jdbc connections per table (default 4)");
+        final Option jdbcCommitInterval = new Option(null, "jdbc-commit-interval", true, "rows per connection between two commits (default 100000)");
+        final Option verify = new Option(null, "verify", false, "counts the records and checksums every column of the unl and of the csv files read back, writes verification.csv");
+        final Option maxErrors = new Option(null, "max-errors", true, "aborts the run after more rejected records than this (default unlimited)");
+        final Option virtualThreads = new Option(null, "virtual-threads", false, "converts every table on its own virtual thread, overlapping the file latencies");
+        final Option cpuThreads = new Option(null, "cpu-threads", true, "tables converted at the same time with --virtual-threads (default number of processors)");
+        final Option smallTableBytes = new Option(null, "small-table-size", true, "unl files up to this size are converted in memory (default 1048576 bytes)");
+        final Option formatterCache = new Option(null, "formatter-cache", true, "caches formatter results per column: auto (default, decided on a sample of the values), always or never");
+        final Option formatterCacheEntries = new Option(null, "formatter-cache-size", true, "cached formatter results per column (default 4096)");
+        final Option analyze = new Option(null, "analyze", false, "only reads the unl files and writes analysis.csv with record counts and column statistics");
+        final Option analysis = new Option(null, "analysis", true, "analysis.csv of a previous --analyze run, used for the formatter caches and read sizes");
+        final Option ddl = new Option(null, "ddl", false, "writes create.<target>.sql with the tables and post-load.<target>.sql with the keys, indexes and checks");
+        final Option typeMapping = new Option(null, "type-mapping", true, "properties file overriding the informix to target type mapping of --ddl, e.g. datetime\\ year\\ to\\ second=datetime2(0)");
+        final Option maxRowsPerFile = new Option(null, "max-rows-per-file", true, "rolls the csv of a table into numbered part files of at most this many rows, each loaded by its own statement");
+        final Option maxBytesPerFile = new Option(null, "max-bytes-per-file", true, "rolls the csv of a table into numbered part files of about this many bytes, each loaded by its own statement");
+        final Option outputBufferSize = new Option(null, "output-buffer-size", true, "bytes of every output buffer, filled while the others are written (default 1048576)");
+        final Option outputBuffers = new Option(null, "output-buffers", true, "output buffers per converting table (default 2)");
+        final Option unlScanner = new Option(null, "unl-scanner", true, "search of the delimiters and escapes: auto (default, vector if the jvm runs with --add-modules jdk.incubator.vector), vector or scalar");
+        final Option columnFormatters = new Option(null, "column-formatters", true, "properties file assigning formatter chains to columns, e.g. termin.te_datum=DATE_FORMATTER, further formatters are found on the classpath");
+        final Option derivedColumns = new Option(null, "derived-columns", true, "properties file computing columns from the other columns of the row, e.g. kunde.pe_name=trim(pe_vorname) || ' ' || upper(pe_name)");
+        final Option rowFilters = new Option(null, "row-filters", true, "properties file with the condition of the records converted per table, e.g. termin=te_datum >= '2020-01-01'");
+        final Option masking = new Option(null, "masking", true, "properties file masking columns for test systems: table.column=hash [length], digits, shift-date <days> or replace [text]");
+        final Option maskingKey = new Option(null, "masking-key", true, "secret of the --masking hashes, the same secret masks every export the same way");
+        final Option sortByKey = new Option(null, "sort-by-key", false, "writes the rows of every table in the order of its primary or first unique key, the bulk insert gets an ORDER hint");
+        final Option sortKeys = new Option(null, "sort-keys", true, "properties file with the sort columns of --sort-by-key per table instead of its key, e.g. termin=te_pe_id, te_datum");
+        final Option sortMemory = new Option(null, "sort-memory", true, "bytes of rows sorted in memory per table before a sorted run is spilled to a temp file (default 67108864)");
+        final Option sortTempDir = new Option(null, "sort-temp-dir", true, "directory of the spilled runs of --sort-by-key (default the output path)");
+        final Option orphanPlaceholders = new Option(null, "orphan-placeholders", true, "properties file adding placeholder rows for keys referenced but missing in the parent table, e.g. person.pe_id=references adr_zu_pe.pe_id, omvertrag.omv_finanzamt_pe and person.pe_nachname=GELÖSCHTE PERSON");
+        final Option diffOld = new Option(null, "diff-old", true, "dbexport file of an older export, writes only the inserted, updated and deleted rows of every keyed table and diff.csv");
+        final Option diffMemory = new Option(null, "diff-memory", true, "bytes of the key map of the older export held in direct memory per table before it is mapped to a temp file (default 268435456)");
+        final Option diffTempDir = new Option(null, "diff-temp-dir", true, "directory of the mapped key maps of --diff-old (default the output path)");
+        final Option pipe = new Option(null, "pipe", true, "converts this single table from the unl stream on stdin to csv on stdout, needs --pipe-columns or --pipe-schema instead of -i and -o");
+        final Option pipeColumns = new Option(null, "pipe-columns", true, "column definitions of the --pipe table as in its create table, e.g. \"pe_id serial not null, pe_name char(25)\"");
+        final Option pipeSchema = new Option(null, "pipe-schema", true, "sql file with the create table of the --pipe table");
+        final Option pipeBufferSize = new Option(null, "pipe-buffer-size", true, "bytes read from stdin and chars written to stdout at once (default 1048576)");
         options.addOption(input);
         options.addOption(output);
+        options.addOption(target);
+        options.addOption(pathPrefix);
+        options.addOption(batchSize);
+        options.addOption(fixupSql);
+        options.addOption(sessions);
+        options.addOption(jdbcUrl);
+        options.addOption(jdbcUser);
+        options.addOption(jdbcPassword);
+        options.addOption(jdbcBatchSize);
+        options.addOption(jdbcConnections);
+        options.addOption(jdbcCommitInterval);
+        options.addOption(verify);
+        options.addOption(maxErrors);
+        options.addOption(virtualThreads);
+        options.addOption(cpuThreads);
+        options.addOption(smallTableBytes);
+        options.addOption(formatterCache);
+        options.addOption(formatterCacheEntries);
+        options.addOption(analyze);
+        options.addOption(analysis);
+        options.addOption(ddl);
+        options.addOption(typeMapping);
+        options.addOption(maxRowsPerFile);
+        options.addOption(maxBytesPerFile);
+        options.addOption(outputBufferSize);
+        options.addOption(outputBuffers);
+        options.addOption(unlScanner);
+        options.addOption(columnFormatters);
+        options.addOption(derivedColumns);
+        options.addOption(rowFilters);
+        options.addOption(masking);
+        options.addOption(maskingKey);
+        options.addOption(sortByKey);
+        options.addOption(sortKeys);
+        options.addOption(sortMemory);
+        options.addOption(sortTempDir);
+        options.addOption(orphanPlaceholders);
+        options.addOption(diffOld);
+        options.addOption(diffMemory);
+        options.addOption(diffTempDir);
+        options.addOption(pipe);
+        options.addOption(pipeColumns);
+        options.addOption(pipeSchema);
+        options.addOption(pipeBufferSize);
 
         final CommandLineParser parser = new DefaultParser();
 
         try {
             final CommandLine cmd = parser.parse(options, args);
+            if (!cmd.hasOption(pipe) && (!cmd.hasOption(input) || !cmd.hasOption(output))) {
+                throw new MissingOptionException(Arrays.asList(input.getOpt(), output.getOpt()));
+            }
 
-            final Path inputFilePath = Paths.get(cmd.getOptionValue(input));
-            final Path outputFilePath = Paths.get(cmd.getOptionValue(output));
-            System.out.println("input file path: " + inputFilePath);
-            System.out.println("output file path: " + outputFilePath);
-
-            try (final Stream<String> inputFilePathLineStream = Files.lines(inputFilePath)) {
-
-                final AtomicReference<String> databaseName = new AtomicReference<>();
-                final AtomicReference<String> currentTable = new AtomicReference<>();
-                final AtomicReference<String> currentTableUNLFile = new AtomicReference<>();
-                inputFilePathLineStream.forEachOrdered(line -> {
-                    final Matcher matcherDatabaseNamePattern = databaseNamePattern.matcher(line);
-                    final Matcher matcherTablePattern = tablePattern.matcher(line);
-                    final Matcher matcherTableUNLPattern = tableUNLPattern.matcher(line);
-
-                    if (matcherDatabaseNamePattern.matches()) {
-                        databaseName.set(matcherDatabaseNamePattern.group(1));
-                    } else if (matcherTablePattern.matches()) {
-                        currentTable.set(matcherTablePattern.group(1));
-                    } else if (matcherTableUNLPattern.matches()) {
-                        currentTableUNLFile.set(matcherTableUNLPattern.group(1));
-                    }
+            try {
 
-                    if (currentTable.get() != null && currentTableUNLFile.get() != null) {
-                        unlFilePerTable.put(currentTable.get(), currentTableUNLFile.get());
-                        currentTable.set(null);
-                        currentTableUNLFile.set(null);
-                    }
-                });
+                final IUNLCharScanner charScanner = getEnumOptionValue(cmd, unlScanner, UNLCharScannerType.class, UNLCharScannerType.AUTO).create();
+                if (cmd.hasOption(masking) && !cmd.hasOption(maskingKey)) {
+                    throw new MissingOptionException("--masking needs --masking-key");
+                }
+                final TableConverterFactory tableConverterFactory = new TableConverterFactory(
+                        CUSTOM_TABLE_CONVERTERS,
+                        CUSTOM_TABLE_COLUMN_DEFAULTS,
+                        CUSTOM_TABLE_COLUMN_ORDER,
+                        cmd.hasOption(columnFormatters) ? loadColumnFormatters(Paths.get(cmd.getOptionValue(columnFormatters))) : new HashMap<>(),
+                        cmd.hasOption(derivedColumns) ? loadTableColumnProperties(Paths.get(cmd.getOptionValue(derivedColumns))) : new HashMap<>(),
+                        cmd.hasOption(masking)
+                                ? loadColumnMasks(Paths.get(cmd.getOptionValue(masking)), MaskingKey.fromSecret(cmd.getOptionValue(maskingKey)))
+                                : new HashMap<>(),
+                        cmd.hasOption(rowFilters) ? loadRowFilters(Paths.get(cmd.getOptionValue(rowFilters))) : new HashMap<>(),
+                        getEnumOptionValue(cmd, formatterCache, FormatterCacheMode.class, FormatterCacheMode.AUTO),
+                        getIntOptionValue(cmd, formatterCacheEntries, 4096, 1)
+                );
 
-                System.out.println("database name: " + databaseName.get());
-                System.out.println("found " + unlFilePerTable.size() + " tables");
+                final ImportScriptTarget importScriptTarget = getEnumOptionValue(cmd, target, ImportScriptTarget.class, ImportScriptTarget.MSSQL);
+                final IImportScriptGenerator importScriptGenerator = importScriptTarget.createGenerator(
+                        cmd.getOptionValue(pathPrefix, "/var/opt/mssql/backups/init/"),
+                        getIntOptionValue(cmd, batchSize, 100000, 1),
+                        getIntOptionValue(cmd, sessions, 0, 0),
+                        cmd.hasOption(fixupSql) ? Files.readString(Paths.get(cmd.getOptionValue(fixupSql))) : null
+                );
 
-                final Path unlParentPath = inputFilePath.getParent().resolve(databaseName + ".exp");
+                // unlimited by default
+                final ErrorLimit errorLimit = new ErrorLimit(getLongOptionValue(cmd, maxErrors, -1, 0));
 
-                final Map<String, String> tableNamesPerCSV = new HashMap<>();
+                if (cmd.hasOption(pipe)) {
+                    // stdout carries the csv, the log goes to stderr
+                    final OutputStream csvStream = new FileOutputStream(FileDescriptor.out);
+                    System.setOut(System.err);
 
-                for (Map.Entry<String, String> currentUnlFilePerTable : unlFilePerTable.entrySet()) {
-                    final Path currentUnlPath = unlParentPath.resolve(currentUnlFilePerTable.getValue());
-                    String normalizedTableName = currentUnlFilePerTable.getKey().replaceAll("\"", "");
+                    final String normalizedTableName = normalizeTableName(cmd.getOptionValue(pipe));
+                    convertPipe(
+                            normalizedTableName,
+                            readPipeTable(normalizedTableName, cmd.getOptionValue(pipeColumns), cmd.hasOption(pipeSchema) ? Paths.get(cmd.getOptionValue(pipeSchema)) : null),
+                            tableConverterFactory,
+                            csvStream,
+                            importScriptGenerator,
+                            getIntOptionValue(cmd, pipeBufferSize, 1048576, 1),
+                            Paths.get(cmd.getOptionValue(output, ".")).resolve(normalizedTableName + ".rejects.unl"),
+                            errorLimit,
+                            new ConversionContextPool(charScanner)
+                    );
+                    return;
+                }
 
-                    final List<String> importOrderedColumnNames = new ArrayList<>();
-                    String flatContent = Files.readString(inputFilePath).replaceAll("\n", "");
-                    //create table "orveus".pe_bei_it (pe_id integer,it_id integer,pe_it_anwinfo char(1));
-                    final String tableCreateString = "create table " + currentUnlFilePerTable.getKey() + " ";
-                    flatContent = flatContent.substring(flatContent.indexOf(tableCreateString) + tableCreateString.length());
-                    flatContent = flatContent.substring(flatContent.indexOf("(") + 1);
-                    flatContent = flatContent.substring(0, flatContent.indexOf(");"));
+                final Path inputFilePath = Paths.get(cmd.getOptionValue(input));
+                final Path outputFilePath = Paths.get(cmd.getOptionValue(output));
+                System.out.println("input file path: " + inputFilePath);
+                System.out.println("output file path: " + outputFilePath);
+                System.out.println("import script target: " + importScriptTarget);
+                System.out.println("unl scanner: " + charScanner.getClass().getSimpleName());
 
-                    final String[] splittedCols = flatContent.split(", ");
-                    for (final String currentCol : splittedCols) {
-                        importOrderedColumnNames.add(currentCol.trim().split(" ")[0]);
-                    }
+                final JdbcSinkSettings jdbcSinkSettings;
+                if (cmd.hasOption(jdbcUrl)) {
+                    jdbcSinkSettings = new JdbcSinkSettings(
+                            cmd.getOptionValue(jdbcUrl),
+                            cmd.getOptionValue(jdbcUser),
+                            cmd.getOptionValue(jdbcPassword),
+                            getIntOptionValue(cmd, jdbcBatchSize, 1000, 1),
+                            getIntOptionValue(cmd, jdbcConnections, 4, 1),
+                            getIntOptionValue(cmd, jdbcCommitInterval, 100000, 1)
+                    );
+                    System.out.println("jdbc target: " + jdbcSinkSettings.getUrl());
+                } else {
+                    jdbcSinkSettings = null;
+                }
+                // the output side is read back from the csv files
+                if (cmd.hasOption(verify) && jdbcSinkSettings != null) {
+                    throw new ParseException("--verify cannot be combined with --jdbc-url, the written csv files are read back for the output side");
+                }
 
-                    final String tableNameWithoutSchema = normalizedTableName.substring(normalizedTableName.indexOf(".") + 1);
-                    if (CUSTOM_TABLE_SCHEMA.containsKey(tableNameWithoutSchema)) {
-                        normalizedTableName = CUSTOM_TABLE_SCHEMA.get(tableNameWithoutSchema) + '.' + tableNameWithoutSchema;
-                    }
+                final Schema schema = DDLParser.parse(Files.readString(inputFilePath));
+                final Map<String, Table> unloadedTables = getUnloadedTables(schema);
+
+                System.out.println("database name: " + schema.getDatabaseName());
+                System.out.println("found " + unloadedTables.size() + " tables");
+
+                final Path unlParentPath = inputFilePath.getParent().resolve(schema.getDatabaseName() + ".exp");
 
-                    System.out.println("processing " + currentUnlPath + " for table " + normalizedTableName);
-
-                    final String csvName = normalizedTableName + ".csv";
-                    final File csvFile = outputFilePath.resolve(csvName).toFile();
-                    final BufferedWriter csvWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_16));
-                    final Map<String, ICustomTableColumnFormatter> customTableConverters = CUSTOM_TABLE_CONVERTERS.get(tableNameWithoutSchema);
-                    final Map<String, ITableDefaultValue> customTableDefaults = CUSTOM_TABLE_COLUMN_DEFAULTS.get(tableNameWithoutSchema);
-
-                    final Reader inputFile = new FileReader(currentUnlPath.toFile().getAbsolutePath(), Charset.forName("IBM850"));
-                    final Scanner scanner = new Scanner(inputFile);
-                    scanner.useDelimiter(Pattern.compile("\n"));
-                    while (scanner.hasNext()) {
-                        String line = scanner.next();
-
-                        while (line.endsWith("\\")) {
-                            line = line.substring(0, line.length() - 1).concat("\n").concat(scanner.next());
-                        }
-
-                        if (line.endsWith("\r")) {
-                            line = line.substring(0, line.length() - 1).concat("|");
-                        }
-
-                        // backslash escapes the pipe
-                        final String[] cells = line.split("(?<!\\\\)\\|", -1);
-
-                        boolean first = true;
-
-                        if (CUSTOM_TABLE_COLUMN_ORDER.containsKey(tableNameWithoutSchema)) {
-                            final List<String> orderedColumns = CUSTOM_TABLE_COLUMN_ORDER.get(tableNameWithoutSchema);
-                            for (final String orderedColumn : orderedColumns) {
-                                final int originalIdx = importOrderedColumnNames.indexOf(orderedColumn);
-
-                                final String currentRowRecord;
-                                if (originalIdx < 0) {
-                                    currentRowRecord = customTableDefaults.get(orderedColumn).get();
-                                } else {
-                                    currentRowRecord = cells[originalIdx]
-                                            .replaceAll("\"", "\"\"")
-                                            .replaceAll("\\\\|", "");
-                                }
-
-                                if (!first) {
-                                    csvWriter.write(',');
-                                }
-                                csvWriter.write('\"');
-
-                                if (customTableConverters != null && customTableConverters.containsKey(orderedColumn)) {
-                                    csvWriter.write(customTableConverters.get(orderedColumn).convert(
-                                            currentRowRecord
-                                    ));
-                                } else {
-                                    csvWriter.write(currentRowRecord);
-                                }
-
-                                csvWriter.write('\"');
-
-                                if (first) {
-                                    first = false;
-                                }
-                            }
-
-                        } else {
-
-                            for (int currentRecordColIdx = 0; currentRecordColIdx < cells.length - 1; currentRecordColIdx++) {
-                                final String currentRowRecord = cells[currentRecordColIdx]
-                                        .replaceAll("\"", "\"\"")
-                                        .replaceAll("\\\\|", "");
-                                if (!first) {
-                                    csvWriter.write(',');
-                                }
-                                csvWriter.write('\"');
-
-                                if (customTableConverters != null && customTableConverters.containsKey(currentRecordColIdx)) {
-                                    csvWriter.write(customTableConverters.get(currentRecordColIdx).convert(
-                                            currentRowRecord
-                                    ));
-                                } else {
-                                    csvWriter.write(currentRowRecord);
-                                }
-
-                                csvWriter.write('\"');
-
-                                if (first) {
-                                    first = false;
-                                }
-                            }
-                        }
-
-                        csvWriter.write("\n");
+                final TableDependencyGraph tableDependencyGraph = new TableDependencyGraph();
+                for (final Map.Entry<String, Table> unloadedTable : unloadedTables.entrySet()) {
+                    tableDependencyGraph.addTable(unloadedTable.getKey());
+                    for (final Constraint foreignKey : unloadedTable.getValue().getForeignKeys()) {
+                        tableDependencyGraph.addReference(unloadedTable.getKey(), normalizeTableName(foreignKey.getReferencedTableName()));
                     }
+                }
+                for (final List<String> cyclicTables : tableDependencyGraph.getCycles()) {
+                    System.out.println("cyclic references between tables " + cyclicTables + ", loaded together in a wave of their own");
+                }
+                final List<List<String>> tableLoadWaves = tableDependencyGraph.getLoadWaves();
+                System.out.println("load waves: " + tableLoadWaves.size());
+
+                // a wrong expression fails before any table is converted
+                for (final Map.Entry<String, Table> unloadedTable : unloadedTables.entrySet()) {
+                    tableConverterFactory.compileDerivedColumns(unloadedTable.getKey(), unloadedTable.getValue());
+                    tableConverterFactory.compileRowFilter(unloadedTable.getKey(), unloadedTable.getValue());
+                }
+
+                final Map<String, SortKey> tableSortKeys = cmd.hasOption(sortByKey)
+                        ? getTableSortKeys(unloadedTables, cmd.hasOption(sortKeys) ? loadProperties(Paths.get(cmd.getOptionValue(sortKeys))) : new Properties(),
+                                tableConverterFactory)
+                        : new HashMap<>();
 
-                    csvWriter.close();
-                    tableNamesPerCSV.put(csvName, normalizedTableName);
+                // the missing keys are known after the referencing tables, which a jdbc load has inserted by then
+                if (cmd.hasOption(orphanPlaceholders) && jdbcSinkSettings != null) {
+                    throw new ParseException("--orphan-placeholders cannot be combined with --jdbc-url, the placeholders have to be loaded before the tables referencing them");
                 }
+                final List<OrphanPlaceholderRule> orphanPlaceholderRules = cmd.hasOption(orphanPlaceholders)
+                        ? getOrphanPlaceholderRules(Paths.get(cmd.getOptionValue(orphanPlaceholders)), unloadedTables, tableConverterFactory)
+                        : List.of();
 
-                final File importFile = outputFilePath.resolve("import.mssql.sql").toFile();
-                final BufferedWriter importFileWriter = new BufferedWriter(new FileWriter(importFile, StandardCharsets.UTF_8));
+                if (cmd.hasOption(ddl)) {
+                    generateDDL(importScriptTarget, cmd.hasOption(typeMapping) ? Paths.get(cmd.getOptionValue(typeMapping)) : null, schema, unloadedTables,
+                            tableLoadWaves, tableConverterFactory, outputFilePath);
+                }
+
+                final int cpuThreadCount = getIntOptionValue(cmd, cpuThreads, Runtime.getRuntime().availableProcessors(), 1);
+                final ConversionContextPool conversionContextPool = new ConversionContextPool(charScanner);
 
-                for (final Map.Entry<String, String> tableNamePerCSV : tableNamesPerCSV.entrySet()) {
-                    importFileWriter.write("BULK INSERT " + tableNamePerCSV.getValue()
-                            + "\n FROM '/var/opt/mssql/backups/init/" + tableNamePerCSV.getKey() + "'"
-                            + "\n WITH (FORMAT = \"CSV\", ROWTERMINATOR = \"\\n\", KEEPIDENTITY);\n\n");
+                if (cmd.hasOption(analyze)) {
+                    analyzeTables(unloadedTables, tableLoadWaves, unlParentPath, outputFilePath, cpuThreadCount, conversionContextPool);
+                    return;
                 }
+                final AnalysisReport analysisReport = cmd.hasOption(analysis) ? AnalysisReport.read(Paths.get(cmd.getOptionValue(analysis))) : null;
+
+                if (cmd.hasOption(diffOld)) {
+                    diffTables(
+                            Paths.get(cmd.getOptionValue(diffOld)),
+                            unloadedTables,
+                            unlParentPath,
+                            tableConverterFactory,
+                            outputFilePath,
+                            importScriptGenerator,
+                            getLongOptionValue(cmd, diffMemory, 268435456, 0),
+                            cmd.hasOption(diffTempDir) ? Paths.get(cmd.getOptionValue(diffTempDir)) : outputFilePath,
+                            cpuThreadCount,
+                            errorLimit,
+                            conversionContextPool
+                    );
+                    return;
+                }
+
+                final VerificationReport verificationReport = cmd.hasOption(verify)
+                        ? new VerificationReport(importScriptGenerator.getCsvCharset(), importScriptGenerator.getCsvFormat())
+                        : null;
 
-                importFileWriter.write(
-                        "EXEC sp_msforeachtable 'ALTER TABLE ? NOCHECK CONSTRAINT ALL';\n" +
-                                "\n" +
-                                "SET IDENTITY_INSERT orveus.person ON;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.person (pe_id, pe_klasse_pk, pe_geschlecht, pe_titel, pe_vorname, pe_nachname, pe_geldinstitut,\n" +
-                                "                           pe_blz, pe_kontonr, pe_bem)\n" +
-                                "SELECT distinct a.pe_id,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL\n" +
-                                "FROM orveus.ao_betrifft_pe a\n" +
-                                "where pe_id not in (SELECT b.pe_id from orveus.person b where a.pe_id = b.pe_id);\n" +
-                                "\n" +
-                                "INSERT INTO orveus.person (pe_id, pe_klasse_pk, pe_geschlecht, pe_titel, pe_vorname, pe_nachname, pe_geldinstitut,\n" +
-                                "                           pe_blz, pe_kontonr, pe_bem)\n" +
-                                "SELECT distinct a.pe_id,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL\n" +
-                                "FROM orveus.adr_zu_pe a\n" +
-                                "where pe_id not in (SELECT b.pe_id from orveus.person b where a.pe_id = b.pe_id);\n" +
-                                "\n" +
-                                "INSERT INTO orveus.person (pe_id, pe_klasse_pk, pe_geschlecht, pe_titel, pe_vorname, pe_nachname, pe_geldinstitut,\n" +
-                                "                           pe_blz, pe_kontonr, pe_bem)\n" +
-                                "SELECT distinct a.omv_finanzamt_pe,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL\n" +
-                                "FROM orveus.omvertrag a\n" +
-                                "where omv_finanzamt_pe not in (SELECT b.pe_id from orveus.person b where a.omv_finanzamt_pe = b.pe_id)\n" +
-                                "  and omv_finanzamt_pe IS NOT NULL;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.person (pe_id, pe_klasse_pk, pe_geschlecht, pe_titel, pe_vorname, pe_nachname, pe_geldinstitut,\n" +
-                                "                           pe_blz, pe_kontonr, pe_bem)\n" +
-                                "SELECT distinct a.ds_finanzamt_pe,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL\n" +
-                                "FROM orveus.dienststelle a\n" +
-                                "where ds_finanzamt_pe not in (SELECT b.pe_id from orveus.person b where a.ds_finanzamt_pe = b.pe_id)\n" +
-                                "  and ds_finanzamt_pe IS NOT NULL;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.person (pe_id, pe_klasse_pk, pe_geschlecht, pe_titel, pe_vorname, pe_nachname, pe_geldinstitut,\n" +
-                                "                           pe_blz, pe_kontonr, pe_bem)\n" +
-                                "SELECT distinct a.vmv_finanzamt_pe,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                'GELÖSCHTE PERSON',\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL,\n" +
-                                "                NULL\n" +
-                                "FROM orveus.vmvertrag a\n" +
-                                "where vmv_finanzamt_pe not in (SELECT b.pe_id from orveus.person b where a.vmv_finanzamt_pe = b.pe_id)\n" +
-                                "  and vmv_finanzamt_pe IS NOT NULL;\n" +
-                                "\n" +
-                                "SET IDENTITY_INSERT orveus.person OFF;\n" +
-                                "\n" +
-                                "SET IDENTITY_INSERT orveus.anordadressat ON;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.anordadressat (aoa_id, aoa_nachname)\n" +
-                                "SELECT a.aoa_id, 'Adresse ist älter als 10 Jahre'\n" +
-                                "FROM orveus.aoa_fuer_ao a\n" +
-                                "where a.aoa_id not in (SELECT b.aoa_id from orveus.anordadressat b where a.aoa_id = b.aoa_id);\n" +
-                                "\n" +
-                                "SET IDENTITY_INSERT orveus.anordadressat OFF;\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ao_betrifft_pe\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ao_betrifft_hst\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ao_zu_v\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ao_setztab_ao\n" +
-                                "where ao_id1 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ao_setztab_ao\n" +
-                                "where ao_id2 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id2\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aoa_fuer_ao\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aad_aendert_ada\n" +
-                                "where ao_id1 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aae_aendert_ane\n" +
-                                "where ao_id1 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.ann_eintrag_hle\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordanneinzel\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordannahm\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordeinzel\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordaender\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordaenderdauer\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordannsammel\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordauseinzel\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordaussammelhaus\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordaussammelpers\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordauszahl\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anorddauer\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.anordsammel\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aus_eintrag_hla\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.bel_fuer_auh\n" +
-                                "where ao_id not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.extmusiker\n" +
-                                "where em_agentur_pe not in (\n" +
-                                "    select b.pe_id\n" +
-                                "    from orveus.person b\n" +
-                                "    where b.pe_id = em_agentur_pe\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.extmusiker\n" +
-                                "where em_finanzamt_pe not in (\n" +
-                                "    select b.pe_id\n" +
-                                "    from orveus.person b\n" +
-                                "    where b.pe_id = em_finanzamt_pe\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.extmusiker\n" +
-                                "where pe_id not in (\n" +
-                                "    select b.pe_id\n" +
-                                "    from orveus.person b\n" +
-                                "    where b.pe_id = pe_id\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.hst_deckt_hst\n" +
-                                "where hst_id2 not in (\n" +
-                                "    select b.hst_id\n" +
-                                "    from orveus.haushaltsstelle b\n" +
-                                "    where b.hst_id = hst_id2\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.hst_deckt_hst\n" +
-                                "where hst_id1 not in (\n" +
-                                "    select b.hst_id\n" +
-                                "    from orveus.haushaltsstelle b\n" +
-                                "    where b.hst_id = hst_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aag_aendert_aag\n" +
-                                "where ao_id1 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "delete\n" +
-                                "from orveus.aas_folgt_aas\n" +
-                                "where ao_id1 not in (\n" +
-                                "    select b.ao_id\n" +
-                                "    from orveus.anordnung b\n" +
-                                "    where b.ao_id = ao_id1\n" +
-                                ");\n" +
-                                "\n" +
-                                "UPDATE orveus.person\n" +
-                                "set DELETED = 1\n" +
-                                "where pe_vorname = 'GELÖSCHTE PERSON         ';\n" +
-                                "\n" +
-                                "DELETE\n" +
-                                "FROM orveus.personenklasse\n" +
-                                "where pk_kuerzel is null\n" +
-                                "   or pk_bedeutung is null;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.personenklasse (pk_bedeutung, pk_kuerzel)\n" +
-                                "VALUES ('GELÖSCHTE PERSONENKLASSE', 'DEL');\n" +
-                                "\n" +
-                                "UPDATE orveus.person\n" +
-                                "SET pe_klasse_pk = (SELECT pk_id from orveus.personenklasse where pk_kuerzel = 'DEL')\n" +
-                                "where pe_klasse_pk NOT IN (SELECT pk_id from orveus.personenklasse);\n" +
-                                "\n" +
-                                "INSERT INTO [orveus].[user] (username, id, recorded, updated, deleted, password, user_details_id)\n" +
-                                "SELECT adistinct.hle_name, (NEXT VALUE FOR orveus.orveus_seq), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, '', NULL\n" +
-                                "FROM (SELECT DISTINCT a.hle_name\n" +
-                                "      from orveus.huele a\n" +
-                                "      where a.hle_name not in (select b.username from [orveus].[user] b where b.username = a.hle_name)) adistinct;\n" +
-                                "\n" +
-                                "INSERT INTO orveus.[user] (username, id, recorded, updated, deleted, password, user_details_id)\n" +
-                                "SELECT adistinct.hla_name, (NEXT VALUE FOR orveus.orveus_seq), CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0, '', NULL\n" +
-                                "FROM (SELECT DISTINCT a.hla_name\n" +
-                                "      from orveus.huela a\n" +
-                                "      where a.hla_name not in (select b.username from [orveus].[user] b where b.username = a.hla_name)) adistinct;\n" +
-                                "\n" +
-                                "\n" +
-                                "insert into orveus.user_details (firstname, lastname, id, user_id, recorded, updated)\n" +
-                                "select '',\n" +
-                                "       '',\n" +
-                                "       (NEXT VALUE FOR orveus.orveus_seq),\n" +
-                                "       usr.id,\n" +
-                                "       CURRENT_TIMESTAMP,\n" +
-                                "       CURRENT_TIMESTAMP\n" +
-                                "from [orveus].[user] usr\n" +
-                                "where not exists(select ex_user.id from orveus.user_details ex_user where ex_user.user_id = usr.id);\n" +
-                                "\n" +
-                                "\n" +
-                                "update USR\n" +
-                                "set user_details_id = (SELECT det.id from orveus.user_details det where det.user_id = USR.id)\n" +
-                                "from [orveus].[user] USR\n" +
-                                "where user_details_id is null;\n" +
-                                "\n" +
-                                "EXEC sp_msforeachtable 'ALTER TABLE ? WITH CHECK CHECK CONSTRAINT ALL';\n"
+                final int outputBufferBytes = getIntOptionValue(cmd, outputBufferSize, 1048576, AsyncFileWriter.getMinBufferSize(importScriptGenerator.getCsvCharset()));
+
+                final LongAdder writeStallNanos = new LongAdder();
+                final ITableOutputSinkFactory outputSinkFactory = newOutputSinkFactory(
+                        newUnsortedSinkFactory(
+                                jdbcSinkSettings,
+                                cmd.hasOption(maxRowsPerFile) || cmd.hasOption(maxBytesPerFile),
+                                getLongOptionValue(cmd, maxRowsPerFile, 0, 1),
+                                getLongOptionValue(cmd, maxBytesPerFile, 0, 1),
+                                outputFilePath,
+                                importScriptGenerator,
+                                outputBufferBytes,
+                                getIntOptionValue(cmd, outputBuffers, 2, 1),
+                                writeStallNanos
+                        ),
+                        tableSortKeys,
+                        getLongOptionValue(cmd, sortMemory, 67108864, 1),
+                        cmd.hasOption(sortTempDir) ? Paths.get(cmd.getOptionValue(sortTempDir)) : outputFilePath,
+                        orphanPlaceholderRules
+                );
+
+                final List<List<ConvertedTable>> loadWaves = convertTables(
+                        tableLoadWaves,
+                        unloadedTables,
+                        unlParentPath,
+                        tableConverterFactory,
+                        analysisReport,
+                        outputFilePath,
+                        outputSinkFactory,
+                        verificationReport,
+                        errorLimit,
+                        cpuThreadCount,
+                        getIntOptionValue(cmd, smallTableBytes, 1048576, 0),
+                        conversionContextPool,
+                        cmd.hasOption(virtualThreads),
+                        jdbcSinkSettings != null
                 );
+                writeOrphanPlaceholders(orphanPlaceholderRules, unloadedTables, tableConverterFactory, tableLoadWaves, loadWaves, outputFilePath, importScriptGenerator);
+
+                if (jdbcSinkSettings == null) {
+                    importScriptGenerator.generate(outputFilePath, loadWaves);
+                }
 
-                importFileWriter.close();
+                System.out.println("rejected records: " + errorLimit.getErrorCount());
+                if (jdbcSinkSettings == null) {
+                    System.out.println("waited " + TimeUnit.NANOSECONDS.toMillis(writeStallNanos.sum()) + " ms for output writes");
+                }
+
+                if (verificationReport != null) {
+                    verificationReport.write(outputFilePath.resolve("verification.csv"));
+                    System.out.println("verification: " + verificationReport.getInconsistentTableCount() + " inconsistent tables");
+                }
             } catch (final IOException e) {
                 System.out.println(e.getMessage());
                 System.exit(2);
@@ -1846,4 +1616,583 @@ public class informixUNLToCSVMain {
         }
     }
 
+    // the table of --pipe from its column definitions or from the create table in the schema file
+    // the default if the option is not given, the value is case insensitive
+    private static <E extends Enum<E>> E getEnumOptionValue(final CommandLine cmd, final Option option, final Class<E> enumType, final E defaultValue) throws ParseException {
+        if (!cmd.hasOption(option)) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(enumType, cmd.getOptionValue(option).trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            throw new ParseException("--" + option.getLongOpt() + " must be one of "
+                    + Arrays.stream(enumType.getEnumConstants()).map(value -> value.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "))
+                    + ", not " + cmd.getOptionValue(option));
+        }
+    }
+
+    // the default if the option is not given
+    private static long getLongOptionValue(final CommandLine cmd, final Option option, final long defaultValue, final long minValue) throws ParseException {
+        if (!cmd.hasOption(option)) {
+            return defaultValue;
+        }
+        final long value;
+        try {
+            value = Long.parseLong(cmd.getOptionValue(option).trim());
+        } catch (final NumberFormatException e) {
+            throw new ParseException("--" + option.getLongOpt() + " needs a number, not " + cmd.getOptionValue(option));
+        }
+        if (value < minValue) {
+            throw new ParseException("--" + option.getLongOpt() + " must be at least " + minValue + ", not " + value);
+        }
+        return value;
+    }
+
+    private static int getIntOptionValue(final CommandLine cmd, final Option option, final int defaultValue, final int minValue) throws ParseException {
+        final long value = getLongOptionValue(cmd, option, defaultValue, minValue);
+        if (value > Integer.MAX_VALUE) {
+            throw new ParseException("--" + option.getLongOpt() + " must be at most " + Integer.MAX_VALUE + ", not " + value);
+        }
+        return (int) value;
+    }
+
+    private static Table readPipeTable(final String normalizedTableName, final String columnDefinitions, final Path schemaPath) throws IOException, ParseException {
+        final String tableNameWithoutSchema = normalizedTableName.substring(normalizedTableName.indexOf(".") + 1);
+        if (columnDefinitions != null) {
+            return DDLParser.parse("create table " + tableNameWithoutSchema + " (" + columnDefinitions + ");").getTables().get(0);
+        }
+        if (schemaPath != null) {
+            return DDLParser.parse(Files.readString(schemaPath)).getTables().stream()
+                    .filter(schemaTable -> schemaTable.getName().replaceAll("\"", "").equals(tableNameWithoutSchema))
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("no create table " + tableNameWithoutSchema + " in " + schemaPath));
+        }
+        throw new MissingOptionException("--pipe needs --pipe-columns or --pipe-schema");
+    }
+
+    private static void convertPipe(final String normalizedTableName,
+                                    final Table table,
+                                    final TableConverterFactory tableConverterFactory,
+                                    final OutputStream csvStream,
+                                    final IImportScriptGenerator importScriptGenerator,
+                                    final int bufferSize,
+                                    final Path rejectPath,
+                                    final ErrorLimit errorLimit,
+                                    final ConversionContextPool conversionContextPool) throws IOException {
+        final TableConverter tableConverter = tableConverterFactory.newTableConverter(normalizedTableName, table,
+                tableConverterFactory.compileRowFilter(normalizedTableName, table), null);
+        final long rowCount = new PipeConversionTask(
+                normalizedTableName,
+                tableConverter,
+                new FileInputStream(FileDescriptor.in).getChannel(),
+                csvStream,
+                importScriptGenerator.getCsvCharset(),
+                importScriptGenerator.getCsvFormat(),
+                bufferSize,
+                rejectPath,
+                errorLimit,
+                conversionContextPool
+        ).call();
+        System.out.println("converted " + rowCount + " rows of table " + normalizedTableName + ", rejected " + errorLimit.getErrorCount()
+                + ", filtered " + tableConverter.getFilteredRecordCount());
+    }
+
+    // the tables with an unl file by normalized name
+    private static Map<String, Table> getUnloadedTables(final Schema schema) {
+        final Map<String, Table> unloadedTables = new LinkedHashMap<>();
+        for (final Table table : schema.getTables()) {
+            if (table.getUnlFileName() != null) {
+                unloadedTables.put(normalizeTableName(table.getQualifiedName()), table);
+            }
+        }
+        return unloadedTables;
+    }
+
+    // normalized table name -> key, tables without one stay in unl order
+    private static Map<String, SortKey> getTableSortKeys(final Map<String, Table> unloadedTables,
+                                                         final Properties sortKeysProperties,
+                                                         final TableConverterFactory tableConverterFactory) throws IOException {
+        final Map<String, SortKey> tableSortKeys = new HashMap<>();
+        for (final Map.Entry<String, Table> unloadedTable : unloadedTables.entrySet()) {
+            final String normalizedTableName = unloadedTable.getKey();
+            final SortKey sortKey = getSortKey(
+                    unloadedTable.getValue(),
+                    tableConverterFactory.getOutputColumnNames(normalizedTableName, unloadedTable.getValue()),
+                    sortKeysProperties.getProperty(normalizedTableName.substring(normalizedTableName.indexOf(".") + 1)),
+                    tableConverterFactory.getDerivedColumnNames(normalizedTableName),
+                    tableConverterFactory.getMaskedColumnNames(normalizedTableName)
+            );
+            if (sortKey != null) {
+                tableSortKeys.put(normalizedTableName, sortKey);
+            } else {
+                System.out.println("table " + normalizedTableName + " has no key, its rows are not sorted");
+            }
+        }
+        System.out.println("sorting " + tableSortKeys.size() + " tables by their keys");
+        return tableSortKeys;
+    }
+
+    // typeMappingPath may be null
+    private static void generateDDL(final ImportScriptTarget importScriptTarget,
+                                    final Path typeMappingPath,
+                                    final Schema schema,
+                                    final Map<String, Table> unloadedTables,
+                                    final List<List<String>> tableLoadWaves,
+                                    final TableConverterFactory tableConverterFactory,
+                                    final Path outputFilePath) throws IOException {
+        final Map<String, String> typeTemplateOverrides = new HashMap<>();
+        if (typeMappingPath != null) {
+            final Properties typeMappingProperties = loadProperties(typeMappingPath);
+            for (final String informixType : typeMappingProperties.stringPropertyNames()) {
+                typeTemplateOverrides.put(informixType.toLowerCase(Locale.ROOT), typeMappingProperties.getProperty(informixType));
+            }
+        }
+        // in load order, so the tables are created before the tables referencing them
+        final Map<String, String> targetTableNames = new LinkedHashMap<>();
+        final Map<String, List<String>> targetColumnNames = new HashMap<>();
+        for (final List<String> currentWave : tableLoadWaves) {
+            for (final String normalizedTableName : currentWave) {
+                final Table table = unloadedTables.get(normalizedTableName);
+                targetTableNames.put(table.getQualifiedName(), normalizedTableName);
+                targetColumnNames.put(normalizedTableName, tableConverterFactory.getOutputColumnNames(normalizedTableName, table));
+            }
+        }
+        importScriptTarget.createTargetDDLGenerator(typeTemplateOverrides).generate(outputFilePath, schema, targetTableNames, targetColumnNames);
+        System.out.println("generated the ddl of " + targetTableNames.size() + " tables");
+    }
+
+    private static void analyzeTables(final Map<String, Table> unloadedTables,
+                                      final List<List<String>> tableLoadWaves,
+                                      final Path unlParentPath,
+                                      final Path outputFilePath,
+                                      final int cpuThreadCount,
+                                      final ConversionContextPool conversionContextPool) throws IOException {
+        final AnalysisReport analysisReport = new AnalysisReport();
+        try (final ExecutorService analysisExecutor = Executors.newFixedThreadPool(cpuThreadCount)) {
+            final List<Future<TableStatistics>> analyzedTables = new ArrayList<>();
+            for (final List<String> currentWave : tableLoadWaves) {
+                for (final String normalizedTableName : currentWave) {
+                    final Table table = unloadedTables.get(normalizedTableName);
+                    analyzedTables.add(analysisExecutor.submit(new TableAnalysisTask(
+                            normalizedTableName,
+                            unlParentPath.resolve(table.getUnlFileName()),
+                            table.getColumnNames(),
+                            conversionContextPool
+                    )));
+                }
+            }
+            for (final Future<TableStatistics> analyzedTable : analyzedTables) {
+                analysisReport.add(awaitTask(analyzedTable, analysisExecutor));
+            }
+        }
+        analysisReport.write(outputFilePath.resolve("analysis.csv"));
+        System.out.println("analyzed " + unloadedTables.size() + " tables: "
+                + analysisReport.getRecordCount() + " records, " + analysisReport.getBytes() + " bytes");
+    }
+
+    // every keyed table against its unl in the older export, tables without a key or with changed columns are skipped
+    private static void diffTables(final Path oldInputFilePath,
+                                   final Map<String, Table> unloadedTables,
+                                   final Path unlParentPath,
+                                   final TableConverterFactory tableConverterFactory,
+                                   final Path outputFilePath,
+                                   final IImportScriptGenerator importScriptGenerator,
+                                   final long diffDirectBytes,
+                                   final Path diffTempPath,
+                                   final int cpuThreadCount,
+                                   final ErrorLimit errorLimit,
+                                   final ConversionContextPool conversionContextPool) throws IOException {
+        final Schema oldSchema = DDLParser.parse(Files.readString(oldInputFilePath));
+        final Path oldUnlParentPath = oldInputFilePath.getParent().resolve(oldSchema.getDatabaseName() + ".exp");
+        final Map<String, Table> oldUnloadedTables = getUnloadedTables(oldSchema);
+        System.out.println("diff against " + oldInputFilePath);
+
+        final DiffReport diffReport = new DiffReport();
+        final List<Future<TableSnapshotDiff>> diffedTables = new ArrayList<>();
+        try (final ExecutorService diffExecutor = Executors.newFixedThreadPool(cpuThreadCount)) {
+            for (final Map.Entry<String, Table> unloadedTable : unloadedTables.entrySet()) {
+                final String normalizedTableName = unloadedTable.getKey();
+                final Table table = unloadedTable.getValue();
+                final List<String> keyColumnNames = getKeyColumnNames(table);
+                if (keyColumnNames == null) {
+                    System.out.println("table " + normalizedTableName + " has no key, it is not diffed");
+                    continue;
+                }
+                final Table oldTable = oldUnloadedTables.get(normalizedTableName);
+                if (oldTable != null && !oldTable.getColumnNames().equals(table.getColumnNames())) {
+                    System.out.println("the columns of table " + normalizedTableName + " changed between the exports, it is not diffed");
+                    continue;
+                }
+                final int[] keyCellIdxs = new int[keyColumnNames.size()];
+                for (int currentKeyIdx = 0; currentKeyIdx < keyCellIdxs.length; currentKeyIdx++) {
+                    keyCellIdxs[currentKeyIdx] = table.getColumnNames().indexOf(keyColumnNames.get(currentKeyIdx));
+                }
+                final Column firstKeyColumn = table.getColumn(keyColumnNames.get(0));
+                final boolean integerKey = keyColumnNames.size() == 1 && firstKeyColumn != null && INTEGER_TYPES.contains(firstKeyColumn.getType().getName());
+
+                diffedTables.add(diffExecutor.submit(new TableDiffTask(
+                        normalizedTableName,
+                        oldTable != null ? oldUnlParentPath.resolve(oldTable.getUnlFileName()) : null,
+                        unlParentPath.resolve(table.getUnlFileName()),
+                        keyCellIdxs,
+                        table.getColumnNames().size(),
+                        integerKey,
+                        tableConverterFactory.compileRowFilter(normalizedTableName, table),
+                        tableConverterFactory.getDiffConverterFactory(normalizedTableName, table),
+                        outputFilePath,
+                        importScriptGenerator.getCsvCharset(),
+                        importScriptGenerator.getCsvFormat(),
+                        diffDirectBytes,
+                        diffTempPath,
+                        errorLimit,
+                        conversionContextPool
+                )));
+            }
+            for (final Future<TableSnapshotDiff> diffedTable : diffedTables) {
+                diffReport.add(awaitTask(diffedTable, diffExecutor));
+            }
+        }
+        diffReport.write(outputFilePath.resolve("diff.csv"));
+        System.out.println("diffed " + diffedTables.size() + " tables: " + diffReport.getChangedCount() + " changed rows, "
+                + diffReport.getUnchangedCount() + " unchanged rows");
+        System.out.println("rejected records: " + errorLimit.getErrorCount());
+    }
+
+    // jdbcSinkSettings null writes csv files, split into part files if partitioned
+    private static ITableOutputSinkFactory newUnsortedSinkFactory(final JdbcSinkSettings jdbcSinkSettings,
+                                                                  final boolean partitioned,
+                                                                  final long maxRows,
+                                                                  final long maxBytes,
+                                                                  final Path outputFilePath,
+                                                                  final IImportScriptGenerator importScriptGenerator,
+                                                                  final int outputBufferBytes,
+                                                                  final int outputBufferCount,
+                                                                  final LongAdder writeStallNanos) {
+        if (jdbcSinkSettings != null) {
+            return (tableName, outputColumnNames, conversionContext, smallTable) -> new JdbcTableOutputSink(jdbcSinkSettings, tableName, outputColumnNames);
+        }
+        if (partitioned) {
+            return (tableName, outputColumnNames, conversionContext, smallTable) -> new PartitionedCsvTableOutputSink(
+                    outputFilePath, tableName, importScriptGenerator.getCsvCharset(), importScriptGenerator.getCsvFormat(), maxRows, maxBytes,
+                    conversionContext.getDirectOutputBuffers(outputBufferBytes, outputBufferCount), writeStallNanos);
+        }
+        return (tableName, outputColumnNames, conversionContext, smallTable) -> smallTable
+                ? new CsvTableOutputSink(conversionContext.newOutputWriter(outputFilePath.resolve(tableName + ".csv"), importScriptGenerator.getCsvCharset()), importScriptGenerator.getCsvFormat())
+                : new CsvTableOutputSink(new AsyncFileWriter(outputFilePath.resolve(tableName + ".csv"), importScriptGenerator.getCsvCharset(),
+                conversionContext.getDirectOutputBuffers(outputBufferBytes, outputBufferCount), writeStallNanos), importScriptGenerator.getCsvFormat());
+    }
+
+    // the rows of a table with a sort key are sorted first, the keys referenced by an orphan placeholder rule collected last
+    private static ITableOutputSinkFactory newOutputSinkFactory(final ITableOutputSinkFactory unsortedSinkFactory,
+                                                                final Map<String, SortKey> tableSortKeys,
+                                                                final long sortBufferBytes,
+                                                                final Path sortTempPath,
+                                                                final List<OrphanPlaceholderRule> orphanPlaceholderRules) {
+        return (tableName, outputColumnNames, conversionContext, smallTable) -> {
+            final ITableOutputSink outputSink = unsortedSinkFactory.open(tableName, outputColumnNames, conversionContext, smallTable);
+            final ITableOutputSink sortedSink = tableSortKeys.containsKey(tableName)
+                    ? new SortingTableOutputSink(outputSink, tableName, outputColumnNames, tableSortKeys.get(tableName), sortBufferBytes, sortTempPath)
+                    : outputSink;
+            return orphanPlaceholderRules.stream().anyMatch(orphanPlaceholderRule -> orphanPlaceholderRule.isCollecting(tableName))
+                    ? new KeyCollectingTableOutputSink(sortedSink, tableName, outputColumnNames, orphanPlaceholderRules)
+                    : sortedSink;
+        };
+    }
+
+    // a direct jdbc load converts the waves one after the other, so it does not violate foreign keys, csv files are
+    // loaded later and every table is converted at once, analysisReport and verificationReport may be null
+    private static List<List<ConvertedTable>> convertTables(final List<List<String>> tableLoadWaves,
+                                                            final Map<String, Table> unloadedTables,
+                                                            final Path unlParentPath,
+                                                            final TableConverterFactory tableConverterFactory,
+                                                            final AnalysisReport analysisReport,
+                                                            final Path outputFilePath,
+                                                            final ITableOutputSinkFactory outputSinkFactory,
+                                                            final VerificationReport verificationReport,
+                                                            final ErrorLimit errorLimit,
+                                                            final int cpuThreadCount,
+                                                            final long smallTableSize,
+                                                            final ConversionContextPool conversionContextPool,
+                                                            final boolean virtualThreads,
+                                                            final boolean waveBarrier) throws IOException {
+        final Semaphore cpuPermits = new Semaphore(cpuThreadCount);
+        final List<List<ConvertedTable>> loadWaves = new ArrayList<>();
+        try (final ExecutorService tableExecutor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newSingleThreadExecutor()) {
+            // the waves still converting, empty with the barrier
+            final List<List<Future<List<ConvertedTable>>>> convertedWaves = new ArrayList<>();
+            for (final List<String> currentWave : tableLoadWaves) {
+                final List<Future<List<ConvertedTable>>> currentConvertedWave = new ArrayList<>();
+                for (final String normalizedTableName : currentWave) {
+                    final Table table = unloadedTables.get(normalizedTableName);
+                    final TableStatistics tableStatistics = analysisReport != null ? analysisReport.get(normalizedTableName) : null;
+                    currentConvertedWave.add(tableExecutor.submit(new TableConversionTask(
+                            normalizedTableName,
+                            unlParentPath.resolve(table.getUnlFileName()),
+                            tableConverterFactory.newTableConverter(normalizedTableName, table,
+                                    tableConverterFactory.compileRowFilter(normalizedTableName, table), tableStatistics),
+                            outputFilePath,
+                            outputSinkFactory,
+                            verificationReport,
+                            errorLimit,
+                            cpuPermits,
+                            smallTableSize,
+                            conversionContextPool,
+                            tableStatistics
+                    )));
+                }
+
+                // the next wave may only be loaded into the jdbc target after this one
+                if (waveBarrier) {
+                    loadWaves.add(awaitWave(currentConvertedWave, tableExecutor));
+                } else {
+                    convertedWaves.add(currentConvertedWave);
+                }
+            }
+            for (final List<Future<List<ConvertedTable>>> convertedWave : convertedWaves) {
+                loadWaves.add(awaitWave(convertedWave, tableExecutor));
+            }
+        }
+        System.out.println("converted " + tableLoadWaves.stream().mapToInt(List::size).sum() + " tables");
+        return loadWaves;
+    }
+
+    private static List<ConvertedTable> awaitWave(final List<Future<List<ConvertedTable>>> convertedWave, final ExecutorService tableExecutor) throws IOException {
+        final List<ConvertedTable> convertedTables = new ArrayList<>();
+        for (final Future<List<ConvertedTable>> convertedTable : convertedWave) {
+            convertedTables.addAll(awaitTask(convertedTable, tableExecutor));
+        }
+        return convertedTables;
+    }
+
+    // known once every table is converted, the csv is loaded in the wave of the parent table, before the tables
+    // referencing it
+    private static void writeOrphanPlaceholders(final List<OrphanPlaceholderRule> orphanPlaceholderRules,
+                                                final Map<String, Table> unloadedTables,
+                                                final TableConverterFactory tableConverterFactory,
+                                                final List<List<String>> tableLoadWaves,
+                                                final List<List<ConvertedTable>> loadWaves,
+                                                final Path outputFilePath,
+                                                final IImportScriptGenerator importScriptGenerator) throws IOException {
+        for (final OrphanPlaceholderRule orphanPlaceholderRule : orphanPlaceholderRules) {
+            final long[] missingKeys = orphanPlaceholderRule.getMissingKeys();
+            if (missingKeys.length == 0) {
+                continue;
+            }
+            final String parentTableName = orphanPlaceholderRule.getParentTableName();
+            final List<String> outputColumnNames = tableConverterFactory.getOutputColumnNames(parentTableName, unloadedTables.get(parentTableName));
+            final String placeholdersCsvName = parentTableName + ".placeholders.csv";
+            try (final ITableOutputSink placeholderSink = new CsvTableOutputSink(
+                    Files.newBufferedWriter(outputFilePath.resolve(placeholdersCsvName), importScriptGenerator.getCsvCharset()), importScriptGenerator.getCsvFormat())) {
+                orphanPlaceholderRule.writePlaceholders(placeholderSink, outputColumnNames, tableConverterFactory.getColumnDefaults(parentTableName), missingKeys);
+            }
+            for (int currentWaveIdx = 0; currentWaveIdx < tableLoadWaves.size(); currentWaveIdx++) {
+                if (tableLoadWaves.get(currentWaveIdx).contains(parentTableName)) {
+                    loadWaves.get(currentWaveIdx).add(new ConvertedTable(parentTableName, placeholdersCsvName));
+                }
+            }
+            System.out.println("added " + missingKeys.length + " placeholder rows to table " + parentTableName + " for orphaned references");
+        }
+    }
+
+    private static <T> T awaitTask(final Future<T> task, final ExecutorService tableExecutor) throws IOException {
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            tableExecutor.shutdownNow();
+            throw new IOException("interrupted while processing the tables", e);
+        } catch (final ExecutionException e) {
+            // the other tables are not worth finishing
+            tableExecutor.shutdownNow();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static Properties loadProperties(final Path propertiesPath) throws IOException {
+        final Properties properties = new Properties();
+        try (final Reader propertiesReader = Files.newBufferedReader(propertiesPath)) {
+            properties.load(propertiesReader);
+        }
+        return properties;
+    }
+
+    // table (without schema) -> column -> value of a properties file with table.column keys, sorted by column
+    private static Map<String, Map<String, String>> loadTableColumnProperties(final Path propertiesPath) throws IOException {
+        final Properties properties = loadProperties(propertiesPath);
+        final Map<String, Map<String, String>> tableColumnProperties = new HashMap<>();
+        for (final String tableColumnName : properties.stringPropertyNames()) {
+            final int separatorIdx = tableColumnName.lastIndexOf('.');
+            if (separatorIdx < 0) {
+                throw new IOException("no table.column key: " + tableColumnName + " in " + propertiesPath);
+            }
+            tableColumnProperties.computeIfAbsent(tableColumnName.substring(0, separatorIdx), key -> new TreeMap<>())
+                    .put(tableColumnName.substring(separatorIdx + 1), properties.getProperty(tableColumnName));
+        }
+        return tableColumnProperties;
+    }
+
+    // table (without schema) -> column -> formatter chain, e.g. termin.te_datum=DATE_FORMATTER, MY_FORMATTER
+    private static Map<String, Map<String, List<IColumnFormatter>>> loadColumnFormatters(final Path columnFormattersPath) throws IOException {
+        final ColumnFormatterRegistry columnFormatterRegistry = new ColumnFormatterRegistry();
+        final Map<String, Map<String, List<IColumnFormatter>>> tableColumnFormatters = new HashMap<>();
+        for (final Map.Entry<String, Map<String, String>> tableColumnNames : loadTableColumnProperties(columnFormattersPath).entrySet()) {
+            final Map<String, List<IColumnFormatter>> columnFormatters = new HashMap<>();
+            for (final Map.Entry<String, String> formatterNames : tableColumnNames.getValue().entrySet()) {
+                columnFormatters.put(formatterNames.getKey(), columnFormatterRegistry.getChain(formatterNames.getValue()));
+            }
+            tableColumnFormatters.put(tableColumnNames.getKey(), columnFormatters);
+        }
+        return tableColumnFormatters;
+    }
+
+    // table (without schema) -> column -> mask of a properties file with table.column=rule keys
+    private static Map<String, Map<String, IColumnFormatter>> loadColumnMasks(final Path maskingPath, final MaskingKey maskingKey) throws IOException {
+        final Map<String, Map<String, IColumnFormatter>> tableColumnMasks = new HashMap<>();
+        for (final Map.Entry<String, Map<String, String>> tableColumnRules : loadTableColumnProperties(maskingPath).entrySet()) {
+            final Map<String, IColumnFormatter> columnMasks = new HashMap<>();
+            for (final Map.Entry<String, String> columnRule : tableColumnRules.getValue().entrySet()) {
+                columnMasks.put(columnRule.getKey(), MaskingRules.parse(columnRule.getValue(), maskingKey));
+            }
+            tableColumnMasks.put(tableColumnRules.getKey(), columnMasks);
+        }
+        return tableColumnMasks;
+    }
+
+    // table (without schema) -> condition
+    private static Map<String, String> loadRowFilters(final Path rowFiltersPath) throws IOException {
+        final Properties rowFiltersProperties = loadProperties(rowFiltersPath);
+        final Map<String, String> tableRowFilters = new HashMap<>();
+        for (final String tableNameWithoutSchema : rowFiltersProperties.stringPropertyNames()) {
+            tableRowFilters.put(tableNameWithoutSchema, rowFiltersProperties.getProperty(tableNameWithoutSchema));
+        }
+        return tableRowFilters;
+    }
+
+    // the configured columns, else the primary key, else the first unique key, null if there is none
+    private static SortKey getSortKey(final Table table,
+                                      final List<String> outputColumnNames,
+                                      final String configuredColumnNames,
+                                      final Set<String> derivedColumnNames,
+                                      final Set<String> maskedColumnNames) throws IOException {
+        final List<String> keyColumnNames = configuredColumnNames != null
+                ? Arrays.stream(configuredColumnNames.split(",")).map(String::trim).collect(Collectors.toList())
+                : getKeyColumnNames(table);
+        if (keyColumnNames == null) {
+            return null;
+        }
+        final List<ExpressionType> keyTypes = new ArrayList<>();
+        for (final String keyColumnName : keyColumnNames) {
+            if (!outputColumnNames.contains(keyColumnName)) {
+                throw new IOException("sort key column " + keyColumnName + " is no output column of table " + table.getName());
+            }
+            // derived and masked values are sorted as they are written, their type says nothing about them
+            final Column keyColumn = table.getColumn(keyColumnName);
+            keyTypes.add(keyColumn != null && !derivedColumnNames.contains(keyColumnName) && !maskedColumnNames.contains(keyColumnName)
+                    ? ExpressionType.of(keyColumn.getType())
+                    : ExpressionType.STRING);
+        }
+        return new SortKey(keyColumnNames, keyTypes);
+    }
+
+    // the primary or else the first unique key, null if the table has neither
+    private static List<String> getKeyColumnNames(final Table table) {
+        if (table.getPrimaryKey() != null) {
+            return table.getPrimaryKey().getColumnNames();
+        }
+        return table.getConstraints().stream()
+                .filter(constraint -> constraint.getType() == ConstraintType.UNIQUE)
+                .findFirst()
+                .map(Constraint::getColumnNames)
+                .orElse(null);
+    }
+
+    // parent.key=references table.column, ... and parent.column=value of the placeholder rows, table names without schema
+    private static List<OrphanPlaceholderRule> getOrphanPlaceholderRules(final Path placeholdersPath,
+                                                                         final Map<String, Table> unloadedTables,
+                                                                         final TableConverterFactory tableConverterFactory) throws IOException {
+        final Map<String, String> normalizedTableNames = new HashMap<>();
+        for (final String normalizedTableName : unloadedTables.keySet()) {
+            normalizedTableNames.put(normalizedTableName.substring(normalizedTableName.indexOf(".") + 1), normalizedTableName);
+        }
+        final List<OrphanPlaceholderRule> orphanPlaceholderRules = new ArrayList<>();
+        for (final Map.Entry<String, Map<String, String>> tableColumnValues : loadTableColumnProperties(placeholdersPath).entrySet()) {
+            final String parentTableName = getOrphanRuleTableName(normalizedTableNames, tableColumnValues.getKey(), placeholdersPath);
+            String keyColumnName = null;
+            final Map<String, List<String>> referencingColumnNames = new LinkedHashMap<>();
+            final Map<String, String> placeholderValues = new HashMap<>();
+            for (final Map.Entry<String, String> columnValue : tableColumnValues.getValue().entrySet()) {
+                checkOrphanRuleColumn(unloadedTables.get(parentTableName), parentTableName, columnValue.getKey(), tableConverterFactory, false);
+                if (!columnValue.getValue().startsWith(REFERENCES_PREFIX)) {
+                    placeholderValues.put(columnValue.getKey(), columnValue.getValue());
+                    continue;
+                }
+                if (keyColumnName != null) {
+                    throw new IOException("more than one referenced key of table " + tableColumnValues.getKey() + " in " + placeholdersPath);
+                }
+                keyColumnName = columnValue.getKey();
+                checkOrphanRuleColumn(unloadedTables.get(parentTableName), parentTableName, keyColumnName, tableConverterFactory, true);
+                for (final String referencingTableColumnName : columnValue.getValue().substring(REFERENCES_PREFIX.length()).split(",")) {
+                    final int separatorIdx = referencingTableColumnName.trim().lastIndexOf('.');
+                    if (separatorIdx < 0) {
+                        throw new IOException("no table.column reference: " + referencingTableColumnName.trim() + " in " + placeholdersPath);
+                    }
+                    final String referencingTableName = getOrphanRuleTableName(normalizedTableNames, referencingTableColumnName.trim().substring(0, separatorIdx), placeholdersPath);
+                    final String referencingColumnName = referencingTableColumnName.trim().substring(separatorIdx + 1);
+                    checkOrphanRuleColumn(unloadedTables.get(referencingTableName), referencingTableName, referencingColumnName, tableConverterFactory, true);
+                    referencingColumnNames.computeIfAbsent(referencingTableName, key -> new ArrayList<>()).add(referencingColumnName);
+                }
+            }
+            if (keyColumnName == null) {
+                throw new IOException("no references of table " + tableColumnValues.getKey() + " in " + placeholdersPath);
+            }
+            orphanPlaceholderRules.add(new OrphanPlaceholderRule(parentTableName, keyColumnName, referencingColumnNames, placeholderValues));
+        }
+        return orphanPlaceholderRules;
+    }
+
+    private static String getOrphanRuleTableName(final Map<String, String> normalizedTableNames, final String tableNameWithoutSchema, final Path placeholdersPath) throws IOException {
+        if (!normalizedTableNames.containsKey(tableNameWithoutSchema)) {
+            throw new IOException("no unloaded table " + tableNameWithoutSchema + " in " + placeholdersPath);
+        }
+        return normalizedTableNames.get(tableNameWithoutSchema);
+    }
+
+    // keys are compared as long, so they have to be integer columns of the unl written unchanged, a column getting a
+    // placeholder value only has to be written
+    private static void checkOrphanRuleColumn(final Table table,
+                                              final String normalizedTableName,
+                                              final String columnName,
+                                              final TableConverterFactory tableConverterFactory,
+                                              final boolean keyColumn) throws IOException {
+        if (!tableConverterFactory.getOutputColumnNames(normalizedTableName, table).contains(columnName)) {
+            throw new IOException(columnName + " is no output column of table " + normalizedTableName);
+        }
+        if (!keyColumn) {
+            return;
+        }
+        if (table.getColumn(columnName) == null || !INTEGER_TYPES.contains(table.getColumn(columnName).getType().getName())
+                || tableConverterFactory.getDerivedColumnNames(normalizedTableName).contains(columnName)) {
+            throw new IOException("key " + normalizedTableName + "." + columnName + " is no integer column");
+        }
+        // a digits mask keeps an integer an integer, any other formatter may not
+        if (tableConverterFactory.getColumnFormatters(normalizedTableName).getOrDefault(columnName, List.of()).stream().anyMatch(formatter -> !(formatter instanceof DigitScrambleMask))) {
+            throw new IOException("key " + normalizedTableName + "." + columnName + " is formatted, only a digits mask keeps it an integer");
+        }
+    }
+
+    // strips the quotes and applies the custom schema
+    private static String normalizeTableName(final String tableName) {
+        final String normalizedTableName = tableName.replaceAll("\"", "");
+        final String tableNameWithoutSchema = normalizedTableName.substring(normalizedTableName.indexOf(".") + 1);
+        if (CUSTOM_TABLE_SCHEMA.containsKey(tableNameWithoutSchema)) {
+            return CUSTOM_TABLE_SCHEMA.get(tableNameWithoutSchema) + '.' + tableNameWithoutSchema;
+        }
+        return normalizedTableName;
+    }
+
 }
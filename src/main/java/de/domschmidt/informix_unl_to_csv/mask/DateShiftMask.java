@@ -0,0 +1,106 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+
+// moves a dd.mm.yyyy or yyyy-mm-dd date by up to maxDays in either direction, in the format it has.
+// The days are taken from the keyed hash of the date, so a date is always moved the same way
+public class DateShiftMask implements IColumnFormatter {
+
+    // separates the hashes of the dates from those of the digit blocks
+    private static final long DATE_TWEAK = -1L;
+
+    private final MaskingKey maskingKey;
+    private final int maxDays;
+
+    public DateShiftMask(final MaskingKey maskingKey, final int maxDays) {
+        if (maxDays < 0) {
+            throw new IllegalArgumentException("negative days " + maxDays);
+        }
+        this.maskingKey = maskingKey;
+        this.maxDays = maxDays;
+    }
+
+    @Override
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        final boolean germanFormat = length == 10 && chars[start + 2] == '.' && chars[start + 5] == '.';
+        final boolean isoFormat = length == 10 && chars[start + 4] == '-' && chars[start + 7] == '-';
+        final int year = germanFormat ? parseDigits(chars, start + 6, 4) : isoFormat ? parseDigits(chars, start, 4) : -1;
+        final int month = germanFormat ? parseDigits(chars, start + 3, 2) : isoFormat ? parseDigits(chars, start + 5, 2) : -1;
+        final int day = germanFormat ? parseDigits(chars, start, 2) : isoFormat ? parseDigits(chars, start + 8, 2) : -1;
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > getMonthLength(year, month)) {
+            throw new IllegalArgumentException("not a date: " + new String(chars, start, length));
+        }
+
+        final long epochDay = toEpochDay(year, month, day);
+        final long shiftedEpochDay = epochDay + Math.floorMod(this.maskingKey.hash(DATE_TWEAK, epochDay), 2L * this.maxDays + 1) - this.maxDays;
+        // civil from days, see http://howardhinnant.github.io/date_algorithms.html
+        final long shiftedDays = shiftedEpochDay + 719468;
+        final long era = Math.floorDiv(shiftedDays, 146097);
+        final long dayOfEra = shiftedDays - era * 146097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long monthIndex = (5 * dayOfYear + 2) / 153;
+        final int shiftedDay = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        final int shiftedMonth = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        final int shiftedYear = (int) (yearOfEra + era * 400 + (shiftedMonth <= 2 ? 1 : 0));
+        if (shiftedYear < 1 || shiftedYear > 9999) {
+            // not representable, kept
+            output.append(chars, start, length);
+            return;
+        }
+
+        if (germanFormat) {
+            appendDigits(output, shiftedDay, 2);
+            output.append('.');
+            appendDigits(output, shiftedMonth, 2);
+            output.append('.');
+            appendDigits(output, shiftedYear, 4);
+        } else {
+            appendDigits(output, shiftedYear, 4);
+            output.append('-');
+            appendDigits(output, shiftedMonth, 2);
+            output.append('-');
+            appendDigits(output, shiftedDay, 2);
+        }
+    }
+
+    // days from civil, see http://howardhinnant.github.io/date_algorithms.html
+    private static long toEpochDay(final int year, final int month, final int day) {
+        final long marchYear = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(marchYear, 400);
+        final long yearOfEra = marchYear - era * 400;
+        final long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int getMonthLength(final int year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    // -1 if not all digits
+    private static int parseDigits(final char[] chars, final int start, final int length) {
+        int value = 0;
+        for (int currentIdx = start; currentIdx < start + length; currentIdx++) {
+            if (chars[currentIdx] < '0' || chars[currentIdx] > '9') {
+                return -1;
+            }
+            value = value * 10 + (chars[currentIdx] - '0');
+        }
+        return value;
+    }
+
+    private static void appendDigits(final FormatterOutput output, final int value, final int digitCount) {
+        int divisor = 1;
+        for (int currentDigitIdx = 1; currentDigitIdx < digitCount; currentDigitIdx++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            output.append((char) ('0' + value / divisor % 10));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+
+// replaces the digits by others while everything else keeps its place, e.g. +49 171-2345678 or an id.
+// The digits are permuted by a keyed feistel network over the decimal numbers of their count, in blocks of up to 18,
+// so different values stay different and ids stay unique. A leading 0 stays a leading 0 and any other first digit
+// stays other than 0, so the value of a number keeps its count of digits
+public class DigitScrambleMask implements IColumnFormatter {
+
+    private static final int MAX_BLOCK_DIGITS = 18;
+    private static final int ROUNDS = 10;
+    private static final long[] POWERS_OF_TEN = new long[MAX_BLOCK_DIGITS + 1];
+    // separates the hashes of the single digit shuffle from those of the rounds
+    private static final long SINGLE_DIGIT_TWEAK = -2L;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int currentPower = 1; currentPower < POWERS_OF_TEN.length; currentPower++) {
+            POWERS_OF_TEN[currentPower] = POWERS_OF_TEN[currentPower - 1] * 10;
+        }
+    }
+
+    private final MaskingKey maskingKey;
+    // a feistel network of one digit only rotates it, so single digits are shuffled instead
+    private final long[] singleDigitPermutation = new long[10];
+
+    public DigitScrambleMask(final MaskingKey maskingKey) {
+        this.maskingKey = maskingKey;
+        for (int currentDigit = 0; currentDigit < 10; currentDigit++) {
+            this.singleDigitPermutation[currentDigit] = currentDigit;
+        }
+        for (int currentDigit = 9; currentDigit > 0; currentDigit--) {
+            final int swapDigit = (int) Math.floorMod(maskingKey.hash(SINGLE_DIGIT_TWEAK, currentDigit), currentDigit + 1L);
+            final long swappedValue = this.singleDigitPermutation[currentDigit];
+            this.singleDigitPermutation[currentDigit] = this.singleDigitPermutation[swapDigit];
+            this.singleDigitPermutation[swapDigit] = swappedValue;
+        }
+    }
+
+    @Override
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        output.append(chars, start, length);
+        final char[] outputChars = output.getChars();
+        int position = 0;
+        for (int blockIdx = 0; position < length; blockIdx++) {
+            // the next block of digits
+            final int blockStart = position;
+            long digits = 0;
+            int digitCount = 0;
+            boolean leadingZero = false;
+            while (position < length && digitCount < MAX_BLOCK_DIGITS) {
+                final char currentChar = outputChars[position++];
+                if (currentChar >= '0' && currentChar <= '9') {
+                    if (digitCount == 0) {
+                        leadingZero = currentChar == '0';
+                    }
+                    digits = digits * 10 + (currentChar - '0');
+                    digitCount++;
+                }
+            }
+            if (digitCount == 0) {
+                break;
+            }
+            long scrambledDigits = permute(digits, digitCount, blockIdx);
+            if (blockIdx == 0) {
+                // walks the cycle of the permutation until it is back in the numbers with (or without) a leading 0
+                while ((scrambledDigits < POWERS_OF_TEN[digitCount - 1]) != leadingZero) {
+                    scrambledDigits = permute(scrambledDigits, digitCount, blockIdx);
+                }
+            }
+            // written back from the end of the block
+            for (int currentIdx = position - 1; currentIdx >= blockStart; currentIdx--) {
+                if (outputChars[currentIdx] >= '0' && outputChars[currentIdx] <= '9') {
+                    outputChars[currentIdx] = (char) ('0' + scrambledDigits % 10);
+                    scrambledDigits /= 10;
+                }
+            }
+        }
+    }
+
+    // a bijection of [0, 10^digitCount), the halves have digitCount / 2 and the remaining digits
+    private long permute(final long digits, final int digitCount, final int blockIdx) {
+        if (digitCount == 1) {
+            return this.singleDigitPermutation[(int) digits];
+        }
+        final int leftDigitCount = digitCount / 2;
+        final int rightDigitCount = digitCount - leftDigitCount;
+        long left = digits / POWERS_OF_TEN[rightDigitCount];
+        long right = digits % POWERS_OF_TEN[rightDigitCount];
+        for (int round = 0; round < ROUNDS; round++) {
+            final long modulus = POWERS_OF_TEN[round % 2 == 0 ? leftDigitCount : rightDigitCount];
+            final long roundValue = this.maskingKey.hash((long) blockIdx << 16 | (long) digitCount << 8 | round, right);
+            final long combined = (left + Math.floorMod(roundValue, modulus)) % modulus;
+            left = right;
+            right = combined;
+        }
+        return left * POWERS_OF_TEN[rightDigitCount] + right;
+    }
+}
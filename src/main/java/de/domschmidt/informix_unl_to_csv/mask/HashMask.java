@@ -0,0 +1,32 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+
+// replaces the value by the hex digits of its keyed hash, a pseudonym which cannot be reversed without the secret
+public class HashMask implements IColumnFormatter {
+
+    public static final int MAX_LENGTH = 16;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final MaskingKey maskingKey;
+    // of the pseudonym, up to 16 hex digits
+    private final int length;
+
+    public HashMask(final MaskingKey maskingKey, final int length) {
+        if (length < 1 || length > MAX_LENGTH) {
+            throw new IllegalArgumentException("hash length " + length + " is not between 1 and " + MAX_LENGTH);
+        }
+        this.maskingKey = maskingKey;
+        this.length = length;
+    }
+
+    @Override
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        final long hash = this.maskingKey.hash(chars, start, length);
+        for (int currentDigitIdx = 0; currentDigitIdx < this.length; currentDigitIdx++) {
+            output.append(HEX_DIGITS[(int) (hash >>> (60 - currentDigitIdx * 4)) & 0xf]);
+        }
+    }
+}
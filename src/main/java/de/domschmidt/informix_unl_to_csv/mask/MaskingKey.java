@@ -0,0 +1,108 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// the secret of the masks as SipHash-2-4 key, the same secret masks every export the same way,
+// so the foreign keys of the masked tables still match
+public class MaskingKey {
+
+    private final long k0;
+    private final long k1;
+
+    private MaskingKey(final long k0, final long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    // the first 128 bits of the sha-256 of the secret
+    public static MaskingKey fromSecret(final String secret) {
+        try {
+            final ByteBuffer digest = ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8)))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            return new MaskingKey(digest.getLong(), digest.getLong());
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("sha-256 is not available", e);
+        }
+    }
+
+    // of the utf-16le bytes of the chars
+    public long hash(final char[] chars, final int start, final int length) {
+        final SipHashState state = new SipHashState(this.k0, this.k1);
+        final int end = start + length;
+        int currentIdx = start;
+        for (; currentIdx + 4 <= end; currentIdx += 4) {
+            state.compress((long) chars[currentIdx]
+                    | (long) chars[currentIdx + 1] << 16
+                    | (long) chars[currentIdx + 2] << 32
+                    | (long) chars[currentIdx + 3] << 48);
+        }
+        long lastWord = (long) (length * 2 & 0xff) << 56;
+        for (int shift = 0; currentIdx < end; currentIdx++, shift += 16) {
+            lastWord |= (long) chars[currentIdx] << shift;
+        }
+        state.compress(lastWord);
+        return state.finish();
+    }
+
+    // of two values, e.g. a tweak and a number
+    public long hash(final long first, final long second) {
+        final SipHashState state = new SipHashState(this.k0, this.k1);
+        state.compress(first);
+        state.compress(second);
+        state.compress(16L << 56);
+        return state.finish();
+    }
+
+    // short lived, so it does not leave the stack
+    private static class SipHashState {
+
+        private long v0;
+        private long v1;
+        private long v2;
+        private long v3;
+
+        private SipHashState(final long k0, final long k1) {
+            this.v0 = k0 ^ 0x736f6d6570736575L;
+            this.v1 = k1 ^ 0x646f72616e646f6dL;
+            this.v2 = k0 ^ 0x6c7967656e657261L;
+            this.v3 = k1 ^ 0x7465646279746573L;
+        }
+
+        private void compress(final long word) {
+            this.v3 ^= word;
+            round();
+            round();
+            this.v0 ^= word;
+        }
+
+        private long finish() {
+            this.v2 ^= 0xff;
+            round();
+            round();
+            round();
+            round();
+            return this.v0 ^ this.v1 ^ this.v2 ^ this.v3;
+        }
+
+        private void round() {
+            this.v0 += this.v1;
+            this.v1 = Long.rotateLeft(this.v1, 13);
+            this.v1 ^= this.v0;
+            this.v0 = Long.rotateLeft(this.v0, 32);
+            this.v2 += this.v3;
+            this.v3 = Long.rotateLeft(this.v3, 16);
+            this.v3 ^= this.v2;
+            this.v0 += this.v3;
+            this.v3 = Long.rotateLeft(this.v3, 21);
+            this.v3 ^= this.v0;
+            this.v2 += this.v1;
+            this.v1 = Long.rotateLeft(this.v1, 17);
+            this.v1 ^= this.v2;
+            this.v2 = Long.rotateLeft(this.v2, 32);
+        }
+    }
+}
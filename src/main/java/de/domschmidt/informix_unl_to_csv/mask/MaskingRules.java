@@ -0,0 +1,35 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+
+import java.util.Locale;
+
+// the masks of the --masking properties file:
+//   hash [length]       hex pseudonym of the keyed hash, 16 digits by default
+//   digits              keyed permutation of the digits, the rest of the value is kept
+//   shift-date <days>   moves a date by up to days in either direction
+//   replace [text]      the same text for every value
+public final class MaskingRules {
+
+    private MaskingRules() {
+    }
+
+    public static IColumnFormatter parse(final String rule, final MaskingKey maskingKey) {
+        final String[] ruleParts = rule.trim().split("\\s+", 2);
+        switch (ruleParts[0].toLowerCase(Locale.ROOT)) {
+            case "hash":
+                return new HashMask(maskingKey, ruleParts.length > 1 ? Integer.parseInt(ruleParts[1]) : HashMask.MAX_LENGTH);
+            case "digits":
+                return new DigitScrambleMask(maskingKey);
+            case "shift-date":
+                if (ruleParts.length < 2) {
+                    throw new IllegalArgumentException("shift-date needs the days, e.g. shift-date 180");
+                }
+                return new DateShiftMask(maskingKey, Integer.parseInt(ruleParts[1]));
+            case "replace":
+                return new ReplacementMask(ruleParts.length > 1 ? ruleParts[1] : "");
+            default:
+                throw new IllegalArgumentException("unknown masking rule " + rule + ", known are hash, digits, shift-date and replace");
+        }
+    }
+}
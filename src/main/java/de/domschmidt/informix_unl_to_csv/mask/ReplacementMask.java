@@ -0,0 +1,19 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+
+// the same text for every value which is not null
+public class ReplacementMask implements IColumnFormatter {
+
+    private final char[] replacement;
+
+    public ReplacementMask(final String replacement) {
+        this.replacement = replacement.toCharArray();
+    }
+
+    @Override
+    public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+        output.append(this.replacement, 0, this.replacement.length);
+    }
+}
@@ -0,0 +1,126 @@
+package de.domschmidt.informix_unl_to_csv.orphan;
+
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+// collects the keys of the written rows which the orphan placeholder rules compare, into sets of its own which are
+// added to the sets of the rules once the table is complete, so tables converting in parallel never wait on each other
+public class KeyCollectingTableOutputSink implements ITableOutputSink {
+
+    private final ITableOutputSink outputSink;
+    private final String tableName;
+    // in output order
+    private final int[] keyColumnIdxs;
+    private final LongHashSet[] collectedKeys;
+    private final LongHashSet[] ruleKeys;
+    // the columns are checked to be integer columns, a value which is no integer anyway is not collected
+    private long invalidKeyCount;
+
+    public KeyCollectingTableOutputSink(final ITableOutputSink outputSink,
+                                        final String tableName,
+                                        final List<String> outputColumnNames,
+                                        final List<OrphanPlaceholderRule> orphanPlaceholderRules) {
+        this.outputSink = outputSink;
+        this.tableName = tableName;
+        final List<String> keyColumnNames = new ArrayList<>();
+        final List<LongHashSet> ruleKeys = new ArrayList<>();
+        for (final OrphanPlaceholderRule orphanPlaceholderRule : orphanPlaceholderRules) {
+            if (orphanPlaceholderRule.getParentTableName().equals(tableName)) {
+                keyColumnNames.add(orphanPlaceholderRule.getKeyColumnName());
+                ruleKeys.add(orphanPlaceholderRule.getExistingKeys());
+            }
+            for (final String referencingColumnName : orphanPlaceholderRule.getReferencingColumnNames().getOrDefault(tableName, List.of())) {
+                keyColumnNames.add(referencingColumnName);
+                ruleKeys.add(orphanPlaceholderRule.getReferencedKeys());
+            }
+        }
+        this.keyColumnIdxs = new int[keyColumnNames.size()];
+        this.collectedKeys = new LongHashSet[keyColumnNames.size()];
+        for (int currentKeyIdx = 0; currentKeyIdx < this.keyColumnIdxs.length; currentKeyIdx++) {
+            this.keyColumnIdxs[currentKeyIdx] = outputColumnNames.indexOf(keyColumnNames.get(currentKeyIdx));
+            if (this.keyColumnIdxs[currentKeyIdx] < 0) {
+                throw new IllegalArgumentException("key column " + keyColumnNames.get(currentKeyIdx) + " is no output column of " + tableName);
+            }
+            this.collectedKeys[currentKeyIdx] = new LongHashSet();
+        }
+        this.ruleKeys = ruleKeys.toArray(new LongHashSet[0]);
+    }
+
+    // null keys reference nothing
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        for (int currentKeyIdx = 0; currentKeyIdx < this.keyColumnIdxs.length; currentKeyIdx++) {
+            final int columnIdx = this.keyColumnIdxs[currentKeyIdx];
+            if (convertedRow.isNull(columnIdx)) {
+                continue;
+            }
+            if (isIntegerKey(convertedRow.getChars(columnIdx), convertedRow.getStart(columnIdx), convertedRow.getLength(columnIdx))) {
+                this.collectedKeys[currentKeyIdx].add(parseKey(convertedRow.getChars(columnIdx), convertedRow.getStart(columnIdx), convertedRow.getLength(columnIdx)));
+            } else {
+                this.invalidKeyCount++;
+            }
+        }
+        this.outputSink.writeRow(convertedRow);
+    }
+
+    // a failed table does not add its keys
+    @Override
+    public void finish() throws IOException {
+        this.outputSink.finish();
+        for (int currentKeyIdx = 0; currentKeyIdx < this.ruleKeys.length; currentKeyIdx++) {
+            synchronized (this.ruleKeys[currentKeyIdx]) {
+                this.ruleKeys[currentKeyIdx].addAll(this.collectedKeys[currentKeyIdx]);
+            }
+        }
+        if (this.invalidKeyCount > 0) {
+            System.out.println("ignored " + this.invalidKeyCount + " keys of table " + this.tableName + " which are no integers, they get no placeholders");
+        }
+    }
+
+    @Override
+    public void abort() {
+        this.outputSink.abort();
+    }
+
+    @Override
+    public List<String> getCsvNames() {
+        return this.outputSink.getCsvNames();
+    }
+
+    @Override
+    public List<String> getOrderColumnNames() {
+        return this.outputSink.getOrderColumnNames();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.outputSink.close();
+    }
+
+    // an optional minus and up to 18 digits, so the value fits into a long
+    private static boolean isIntegerKey(final char[] chars, final int start, final int length) {
+        final int digitsStart = length > 0 && chars[start] == '-' ? start + 1 : start;
+        if (digitsStart == start + length || start + length - digitsStart > 18) {
+            return false;
+        }
+        for (int currentIdx = digitsStart; currentIdx < start + length; currentIdx++) {
+            if (chars[currentIdx] < '0' || chars[currentIdx] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseKey(final char[] chars, final int start, final int length) {
+        final boolean negative = chars[start] == '-';
+        long key = 0;
+        for (int currentIdx = negative ? start + 1 : start; currentIdx < start + length; currentIdx++) {
+            key = key * 10 + (chars[currentIdx] - '0');
+        }
+        return negative ? -key : key;
+    }
+}
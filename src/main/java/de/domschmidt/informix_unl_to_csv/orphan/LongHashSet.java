@@ -0,0 +1,102 @@
+package de.domschmidt.informix_unl_to_csv.orphan;
+
+import java.util.Arrays;
+
+// open addressing with linear probing on a long[], 8 to 16 bytes per key instead of a boxed Long and its node,
+// 0 marks a free slot and is tracked on its own
+public class LongHashSet {
+
+    private static final int MIN_CAPACITY = 1024;
+
+    private long[] slots = new long[MIN_CAPACITY];
+    private int shift = 64 - Integer.numberOfTrailingZeros(MIN_CAPACITY);
+    private int size;
+    private boolean containsZero;
+
+    // false if the key was already contained
+    public boolean add(final long key) {
+        if (key == 0) {
+            final boolean added = !this.containsZero;
+            this.containsZero = true;
+            return added;
+        }
+        int slotIdx = getSlotIdx(key);
+        while (this.slots[slotIdx] != 0) {
+            if (this.slots[slotIdx] == key) {
+                return false;
+            }
+            slotIdx = (slotIdx + 1) & (this.slots.length - 1);
+        }
+        this.slots[slotIdx] = key;
+        // at most half full, so a probe ends after a few slots
+        if (++this.size > this.slots.length >> 1) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(final long key) {
+        if (key == 0) {
+            return this.containsZero;
+        }
+        int slotIdx = getSlotIdx(key);
+        while (this.slots[slotIdx] != 0) {
+            if (this.slots[slotIdx] == key) {
+                return true;
+            }
+            slotIdx = (slotIdx + 1) & (this.slots.length - 1);
+        }
+        return false;
+    }
+
+    public void addAll(final LongHashSet other) {
+        if (other.containsZero) {
+            add(0);
+        }
+        for (final long key : other.slots) {
+            if (key != 0) {
+                add(key);
+            }
+        }
+    }
+
+    public int size() {
+        return this.size + (this.containsZero ? 1 : 0);
+    }
+
+    // ascending
+    public long[] toSortedArray() {
+        final long[] keys = new long[size()];
+        int keyCount = 0;
+        if (this.containsZero) {
+            keys[keyCount++] = 0;
+        }
+        for (final long key : this.slots) {
+            if (key != 0) {
+                keys[keyCount++] = key;
+            }
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private void grow() {
+        final long[] previousSlots = this.slots;
+        this.slots = new long[previousSlots.length << 1];
+        this.shift--;
+        for (final long key : previousSlots) {
+            if (key != 0) {
+                int slotIdx = getSlotIdx(key);
+                while (this.slots[slotIdx] != 0) {
+                    slotIdx = (slotIdx + 1) & (this.slots.length - 1);
+                }
+                this.slots[slotIdx] = key;
+            }
+        }
+    }
+
+    // fibonacci hashing, the high bits of the product spread consecutive ids over the table
+    private int getSlotIdx(final long key) {
+        return (int) ((key * 0x9e3779b97f4a7c15L) >>> this.shift);
+    }
+}
@@ -0,0 +1,102 @@
+package de.domschmidt.informix_unl_to_csv.orphan;
+
+import de.domschmidt.informix_unl_to_csv.defaults.ITableDefaultValue;
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+// a placeholder row is added to the parent table for every key its referencing columns contain but the parent does not,
+// e.g. a 'GELÖSCHTE PERSON' for each person id left in the tables referencing person
+public class OrphanPlaceholderRule {
+
+    private final String parentTableName;
+    private final String keyColumnName;
+    // table -> columns referencing the key, by normalized table name
+    private final Map<String, List<String>> referencingColumnNames;
+    // column -> value of every placeholder row, the other columns get their table defaults or are null
+    private final Map<String, String> placeholderValues;
+    // filled by the KeyCollectingTableOutputSinks of the tables, which lock them while adding
+    private final LongHashSet existingKeys = new LongHashSet();
+    private final LongHashSet referencedKeys = new LongHashSet();
+
+    public OrphanPlaceholderRule(final String parentTableName,
+                                 final String keyColumnName,
+                                 final Map<String, List<String>> referencingColumnNames,
+                                 final Map<String, String> placeholderValues) {
+        this.parentTableName = parentTableName;
+        this.keyColumnName = keyColumnName;
+        this.referencingColumnNames = referencingColumnNames;
+        this.placeholderValues = placeholderValues;
+    }
+
+    public String getParentTableName() {
+        return this.parentTableName;
+    }
+
+    public String getKeyColumnName() {
+        return this.keyColumnName;
+    }
+
+    public Map<String, List<String>> getReferencingColumnNames() {
+        return this.referencingColumnNames;
+    }
+
+    public boolean isCollecting(final String tableName) {
+        return this.parentTableName.equals(tableName) || this.referencingColumnNames.containsKey(tableName);
+    }
+
+    LongHashSet getExistingKeys() {
+        return this.existingKeys;
+    }
+
+    LongHashSet getReferencedKeys() {
+        return this.referencedKeys;
+    }
+
+    // ascending, only complete once every table of the rule is converted
+    public long[] getMissingKeys() {
+        final long[] keys = this.referencedKeys.toSortedArray();
+        int missingKeyCount = 0;
+        for (final long referencedKey : keys) {
+            if (!this.existingKeys.contains(referencedKey)) {
+                keys[missingKeyCount++] = referencedKey;
+            }
+        }
+        return Arrays.copyOf(keys, missingKeyCount);
+    }
+
+    // columnDefaults are the defaults the table is converted with, null if it has none
+    public void writePlaceholders(final ITableOutputSink outputSink,
+                                  final List<String> outputColumnNames,
+                                  final Map<String, ITableDefaultValue> columnDefaults,
+                                  final long[] missingKeys) throws IOException {
+        final ConvertedRow placeholderRow = new ConvertedRow();
+        for (final long missingKey : missingKeys) {
+            placeholderRow.reset(null, outputColumnNames.size());
+            for (int currentColumnIdx = 0; currentColumnIdx < outputColumnNames.size(); currentColumnIdx++) {
+                final String columnName = outputColumnNames.get(currentColumnIdx);
+                if (columnName.equals(this.keyColumnName)) {
+                    placeholderRow.setValue(currentColumnIdx, Long.toString(missingKey));
+                } else if (this.placeholderValues.containsKey(columnName)) {
+                    placeholderRow.setValue(currentColumnIdx, this.placeholderValues.get(columnName));
+                } else if (columnDefaults != null && columnDefaults.containsKey(columnName)) {
+                    // read once, a sequence default counts on
+                    final String defaultValue = columnDefaults.get(columnName).get();
+                    if (defaultValue != null) {
+                        placeholderRow.setValue(currentColumnIdx, defaultValue);
+                    } else {
+                        placeholderRow.setNull(currentColumnIdx);
+                    }
+                } else {
+                    placeholderRow.setNull(currentColumnIdx);
+                }
+            }
+            outputSink.writeRow(placeholderRow);
+        }
+        outputSink.finish();
+    }
+}
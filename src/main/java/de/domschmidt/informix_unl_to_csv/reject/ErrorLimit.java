@@ -0,0 +1,24 @@
+package de.domschmidt.informix_unl_to_csv.reject;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ErrorLimit {
+
+    // negative for no limit
+    private final long maxErrors;
+    private final AtomicLong errorCount = new AtomicLong();
+
+    public ErrorLimit(final long maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void countError() throws MaxErrorsExceededException {
+        if (this.errorCount.incrementAndGet() > this.maxErrors && this.maxErrors >= 0) {
+            throw new MaxErrorsExceededException(this.maxErrors);
+        }
+    }
+
+    public long getErrorCount() {
+        return this.errorCount.get();
+    }
+}
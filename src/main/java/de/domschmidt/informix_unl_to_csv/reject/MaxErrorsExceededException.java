@@ -0,0 +1,12 @@
+package de.domschmidt.informix_unl_to_csv.reject;
+
+import java.io.IOException;
+
+public class MaxErrorsExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public MaxErrorsExceededException(final long maxErrors) {
+        super("more than " + maxErrors + " rejected records, aborting");
+    }
+}
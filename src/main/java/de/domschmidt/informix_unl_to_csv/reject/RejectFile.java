@@ -0,0 +1,61 @@
+package de.domschmidt.informix_unl_to_csv.reject;
+
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class RejectFile implements AutoCloseable {
+
+    private final Path rejectPath;
+    private final Charset charset;
+    private final ErrorLimit errorLimit;
+    private Writer rejectWriter;
+    private long rejectedCount;
+
+    public RejectFile(final Path rejectPath, final Charset charset, final ErrorLimit errorLimit) {
+        this.rejectPath = rejectPath;
+        this.charset = charset;
+        this.errorLimit = errorLimit;
+    }
+
+    // the fields are escaped again, the reason is appended as an additional field
+    public void reject(final UNLRecord record, final String reason) throws IOException {
+        if (this.rejectWriter == null) {
+            this.rejectWriter = Files.newBufferedWriter(this.rejectPath, this.charset);
+        }
+        for (int currentFieldIdx = 0; currentFieldIdx < record.getFieldCount(); currentFieldIdx++) {
+            if (currentFieldIdx > 0) {
+                this.rejectWriter.write('|');
+            }
+            if (!record.isNull(currentFieldIdx) && record.getFieldLength(currentFieldIdx) == 0) {
+                // an empty string, unlike null
+                this.rejectWriter.write("\\ ");
+            } else {
+                writeEscaped(record.getField(currentFieldIdx));
+            }
+        }
+        writeEscaped(reason.replace("\n", " "));
+        this.rejectWriter.write("|\n");
+        this.rejectedCount++;
+        this.errorLimit.countError();
+    }
+
+    private void writeEscaped(final String value) throws IOException {
+        this.rejectWriter.write(value.replace("\\", "\\\\").replace("|", "\\|").replace("\n", "\\\n"));
+    }
+
+    public long getRejectedCount() {
+        return this.rejectedCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.rejectWriter != null) {
+            this.rejectWriter.close();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+public class Column {
+
+    private final String name;
+    private final ColumnType type;
+    private final boolean nullable;
+    // as written in the ddl, e.g. 'N' or today, null without a default
+    private final String defaultValue;
+
+    public Column(final String name, final ColumnType type, final boolean nullable, final String defaultValue) {
+        this.name = name;
+        this.type = type;
+        this.nullable = nullable;
+        this.defaultValue = defaultValue;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public ColumnType getType() {
+        return this.type;
+    }
+
+    public boolean isNullable() {
+        return this.nullable;
+    }
+
+    public String getDefaultValue() {
+        return this.defaultValue;
+    }
+
+    public boolean isSerial() {
+        return this.type.isSerial();
+    }
+}
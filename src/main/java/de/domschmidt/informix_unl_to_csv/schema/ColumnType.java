@@ -0,0 +1,60 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.Set;
+
+// an informix column type, e.g. decimal(16, 2) or datetime year to second
+public class ColumnType {
+
+    private static final Set<String> SERIAL_TYPES = Set.of("serial", "serial8", "bigserial");
+
+    private final String name;
+    // -1 if not given, e.g. the length of a char or the precision of a decimal
+    private final int precision;
+    // -1 if not given
+    private final int scale;
+    // datetime and interval qualifier, e.g. "year to fraction(3)", otherwise null
+    private final String qualifier;
+
+    public ColumnType(final String name, final int precision, final int scale, final String qualifier) {
+        this.name = name;
+        this.precision = precision;
+        this.scale = scale;
+        this.qualifier = qualifier;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public int getPrecision() {
+        return this.precision;
+    }
+
+    public int getScale() {
+        return this.scale;
+    }
+
+    public String getQualifier() {
+        return this.qualifier;
+    }
+
+    public boolean isSerial() {
+        return SERIAL_TYPES.contains(this.name);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder type = new StringBuilder(this.name);
+        if (this.precision >= 0) {
+            type.append('(').append(this.precision);
+            if (this.scale >= 0) {
+                type.append(", ").append(this.scale);
+            }
+            type.append(')');
+        }
+        if (this.qualifier != null) {
+            type.append(' ').append(this.qualifier);
+        }
+        return type.toString();
+    }
+}
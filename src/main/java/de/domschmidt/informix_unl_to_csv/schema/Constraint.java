@@ -0,0 +1,66 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.List;
+
+public class Constraint {
+
+    private final ConstraintType type;
+    // null if informix generates the name
+    private final String name;
+    private final List<String> columnNames;
+    // foreign keys only, the referenced columns are empty for the primary key of the referenced table
+    private final String referencedTableName;
+    private final List<String> referencedColumnNames;
+    private final boolean cascadingDelete;
+    // check constraints only, as written in the ddl
+    private final String checkCondition;
+
+    public Constraint(final ConstraintType type,
+                      final String name,
+                      final List<String> columnNames,
+                      final String referencedTableName,
+                      final List<String> referencedColumnNames,
+                      final boolean cascadingDelete,
+                      final String checkCondition) {
+        this.type = type;
+        this.name = name;
+        this.columnNames = List.copyOf(columnNames);
+        this.referencedTableName = referencedTableName;
+        this.referencedColumnNames = List.copyOf(referencedColumnNames);
+        this.cascadingDelete = cascadingDelete;
+        this.checkCondition = checkCondition;
+    }
+
+    public ConstraintType getType() {
+        return this.type;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    public String getReferencedTableName() {
+        return this.referencedTableName;
+    }
+
+    public List<String> getReferencedColumnNames() {
+        return this.referencedColumnNames;
+    }
+
+    public boolean isCascadingDelete() {
+        return this.cascadingDelete;
+    }
+
+    public String getCheckCondition() {
+        return this.checkCondition;
+    }
+
+    // the same constraint without a name or with the name given after it
+    Constraint withName(final String name) {
+        return new Constraint(this.type, name, this.columnNames, this.referencedTableName, this.referencedColumnNames, this.cascadingDelete, this.checkCondition);
+    }
+}
@@ -0,0 +1,8 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+public enum ConstraintType {
+    PRIMARY_KEY,
+    UNIQUE,
+    FOREIGN_KEY,
+    CHECK
+}
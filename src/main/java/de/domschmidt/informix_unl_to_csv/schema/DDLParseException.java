@@ -0,0 +1,12 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.io.IOException;
+
+public class DDLParseException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DDLParseException(final DDLToken token, final String message) {
+        super("line " + token.getLine() + ", at " + token + ": " + message);
+    }
+}
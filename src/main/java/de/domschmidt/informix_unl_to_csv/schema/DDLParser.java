@@ -0,0 +1,555 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// parses the create table, create index, alter table ... add constraint, grant and revoke statements of dbexport,
+// everything else (procedures, views, synonyms, ...) is skipped
+public class DDLParser {
+
+    private static final Pattern DATABASE_COMMENT_PATTERN = Pattern.compile("^DATABASE (\\w+).*$");
+    private static final Pattern UNLOAD_FILE_COMMENT_PATTERN = Pattern.compile("^unload file name = ([\\w.]+).*$");
+    private static final Set<String> COLUMN_ATTRIBUTE_WORDS = Set.of("not", "null", "default", "primary", "unique", "distinct", "references", "check", "constraint");
+    private static final Set<String> CONSTRAINT_MODE_WORDS = Set.of("enabled", "disabled", "filtering", "without", "with", "error");
+
+    private final List<DDLToken> tokens;
+    private int position;
+    private String databaseName;
+    // of the comment in front of the next create table
+    private String unlFileName;
+    // by qualified name, alter table statements add to them
+    private final Map<String, TableDefinition> tableDefinitions = new LinkedHashMap<>();
+    private final List<Index> indexes = new ArrayList<>();
+    private final List<Privilege> privileges = new ArrayList<>();
+
+    private DDLParser(final List<DDLToken> tokens) {
+        this.tokens = tokens;
+    }
+
+    public static Schema parse(final String ddl) throws DDLParseException {
+        return new DDLParser(new DDLTokenizer(ddl).tokenize()).parseSchema();
+    }
+
+    private Schema parseSchema() throws DDLParseException {
+        while (true) {
+            final DDLToken token = this.tokens.get(this.position);
+            if (token.getType() == DDLToken.Type.END) {
+                break;
+            } else if (token.getType() == DDLToken.Type.COMMENT) {
+                parseComment(token.getText());
+                this.position++;
+            } else if (token.isSymbol(';')) {
+                this.position++;
+            } else if (token.isWord("create")) {
+                next();
+                parseCreate();
+            } else if (token.isWord("alter") && peek(1).isWord("table")) {
+                next();
+                next();
+                parseAlterTable();
+            } else if (token.isWord("grant") || token.isWord("revoke")) {
+                next();
+                parsePrivilege(token.isWord("grant"));
+            } else {
+                skipStatement();
+            }
+        }
+
+        final List<Table> tables = new ArrayList<>();
+        for (final TableDefinition tableDefinition : this.tableDefinitions.values()) {
+            tables.add(new Table(tableDefinition.owner, tableDefinition.name, tableDefinition.unlFileName, tableDefinition.columns, tableDefinition.constraints));
+        }
+        return new Schema(this.databaseName, tables, this.indexes, this.privileges);
+    }
+
+    // { DATABASE orveus  delimiter | } and { unload file name = perso00100.unl number of rows = 2 }
+    private void parseComment(final String comment) {
+        final Matcher databaseCommentMatcher = DATABASE_COMMENT_PATTERN.matcher(comment);
+        final Matcher unloadFileCommentMatcher = UNLOAD_FILE_COMMENT_PATTERN.matcher(comment);
+        if (databaseCommentMatcher.matches()) {
+            this.databaseName = databaseCommentMatcher.group(1);
+        } else if (unloadFileCommentMatcher.matches()) {
+            this.unlFileName = unloadFileCommentMatcher.group(1);
+        }
+    }
+
+    private void parseCreate() throws DDLParseException {
+        if (peek().isWord("table")) {
+            next();
+            parseCreateTable();
+            return;
+        }
+        boolean unique = false;
+        boolean clustered = false;
+        while (peek().isWord("unique") || peek().isWord("distinct") || peek().isWord("cluster")) {
+            if (next().isWord("cluster")) {
+                clustered = true;
+            } else {
+                unique = true;
+            }
+        }
+        if (peek().isWord("index")) {
+            next();
+            parseCreateIndex(unique, clustered);
+        } else if (peek().isWord("procedure") || peek().isWord("function")
+                || (peek().isWord("dba") && (peek(1).isWord("procedure") || peek(1).isWord("function")))) {
+            skipRoutine();
+        } else {
+            skipStatement();
+        }
+    }
+
+    private void parseCreateTable() throws DDLParseException {
+        final String[] tableName = parseQualifiedName();
+        final TableDefinition tableDefinition = new TableDefinition(tableName[0], tableName[1], this.unlFileName);
+        this.unlFileName = null;
+        this.tableDefinitions.put(qualify(tableName), tableDefinition);
+
+        expectSymbol('(');
+        do {
+            if (isConstraintStart(peek())) {
+                tableDefinition.constraints.add(parseTableConstraint());
+            } else {
+                parseColumn(tableDefinition);
+            }
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+        // extent sizes, lock mode, dbspaces and fragmentation
+        skipStatement();
+    }
+
+    private void parseColumn(final TableDefinition tableDefinition) throws DDLParseException {
+        final String columnName = expectIdentifier();
+        final ColumnType columnType = parseColumnType();
+        boolean nullable = true;
+        String defaultValue = null;
+        // a constraint name names the constraint in front of it, the one of not null is not kept
+        boolean namesConstraint = false;
+        while (!peek().isSymbol(',') && !peek().isSymbol(')')) {
+            final DDLToken token = next();
+            final int constraintCount = tableDefinition.constraints.size();
+            if (token.isWord("not")) {
+                expectWord("null");
+                nullable = false;
+            } else if (token.isWord("null")) {
+                nullable = true;
+            } else if (token.isWord("default")) {
+                defaultValue = parseDefaultValue();
+            } else if (token.isWord("primary")) {
+                expectWord("key");
+                tableDefinition.constraints.add(new Constraint(ConstraintType.PRIMARY_KEY, null, List.of(columnName), null, List.of(), false, null));
+            } else if (token.isWord("unique") || token.isWord("distinct")) {
+                tableDefinition.constraints.add(new Constraint(ConstraintType.UNIQUE, null, List.of(columnName), null, List.of(), false, null));
+            } else if (token.isWord("references")) {
+                tableDefinition.constraints.add(parseReferences(null, List.of(columnName)));
+            } else if (token.isWord("check")) {
+                tableDefinition.constraints.add(new Constraint(ConstraintType.CHECK, null, List.of(columnName), null, List.of(), false, parseParenthesized()));
+            } else if (token.isWord("constraint")) {
+                final String constraintName = parseQualifiedName()[1];
+                if (namesConstraint) {
+                    tableDefinition.constraints.set(constraintCount - 1, tableDefinition.constraints.get(constraintCount - 1).withName(constraintName));
+                }
+                continue;
+            } else if (CONSTRAINT_MODE_WORDS.contains(token.getText())) {
+                // enabled, disabled, filtering without error
+                continue;
+            } else {
+                throw new DDLParseException(token, "unexpected in the definition of column " + columnName);
+            }
+            namesConstraint = tableDefinition.constraints.size() > constraintCount;
+        }
+        tableDefinition.columns.add(new Column(columnName, columnType, nullable, defaultValue));
+    }
+
+    // decimal(16, 2), double precision, datetime year to fraction(3), text in table
+    private ColumnType parseColumnType() throws DDLParseException {
+        final DDLToken typeToken = next();
+        if (typeToken.getType() != DDLToken.Type.WORD) {
+            throw new DDLParseException(typeToken, "column type expected");
+        }
+        String typeName = typeToken.getText();
+        if (typeName.equals("double") && peek().isWord("precision")) {
+            next();
+            typeName = "double precision";
+        }
+
+        int precision = -1;
+        int scale = -1;
+        String qualifier = null;
+        if (peek().isSymbol('(')) {
+            if (peek(1).getType() == DDLToken.Type.NUMBER) {
+                next();
+                precision = parseNumber();
+                if (acceptSymbol(',')) {
+                    scale = parseNumber();
+                }
+                expectSymbol(')');
+            } else {
+                // collection types, e.g. set(integer not null)
+                qualifier = parseParenthesized();
+            }
+        }
+        if (typeName.equals("datetime") || typeName.equals("interval")) {
+            qualifier = parseDateTimeQualifier();
+        }
+        if (peek().isWord("in")) {
+            // storage of text and byte columns
+            next();
+            expectIdentifier();
+        }
+        return new ColumnType(typeName, precision, scale, qualifier);
+    }
+
+    // year to second, day(3) to fraction(5)
+    private String parseDateTimeQualifier() throws DDLParseException {
+        final StringBuilder qualifier = new StringBuilder(expectWordToken().getText());
+        if (peek().isSymbol('(')) {
+            qualifier.append(parseParenthesizedWithParentheses());
+        }
+        if (peek().isWord("to")) {
+            next();
+            qualifier.append(" to ").append(expectWordToken().getText());
+            if (peek().isSymbol('(')) {
+                qualifier.append(parseParenthesizedWithParentheses());
+            }
+        }
+        return qualifier.toString();
+    }
+
+    // 'N', 0, -1.5, today, current year to fraction(3), user
+    private String parseDefaultValue() throws DDLParseException {
+        final List<DDLToken> valueTokens = new ArrayList<>();
+        int depth = 0;
+        while (depth > 0 || (!peek().isSymbol(',') && !peek().isSymbol(')')
+                && !(peek().getType() == DDLToken.Type.WORD && COLUMN_ATTRIBUTE_WORDS.contains(peek().getText()) && !valueTokens.isEmpty()))) {
+            final DDLToken token = next();
+            if (token.getType() == DDLToken.Type.END) {
+                throw new DDLParseException(token, "end of default value expected");
+            } else if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            }
+            valueTokens.add(token);
+        }
+        return joinTokens(valueTokens);
+    }
+
+    private boolean isConstraintStart(final DDLToken token) {
+        return token.isWord("primary") || token.isWord("unique") || token.isWord("distinct")
+                || token.isWord("foreign") || token.isWord("check") || token.isWord("constraint");
+    }
+
+    // primary key (a, b) constraint "owner".name, also with the constraint name in front
+    private Constraint parseTableConstraint() throws DDLParseException {
+        String constraintName = null;
+        if (peek().isWord("constraint")) {
+            next();
+            constraintName = parseQualifiedName()[1];
+        }
+        final DDLToken kindToken = next();
+        final Constraint constraint;
+        if (kindToken.isWord("primary")) {
+            expectWord("key");
+            constraint = new Constraint(ConstraintType.PRIMARY_KEY, null, parseColumnList(), null, List.of(), false, null);
+        } else if (kindToken.isWord("unique") || kindToken.isWord("distinct")) {
+            constraint = new Constraint(ConstraintType.UNIQUE, null, parseColumnList(), null, List.of(), false, null);
+        } else if (kindToken.isWord("foreign")) {
+            expectWord("key");
+            final List<String> columnNames = parseColumnList();
+            expectWord("references");
+            constraint = parseReferences(null, columnNames);
+        } else if (kindToken.isWord("check")) {
+            constraint = new Constraint(ConstraintType.CHECK, null, List.of(), null, List.of(), false, parseParenthesized());
+        } else {
+            throw new DDLParseException(kindToken, "constraint expected");
+        }
+        if (peek().isWord("constraint")) {
+            next();
+            constraintName = parseQualifiedName()[1];
+        }
+        while (peek().getType() == DDLToken.Type.WORD && CONSTRAINT_MODE_WORDS.contains(peek().getText())) {
+            next();
+        }
+        return constraint.withName(constraintName);
+    }
+
+    // the references keyword is consumed already
+    private Constraint parseReferences(final String constraintName, final List<String> columnNames) throws DDLParseException {
+        final String referencedTableName = qualify(parseQualifiedName());
+        final List<String> referencedColumnNames = peek().isSymbol('(') ? parseColumnList() : List.of();
+        boolean cascadingDelete = false;
+        if (peek().isWord("on") && peek(1).isWord("delete")) {
+            next();
+            next();
+            expectWord("cascade");
+            cascadingDelete = true;
+        }
+        return new Constraint(ConstraintType.FOREIGN_KEY, constraintName, columnNames, referencedTableName, referencedColumnNames, cascadingDelete, null);
+    }
+
+    // alter table "owner".name add constraint (foreign key (a) references "owner".other constraint "owner".fk_name)
+    private void parseAlterTable() throws DDLParseException {
+        final String[] tableName = parseQualifiedName();
+        final TableDefinition tableDefinition = this.tableDefinitions.get(qualify(tableName));
+        if (tableDefinition == null || !peek().isWord("add") || !peek(1).isWord("constraint")) {
+            // other alterations do not occur in dbexport files
+            skipStatement();
+            return;
+        }
+        next();
+        next();
+        if (acceptSymbol('(')) {
+            do {
+                tableDefinition.constraints.add(parseTableConstraint());
+            } while (acceptSymbol(','));
+            expectSymbol(')');
+        } else {
+            tableDefinition.constraints.add(parseTableConstraint());
+        }
+        skipStatement();
+    }
+
+    // create [unique|distinct] [cluster] index "owner".name on "owner".table (a, b desc) using btree
+    private void parseCreateIndex(final boolean unique, final boolean clustered) throws DDLParseException {
+        final String indexName = parseQualifiedName()[1];
+        expectWord("on");
+        final String tableName = qualify(parseQualifiedName());
+        expectSymbol('(');
+        final List<String> columnNames = new ArrayList<>();
+        do {
+            final String columnName = expectIdentifier();
+            if (peek().isWord("desc")) {
+                next();
+                columnNames.add(columnName + " desc");
+            } else {
+                if (peek().isWord("asc")) {
+                    next();
+                }
+                columnNames.add(columnName);
+            }
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+        this.indexes.add(new Index(indexName, tableName, unique, clustered, columnNames));
+        skipStatement();
+    }
+
+    // grant dba to "informix", revoke all on "owner".table from "public" as "owner"
+    private void parsePrivilege(final boolean granted) throws DDLParseException {
+        final List<DDLToken> privilegeTokens = new ArrayList<>();
+        while (!peek().isWord("on") && !peek().isWord("to") && !peek().isWord("from")) {
+            if (peek().isSymbol(';') || peek().getType() == DDLToken.Type.END) {
+                throw new DDLParseException(peek(), "to or from expected");
+            }
+            privilegeTokens.add(next());
+        }
+        String tableName = null;
+        if (peek().isWord("on")) {
+            next();
+            tableName = qualify(parseQualifiedName());
+        }
+        final DDLToken directionToken = next();
+        if (!directionToken.isWord("to") && !directionToken.isWord("from")) {
+            throw new DDLParseException(directionToken, "to or from expected");
+        }
+        final String grantee = expectIdentifier();
+        String grantor = null;
+        if (peek().isWord("as")) {
+            next();
+            grantor = expectIdentifier();
+        }
+        this.privileges.add(new Privilege(granted, joinTokens(privilegeTokens), tableName, grantee, grantor));
+        skipStatement();
+    }
+
+    // up to and including the semicolon
+    private void skipStatement() {
+        int depth = 0;
+        while (true) {
+            final DDLToken token = this.tokens.get(this.position);
+            if (token.getType() == DDLToken.Type.END) {
+                return;
+            }
+            this.position++;
+            if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')')) {
+                depth--;
+            } else if (token.isSymbol(';') && depth <= 0) {
+                return;
+            }
+        }
+    }
+
+    // procedure bodies contain semicolons, they end with end procedure or end function
+    private void skipRoutine() {
+        while (peek().getType() != DDLToken.Type.END) {
+            final DDLToken token = next();
+            if (token.isWord("end") && (peek().isWord("procedure") || peek().isWord("function"))) {
+                next();
+                skipStatement();
+                return;
+            }
+        }
+    }
+
+    // owner and name, the owner is null if not given
+    private String[] parseQualifiedName() throws DDLParseException {
+        final String firstName = expectIdentifier();
+        if (acceptSymbol('.')) {
+            return new String[]{firstName, expectIdentifier()};
+        }
+        return new String[]{null, firstName};
+    }
+
+    private static String qualify(final String[] qualifiedName) {
+        return qualifiedName[0] != null ? qualifiedName[0] + '.' + qualifiedName[1] : qualifiedName[1];
+    }
+
+    private List<String> parseColumnList() throws DDLParseException {
+        expectSymbol('(');
+        final List<String> columnNames = new ArrayList<>();
+        do {
+            columnNames.add(expectIdentifier());
+        } while (acceptSymbol(','));
+        expectSymbol(')');
+        return columnNames;
+    }
+
+    // the text between balanced parentheses
+    private String parseParenthesized() throws DDLParseException {
+        expectSymbol('(');
+        final List<DDLToken> innerTokens = new ArrayList<>();
+        int depth = 1;
+        while (true) {
+            final DDLToken token = next();
+            if (token.getType() == DDLToken.Type.END) {
+                throw new DDLParseException(token, ") expected");
+            } else if (token.isSymbol('(')) {
+                depth++;
+            } else if (token.isSymbol(')') && --depth == 0) {
+                return joinTokens(innerTokens);
+            }
+            innerTokens.add(token);
+        }
+    }
+
+    private String parseParenthesizedWithParentheses() throws DDLParseException {
+        return "(" + parseParenthesized() + ")";
+    }
+
+    private int parseNumber() throws DDLParseException {
+        final DDLToken token = next();
+        if (token.getType() != DDLToken.Type.NUMBER) {
+            throw new DDLParseException(token, "number expected");
+        }
+        return Integer.parseInt(token.getText());
+    }
+
+    // words are separated by blanks, symbols are not, except after a comma
+    private static String joinTokens(final List<DDLToken> tokens) {
+        final StringBuilder joined = new StringBuilder();
+        DDLToken previousToken = null;
+        for (final DDLToken token : tokens) {
+            if (previousToken != null
+                    && ((token.getType() != DDLToken.Type.SYMBOL && previousToken.getType() != DDLToken.Type.SYMBOL) || previousToken.isSymbol(','))) {
+                joined.append(' ');
+            }
+            joined.append(token);
+            previousToken = token;
+        }
+        return joined.toString();
+    }
+
+    private DDLToken peek() {
+        return peek(0);
+    }
+
+    // comments inside of statements are skipped
+    private DDLToken peek(final int offset) {
+        int tokenIdx = this.position;
+        int remainingOffset = offset;
+        while (true) {
+            final DDLToken token = this.tokens.get(tokenIdx);
+            if (token.getType() == DDLToken.Type.END) {
+                return token;
+            }
+            if (token.getType() != DDLToken.Type.COMMENT) {
+                if (remainingOffset == 0) {
+                    return token;
+                }
+                remainingOffset--;
+            }
+            tokenIdx++;
+        }
+    }
+
+    private DDLToken next() {
+        while (this.tokens.get(this.position).getType() == DDLToken.Type.COMMENT) {
+            this.position++;
+        }
+        final DDLToken token = this.tokens.get(this.position);
+        if (token.getType() != DDLToken.Type.END) {
+            this.position++;
+        }
+        return token;
+    }
+
+    private String expectIdentifier() throws DDLParseException {
+        final DDLToken token = next();
+        if (!token.isIdentifier()) {
+            throw new DDLParseException(token, "name expected");
+        }
+        return token.getText();
+    }
+
+    private DDLToken expectWordToken() throws DDLParseException {
+        final DDLToken token = next();
+        if (token.getType() != DDLToken.Type.WORD) {
+            throw new DDLParseException(token, "keyword expected");
+        }
+        return token;
+    }
+
+    private void expectWord(final String word) throws DDLParseException {
+        final DDLToken token = next();
+        if (!token.isWord(word)) {
+            throw new DDLParseException(token, word + " expected");
+        }
+    }
+
+    private void expectSymbol(final char symbol) throws DDLParseException {
+        final DDLToken token = next();
+        if (!token.isSymbol(symbol)) {
+            throw new DDLParseException(token, symbol + " expected");
+        }
+    }
+
+    private boolean acceptSymbol(final char symbol) {
+        if (peek().isSymbol(symbol)) {
+            next();
+            return true;
+        }
+        return false;
+    }
+
+    private static class TableDefinition {
+
+        private final String owner;
+        private final String name;
+        private final String unlFileName;
+        private final List<Column> columns = new ArrayList<>();
+        private final List<Constraint> constraints = new ArrayList<>();
+
+        private TableDefinition(final String owner, final String name, final String unlFileName) {
+            this.owner = owner;
+            this.name = name;
+            this.unlFileName = unlFileName;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+public class DDLToken {
+
+    public enum Type {
+        // keywords and unquoted identifiers, lower case
+        WORD,
+        // "owner", without the quotes
+        QUOTED_IDENTIFIER,
+        // 'text', without the quotes
+        STRING,
+        NUMBER,
+        // ( ) , ; . = and other single chars
+        SYMBOL,
+        // { ... } as written by dbexport, without the braces
+        COMMENT,
+        END
+    }
+
+    private final Type type;
+    private final String text;
+    private final int line;
+
+    public DDLToken(final Type type, final String text, final int line) {
+        this.type = type;
+        this.text = text;
+        this.line = line;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public String getText() {
+        return this.text;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
+    public boolean isWord(final String word) {
+        return this.type == Type.WORD && this.text.equals(word);
+    }
+
+    public boolean isSymbol(final char symbol) {
+        return this.type == Type.SYMBOL && this.text.charAt(0) == symbol;
+    }
+
+    // a word or a quoted identifier
+    public boolean isIdentifier() {
+        return this.type == Type.WORD || this.type == Type.QUOTED_IDENTIFIER;
+    }
+
+    @Override
+    public String toString() {
+        switch (this.type) {
+            case QUOTED_IDENTIFIER:
+                return '"' + this.text + '"';
+            case STRING:
+                return '\'' + this.text.replace("'", "''") + '\'';
+            case COMMENT:
+                return '{' + this.text + '}';
+            case END:
+                return "end of input";
+            default:
+                return this.text;
+        }
+    }
+}
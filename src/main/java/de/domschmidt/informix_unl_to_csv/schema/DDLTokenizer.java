@@ -0,0 +1,100 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// splits the statements of a dbexport sql file, comments are kept as the unload file names are written in them
+public class DDLTokenizer {
+
+    private final String ddl;
+    private int position;
+    private int line = 1;
+
+    public DDLTokenizer(final String ddl) {
+        this.ddl = ddl;
+    }
+
+    public List<DDLToken> tokenize() throws DDLParseException {
+        final List<DDLToken> tokens = new ArrayList<>();
+        while (true) {
+            skipWhitespaceAndLineComments();
+            if (this.position >= this.ddl.length()) {
+                tokens.add(new DDLToken(DDLToken.Type.END, "", this.line));
+                return tokens;
+            }
+            final int tokenLine = this.line;
+            final char currentChar = this.ddl.charAt(this.position);
+            if (currentChar == '{') {
+                tokens.add(new DDLToken(DDLToken.Type.COMMENT, readUntil('}', tokenLine).trim(), tokenLine));
+            } else if (currentChar == '"') {
+                tokens.add(new DDLToken(DDLToken.Type.QUOTED_IDENTIFIER, readQuoted('"', tokenLine), tokenLine));
+            } else if (currentChar == '\'') {
+                tokens.add(new DDLToken(DDLToken.Type.STRING, readQuoted('\'', tokenLine), tokenLine));
+            } else if (Character.isDigit(currentChar)) {
+                final int start = this.position;
+                while (this.position < this.ddl.length()
+                        && (Character.isDigit(this.ddl.charAt(this.position)) || this.ddl.charAt(this.position) == '.')) {
+                    this.position++;
+                }
+                tokens.add(new DDLToken(DDLToken.Type.NUMBER, this.ddl.substring(start, this.position), tokenLine));
+            } else if (Character.isLetter(currentChar) || currentChar == '_') {
+                final int start = this.position;
+                while (this.position < this.ddl.length()
+                        && (Character.isLetterOrDigit(this.ddl.charAt(this.position)) || this.ddl.charAt(this.position) == '_' || this.ddl.charAt(this.position) == '$')) {
+                    this.position++;
+                }
+                tokens.add(new DDLToken(DDLToken.Type.WORD, this.ddl.substring(start, this.position).toLowerCase(), tokenLine));
+            } else {
+                this.position++;
+                tokens.add(new DDLToken(DDLToken.Type.SYMBOL, String.valueOf(currentChar), tokenLine));
+            }
+        }
+    }
+
+    private void skipWhitespaceAndLineComments() {
+        while (this.position < this.ddl.length()) {
+            final char currentChar = this.ddl.charAt(this.position);
+            if (currentChar == '\n') {
+                this.line++;
+                this.position++;
+            } else if (Character.isWhitespace(currentChar)) {
+                this.position++;
+            } else if (this.ddl.startsWith("--", this.position)) {
+                while (this.position < this.ddl.length() && this.ddl.charAt(this.position) != '\n') {
+                    this.position++;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    // the opening char is at the current position
+    private String readUntil(final char end, final int tokenLine) throws DDLParseException {
+        final int start = ++this.position;
+        while (this.position < this.ddl.length() && this.ddl.charAt(this.position) != end) {
+            if (this.ddl.charAt(this.position) == '\n') {
+                this.line++;
+            }
+            this.position++;
+        }
+        if (this.position >= this.ddl.length()) {
+            throw new DDLParseException(new DDLToken(DDLToken.Type.END, "", tokenLine), "missing " + end);
+        }
+        return this.ddl.substring(start, this.position++);
+    }
+
+    // a doubled quote stands for itself
+    private String readQuoted(final char quote, final int tokenLine) throws DDLParseException {
+        final StringBuilder quoted = new StringBuilder();
+        while (true) {
+            quoted.append(readUntil(quote, tokenLine));
+            if (this.position < this.ddl.length() && this.ddl.charAt(this.position) == quote) {
+                // the second quote is skipped by readUntil
+                quoted.append(quote);
+            } else {
+                return quoted.toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.List;
+
+public class Index {
+
+    private final String name;
+    private final String tableName;
+    private final boolean unique;
+    private final boolean clustered;
+    // with " desc" appended for descending columns
+    private final List<String> columnNames;
+
+    public Index(final String name, final String tableName, final boolean unique, final boolean clustered, final List<String> columnNames) {
+        this.name = name;
+        this.tableName = tableName;
+        this.unique = unique;
+        this.clustered = clustered;
+        this.columnNames = List.copyOf(columnNames);
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public boolean isUnique() {
+        return this.unique;
+    }
+
+    public boolean isClustered() {
+        return this.clustered;
+    }
+
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+}
@@ -0,0 +1,42 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+// a grant or revoke statement, e.g. revoke all on "orveus".kunde from "public" as "orveus"
+public class Privilege {
+
+    private final boolean granted;
+    // e.g. dba, all or select,update
+    private final String privileges;
+    // null for database level privileges
+    private final String tableName;
+    private final String grantee;
+    // null without an as clause
+    private final String grantor;
+
+    public Privilege(final boolean granted, final String privileges, final String tableName, final String grantee, final String grantor) {
+        this.granted = granted;
+        this.privileges = privileges;
+        this.tableName = tableName;
+        this.grantee = grantee;
+        this.grantor = grantor;
+    }
+
+    public boolean isGranted() {
+        return this.granted;
+    }
+
+    public String getPrivileges() {
+        return this.privileges;
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public String getGrantee() {
+        return this.grantee;
+    }
+
+    public String getGrantor() {
+        return this.grantor;
+    }
+}
@@ -0,0 +1,46 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.List;
+
+public class Schema {
+
+    // null if the ddl has no dbexport header
+    private final String databaseName;
+    // in ddl order
+    private final List<Table> tables;
+    private final List<Index> indexes;
+    private final List<Privilege> privileges;
+
+    public Schema(final String databaseName, final List<Table> tables, final List<Index> indexes, final List<Privilege> privileges) {
+        this.databaseName = databaseName;
+        this.tables = List.copyOf(tables);
+        this.indexes = List.copyOf(indexes);
+        this.privileges = List.copyOf(privileges);
+    }
+
+    public String getDatabaseName() {
+        return this.databaseName;
+    }
+
+    public List<Table> getTables() {
+        return this.tables;
+    }
+
+    // null if there is no such table
+    public Table getTable(final String qualifiedName) {
+        for (final Table table : this.tables) {
+            if (table.getQualifiedName().equals(qualifiedName)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    public List<Index> getIndexes() {
+        return this.indexes;
+    }
+
+    public List<Privilege> getPrivileges() {
+        return this.privileges;
+    }
+}
@@ -0,0 +1,78 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class Table {
+
+    // null if the ddl does not name an owner
+    private final String owner;
+    private final String name;
+    // null if the table was not unloaded
+    private final String unlFileName;
+    private final List<Column> columns;
+    // of the create table and of all alter table statements
+    private final List<Constraint> constraints;
+
+    public Table(final String owner, final String name, final String unlFileName, final List<Column> columns, final List<Constraint> constraints) {
+        this.owner = owner;
+        this.name = name;
+        this.unlFileName = unlFileName;
+        this.columns = List.copyOf(columns);
+        this.constraints = List.copyOf(constraints);
+    }
+
+    public String getOwner() {
+        return this.owner;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    // owner.name without quotes
+    public String getQualifiedName() {
+        return this.owner != null ? this.owner + '.' + this.name : this.name;
+    }
+
+    public String getUnlFileName() {
+        return this.unlFileName;
+    }
+
+    public List<Column> getColumns() {
+        return this.columns;
+    }
+
+    // in unl order
+    public List<String> getColumnNames() {
+        return this.columns.stream().map(Column::getName).collect(Collectors.toList());
+    }
+
+    // null if there is no such column
+    public Column getColumn(final String columnName) {
+        for (final Column column : this.columns) {
+            if (column.getName().equals(columnName)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    public List<Constraint> getConstraints() {
+        return this.constraints;
+    }
+
+    // null without a primary key
+    public Constraint getPrimaryKey() {
+        for (final Constraint constraint : this.constraints) {
+            if (constraint.getType() == ConstraintType.PRIMARY_KEY) {
+                return constraint;
+            }
+        }
+        return null;
+    }
+
+    public List<Constraint> getForeignKeys() {
+        return this.constraints.stream().filter(constraint -> constraint.getType() == ConstraintType.FOREIGN_KEY).collect(Collectors.toList());
+    }
+}
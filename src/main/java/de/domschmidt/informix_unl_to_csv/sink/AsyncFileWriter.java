@@ -0,0 +1,212 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// encodes into one of the given (direct) buffers while the full ones are written asynchronously,
+// the converting thread only waits if all buffers are still being written
+public class AsyncFileWriter extends Writer {
+
+    private static final int ENCODE_CHUNK_CHARS = 8192;
+
+    private final AsynchronousFileChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars = CharBuffer.allocate(ENCODE_CHUNK_CHARS);
+    private final ArrayDeque<ByteBuffer> freeBuffers = new ArrayDeque<>();
+    private final ArrayDeque<PendingWrite> pendingWrites = new ArrayDeque<>();
+    // time spent waiting for the writes, summed up over all writers
+    private final LongAdder writeStallNanos;
+    private ByteBuffer currentBuffer;
+    private long filePosition;
+    private boolean closed;
+
+    // the buffers are only used until this writer is closed, there is at least one of at least getMinBufferSize bytes
+    public AsyncFileWriter(final Path path, final Charset charset, final ByteBuffer[] buffers, final LongAdder writeStallNanos) throws IOException {
+        this(AsynchronousFileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                charset, buffers, writeStallNanos);
+    }
+
+    AsyncFileWriter(final AsynchronousFileChannel channel, final Charset charset, final ByteBuffer[] buffers, final LongAdder writeStallNanos) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.writeStallNanos = writeStallNanos;
+        for (final ByteBuffer buffer : buffers) {
+            this.freeBuffers.add(buffer.clear());
+        }
+        this.currentBuffer = this.freeBuffers.poll();
+    }
+
+    @Override
+    public void write(final char[] charArray, final int offset, final int length) throws IOException {
+        int currentOffset = offset;
+        int remainingLength = length;
+        while (remainingLength > 0) {
+            final int chunkLength = Math.min(remainingLength, this.chars.remaining());
+            this.chars.put(charArray, currentOffset, chunkLength);
+            currentOffset += chunkLength;
+            remainingLength -= chunkLength;
+            if (!this.chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) throws IOException {
+        int currentOffset = offset;
+        final int end = offset + length;
+        while (currentOffset < end) {
+            final int chunkEnd = Math.min(end, currentOffset + this.chars.remaining());
+            this.chars.put(string, currentOffset, chunkEnd);
+            currentOffset = chunkEnd;
+            if (!this.chars.hasRemaining()) {
+                encodeChars(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(final int character) throws IOException {
+        if (!this.chars.hasRemaining()) {
+            encodeChars(false);
+        }
+        this.chars.put((char) character);
+    }
+
+    // a surrogate pair is encoded at once, a smaller buffer never gets it
+    public static int getMinBufferSize(final Charset charset) {
+        return (int) Math.ceil(2 * charset.newEncoder().maxBytesPerChar());
+    }
+
+    // bytes handed to the channel or encoded into the current buffer, the last chars written may not be included yet
+    public long getBytesWritten() {
+        return this.filePosition + this.currentBuffer.position();
+    }
+
+    // starts writing what is buffered, without waiting for it
+    @Override
+    public void flush() throws IOException {
+        encodeChars(false);
+        if (this.currentBuffer.position() > 0) {
+            submitCurrentBuffer();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            encodeChars(true);
+            while (this.encoder.flush(this.currentBuffer).isOverflow()) {
+                submitCurrentBuffer();
+            }
+            if (this.currentBuffer.position() > 0) {
+                submitCurrentBuffer();
+            }
+            final long stallStart = System.nanoTime();
+            while (!this.pendingWrites.isEmpty()) {
+                completeOldestWrite();
+            }
+            this.writeStallNanos.add(System.nanoTime() - stallStart);
+        } finally {
+            // the buffers are reused by the next writer, so no write may be left running
+            for (final PendingWrite pendingWrite : this.pendingWrites) {
+                try {
+                    pendingWrite.result.get();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (final ExecutionException e) {
+                    // the first error is already thrown
+                }
+            }
+            this.pendingWrites.clear();
+            this.channel.close();
+        }
+    }
+
+    // a high surrogate at the end of the chunk stays for the next one
+    private void encodeChars(final boolean endOfInput) throws IOException {
+        this.chars.flip();
+        while (true) {
+            final CoderResult encodeResult = this.encoder.encode(this.chars, this.currentBuffer, endOfInput);
+            if (encodeResult.isOverflow()) {
+                submitCurrentBuffer();
+            } else if (encodeResult.isError()) {
+                encodeResult.throwException();
+            } else {
+                break;
+            }
+        }
+        this.chars.compact();
+    }
+
+    private void submitCurrentBuffer() throws IOException {
+        this.currentBuffer.flip();
+        final int length = this.currentBuffer.remaining();
+        this.pendingWrites.add(new PendingWrite(this.currentBuffer, this.filePosition, this.channel.write(this.currentBuffer, this.filePosition)));
+        this.filePosition += length;
+
+        if (this.freeBuffers.isEmpty()) {
+            final long stallStart = System.nanoTime();
+            completeOldestWrite();
+            this.writeStallNanos.add(System.nanoTime() - stallStart);
+        }
+        this.currentBuffer = this.freeBuffers.poll().clear();
+    }
+
+    // a write may be partial, the rest is written from where it stopped
+    private void completeOldestWrite() throws IOException {
+        final PendingWrite pendingWrite = this.pendingWrites.poll();
+        awaitWrite(pendingWrite.result);
+        while (pendingWrite.buffer.hasRemaining()) {
+            awaitWrite(this.channel.write(pendingWrite.buffer, pendingWrite.filePosition + pendingWrite.buffer.position()));
+        }
+        this.freeBuffers.add(pendingWrite.buffer);
+    }
+
+    private static void awaitWrite(final Future<Integer> result) throws IOException {
+        try {
+            result.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while writing");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static class PendingWrite {
+
+        private final ByteBuffer buffer;
+        private final long filePosition;
+        private final Future<Integer> result;
+
+        private PendingWrite(final ByteBuffer buffer, final long filePosition, final Future<Integer> result) {
+            this.buffer = buffer;
+            this.filePosition = filePosition;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.util.Arrays;
+
+// the output values of one row, either ranges of the unl record or copied into the row's own buffer
+public class ConvertedRow {
+
+    private char[] recordChars;
+    private char[] valueChars = new char[1024];
+    private int valueLength;
+    private int[] starts = new int[64];
+    private int[] lengths = new int[64];
+    private boolean[] ownValues = new boolean[64];
+    // one bit per column, set for a null value
+    private long[] nullValues = new long[1];
+    private int columnCount;
+
+    public void reset(final char[] recordChars, final int columnCount) {
+        this.recordChars = recordChars;
+        this.valueLength = 0;
+        this.columnCount = columnCount;
+        if (this.starts.length < columnCount) {
+            this.starts = new int[columnCount];
+            this.lengths = new int[columnCount];
+            this.ownValues = new boolean[columnCount];
+        }
+        if (this.nullValues.length << 6 < columnCount) {
+            this.nullValues = new long[(columnCount + 63) >> 6];
+        } else {
+            Arrays.fill(this.nullValues, 0);
+        }
+    }
+
+    public void setRecordRange(final int columnIdx, final int start, final int length) {
+        this.starts[columnIdx] = start;
+        this.lengths[columnIdx] = length;
+        this.ownValues[columnIdx] = false;
+    }
+
+    public void setNull(final int columnIdx) {
+        this.starts[columnIdx] = 0;
+        this.lengths[columnIdx] = 0;
+        this.ownValues[columnIdx] = false;
+        this.nullValues[columnIdx >> 6] |= 1L << columnIdx;
+    }
+
+    public void setValue(final int columnIdx, final String value) {
+        ensureValueCapacity(value.length());
+        value.getChars(0, value.length(), this.valueChars, this.valueLength);
+        setOwnValue(columnIdx, value.length());
+    }
+
+    public void setValue(final int columnIdx, final char[] chars, final int start, final int length) {
+        ensureValueCapacity(length);
+        System.arraycopy(chars, start, this.valueChars, this.valueLength, length);
+        setOwnValue(columnIdx, length);
+    }
+
+    private void ensureValueCapacity(final int additionalChars) {
+        if (this.valueLength + additionalChars > this.valueChars.length) {
+            final char[] grownValueChars = new char[Math.max(this.valueChars.length * 2, this.valueLength + additionalChars)];
+            System.arraycopy(this.valueChars, 0, grownValueChars, 0, this.valueLength);
+            this.valueChars = grownValueChars;
+        }
+    }
+
+    private void setOwnValue(final int columnIdx, final int length) {
+        this.starts[columnIdx] = this.valueLength;
+        this.lengths[columnIdx] = length;
+        this.ownValues[columnIdx] = true;
+        this.valueLength += length;
+    }
+
+    // a null value has no chars, an empty string is not null
+    public boolean isNull(final int columnIdx) {
+        return (this.nullValues[columnIdx >> 6] & (1L << columnIdx)) != 0;
+    }
+
+    public int getColumnCount() {
+        return this.columnCount;
+    }
+
+    public char[] getChars(final int columnIdx) {
+        return this.ownValues[columnIdx] ? this.valueChars : this.recordChars;
+    }
+
+    public int getStart(final int columnIdx) {
+        return this.starts[columnIdx];
+    }
+
+    public int getLength(final int columnIdx) {
+        return this.lengths[columnIdx];
+    }
+
+    // null for a null value
+    public String getString(final int columnIdx) {
+        if (isNull(columnIdx)) {
+            return null;
+        }
+        return new String(getChars(columnIdx), this.starts[columnIdx], this.lengths[columnIdx]);
+    }
+}
@@ -0,0 +1,26 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+// values are always quoted, so an unquoted null value cannot be mistaken for an empty string
+public enum CsvFormat {
+
+    // bulk insert and copy read an unquoted empty field as null
+    RFC_4180("", false),
+    // load data reads \N as null, as long as the backslash is the escape character
+    MYSQL("\\N", true);
+
+    private final String nullValue;
+    private final boolean backslashEscaped;
+
+    CsvFormat(final String nullValue, final boolean backslashEscaped) {
+        this.nullValue = nullValue;
+        this.backslashEscaped = backslashEscaped;
+    }
+
+    public String getNullValue() {
+        return this.nullValue;
+    }
+
+    public boolean isBackslashEscaped() {
+        return this.backslashEscaped;
+    }
+}
@@ -0,0 +1,53 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public class CsvTableOutputSink implements ITableOutputSink {
+
+    private final Writer csvWriter;
+    private final CsvFormat csvFormat;
+
+    public CsvTableOutputSink(final Writer csvWriter, final CsvFormat csvFormat) {
+        this.csvWriter = csvWriter;
+        this.csvFormat = csvFormat;
+    }
+
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        writeCsvRow(this.csvWriter, convertedRow, this.csvFormat);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.csvWriter.close();
+    }
+
+    // every value but null is quoted, quotes inside are doubled and backslashes too if they escape
+    public static void writeCsvRow(final Writer csvWriter, final ConvertedRow convertedRow, final CsvFormat csvFormat) throws IOException {
+        for (int currentColumnIdx = 0; currentColumnIdx < convertedRow.getColumnCount(); currentColumnIdx++) {
+            if (currentColumnIdx > 0) {
+                csvWriter.write(',');
+            }
+            if (convertedRow.isNull(currentColumnIdx)) {
+                csvWriter.write(csvFormat.getNullValue());
+                continue;
+            }
+            csvWriter.write('\"');
+            final char[] chars = convertedRow.getChars(currentColumnIdx);
+            final int end = convertedRow.getStart(currentColumnIdx) + convertedRow.getLength(currentColumnIdx);
+            int segmentStart = convertedRow.getStart(currentColumnIdx);
+            for (int currentCharIdx = segmentStart; currentCharIdx < end; currentCharIdx++) {
+                if (chars[currentCharIdx] == '\"' || (chars[currentCharIdx] == '\\' && csvFormat.isBackslashEscaped())) {
+                    // written including the quote or backslash, which is then doubled
+                    csvWriter.write(chars, segmentStart, currentCharIdx + 1 - segmentStart);
+                    csvWriter.write(chars[currentCharIdx]);
+                    segmentStart = currentCharIdx + 1;
+                }
+            }
+            csvWriter.write(chars, segmentStart, end - segmentStart);
+            csvWriter.write('\"');
+        }
+        csvWriter.write('\n');
+    }
+}
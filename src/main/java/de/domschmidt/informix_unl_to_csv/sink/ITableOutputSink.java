@@ -0,0 +1,32 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface ITableOutputSink extends AutoCloseable {
+
+    // the row is reused for the next record, it must not be kept
+    void writeRow(ConvertedRow convertedRow) throws IOException;
+
+    // after the last row and before the csv names are read, writes the rows held back until then (e.g. to sort them)
+    default void finish() throws IOException {
+    }
+
+    // instead of finish if the conversion failed, nothing held back or not yet committed is loaded, close follows
+    default void abort() {
+    }
+
+    // the csv files written relative to the output path, empty for the single <table>.csv or no files at all
+    default List<String> getCsvNames() {
+        return List.of();
+    }
+
+    // the columns the rows are written in ascending order of, as the target compares them, empty if unordered
+    default List<String> getOrderColumnNames() {
+        return List.of();
+    }
+
+    @Override
+    void close() throws IOException;
+
+}
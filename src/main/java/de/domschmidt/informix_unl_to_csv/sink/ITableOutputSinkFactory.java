@@ -0,0 +1,13 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContext;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface ITableOutputSinkFactory {
+
+    // smallTable output may be collected in the conversionContext and written at once
+    ITableOutputSink open(String tableName, List<String> outputColumnNames, ConversionContext conversionContext, boolean smallTable) throws IOException;
+
+}
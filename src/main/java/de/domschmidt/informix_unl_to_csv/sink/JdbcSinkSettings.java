@@ -0,0 +1,49 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+public class JdbcSinkSettings {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int batchSize;
+    private final int connectionsPerTable;
+    private final int commitInterval;
+
+    public JdbcSinkSettings(final String url,
+                            final String user,
+                            final String password,
+                            final int batchSize,
+                            final int connectionsPerTable,
+                            final int commitInterval) {
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.batchSize = batchSize;
+        this.connectionsPerTable = connectionsPerTable;
+        this.commitInterval = commitInterval;
+    }
+
+    public String getUrl() {
+        return this.url;
+    }
+
+    public String getUser() {
+        return this.user;
+    }
+
+    public String getPassword() {
+        return this.password;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+
+    public int getConnectionsPerTable() {
+        return this.connectionsPerTable;
+    }
+
+    public int getCommitInterval() {
+        return this.commitInterval;
+    }
+}
@@ -0,0 +1,280 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class JdbcTableOutputSink implements ITableOutputSink {
+
+    private static final List<String[]> END_OF_ROWS = new ArrayList<>();
+
+    private final JdbcSinkSettings settings;
+    private final String tableName;
+    private final BlockingQueue<List<String[]>> pendingBatches;
+    private final List<Thread> loaderThreads = new ArrayList<>();
+    private final AtomicReference<Exception> loaderError = new AtomicReference<>();
+    // set by abort, the loaders roll back instead of committing
+    private volatile boolean aborted;
+    // committed before an abort, a rollback cannot undo them
+    private final AtomicLong committedRowCount = new AtomicLong();
+
+    private List<String[]> currentBatch;
+
+    public JdbcTableOutputSink(final JdbcSinkSettings settings, final String tableName, final List<String> columnNames) throws IOException {
+        this.settings = settings;
+        this.tableName = tableName;
+        this.pendingBatches = new ArrayBlockingQueue<>(settings.getConnectionsPerTable() * 2);
+        this.currentBatch = new ArrayList<>(settings.getBatchSize());
+
+        final String columnList = String.join(", ", columnNames);
+        final String insertSql = "INSERT INTO " + tableName + " (" + columnList + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnNames.size(), "?")) + ")";
+        final String copySql = "COPY " + tableName + " (" + columnList + ") FROM STDIN WITH (FORMAT csv)";
+
+        // connections are opened up front, so a wrong url fails before the first row is converted, the loaders are only
+        // started once all of them are open
+        final List<Connection> connections = openConnections(settings);
+        for (int currentConnectionIdx = 0; currentConnectionIdx < connections.size(); currentConnectionIdx++) {
+            final Thread loaderThread = new Thread(new BatchLoader(connections.get(currentConnectionIdx), insertSql, copySql),
+                    "jdbc-loader-" + tableName + "-" + currentConnectionIdx);
+            loaderThread.start();
+            this.loaderThreads.add(loaderThread);
+        }
+    }
+
+    // the connections opened so far are closed if one fails
+    private static List<Connection> openConnections(final JdbcSinkSettings settings) throws IOException {
+        final List<Connection> connections = new ArrayList<>();
+        try {
+            for (int currentConnectionIdx = 0; currentConnectionIdx < settings.getConnectionsPerTable(); currentConnectionIdx++) {
+                final Connection connection = DriverManager.getConnection(settings.getUrl(), settings.getUser(), settings.getPassword());
+                connections.add(connection);
+                connection.setAutoCommit(false);
+            }
+        } catch (final SQLException e) {
+            for (final Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (final SQLException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw new IOException("cannot connect to " + settings.getUrl(), e);
+        }
+        return connections;
+    }
+
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        final String[] values = new String[convertedRow.getColumnCount()];
+        for (int currentColumnIdx = 0; currentColumnIdx < values.length; currentColumnIdx++) {
+            values[currentColumnIdx] = convertedRow.getString(currentColumnIdx);
+        }
+        this.currentBatch.add(values);
+        if (this.currentBatch.size() >= this.settings.getBatchSize()) {
+            enqueue(this.currentBatch);
+            this.currentBatch = new ArrayList<>(this.settings.getBatchSize());
+        }
+    }
+
+    // the pending batch is dropped, the loaders discard the queued ones and roll back
+    @Override
+    public void abort() {
+        this.aborted = true;
+        this.currentBatch = new ArrayList<>();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!this.currentBatch.isEmpty()) {
+            enqueue(this.currentBatch);
+            this.currentBatch = new ArrayList<>();
+        }
+        for (int currentLoaderIdx = 0; currentLoaderIdx < this.loaderThreads.size(); currentLoaderIdx++) {
+            enqueue(END_OF_ROWS);
+        }
+        for (final Thread loaderThread : this.loaderThreads) {
+            try {
+                loaderThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for " + loaderThread.getName(), e);
+            }
+        }
+        this.loaderThreads.clear();
+        if (this.aborted) {
+            if (this.committedRowCount.get() > 0) {
+                System.out.println("rolled back the load of table " + this.tableName + ", " + this.committedRowCount.get()
+                        + " rows committed before remain (see --jdbc-commit-interval)");
+            }
+            // the failure of the conversion is reported instead
+            return;
+        }
+        checkLoaderError();
+    }
+
+    private void enqueue(final List<String[]> batch) throws IOException {
+        try {
+            while (!this.pendingBatches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                checkLoaderError();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while loading", e);
+        }
+        if (batch != END_OF_ROWS) {
+            checkLoaderError();
+        }
+    }
+
+    private void checkLoaderError() throws IOException {
+        final Exception currentError = this.loaderError.get();
+        if (currentError != null) {
+            throw new IOException("loading failed: " + currentError.getMessage(), currentError);
+        }
+    }
+
+    private class BatchLoader implements Runnable {
+
+        private final Connection connection;
+        private final String insertSql;
+        private final String copySql;
+        // the end marker of this loader was taken, draining would take the one of another loader
+        private boolean endOfRowsTaken;
+
+        private BatchLoader(final Connection connection, final String insertSql, final String copySql) {
+            this.connection = connection;
+            this.insertSql = insertSql;
+            this.copySql = copySql;
+        }
+
+        @Override
+        public void run() {
+            try (final Connection loaderConnection = this.connection) {
+                try {
+                    load(loaderConnection);
+                } catch (final Exception e) {
+                    loaderError.compareAndSet(null, e);
+                    // before closing, closing does not roll back with every driver
+                    rollback(loaderConnection);
+                    if (!this.endOfRowsTaken) {
+                        drain();
+                    }
+                }
+            } catch (final SQLException e) {
+                loaderError.compareAndSet(null, e);
+            }
+        }
+
+        private void load(final Connection loaderConnection) throws Exception {
+            final Object copyManager = getPostgreSQLCopyManager(loaderConnection);
+            final Method copyInMethod = copyManager != null ? copyManager.getClass().getMethod("copyIn", String.class, Reader.class) : null;
+
+            try (final PreparedStatement insertStatement = copyManager == null ? loaderConnection.prepareStatement(this.insertSql) : null) {
+                long rowsSinceCommit = 0;
+                List<String[]> currentBatch;
+                while ((currentBatch = pendingBatches.take()) != END_OF_ROWS) {
+                    if (loaderError.get() != null || aborted) {
+                        // keep taking, so the converting thread never blocks on a full queue
+                        continue;
+                    }
+                    if (copyManager != null) {
+                        copyIn(copyManager, copyInMethod, currentBatch);
+                    } else {
+                        insert(insertStatement, currentBatch);
+                    }
+                    rowsSinceCommit += currentBatch.size();
+                    if (rowsSinceCommit >= settings.getCommitInterval()) {
+                        loaderConnection.commit();
+                        committedRowCount.addAndGet(rowsSinceCommit);
+                        rowsSinceCommit = 0;
+                    }
+                }
+                this.endOfRowsTaken = true;
+                if (loaderError.get() == null && !aborted) {
+                    loaderConnection.commit();
+                } else {
+                    rollback(loaderConnection);
+                }
+            }
+        }
+
+        private void rollback(final Connection loaderConnection) {
+            try {
+                loaderConnection.rollback();
+            } catch (final SQLException e) {
+                // the connection is broken, nothing of it gets committed anymore
+            }
+        }
+
+        private void drain() {
+            try {
+                while (pendingBatches.take() != END_OF_ROWS) {
+                    // discard
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void insert(final PreparedStatement insertStatement, final List<String[]> batch) throws SQLException {
+            for (final String[] values : batch) {
+                for (int currentValueIdx = 0; currentValueIdx < values.length; currentValueIdx++) {
+                    if (values[currentValueIdx] == null) {
+                        insertStatement.setNull(currentValueIdx + 1, Types.VARCHAR);
+                    } else {
+                        insertStatement.setString(currentValueIdx + 1, values[currentValueIdx]);
+                    }
+                }
+                insertStatement.addBatch();
+            }
+            insertStatement.executeBatch();
+        }
+
+        private void copyIn(final Object copyManager, final Method copyInMethod, final List<String[]> batch) throws IllegalAccessException, SQLException {
+            final StringBuilder csvContent = new StringBuilder();
+            for (final String[] values : batch) {
+                for (int currentValueIdx = 0; currentValueIdx < values.length; currentValueIdx++) {
+                    if (currentValueIdx > 0) {
+                        csvContent.append(',');
+                    }
+                    // unquoted empty field is NULL for COPY
+                    if (values[currentValueIdx] != null) {
+                        csvContent.append('\"').append(values[currentValueIdx].replace("\"", "\"\"")).append('\"');
+                    }
+                }
+                csvContent.append('\n');
+            }
+            try {
+                copyInMethod.invoke(copyManager, this.copySql, new StringReader(csvContent.toString()));
+            } catch (final InvocationTargetException e) {
+                throw new SQLException(e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+
+    // the bulk copy api of the postgresql driver, accessed reflectively as the driver is not a dependency
+    private static Object getPostgreSQLCopyManager(final Connection connection) {
+        try {
+            final Class<?> pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+            if (!connection.isWrapperFor(pgConnectionClass)) {
+                return null;
+            }
+            final Object pgConnection = connection.unwrap(pgConnectionClass);
+            return pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+        } catch (final SQLException | ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// rolls the csv of a table into <table>.part_0001.csv, <table>.part_0002.csv, ... at record boundaries,
+// so the target is able to load the parts in parallel sessions
+public class PartitionedCsvTableOutputSink implements ITableOutputSink {
+
+    private final Path outputPath;
+    private final String tableName;
+    private final Charset charset;
+    private final CsvFormat csvFormat;
+    // 0 for no limit
+    private final long maxRowsPerFile;
+    private final long maxBytesPerFile;
+    private final ByteBuffer[] outputBuffers;
+    private final LongAdder writeStallNanos;
+    private final List<String> csvNames = new ArrayList<>();
+
+    private AsyncFileWriter partWriter;
+    private long partRowCount;
+
+    public PartitionedCsvTableOutputSink(final Path outputPath,
+                                         final String tableName,
+                                         final Charset charset,
+                                         final CsvFormat csvFormat,
+                                         final long maxRowsPerFile,
+                                         final long maxBytesPerFile,
+                                         final ByteBuffer[] outputBuffers,
+                                         final LongAdder writeStallNanos) throws IOException {
+        this.outputPath = outputPath;
+        this.tableName = tableName;
+        this.charset = charset;
+        this.csvFormat = csvFormat;
+        this.maxRowsPerFile = maxRowsPerFile;
+        this.maxBytesPerFile = maxBytesPerFile;
+        this.outputBuffers = outputBuffers;
+        this.writeStallNanos = writeStallNanos;
+        // parts of a previous run with more of them must not be loaded again
+        deleteParts(outputPath, tableName);
+        // an empty table still gets its (empty) first part
+        openNextPart();
+    }
+
+    // the chars not yet encoded are not counted, so a part may exceed maxBytesPerFile by a few KiB
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        if ((this.maxRowsPerFile > 0 && this.partRowCount >= this.maxRowsPerFile)
+                || (this.maxBytesPerFile > 0 && this.partWriter.getBytesWritten() >= this.maxBytesPerFile)) {
+            this.partWriter.close();
+            openNextPart();
+        }
+        CsvTableOutputSink.writeCsvRow(this.partWriter, convertedRow, this.csvFormat);
+        this.partRowCount++;
+    }
+
+    @Override
+    public List<String> getCsvNames() {
+        return this.csvNames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.partWriter.close();
+    }
+
+    private void openNextPart() throws IOException {
+        final String csvName = String.format("%s.part_%04d.csv", this.tableName, this.csvNames.size() + 1);
+        this.partWriter = new AsyncFileWriter(this.outputPath.resolve(csvName), this.charset, this.outputBuffers, this.writeStallNanos);
+        this.partRowCount = 0;
+        this.csvNames.add(csvName);
+    }
+
+    public static void deleteParts(final Path outputPath, final String tableName) throws IOException {
+        try (final DirectoryStream<Path> partPaths = Files.newDirectoryStream(outputPath, tableName + ".part_*.csv")) {
+            for (final Path partPath : partPaths) {
+                Files.delete(partPath);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionType;
+
+import java.util.List;
+
+// the output columns a table is sorted by, compared as their informix type
+public class SortKey {
+
+    private final List<String> columnNames;
+    private final List<ExpressionType> types;
+
+    public SortKey(final List<String> columnNames, final List<ExpressionType> types) {
+        this.columnNames = List.copyOf(columnNames);
+        this.types = List.copyOf(types);
+    }
+
+    public List<String> getColumnNames() {
+        return this.columnNames;
+    }
+
+    public List<ExpressionType> getTypes() {
+        return this.types;
+    }
+
+    // strings are sorted by their chars, which is not the collation of the target
+    public boolean isTargetOrder() {
+        return !this.types.contains(ExpressionType.STRING);
+    }
+}
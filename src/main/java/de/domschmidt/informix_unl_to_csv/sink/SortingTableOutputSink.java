@@ -0,0 +1,496 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionType;
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionValues;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// buffers the rows of a table up to a memory limit, sorts them by the key on all cores and spills them as a run to a
+// temp file, finish merges the runs into the wrapped sink, so the target gets the rows in key order (an external merge sort)
+public class SortingTableOutputSink implements ITableOutputSink {
+
+    // smaller ranges of the parallel sort are sorted by one thread
+    private static final int PARALLEL_SORT_THRESHOLD = 8192;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final int RUN_BUFFER_SIZE = 256 * 1024;
+    // runs merged at once, fewer if their read buffers do not fit into the sort memory, more runs are merged in passes
+    private static final int MAX_MERGE_FAN_IN = 64;
+    // of the start and length of a buffered cell
+    private static final int CELL_BYTES = 8;
+
+    private final ITableOutputSink outputSink;
+    private final String tableName;
+    private final SortKey sortKey;
+    private final int columnCount;
+    // in output order
+    private final int[] keyColumnIdxs;
+    private final ExpressionType[] keyTypes;
+    private final long maxBufferBytes;
+    private final Path tempPath;
+    private final List<Path> runPaths = new ArrayList<>();
+    private final ConvertedRow sortedRow = new ConvertedRow();
+
+    private char[] bufferChars = new char[64 * 1024];
+    private int bufferLength;
+    // columnCount cells per buffered row, the length of a null is -1
+    private int[] cellStarts = new int[16 * 1024];
+    private int[] cellLengths = new int[16 * 1024];
+    private int rowCount;
+
+    public SortingTableOutputSink(final ITableOutputSink outputSink,
+                                  final String tableName,
+                                  final List<String> outputColumnNames,
+                                  final SortKey sortKey,
+                                  final long maxBufferBytes,
+                                  final Path tempPath) {
+        this.outputSink = outputSink;
+        this.tableName = tableName;
+        this.sortKey = sortKey;
+        this.columnCount = outputColumnNames.size();
+        this.keyColumnIdxs = new int[sortKey.getColumnNames().size()];
+        this.keyTypes = sortKey.getTypes().toArray(new ExpressionType[0]);
+        for (int currentKeyIdx = 0; currentKeyIdx < this.keyColumnIdxs.length; currentKeyIdx++) {
+            this.keyColumnIdxs[currentKeyIdx] = outputColumnNames.indexOf(sortKey.getColumnNames().get(currentKeyIdx));
+            if (this.keyColumnIdxs[currentKeyIdx] < 0) {
+                throw new IllegalArgumentException("sort key column " + sortKey.getColumnNames().get(currentKeyIdx) + " is no output column of " + tableName);
+            }
+        }
+        this.maxBufferBytes = maxBufferBytes;
+        this.tempPath = tempPath;
+    }
+
+    @Override
+    public void writeRow(final ConvertedRow convertedRow) throws IOException {
+        final int cellOffset = this.rowCount * this.columnCount;
+        if (cellOffset + this.columnCount > this.cellStarts.length) {
+            final int grownCellCount = Math.max(this.cellStarts.length * 2, cellOffset + this.columnCount);
+            final int[] grownCellStarts = new int[grownCellCount];
+            final int[] grownCellLengths = new int[grownCellCount];
+            System.arraycopy(this.cellStarts, 0, grownCellStarts, 0, cellOffset);
+            System.arraycopy(this.cellLengths, 0, grownCellLengths, 0, cellOffset);
+            this.cellStarts = grownCellStarts;
+            this.cellLengths = grownCellLengths;
+        }
+        for (int currentColumnIdx = 0; currentColumnIdx < this.columnCount; currentColumnIdx++) {
+            if (convertedRow.isNull(currentColumnIdx)) {
+                this.cellStarts[cellOffset + currentColumnIdx] = 0;
+                this.cellLengths[cellOffset + currentColumnIdx] = -1;
+                continue;
+            }
+            final int length = convertedRow.getLength(currentColumnIdx);
+            if (this.bufferLength + length > this.bufferChars.length) {
+                final char[] grownBufferChars = new char[Math.max(this.bufferChars.length * 2, this.bufferLength + length)];
+                System.arraycopy(this.bufferChars, 0, grownBufferChars, 0, this.bufferLength);
+                this.bufferChars = grownBufferChars;
+            }
+            System.arraycopy(convertedRow.getChars(currentColumnIdx), convertedRow.getStart(currentColumnIdx), this.bufferChars, this.bufferLength, length);
+            this.cellStarts[cellOffset + currentColumnIdx] = this.bufferLength;
+            this.cellLengths[cellOffset + currentColumnIdx] = length;
+            this.bufferLength += length;
+        }
+        this.rowCount++;
+        if ((long) this.bufferLength * Character.BYTES + (long) this.rowCount * this.columnCount * CELL_BYTES >= this.maxBufferBytes) {
+            spillRun();
+        }
+    }
+
+    // a table fitting into the buffer is never written to a temp file
+    @Override
+    public void finish() throws IOException {
+        if (this.runPaths.isEmpty()) {
+            for (final int rowIdx : sortBuffer()) {
+                writeSortedRow(this.bufferChars, this.cellStarts, this.cellLengths, rowIdx * this.columnCount);
+            }
+        } else {
+            // the last rows are spilled as well, so every run is merged the same way
+            if (this.rowCount > 0) {
+                spillRun();
+            }
+            mergeRuns();
+        }
+        this.outputSink.finish();
+    }
+
+    @Override
+    public List<String> getCsvNames() {
+        return this.outputSink.getCsvNames();
+    }
+
+    @Override
+    public List<String> getOrderColumnNames() {
+        return this.sortKey.isTargetOrder() ? this.sortKey.getColumnNames() : List.of();
+    }
+
+    @Override
+    public void abort() {
+        this.outputSink.abort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.outputSink.close();
+        } finally {
+            for (final Path runPath : this.runPaths) {
+                Files.deleteIfExists(runPath);
+            }
+        }
+    }
+
+    private void spillRun() throws IOException {
+        final int[] sortedRowIdxs = sortBuffer();
+        final Path runPath = createRunPath();
+        try (final RunWriter runWriter = new RunWriter(Files.newOutputStream(runPath))) {
+            for (final int rowIdx : sortedRowIdxs) {
+                final int cellOffset = rowIdx * this.columnCount;
+                for (int currentColumnIdx = 0; currentColumnIdx < this.columnCount; currentColumnIdx++) {
+                    runWriter.writeCell(this.bufferChars, this.cellStarts[cellOffset + currentColumnIdx], this.cellLengths[cellOffset + currentColumnIdx]);
+                }
+            }
+        }
+        this.bufferLength = 0;
+        this.rowCount = 0;
+    }
+
+    // the runs are merged in passes of at most getMergeFanIn() neighbouring runs into a new run, until the last pass
+    // merges the remaining ones into the wrapped sink
+    private void mergeRuns() throws IOException {
+        // the buffer is not needed any more, its memory goes to the read buffers of the runs
+        this.bufferChars = new char[0];
+        this.cellStarts = new int[0];
+        this.cellLengths = new int[0];
+
+        final int mergeFanIn = getMergeFanIn();
+        List<Path> currentRunPaths = new ArrayList<>(this.runPaths);
+        while (currentRunPaths.size() > mergeFanIn) {
+            final List<Path> mergedRunPaths = new ArrayList<>();
+            for (int currentRunIdx = 0; currentRunIdx < currentRunPaths.size(); currentRunIdx += mergeFanIn) {
+                final List<Path> mergingRunPaths = currentRunPaths.subList(currentRunIdx, Math.min(currentRunIdx + mergeFanIn, currentRunPaths.size()));
+                if (mergingRunPaths.size() == 1) {
+                    mergedRunPaths.add(mergingRunPaths.get(0));
+                    continue;
+                }
+                final Path mergedRunPath = createRunPath();
+                try (final RunWriter runWriter = new RunWriter(Files.newOutputStream(mergedRunPath))) {
+                    mergeRuns(mergingRunPaths, (chars, starts, lengths) -> {
+                        for (int currentColumnIdx = 0; currentColumnIdx < this.columnCount; currentColumnIdx++) {
+                            runWriter.writeCell(chars, starts[currentColumnIdx], lengths[currentColumnIdx]);
+                        }
+                    });
+                }
+                for (final Path mergingRunPath : mergingRunPaths) {
+                    Files.delete(mergingRunPath);
+                }
+                mergedRunPaths.add(mergedRunPath);
+            }
+            currentRunPaths = mergedRunPaths;
+        }
+        mergeRuns(currentRunPaths, (chars, starts, lengths) -> writeSortedRow(chars, starts, lengths, 0));
+    }
+
+    // k-way merge, a row of an earlier run goes first on equal keys, so the sort stays stable
+    private void mergeRuns(final List<Path> mergingRunPaths, final IMergedRowWriter mergedRowWriter) throws IOException {
+        final List<RunReader> runReaders = new ArrayList<>();
+        try {
+            final PriorityQueue<RunReader> mergeQueue = new PriorityQueue<>(mergingRunPaths.size(), (left, right) -> {
+                final int keyComparison = compareKeys(left.chars, left.starts, left.lengths, 0, right.chars, right.starts, right.lengths, 0);
+                return keyComparison != 0 ? keyComparison : Integer.compare(left.runIdx, right.runIdx);
+            });
+            for (int currentRunIdx = 0; currentRunIdx < mergingRunPaths.size(); currentRunIdx++) {
+                final RunReader runReader = new RunReader(Files.newInputStream(mergingRunPaths.get(currentRunIdx)), currentRunIdx, this.columnCount);
+                runReaders.add(runReader);
+                if (runReader.readRow()) {
+                    mergeQueue.add(runReader);
+                }
+            }
+            while (!mergeQueue.isEmpty()) {
+                final RunReader runReader = mergeQueue.poll();
+                mergedRowWriter.write(runReader.chars, runReader.starts, runReader.lengths);
+                if (runReader.readRow()) {
+                    mergeQueue.add(runReader);
+                }
+            }
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("cannot sort table " + this.tableName + " by " + this.sortKey.getColumnNames() + ": " + e.getMessage(), e);
+        } finally {
+            for (final RunReader runReader : runReaders) {
+                runReader.close();
+            }
+        }
+    }
+
+    // at least two runs
+    private int getMergeFanIn() {
+        return (int) Math.max(2, Math.min(MAX_MERGE_FAN_IN, this.maxBufferBytes / RUN_BUFFER_SIZE));
+    }
+
+    // every run is deleted on close, the merged ones already after their pass
+    private Path createRunPath() throws IOException {
+        final Path runPath = Files.createTempFile(this.tempPath, this.tableName + ".", ".run");
+        this.runPaths.add(runPath);
+        return runPath;
+    }
+
+    private void writeSortedRow(final char[] chars, final int[] starts, final int[] lengths, final int cellOffset) throws IOException {
+        this.sortedRow.reset(chars, this.columnCount);
+        for (int currentColumnIdx = 0; currentColumnIdx < this.columnCount; currentColumnIdx++) {
+            if (lengths[cellOffset + currentColumnIdx] < 0) {
+                this.sortedRow.setNull(currentColumnIdx);
+            } else {
+                this.sortedRow.setRecordRange(currentColumnIdx, starts[cellOffset + currentColumnIdx], lengths[cellOffset + currentColumnIdx]);
+            }
+        }
+        this.outputSink.writeRow(this.sortedRow);
+    }
+
+    // the buffered row indexes in key order, a stable merge sort forked on the common pool for large buffers
+    private int[] sortBuffer() throws IOException {
+        final int[] rowIdxs = new int[this.rowCount];
+        for (int currentRowIdx = 0; currentRowIdx < this.rowCount; currentRowIdx++) {
+            rowIdxs[currentRowIdx] = currentRowIdx;
+        }
+        final int[] mergeIdxs = new int[this.rowCount];
+        try {
+            if (this.rowCount > PARALLEL_SORT_THRESHOLD) {
+                ForkJoinPool.commonPool().invoke(new ParallelMergeSort(rowIdxs, mergeIdxs, 0, this.rowCount));
+            } else {
+                mergeSort(rowIdxs, mergeIdxs, 0, this.rowCount);
+            }
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("cannot sort table " + this.tableName + " by " + this.sortKey.getColumnNames() + ": " + e.getMessage(), e);
+        }
+        return rowIdxs;
+    }
+
+    private void mergeSort(final int[] rowIdxs, final int[] mergeIdxs, final int from, final int to) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            for (int currentIdx = from + 1; currentIdx < to; currentIdx++) {
+                final int rowIdx = rowIdxs[currentIdx];
+                int insertIdx = currentIdx;
+                while (insertIdx > from && compareRows(rowIdxs[insertIdx - 1], rowIdx) > 0) {
+                    rowIdxs[insertIdx] = rowIdxs[insertIdx - 1];
+                    insertIdx--;
+                }
+                rowIdxs[insertIdx] = rowIdx;
+            }
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(rowIdxs, mergeIdxs, from, middle);
+        mergeSort(rowIdxs, mergeIdxs, middle, to);
+        merge(rowIdxs, mergeIdxs, from, middle, to);
+    }
+
+    private void merge(final int[] rowIdxs, final int[] mergeIdxs, final int from, final int middle, final int to) {
+        // already in order, e.g. a table unloaded in key order
+        if (compareRows(rowIdxs[middle - 1], rowIdxs[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(rowIdxs, from, mergeIdxs, from, to - from);
+        int leftIdx = from;
+        int rightIdx = middle;
+        for (int currentIdx = from; currentIdx < to; currentIdx++) {
+            if (rightIdx >= to || (leftIdx < middle && compareRows(mergeIdxs[leftIdx], mergeIdxs[rightIdx]) <= 0)) {
+                rowIdxs[currentIdx] = mergeIdxs[leftIdx++];
+            } else {
+                rowIdxs[currentIdx] = mergeIdxs[rightIdx++];
+            }
+        }
+    }
+
+    private int compareRows(final int leftRowIdx, final int rightRowIdx) {
+        return compareKeys(this.bufferChars, this.cellStarts, this.cellLengths, leftRowIdx * this.columnCount,
+                this.bufferChars, this.cellStarts, this.cellLengths, rightRowIdx * this.columnCount);
+    }
+
+    // null before any value, like an ascending index of the target
+    private int compareKeys(final char[] leftChars, final int[] leftStarts, final int[] leftLengths, final int leftCellOffset,
+                            final char[] rightChars, final int[] rightStarts, final int[] rightLengths, final int rightCellOffset) {
+        for (int currentKeyIdx = 0; currentKeyIdx < this.keyColumnIdxs.length; currentKeyIdx++) {
+            final int leftCellIdx = leftCellOffset + this.keyColumnIdxs[currentKeyIdx];
+            final int rightCellIdx = rightCellOffset + this.keyColumnIdxs[currentKeyIdx];
+            if (leftLengths[leftCellIdx] < 0 || rightLengths[rightCellIdx] < 0) {
+                if (leftLengths[leftCellIdx] != rightLengths[rightCellIdx]) {
+                    return leftLengths[leftCellIdx] < 0 ? -1 : 1;
+                }
+                continue;
+            }
+            final int comparison = ExpressionValues.compare(this.keyTypes[currentKeyIdx],
+                    leftChars, leftStarts[leftCellIdx], leftLengths[leftCellIdx],
+                    rightChars, rightStarts[rightCellIdx], rightLengths[rightCellIdx]);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private class ParallelMergeSort extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] rowIdxs;
+        private final int[] mergeIdxs;
+        private final int from;
+        private final int to;
+
+        private ParallelMergeSort(final int[] rowIdxs, final int[] mergeIdxs, final int from, final int to) {
+            this.rowIdxs = rowIdxs;
+            this.mergeIdxs = mergeIdxs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= PARALLEL_SORT_THRESHOLD) {
+                mergeSort(this.rowIdxs, this.mergeIdxs, this.from, this.to);
+                return;
+            }
+            final int middle = (this.from + this.to) >>> 1;
+            invokeAll(new ParallelMergeSort(this.rowIdxs, this.mergeIdxs, this.from, middle),
+                    new ParallelMergeSort(this.rowIdxs, this.mergeIdxs, middle, this.to));
+            merge(this.rowIdxs, this.mergeIdxs, this.from, middle, this.to);
+        }
+    }
+
+    private interface IMergedRowWriter {
+        void write(char[] chars, int[] starts, int[] lengths) throws IOException;
+    }
+
+    // per cell its length (-1 for null) as int and its chars, big endian
+    private static class RunWriter implements Closeable {
+
+        private final OutputStream output;
+        private final byte[] bytes = new byte[RUN_BUFFER_SIZE];
+        private int position;
+
+        private RunWriter(final OutputStream output) {
+            this.output = output;
+        }
+
+        private void writeCell(final char[] chars, final int start, final int length) throws IOException {
+            if (this.position + Integer.BYTES > this.bytes.length) {
+                flush();
+            }
+            this.bytes[this.position++] = (byte) (length >>> 24);
+            this.bytes[this.position++] = (byte) (length >>> 16);
+            this.bytes[this.position++] = (byte) (length >>> 8);
+            this.bytes[this.position++] = (byte) length;
+            for (int currentIdx = start; currentIdx < start + length; currentIdx++) {
+                if (this.position + Character.BYTES > this.bytes.length) {
+                    flush();
+                }
+                this.bytes[this.position++] = (byte) (chars[currentIdx] >>> 8);
+                this.bytes[this.position++] = (byte) chars[currentIdx];
+            }
+        }
+
+        private void flush() throws IOException {
+            this.output.write(this.bytes, 0, this.position);
+            this.position = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                this.output.close();
+            }
+        }
+    }
+
+    // the current row of a run, the chars are reused for the next one
+    private static class RunReader implements Closeable {
+
+        private final InputStream input;
+        private final int runIdx;
+        private final byte[] bytes = new byte[RUN_BUFFER_SIZE];
+        private final int[] starts;
+        private final int[] lengths;
+        private int position;
+        private int limit;
+        private char[] chars = new char[1024];
+
+        private RunReader(final InputStream input, final int runIdx, final int columnCount) {
+            this.input = input;
+            this.runIdx = runIdx;
+            this.starts = new int[columnCount];
+            this.lengths = new int[columnCount];
+        }
+
+        // false at the end of the run
+        private boolean readRow() throws IOException {
+            if (!fill(Integer.BYTES)) {
+                return false;
+            }
+            int charCount = 0;
+            for (int currentColumnIdx = 0; currentColumnIdx < this.starts.length; currentColumnIdx++) {
+                require(Integer.BYTES);
+                final int length = (this.bytes[this.position] & 0xff) << 24
+                        | (this.bytes[this.position + 1] & 0xff) << 16
+                        | (this.bytes[this.position + 2] & 0xff) << 8
+                        | (this.bytes[this.position + 3] & 0xff);
+                this.position += Integer.BYTES;
+                this.starts[currentColumnIdx] = charCount;
+                this.lengths[currentColumnIdx] = length;
+                if (length <= 0) {
+                    continue;
+                }
+                if (charCount + length > this.chars.length) {
+                    final char[] grownChars = new char[Math.max(this.chars.length * 2, charCount + length)];
+                    System.arraycopy(this.chars, 0, grownChars, 0, charCount);
+                    this.chars = grownChars;
+                }
+                for (int currentIdx = charCount; currentIdx < charCount + length; currentIdx++) {
+                    require(Character.BYTES);
+                    this.chars[currentIdx] = (char) ((this.bytes[this.position] & 0xff) << 8 | (this.bytes[this.position + 1] & 0xff));
+                    this.position += Character.BYTES;
+                }
+                charCount += length;
+            }
+            return true;
+        }
+
+        private void require(final int byteCount) throws IOException {
+            if (!fill(byteCount)) {
+                throw new EOFException("truncated sort run");
+            }
+        }
+
+        // false if the run ends before byteCount more bytes
+        private boolean fill(final int byteCount) throws IOException {
+            if (this.limit - this.position >= byteCount) {
+                return true;
+            }
+            System.arraycopy(this.bytes, this.position, this.bytes, 0, this.limit - this.position);
+            this.limit -= this.position;
+            this.position = 0;
+            while (this.limit < byteCount) {
+                final int readCount = this.input.read(this.bytes, this.limit, this.bytes.length - this.limit);
+                if (readCount < 0) {
+                    return false;
+                }
+                this.limit += readCount;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.input.close();
+        }
+    }
+}
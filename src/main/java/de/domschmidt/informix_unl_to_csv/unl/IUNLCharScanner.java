@@ -0,0 +1,8 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+public interface IUNLCharScanner {
+
+    // index of the next delimiter, backslash, line feed or carriage return in [from, to), to if there is none
+    int indexOfSpecialChar(char[] chars, int from, int to);
+
+}
@@ -0,0 +1,19 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+public class ScalarUNLCharScanner implements IUNLCharScanner {
+
+    @Override
+    public int indexOfSpecialChar(final char[] chars, final int from, final int to) {
+        return scan(chars, from, to);
+    }
+
+    static int scan(final char[] chars, final int from, final int to) {
+        for (int currentCharIdx = from; currentCharIdx < to; currentCharIdx++) {
+            final char currentChar = chars[currentCharIdx];
+            if (currentChar == '|' || currentChar == '\\' || currentChar == '\n' || currentChar == '\r') {
+                return currentCharIdx;
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,36 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+
+// the char of every byte of a single byte charset like IBM850, decoding is then a plain lookup per byte
+public class SingleByteCharsetTable {
+
+    private SingleByteCharsetTable() {
+    }
+
+    // null if the charset has bytes which do not decode to exactly one char on their own
+    public static char[] create(final CharsetDecoder decoder) {
+        if (decoder.maxCharsPerByte() != 1.0f) {
+            return null;
+        }
+        final char[] byteChars = new char[256];
+        final ByteBuffer singleByte = ByteBuffer.allocate(1);
+        final CharBuffer decodedChars = CharBuffer.allocate(2);
+        for (int currentByte = 0; currentByte < 256; currentByte++) {
+            singleByte.clear();
+            singleByte.put((byte) currentByte).flip();
+            decodedChars.clear();
+            decoder.reset();
+            decoder.decode(singleByte, decodedChars, true);
+            decoder.flush(decodedChars);
+            if (singleByte.hasRemaining() || decodedChars.position() != 1) {
+                return null;
+            }
+            byteChars[currentByte] = decodedChars.get(0);
+        }
+        decoder.reset();
+        return byteChars;
+    }
+}
@@ -0,0 +1,45 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+public enum UNLCharScannerType {
+
+    // the vector scanner if the jvm runs with --add-modules jdk.incubator.vector, the scalar one otherwise
+    AUTO {
+        @Override
+        public IUNLCharScanner create() {
+            if (isVectorModuleAvailable()) {
+                try {
+                    return VECTOR.create();
+                } catch (final IllegalStateException e) {
+                    // falls back below
+                }
+            }
+            return SCALAR.create();
+        }
+    },
+    VECTOR {
+        @Override
+        public IUNLCharScanner create() {
+            if (!isVectorModuleAvailable()) {
+                throw new IllegalStateException("the vector scanner needs the jvm option --add-modules jdk.incubator.vector");
+            }
+            // loaded reflectively, so the class referencing the incubator module is never resolved without it
+            try {
+                return (IUNLCharScanner) Class.forName("de.domschmidt.informix_unl_to_csv.unl.VectorUNLCharScanner").getDeclaredConstructor().newInstance();
+            } catch (final ReflectiveOperationException | LinkageError e) {
+                throw new IllegalStateException("cannot load the vector scanner: " + e.getMessage(), e);
+            }
+        }
+    },
+    SCALAR {
+        @Override
+        public IUNLCharScanner create() {
+            return new ScalarUNLCharScanner();
+        }
+    };
+
+    public abstract IUNLCharScanner create();
+
+    private static boolean isVectorModuleAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
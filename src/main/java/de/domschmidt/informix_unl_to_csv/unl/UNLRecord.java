@@ -0,0 +1,78 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+// one logical unl record, the unescaped fields are ranges of the reader's char buffer
+public class UNLRecord {
+
+    private char[] chars;
+    private int[] fieldStarts = new int[64];
+    private int[] fieldEnds = new int[64];
+    // one bit per field, set for an empty field between two delimiters
+    private long[] nullFields = new long[1];
+    private int fieldCount;
+
+    void reset(final char[] chars) {
+        this.chars = chars;
+        for (int currentWordIdx = 0; currentWordIdx <= (this.fieldCount - 1) >> 6; currentWordIdx++) {
+            this.nullFields[currentWordIdx] = 0;
+        }
+        this.fieldCount = 0;
+    }
+
+    void addField(final int start, final int end, final boolean nullField) {
+        if (this.fieldCount == this.fieldStarts.length) {
+            final int[] grownFieldStarts = new int[this.fieldStarts.length * 2];
+            final int[] grownFieldEnds = new int[this.fieldEnds.length * 2];
+            final long[] grownNullFields = new long[this.nullFields.length * 2];
+            System.arraycopy(this.fieldStarts, 0, grownFieldStarts, 0, this.fieldCount);
+            System.arraycopy(this.fieldEnds, 0, grownFieldEnds, 0, this.fieldCount);
+            System.arraycopy(this.nullFields, 0, grownNullFields, 0, this.nullFields.length);
+            this.fieldStarts = grownFieldStarts;
+            this.fieldEnds = grownFieldEnds;
+            this.nullFields = grownNullFields;
+        }
+        this.fieldStarts[this.fieldCount] = start;
+        this.fieldEnds[this.fieldCount] = end;
+        if (nullField) {
+            this.nullFields[this.fieldCount >> 6] |= 1L << this.fieldCount;
+        }
+        this.fieldCount++;
+    }
+
+    // the char buffer was compacted, every field moves to the front
+    void shift(final int offset) {
+        for (int currentFieldIdx = 0; currentFieldIdx < this.fieldCount; currentFieldIdx++) {
+            this.fieldStarts[currentFieldIdx] -= offset;
+            this.fieldEnds[currentFieldIdx] -= offset;
+        }
+    }
+
+    void setChars(final char[] chars) {
+        this.chars = chars;
+    }
+
+    // the record ends with a delimiter, so there is one (empty) field more than columns
+    public int getFieldCount() {
+        return this.fieldCount;
+    }
+
+    public char[] getChars() {
+        return this.chars;
+    }
+
+    public int getFieldStart(final int fieldIdx) {
+        return this.fieldStarts[fieldIdx];
+    }
+
+    public int getFieldLength(final int fieldIdx) {
+        return this.fieldEnds[fieldIdx] - this.fieldStarts[fieldIdx];
+    }
+
+    // an empty string is not null, it is unloaded as an escaped blank
+    public boolean isNull(final int fieldIdx) {
+        return (this.nullFields[fieldIdx >> 6] & (1L << fieldIdx)) != 0;
+    }
+
+    public String getField(final int fieldIdx) {
+        return new String(this.chars, this.fieldStarts[fieldIdx], getFieldLength(fieldIdx));
+    }
+}
@@ -0,0 +1,177 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+
+// splits unl records into fields and unescapes them in place, the buffers are reused from table to table
+public class UNLRecordReader {
+
+    private final IUNLCharScanner charScanner;
+    private ReadableByteChannel channel;
+    private CharsetDecoder decoder;
+    // of a single byte charset, null to use the decoder
+    private char[] byteChars;
+    private ByteBuffer bytes = ByteBuffer.allocate(64 * 1024);
+    private char[] chars = new char[64 * 1024];
+    private CharBuffer charView = CharBuffer.wrap(this.chars);
+    private boolean endOfChannel;
+    private boolean endOfInput;
+    // next unread char and end of the decoded chars
+    private int position;
+    private int limit;
+
+    public UNLRecordReader(final IUNLCharScanner charScanner) {
+        this.charScanner = charScanner;
+    }
+
+    // readSize is the size of a single channel read, a small file fits completely,
+    // byteChars is the SingleByteCharsetTable of the decoder or null if it is no single byte charset
+    public void reset(final ReadableByteChannel channel, final CharsetDecoder decoder, final char[] byteChars, final int readSize) {
+        this.channel = channel;
+        this.decoder = decoder;
+        this.decoder.reset();
+        this.byteChars = byteChars;
+        if (this.bytes.capacity() < readSize) {
+            this.bytes = ByteBuffer.allocate(readSize);
+        }
+        if (this.chars.length < readSize + 1) {
+            this.chars = new char[readSize + 1];
+            this.charView = CharBuffer.wrap(this.chars);
+        }
+        this.bytes.clear().flip();
+        this.endOfChannel = false;
+        this.endOfInput = false;
+        this.position = 0;
+        this.limit = 0;
+    }
+
+    public boolean next(final UNLRecord record) throws IOException {
+        int recordStart = this.position;
+        int readIdx = this.position;
+        int writeIdx = this.position;
+        int fieldStart = this.position;
+        // the field so far is a single escaped blank, which stands for an empty string
+        boolean escapedBlank = false;
+        record.reset(this.chars);
+
+        while (true) {
+            // an escape or a carriage return needs the char behind it
+            if (readIdx + 1 >= this.limit && !this.endOfInput) {
+                final int shift = fill(recordStart);
+                recordStart -= shift;
+                readIdx -= shift;
+                writeIdx -= shift;
+                fieldStart -= shift;
+                record.shift(shift);
+                record.setChars(this.chars);
+                continue;
+            }
+            if (readIdx >= this.limit) {
+                if (readIdx == recordStart) {
+                    this.position = readIdx;
+                    return false;
+                }
+                // last record without line feed
+                addField(record, fieldStart, writeIdx, escapedBlank);
+                this.position = readIdx;
+                return true;
+            }
+
+            // the plain chars up to the next special one are moved in one piece
+            final int specialCharIdx = this.charScanner.indexOfSpecialChar(this.chars, readIdx, this.limit);
+            if (specialCharIdx > readIdx) {
+                if (writeIdx != readIdx) {
+                    System.arraycopy(this.chars, readIdx, this.chars, writeIdx, specialCharIdx - readIdx);
+                }
+                writeIdx += specialCharIdx - readIdx;
+                readIdx = specialCharIdx;
+                escapedBlank = false;
+                continue;
+            }
+
+            final char currentChar = this.chars[readIdx];
+            if (currentChar == '\\' && readIdx + 1 < this.limit) {
+                // backslash escapes the delimiter, the line feed and itself
+                escapedBlank = writeIdx == fieldStart && this.chars[readIdx + 1] == ' ';
+                this.chars[writeIdx++] = this.chars[readIdx + 1];
+                readIdx += 2;
+            } else if (currentChar == '|') {
+                addField(record, fieldStart, writeIdx, escapedBlank);
+                fieldStart = writeIdx;
+                escapedBlank = false;
+                readIdx++;
+            } else if (currentChar == '\n') {
+                addField(record, fieldStart, writeIdx, escapedBlank);
+                this.position = readIdx + 1;
+                return true;
+            } else if (currentChar == '\r' && readIdx + 1 < this.limit && this.chars[readIdx + 1] == '\n') {
+                // only dropped, the line feed behind it ends the record
+                readIdx++;
+            } else {
+                this.chars[writeIdx++] = currentChar;
+                escapedBlank = false;
+                readIdx++;
+            }
+        }
+    }
+
+    // nothing between two delimiters is null
+    private static void addField(final UNLRecord record, final int fieldStart, final int fieldEnd, final boolean escapedBlank) {
+        record.addField(fieldStart, escapedBlank ? fieldStart : fieldEnd, fieldStart == fieldEnd);
+    }
+
+    // moves the current record to the front, decodes more chars behind it and returns the distance moved
+    private int fill(final int recordStart) throws IOException {
+        final int pendingChars = this.limit - recordStart;
+        System.arraycopy(this.chars, recordStart, this.chars, 0, pendingChars);
+        this.limit = pendingChars;
+        if (this.limit == this.chars.length) {
+            // the record is larger than the buffer
+            final char[] grownChars = new char[this.chars.length * 2];
+            System.arraycopy(this.chars, 0, grownChars, 0, this.limit);
+            this.chars = grownChars;
+            this.charView = CharBuffer.wrap(this.chars);
+        }
+
+        this.charView.clear().position(this.limit);
+        while (this.charView.position() == this.limit && !this.endOfInput) {
+            if (this.byteChars != null) {
+                decodeSingleBytes();
+            } else {
+                this.decoder.decode(this.bytes, this.charView, this.endOfChannel);
+            }
+            if (this.charView.position() > this.limit) {
+                break;
+            }
+            if (this.endOfChannel) {
+                if (this.byteChars == null) {
+                    this.decoder.flush(this.charView);
+                }
+                this.endOfInput = true;
+            } else {
+                // keeps an incomplete multi byte sequence
+                this.bytes.compact();
+                this.endOfChannel = this.channel.read(this.bytes) < 0;
+                this.bytes.flip();
+            }
+        }
+        this.limit = this.charView.position();
+        return recordStart;
+    }
+
+    // one table lookup per byte instead of the charset decoder, ascii bytes map to themselves
+    private void decodeSingleBytes() {
+        final int length = Math.min(this.bytes.remaining(), this.charView.remaining());
+        final byte[] byteArray = this.bytes.array();
+        final int byteOffset = this.bytes.arrayOffset() + this.bytes.position();
+        final int charOffset = this.charView.position();
+        for (int currentIdx = 0; currentIdx < length; currentIdx++) {
+            this.chars[charOffset + currentIdx] = this.byteChars[byteArray[byteOffset + currentIdx] & 0xFF];
+        }
+        this.bytes.position(this.bytes.position() + length);
+        this.charView.position(charOffset + length);
+    }
+}
@@ -0,0 +1,30 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// compares 16 (avx2) or 32 (avx-512) chars at once, only loaded if jdk.incubator.vector is available
+public class VectorUNLCharScanner implements IUNLCharScanner {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    public int indexOfSpecialChar(final char[] chars, final int from, final int to) {
+        int currentCharIdx = from;
+        final int vectorEnd = from + SPECIES.loopBound(to - from);
+        for (; currentCharIdx < vectorEnd; currentCharIdx += SPECIES.length()) {
+            final ShortVector charVector = ShortVector.fromCharArray(SPECIES, chars, currentCharIdx);
+            final VectorMask<Short> specialCharMask = charVector.compare(VectorOperators.EQ, (short) '|')
+                    .or(charVector.compare(VectorOperators.EQ, (short) '\\'))
+                    .or(charVector.compare(VectorOperators.EQ, (short) '\n'))
+                    .or(charVector.compare(VectorOperators.EQ, (short) '\r'));
+            if (specialCharMask.anyTrue()) {
+                return currentCharIdx + specialCharMask.firstTrue();
+            }
+        }
+        // the rest is shorter than a vector
+        return ScalarUNLCharScanner.scan(chars, currentCharIdx, to);
+    }
+}
@@ -0,0 +1,61 @@
+package de.domschmidt.informix_unl_to_csv.verify;
+
+import java.util.Arrays;
+
+public class ColumnChecksums {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long NULL_HASH = 0x6e756c6cL;
+
+    private final long[] checksums;
+    private long recordCount;
+
+    public ColumnChecksums(final int columnCount) {
+        this.checksums = new long[columnCount];
+    }
+
+    // the hashes of the values are summed up, so the checksum does not depend on the record order
+    public void add(final int columnIdx, final char[] chars, final int start, final int length) {
+        this.checksums[columnIdx] += hash(chars, start, length);
+    }
+
+    // a null counts different from an empty string
+    public void addNull(final int columnIdx) {
+        this.checksums[columnIdx] += NULL_HASH;
+    }
+
+    public void countRecord() {
+        this.recordCount++;
+    }
+
+    // adds the checksums and the records of the other, e.g. of one row once it is complete
+    public void addAll(final ColumnChecksums otherChecksums) {
+        for (int currentColumnIdx = 0; currentColumnIdx < this.checksums.length; currentColumnIdx++) {
+            this.checksums[currentColumnIdx] += otherChecksums.checksums[currentColumnIdx];
+        }
+        this.recordCount += otherChecksums.recordCount;
+    }
+
+    public void clear() {
+        Arrays.fill(this.checksums, 0L);
+        this.recordCount = 0;
+    }
+
+    public long getChecksum(final int columnIdx) {
+        return this.checksums[columnIdx];
+    }
+
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    private static long hash(final char[] chars, final int start, final int length) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int currentCharIdx = start; currentCharIdx < start + length; currentCharIdx++) {
+            hash ^= chars[currentCharIdx];
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,175 @@
+package de.domschmidt.informix_unl_to_csv.verify;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// reads a written csv file back and checksums its values the same way as the unl cells, so the verification covers the
+// escaping, the encoding and the null values as they are loaded; a row not written the way CsvTableOutputSink writes
+// it is counted as malformed instead of checksummed
+public class CsvChecksumReader {
+
+    private static final int READ_SIZE = 64 * 1024;
+
+    private enum State {
+        FIELD_START,
+        UNQUOTED,
+        QUOTED,
+        // a quote in a quoted value, either doubled or its end
+        QUOTED_QUOTE,
+        // a backslash in a quoted value of a backslash escaped format, always doubled
+        QUOTED_BACKSLASH
+    }
+
+    private final CsvFormat csvFormat;
+    private final ColumnChecksums outputChecksums;
+    private final ColumnChecksums rowChecksums;
+    private final int columnCount;
+    private char[] fieldChars = new char[1024];
+    private int fieldLength;
+    private int fieldIdx;
+    private boolean rowMalformed;
+    private long malformedRowCount;
+
+    public CsvChecksumReader(final CsvFormat csvFormat, final ColumnChecksums outputChecksums, final int columnCount) {
+        this.csvFormat = csvFormat;
+        this.outputChecksums = outputChecksums;
+        this.rowChecksums = new ColumnChecksums(columnCount);
+        this.columnCount = columnCount;
+    }
+
+    // adds the rows of the file to the output checksums, characters which cannot be decoded end up as a checksum mismatch
+    public void read(final Path csvPath, final Charset charset) throws IOException {
+        try (final Reader csvReader = new InputStreamReader(Files.newInputStream(csvPath), charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            final char[] chars = new char[READ_SIZE];
+            State state = State.FIELD_START;
+            startRow();
+            int readLength;
+            while ((readLength = csvReader.read(chars)) >= 0) {
+                for (int currentCharIdx = 0; currentCharIdx < readLength; currentCharIdx++) {
+                    state = next(state, chars[currentCharIdx]);
+                }
+            }
+            // the last row is not terminated
+            if (state != State.FIELD_START || this.fieldIdx > 0) {
+                this.malformedRowCount++;
+            }
+        }
+    }
+
+    public long getMalformedRowCount() {
+        return this.malformedRowCount;
+    }
+
+    private State next(final State state, final char character) {
+        switch (state) {
+            case FIELD_START:
+                if (character == '\"') {
+                    return State.QUOTED;
+                }
+                return nextUnquoted(character);
+            case UNQUOTED:
+                return nextUnquoted(character);
+            case QUOTED:
+                if (character == '\"') {
+                    return State.QUOTED_QUOTE;
+                }
+                if (character == '\\' && this.csvFormat.isBackslashEscaped()) {
+                    return State.QUOTED_BACKSLASH;
+                }
+                appendFieldChar(character);
+                return State.QUOTED;
+            case QUOTED_QUOTE:
+                if (character == '\"') {
+                    appendFieldChar(character);
+                    return State.QUOTED;
+                }
+                if (character == ',' || character == '\n') {
+                    endField(false, character == '\n');
+                    return State.FIELD_START;
+                }
+                // chars after the closing quote
+                this.rowMalformed = true;
+                appendFieldChar(character);
+                return State.UNQUOTED;
+            case QUOTED_BACKSLASH:
+                if (character != '\\') {
+                    this.rowMalformed = true;
+                }
+                appendFieldChar(character);
+                return State.QUOTED;
+            default:
+                throw new IllegalStateException(state.name());
+        }
+    }
+
+    private State nextUnquoted(final char character) {
+        if (character == ',' || character == '\n') {
+            endField(true, character == '\n');
+            return State.FIELD_START;
+        }
+        appendFieldChar(character);
+        return State.UNQUOTED;
+    }
+
+    // only null is written unquoted
+    private void endField(final boolean unquoted, final boolean rowEnd) {
+        if (this.fieldIdx >= this.columnCount) {
+            this.rowMalformed = true;
+        } else if (!unquoted) {
+            this.rowChecksums.add(this.fieldIdx, this.fieldChars, 0, this.fieldLength);
+        } else if (isNullValue()) {
+            this.rowChecksums.addNull(this.fieldIdx);
+        } else {
+            this.rowMalformed = true;
+        }
+        this.fieldIdx++;
+        this.fieldLength = 0;
+        if (rowEnd) {
+            if (this.rowMalformed || this.fieldIdx != this.columnCount) {
+                this.malformedRowCount++;
+            } else {
+                this.rowChecksums.countRecord();
+                this.outputChecksums.addAll(this.rowChecksums);
+            }
+            startRow();
+        }
+    }
+
+    private boolean isNullValue() {
+        final String nullValue = this.csvFormat.getNullValue();
+        if (this.fieldLength != nullValue.length()) {
+            return false;
+        }
+        for (int currentCharIdx = 0; currentCharIdx < this.fieldLength; currentCharIdx++) {
+            if (this.fieldChars[currentCharIdx] != nullValue.charAt(currentCharIdx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void startRow() {
+        this.rowChecksums.clear();
+        this.fieldIdx = 0;
+        this.fieldLength = 0;
+        this.rowMalformed = false;
+    }
+
+    private void appendFieldChar(final char character) {
+        if (this.fieldLength == this.fieldChars.length) {
+            final char[] grownFieldChars = new char[this.fieldChars.length * 2];
+            System.arraycopy(this.fieldChars, 0, grownFieldChars, 0, this.fieldLength);
+            this.fieldChars = grownFieldChars;
+        }
+        this.fieldChars[this.fieldLength++] = character;
+    }
+}
@@ -0,0 +1,123 @@
+package de.domschmidt.informix_unl_to_csv.verify;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TableVerification {
+
+    private final String tableName;
+    private final List<String> outputColumnNames;
+    // per output column, index of the unl cell it has to be equal to or -1 if it is formatted or a default
+    private final int[] comparableUnlCellIndices;
+    private final ColumnChecksums unlChecksums;
+    private final ColumnChecksums outputChecksums;
+    private final int unlColumnCount;
+    private long rejectedRecordCount;
+    private long filteredRecordCount;
+    private long malformedOutputRowCount;
+
+    public TableVerification(final String tableName,
+                             final int unlColumnCount,
+                             final List<String> outputColumnNames,
+                             final int[] comparableUnlCellIndices) {
+        this.tableName = tableName;
+        this.unlColumnCount = unlColumnCount;
+        this.outputColumnNames = outputColumnNames;
+        this.comparableUnlCellIndices = comparableUnlCellIndices;
+        this.unlChecksums = new ColumnChecksums(unlColumnCount);
+        this.outputChecksums = new ColumnChecksums(outputColumnNames.size());
+    }
+
+    // the unescaped cells of one logical unl record which was converted
+    public void addUnlRecord(final UNLRecord record) {
+        for (int currentColumnIdx = 0; currentColumnIdx < this.unlColumnCount; currentColumnIdx++) {
+            if (record.isNull(currentColumnIdx)) {
+                this.unlChecksums.addNull(currentColumnIdx);
+            } else {
+                this.unlChecksums.add(currentColumnIdx, record.getChars(), record.getFieldStart(currentColumnIdx), record.getFieldLength(currentColumnIdx));
+            }
+        }
+        this.unlChecksums.countRecord();
+    }
+
+    public void addRejectedRecord() {
+        this.rejectedRecordCount++;
+    }
+
+    public void addFilteredRecord() {
+        this.filteredRecordCount++;
+    }
+
+    // a csv file written for the table, read back after it was closed, called once per part
+    public void addOutputCsv(final Path csvPath, final Charset csvCharset, final CsvFormat csvFormat) throws IOException {
+        final CsvChecksumReader csvChecksumReader = new CsvChecksumReader(csvFormat, this.outputChecksums, this.outputColumnNames.size());
+        csvChecksumReader.read(csvPath, csvCharset);
+        this.malformedOutputRowCount += csvChecksumReader.getMalformedRowCount();
+    }
+
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    public List<String> getOutputColumnNames() {
+        return this.outputColumnNames;
+    }
+
+    public long getUnlRecordCount() {
+        return this.unlChecksums.getRecordCount() + this.rejectedRecordCount + this.filteredRecordCount;
+    }
+
+    public long getRejectedRecordCount() {
+        return this.rejectedRecordCount;
+    }
+
+    public long getFilteredRecordCount() {
+        return this.filteredRecordCount;
+    }
+
+    public boolean isCountConsistent() {
+        return this.malformedOutputRowCount == 0 && getUnlRecordCount() == getOutputRowCount() + getRejectedRecordCount() + getFilteredRecordCount();
+    }
+
+    // not checksummed and not counted as output rows
+    public long getMalformedOutputRowCount() {
+        return this.malformedOutputRowCount;
+    }
+
+    public long getOutputRowCount() {
+        return this.outputChecksums.getRecordCount();
+    }
+
+    public boolean isComparable(final int outputColumnIdx) {
+        return this.comparableUnlCellIndices[outputColumnIdx] >= 0;
+    }
+
+    public long getUnlChecksum(final int outputColumnIdx) {
+        return isComparable(outputColumnIdx) ? this.unlChecksums.getChecksum(this.comparableUnlCellIndices[outputColumnIdx]) : 0L;
+    }
+
+    public long getOutputChecksum(final int outputColumnIdx) {
+        return this.outputChecksums.getChecksum(outputColumnIdx);
+    }
+
+    public boolean isColumnConsistent(final int outputColumnIdx) {
+        return !isComparable(outputColumnIdx) || getUnlChecksum(outputColumnIdx) == getOutputChecksum(outputColumnIdx);
+    }
+
+    public boolean isConsistent() {
+        if (!isCountConsistent()) {
+            return false;
+        }
+        for (int currentColumnIdx = 0; currentColumnIdx < this.outputColumnNames.size(); currentColumnIdx++) {
+            if (!isColumnConsistent(currentColumnIdx)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
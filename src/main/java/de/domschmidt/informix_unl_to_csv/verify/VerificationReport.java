@@ -0,0 +1,75 @@
+package de.domschmidt.informix_unl_to_csv.verify;
+
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class VerificationReport {
+
+    private final List<TableVerification> tableVerifications = new ArrayList<>();
+    // of the csv files read back for the output side
+    private final Charset csvCharset;
+    private final CsvFormat csvFormat;
+
+    public VerificationReport(final Charset csvCharset, final CsvFormat csvFormat) {
+        this.csvCharset = csvCharset;
+        this.csvFormat = csvFormat;
+    }
+
+    public Charset getCsvCharset() {
+        return this.csvCharset;
+    }
+
+    public CsvFormat getCsvFormat() {
+        return this.csvFormat;
+    }
+
+    public synchronized void add(final TableVerification tableVerification) {
+        this.tableVerifications.add(tableVerification);
+    }
+
+    public synchronized long getInconsistentTableCount() {
+        return this.tableVerifications.stream().filter(tableVerification -> !tableVerification.isConsistent()).count();
+    }
+
+    // one line per output column, formatted columns and defaults cannot be compared and are reported as such
+    public synchronized void write(final Path reportPath) throws IOException {
+        try (final BufferedWriter reportWriter = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            reportWriter.write("table;column;unl_records;rejected_records;filtered_records;output_rows;malformed_output_rows;unl_checksum;output_checksum;status\n");
+            for (final TableVerification tableVerification : this.tableVerifications) {
+                final boolean countsMatch = tableVerification.isCountConsistent();
+                for (int currentColumnIdx = 0; currentColumnIdx < tableVerification.getOutputColumnNames().size(); currentColumnIdx++) {
+                    final String status;
+                    if (tableVerification.getMalformedOutputRowCount() > 0) {
+                        status = "MALFORMED_OUTPUT";
+                    } else if (!countsMatch) {
+                        status = "COUNT_MISMATCH";
+                    } else if (!tableVerification.isComparable(currentColumnIdx)) {
+                        status = "NOT_COMPARABLE";
+                    } else if (!tableVerification.isColumnConsistent(currentColumnIdx)) {
+                        status = "CHECKSUM_MISMATCH";
+                    } else {
+                        status = "OK";
+                    }
+                    reportWriter.write(tableVerification.getTableName()
+                            + ";" + tableVerification.getOutputColumnNames().get(currentColumnIdx)
+                            + ";" + tableVerification.getUnlRecordCount()
+                            + ";" + tableVerification.getRejectedRecordCount()
+                            + ";" + tableVerification.getFilteredRecordCount()
+                            + ";" + tableVerification.getOutputRowCount()
+                            + ";" + tableVerification.getMalformedOutputRowCount()
+                            + ";" + (tableVerification.isComparable(currentColumnIdx) ? Long.toHexString(tableVerification.getUnlChecksum(currentColumnIdx)) : "")
+                            + ";" + Long.toHexString(tableVerification.getOutputChecksum(currentColumnIdx))
+                            + ";" + status + "\n");
+                }
+            }
+        }
+    }
+}
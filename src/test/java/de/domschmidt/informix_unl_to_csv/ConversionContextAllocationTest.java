@@ -0,0 +1,112 @@
+package de.domschmidt.informix_unl_to_csv;
+
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// once the context has converted a table, converting the next one allocates nothing per record
+class ConversionContextAllocationTest {
+
+    private static final int RECORD_COUNT = 100_000;
+    // the measurement itself and the per table setup, a single allocation per record would be several MiB
+    private static final long MAX_ALLOCATED_BYTES = 64 * 1024;
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void steadyStateConversionAllocatesNothingPerRecord() throws IOException {
+        final StringBuilder unl = new StringBuilder();
+        for (int currentRecordIdx = 0; currentRecordIdx < RECORD_COUNT; currentRecordIdx++) {
+            unl.append(currentRecordIdx).append("|Name ").append(currentRecordIdx).append("|a\\|b||\n");
+        }
+        final ByteBuffer unlBytes = ByteBuffer.wrap(unl.toString().getBytes(TableConverter.UNL_CHARSET));
+        final List<String> columnNames = List.of("pe_id", "pe_name", "pe_text", "pe_leer");
+        final TableConverter tableConverter = new TableConverter(columnNames, columnNames, null, null, null, null,
+                FormatterCacheMode.NEVER, 0, null);
+        final ConversionContext conversionContext = new ConversionContext(new ScalarUNLCharScanner());
+        final CountingTableOutputSink outputSink = new CountingTableOutputSink();
+        final ByteBufferChannel unlChannel = new ByteBufferChannel(unlBytes);
+
+        try (final RejectFile rejectFile = new RejectFile(this.tempPath.resolve("rejects.unl"), TableConverter.UNL_CHARSET, new ErrorLimit(-1))) {
+            // warms up the buffers and the jit
+            for (int currentPassIdx = 0; currentPassIdx < 5; currentPassIdx++) {
+                unlBytes.rewind();
+                tableConverter.convert(conversionContext.openUNL(unlChannel, TableConverter.UNL_CHARSET, ConversionContext.DEFAULT_READ_SIZE),
+                        conversionContext, outputSink, null, rejectFile);
+            }
+
+            unlBytes.rewind();
+            outputSink.rowCount = 0;
+            final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            final long allocatedBytesBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+            tableConverter.convert(conversionContext.openUNL(unlChannel, TableConverter.UNL_CHARSET, ConversionContext.DEFAULT_READ_SIZE),
+                    conversionContext, outputSink, null, rejectFile);
+            final long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBytesBefore;
+
+            assertEquals(RECORD_COUNT, outputSink.rowCount);
+            assertEquals(0, rejectFile.getRejectedCount());
+            assertTrue(allocatedBytes < MAX_ALLOCATED_BYTES, "allocated " + allocatedBytes + " bytes for " + RECORD_COUNT + " records");
+        }
+    }
+
+    private static class CountingTableOutputSink implements ITableOutputSink {
+
+        private long rowCount;
+
+        @Override
+        public void writeRow(final ConvertedRow convertedRow) {
+            this.rowCount++;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    // unlike Channels.newChannel it copies without a temporary array
+    private static class ByteBufferChannel implements ReadableByteChannel {
+
+        private final ByteBuffer source;
+
+        private ByteBufferChannel(final ByteBuffer source) {
+            this.source = source;
+        }
+
+        @Override
+        public int read(final ByteBuffer target) {
+            if (!this.source.hasRemaining()) {
+                return -1;
+            }
+            final int length = Math.min(this.source.remaining(), target.remaining());
+            target.put(target.position(), this.source, this.source.position(), length);
+            target.position(target.position() + length);
+            this.source.position(this.source.position() + length);
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
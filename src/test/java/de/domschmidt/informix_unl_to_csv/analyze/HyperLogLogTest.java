@@ -0,0 +1,44 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    // 4 standard errors of the 2^12 registers, linear counting is exact enough for the small counts
+    private static final double MAX_RELATIVE_ERROR = 4 * 0.016;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100, 1000, 5000, 10000, 20000, 100000, 1000000})
+    void estimateIsWithinTheErrorBound(final int distinctCount) {
+        final HyperLogLog hyperLogLog = new HyperLogLog();
+        // keys of a table, each one added twice from the middle of a record
+        final char[] recordChars = new char[32];
+        for (int currentRepeatIdx = 0; currentRepeatIdx < 2; currentRepeatIdx++) {
+            for (int currentValue = 0; currentValue < distinctCount; currentValue++) {
+                final String value = String.valueOf(currentValue);
+                value.getChars(0, value.length(), recordChars, 5);
+                hyperLogLog.add(recordChars, 5, value.length());
+            }
+        }
+        final long estimate = hyperLogLog.estimate();
+        if (distinctCount <= 100) {
+            assertEquals(distinctCount, estimate, distinctCount * 0.02 + 1);
+        } else {
+            assertTrue(Math.abs(estimate - distinctCount) <= distinctCount * MAX_RELATIVE_ERROR, "estimated " + estimate + " of " + distinctCount);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1})
+    void emptyOrSingleValue(final int distinctCount) {
+        final HyperLogLog hyperLogLog = new HyperLogLog();
+        for (int currentRepeatIdx = 0; currentRepeatIdx < 1000 * distinctCount; currentRepeatIdx++) {
+            hyperLogLog.add("N".toCharArray(), 0, 1);
+        }
+        assertEquals(distinctCount, hyperLogLog.estimate());
+    }
+}
@@ -0,0 +1,80 @@
+package de.domschmidt.informix_unl_to_csv.analyze;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContextPool;
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableAnalysisTaskTest {
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void countsWidthsAndNulls() throws IOException {
+        // null, the escaped blank (an empty value), an escaped line feed and delimiter, umlauts count as one char
+        final String unl = "1|Müller|\n"
+                + "2||\\ |\n"
+                + "3|Meier|a\\\nb|\n"
+                + "4|Schulze-Öztürk|x\\|y|\n";
+        final TableStatistics tableStatistics = analyze(unl, List.of("pe_id", "pe_name", "pe_notiz"));
+
+        assertEquals("orveus.person", tableStatistics.getTableName());
+        assertEquals(unl.getBytes(TableConverter.UNL_CHARSET).length, tableStatistics.getBytes());
+        assertEquals(4, tableStatistics.getRecordCount());
+        // 1 + 14 + 3 and a delimiter each
+        assertEquals(21, tableStatistics.getMaxRecordWidth());
+
+        final ColumnStatistics idStatistics = tableStatistics.getColumnStatistics("pe_id");
+        assertEquals(1, idStatistics.getMinWidth());
+        assertEquals(1, idStatistics.getMaxWidth());
+        assertEquals(1.0, idStatistics.getAverageWidth());
+        assertEquals(0, idStatistics.getNullCount());
+        assertEquals(4, idStatistics.getDistinctEstimate());
+
+        final ColumnStatistics nameStatistics = tableStatistics.getColumnStatistics("pe_name");
+        assertEquals(5, nameStatistics.getMinWidth());
+        assertEquals(14, nameStatistics.getMaxWidth());
+        assertEquals((6 + 5 + 14) / 3.0, nameStatistics.getAverageWidth(), 0.0001);
+        assertEquals(1, nameStatistics.getNullCount());
+        assertEquals(3, nameStatistics.getDistinctEstimate());
+
+        final ColumnStatistics notizStatistics = tableStatistics.getColumnStatistics("pe_notiz");
+        assertEquals(0, notizStatistics.getMinWidth());
+        assertEquals(3, notizStatistics.getMaxWidth());
+        assertEquals(1, notizStatistics.getNullCount());
+    }
+
+    @Test
+    void onlyNullColumnHasNoWidth() throws IOException {
+        final TableStatistics tableStatistics = analyze("1||\n2||\n", List.of("pe_id", "pe_name"));
+        final ColumnStatistics nameStatistics = tableStatistics.getColumnStatistics("pe_name");
+        assertEquals(2, nameStatistics.getNullCount());
+        assertEquals(0, nameStatistics.getMinWidth());
+        assertEquals(0, nameStatistics.getMaxWidth());
+        assertEquals(0.0, nameStatistics.getAverageWidth());
+        assertEquals(0, nameStatistics.getDistinctEstimate());
+    }
+
+    @Test
+    void emptyFileHasNoRecords() throws IOException {
+        final TableStatistics tableStatistics = analyze("", List.of("pe_id"));
+        assertEquals(0, tableStatistics.getRecordCount());
+        assertEquals(0, tableStatistics.getMaxRecordWidth());
+        assertEquals(0, tableStatistics.getColumnStatistics("pe_id").getMinWidth());
+    }
+
+    private TableStatistics analyze(final String unl, final List<String> columnNames) throws IOException {
+        final Path unlPath = this.tempPath.resolve("perso00100.unl");
+        Files.writeString(unlPath, unl, TableConverter.UNL_CHARSET);
+        return new TableAnalysisTask("orveus.person", unlPath, columnNames, new ConversionContextPool(new ScalarUNLCharScanner())).call();
+    }
+}
@@ -0,0 +1,54 @@
+package de.domschmidt.informix_unl_to_csv.ddl;
+
+import de.domschmidt.informix_unl_to_csv.schema.ColumnType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TypeMappingTest {
+
+    // qualifier, postgresql, mssql, mysql
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "year to day;        date;      date;      date",
+            "year to month;      date;      date;      date",
+            "month to day;       date;      date;      date",
+            "year;               date;      date;      date",
+            "day;                date;      date;      date",
+            "hour to second;     time;      time;      time",
+            "hour to minute;     time;      time;      time",
+            "minute to second;   time;      time;      time",
+            "hour;               time;      time;      time",
+            "hour to fraction(3); time;     time;      time(6)",
+            "minute to fraction; time;      time;      time(6)",
+            "year to second;     timestamp; datetime2; datetime",
+            "year to minute;     timestamp; datetime2; datetime",
+            "day to hour;        timestamp; datetime2; datetime",
+            "year to fraction(5); timestamp; datetime2; datetime(6)",
+            "month to fraction;  timestamp; datetime2; datetime(6)"
+    })
+    void dateTimeQualifiersMapByTheirKind(final String qualifier, final String postgreSQLType, final String mssqlType, final String mySQLType) {
+        final ColumnType columnType = new ColumnType("datetime", -1, -1, qualifier);
+        assertEquals(postgreSQLType, new PostgreSQLTargetDDLGenerator(Map.of()).typeMapping.map(columnType));
+        assertEquals(mssqlType, new MSSQLTargetDDLGenerator(Map.of()).typeMapping.map(columnType));
+        assertEquals(mySQLType, new MySQLTargetDDLGenerator(Map.of()).typeMapping.map(columnType));
+    }
+
+    @Test
+    void overridesApplyToTheQualifiersOfTheirKind() {
+        final TypeMapping typeMapping = new PostgreSQLTargetDDLGenerator(Map.of("datetime hour to second", "time(0)")).typeMapping;
+        assertEquals("time(0)", typeMapping.map(new ColumnType("datetime", -1, -1, "hour to minute")));
+        // an own mapping of the qualifier wins
+        assertEquals("time(1)", new PostgreSQLTargetDDLGenerator(Map.of("datetime hour to minute", "time(1)")).typeMapping
+                .map(new ColumnType("datetime", -1, -1, "hour to minute")));
+    }
+
+    @Test
+    void intervalsKeepTheirMapping() {
+        assertEquals("interval", new PostgreSQLTargetDDLGenerator(Map.of()).typeMapping.map(new ColumnType("interval", -1, -1, "hour to minute")));
+    }
+}
@@ -0,0 +1,73 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapLongLongMapTest {
+
+    private static final long ABSENT = -1;
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void zeroKeyIsKeptOnItsOwn() throws IOException {
+        final OffHeapLongLongMap map = new OffHeapLongLongMap(1 << 20, this.tempPath);
+        assertEquals(ABSENT, map.getAndReplace(0, 1, ABSENT));
+        assertTrue(map.putIfAbsent(0, 10));
+        assertFalse(map.putIfAbsent(0, 11));
+        assertEquals(1, map.size());
+        assertEquals(10, map.getAndReplace(0, 12, ABSENT));
+        assertEquals(12, map.getAndReplace(0, 13, ABSENT));
+        // nothing is stored for an absent key
+        assertEquals(ABSENT, map.getAndReplace(7, 1, ABSENT));
+        assertEquals(1, map.size());
+    }
+
+    // 0 maps every table into the temp file, 64 KiB holds the first tables in direct buffers and grows into the file
+    @ParameterizedTest
+    @ValueSource(longs = {0, 64 * 1024, 1L << 30})
+    void growsAndKeepsEveryEntry(final long maxDirectBytes) throws IOException {
+        final OffHeapLongLongMap map = new OffHeapLongLongMap(maxDirectBytes, this.tempPath);
+        final Map<Long, Long> expectedEntries = new HashMap<>();
+        // consecutive ids, negative ids and the spread keys of hashed records
+        final Random random = new Random(42);
+        for (long key = -1000; key < 50_000; key++) {
+            putIfAbsent(map, expectedEntries, key, key * 2);
+        }
+        for (int currentKeyIdx = 0; currentKeyIdx < 50_000; currentKeyIdx++) {
+            final long key = random.nextLong();
+            putIfAbsent(map, expectedEntries, key, random.nextLong());
+        }
+        assertEquals(expectedEntries.size(), map.size());
+
+        for (final Map.Entry<Long, Long> expectedEntry : expectedEntries.entrySet()) {
+            assertEquals((long) expectedEntry.getValue(), map.getAndReplace(expectedEntry.getKey(), ~expectedEntry.getValue(), ABSENT));
+        }
+        for (final Map.Entry<Long, Long> expectedEntry : expectedEntries.entrySet()) {
+            assertEquals(~expectedEntry.getValue(), map.getAndReplace(expectedEntry.getKey(), 0, ABSENT));
+        }
+        assertEquals(ABSENT, map.getAndReplace(50_000, 1, ABSENT));
+        assertEquals(expectedEntries.size(), map.size());
+    }
+
+    private static void putIfAbsent(final OffHeapLongLongMap map, final Map<Long, Long> expectedEntries, final long key, final long value) throws IOException {
+        final boolean absent = !expectedEntries.containsKey(key);
+        assertEquals(absent, map.putIfAbsent(key, value));
+        if (absent) {
+            expectedEntries.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.domschmidt.informix_unl_to_csv.diff;
+
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.expression.PredicateNode;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import de.domschmidt.informix_unl_to_csv.unl.SingleByteCharsetTable;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetDecoder;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TableSnapshotDiffTest {
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void integerKeysAreInsertedUpdatedAndDeleted() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        final String oldUnl = "1|a|x|\n2|b|y|\n3|c|z|\n0|zero|q|\n-4|neg||\n";
+        final String newUnl = "1|a|x|\n2|b|Y|\n5|e|w|\n0|zero|Q|\n-4|neg||\n";
+        assertEquals(List.of("~2", "+5", "~0", "-3"), diff(tableSnapshotDiff, oldUnl, newUnl));
+        assertCounts(tableSnapshotDiff, 1, 2, 1, 2);
+    }
+
+    @Test
+    void nullAndEmptyAreDifferentValues() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        assertEquals(List.of("~1", "~2"), diff(tableSnapshotDiff, "1|a||\n2|b|\\ |\n3|c|d|\n", "1|a|\\ |\n2|b||\n3|c|d|\n"));
+        assertCounts(tableSnapshotDiff, 0, 2, 0, 1);
+    }
+
+    @Test
+    void changedFieldBoundaryIsAnUpdate() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        assertEquals(List.of("~1"), diff(tableSnapshotDiff, "1|ab|c|\n", "1|a|bc|\n"));
+    }
+
+    // of a duplicate key in the old export the first record counts and it is deleted once
+    @Test
+    void duplicateOldKeysCountOnce() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        assertEquals(List.of("-2"), diff(tableSnapshotDiff, "1|a|x|\n1|b|y|\n2|c|z|\n2|d|z|\n", "1|a|x|\n"));
+        assertCounts(tableSnapshotDiff, 0, 0, 1, 1);
+    }
+
+    @Test
+    void nonIntegerKeysAreHashed() throws IOException {
+        // the key is the first two columns
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0, 1}, false, null);
+        final String oldUnl = "A-1|x|1|\nA-1|y|2|\nB 2||3|\nC|x|4|\n";
+        final String newUnl = "A-1|x|1|\nA-1|y|20|\nB 2||3|\nB 2|\\ |5|\nA|-1x|6|\n";
+        assertEquals(List.of("~A-1", "+B 2", "+A", "-C"), diff(tableSnapshotDiff, oldUnl, newUnl));
+        assertCounts(tableSnapshotDiff, 2, 1, 1, 2);
+    }
+
+    @Test
+    void oldRecordsWithInvalidKeysAreSkipped() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        // neither the invalid keys nor the record with too few fields are in the map, so key 1 is inserted
+        assertEquals(List.of("+1"), diff(tableSnapshotDiff, "x1|a|b|\n|a|b|\n1|a|", "1|a|b|\n"));
+    }
+
+    @Test
+    void filteredRecordsAreNeitherInsertedNorDeleted() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, new PredicateNode() {
+            @Override
+            public int test(final UNLRecord record) {
+                return record.getField(1).equals("skip") ? FALSE : TRUE;
+            }
+        });
+        assertEquals(List.of("~1"), diff(tableSnapshotDiff, "1|a|x|\n2|skip|y|\n", "1|a|X|\n3|skip|z|\n"));
+        assertCounts(tableSnapshotDiff, 0, 1, 0, 0);
+    }
+
+    @Test
+    void withoutDeletedKeysTheOldExportIsNotReadAgain() throws IOException {
+        final TableSnapshotDiff tableSnapshotDiff = newDiff(new int[]{0}, true, null);
+        final UNLRecord record = new UNLRecord();
+        tableSnapshotDiff.readOldExport(open("1|a|x|\n2|b|y|\n"), record);
+        filter(tableSnapshotDiff.newNewExportFilter(), "2|b|y|\n1|a|z|\n3|c|w|\n", record, tableSnapshotDiff);
+        assertFalse(tableSnapshotDiff.hasDeletedKeys());
+    }
+
+    private TableSnapshotDiff newDiff(final int[] keyCellIdxs, final boolean integerKey, final PredicateNode rowFilter) throws IOException {
+        // no direct memory, so the map is in the temp file
+        return new TableSnapshotDiff("orveus.person", new OffHeapLongLongMap(0, this.tempPath), keyCellIdxs, 3, integerKey, rowFilter);
+    }
+
+    // the key of every passed record, + inserted, ~ updated, - deleted
+    private static List<String> diff(final TableSnapshotDiff tableSnapshotDiff, final String oldUnl, final String newUnl) throws IOException {
+        final UNLRecord record = new UNLRecord();
+        tableSnapshotDiff.readOldExport(open(oldUnl), record);
+        final List<String> passedKeys = new ArrayList<>(filter(tableSnapshotDiff.newNewExportFilter(), newUnl, record, tableSnapshotDiff));
+        if (tableSnapshotDiff.hasDeletedKeys()) {
+            for (final String deletedKey : filter(tableSnapshotDiff.newDeletedFilter(), oldUnl, record, null)) {
+                passedKeys.add("-" + deletedKey);
+            }
+        }
+        return passedKeys;
+    }
+
+    private static List<String> filter(final PredicateNode filter, final String unl, final UNLRecord record, final TableSnapshotDiff tableSnapshotDiff) throws IOException {
+        final UNLRecordReader recordReader = open(unl);
+        final List<String> passedKeys = new ArrayList<>();
+        while (recordReader.next(record)) {
+            if (filter.test(record) == PredicateNode.TRUE) {
+                passedKeys.add((tableSnapshotDiff == null ? "" : tableSnapshotDiff.isLastInserted() ? "+" : "~") + record.getField(0));
+            }
+        }
+        return passedKeys;
+    }
+
+    private static void assertCounts(final TableSnapshotDiff tableSnapshotDiff, final long inserted, final long updated, final long deleted, final long unchanged) {
+        assertEquals(List.of(inserted, updated, deleted, unchanged), List.of(tableSnapshotDiff.getInsertedCount(), tableSnapshotDiff.getUpdatedCount(),
+                tableSnapshotDiff.getDeletedCount(), tableSnapshotDiff.getUnchangedCount()));
+    }
+
+    private static UNLRecordReader open(final String unl) {
+        final UNLRecordReader recordReader = new UNLRecordReader(new ScalarUNLCharScanner());
+        final CharsetDecoder decoder = TableConverter.UNL_CHARSET.newDecoder();
+        recordReader.reset(Channels.newChannel(new ByteArrayInputStream(unl.getBytes(TableConverter.UNL_CHARSET))), decoder,
+                SingleByteCharsetTable.create(decoder), 64);
+        return recordReader;
+    }
+}
@@ -0,0 +1,168 @@
+package de.domschmidt.informix_unl_to_csv.expression;
+
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.schema.Column;
+import de.domschmidt.informix_unl_to_csv.schema.ColumnType;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import de.domschmidt.informix_unl_to_csv.unl.SingleByteCharsetTable;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecord;
+import de.domschmidt.informix_unl_to_csv.unl.UNLRecordReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetDecoder;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExpressionParserTest {
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", new ColumnType("integer", -1, -1, null), false, null),
+            new Column("name", new ColumnType("char", 20, -1, null), true, null),
+            new Column("birth", new ColumnType("date", -1, -1, null), true, null),
+            new Column("amount", new ColumnType("decimal", 10, 2, null), true, null)
+    );
+
+    // and before or, not before and, || before the comparison
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "id = 1 or id = 2 and name = 'x';      1|y|||;  TRUE",
+            "(id = 1 or id = 2) and name = 'x';    1|y|||;  FALSE",
+            "id = 2 and name = 'x' or id = 1;      1|y|||;  TRUE",
+            "not id = 1 and id = 2;                2|y|||;  TRUE",
+            "not id = 1 and id = 2;                1|y|||;  FALSE",
+            "not (id = 1 and id = 2);              1|y|||;  TRUE",
+            "name || 'x' = 'ax';                   1|a|||;  TRUE",
+            "'a' || name || 'c' in ('abc', 'x');   1|b|||;  TRUE",
+            "id <> 1 or not not id = 1;            1|a|||;  TRUE"
+    })
+    void precedence(final String expression, final String unl, final String expectedResult) throws IOException {
+        assertEquals(expectedResult, test(expression, unl));
+    }
+
+    // a comparison with null is unknown, and and or follow the three valued logic of sql, not keeps unknown
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+            "name = 'a';                           1||||;   UNKNOWN",
+            "name <> 'a';                          1||||;   UNKNOWN",
+            "not name = 'a';                       1||||;   UNKNOWN",
+            "name = 'a' or id = 1;                 1||||;   TRUE",
+            "name = 'a' or id = 2;                 1||||;   UNKNOWN",
+            "name = 'a' and id = 1;                1||||;   UNKNOWN",
+            "name = 'a' and id = 2;                1||||;   FALSE",
+            "name = null;                          1|a|||;  UNKNOWN",
+            "name is null;                         1||||;   TRUE",
+            "name is not null;                     1||||;   FALSE",
+            "name || 'x' is null;                  1||||;   TRUE",
+            "id in (1, null);                      1||||;   TRUE",
+            "id in (2, null);                      1||||;   UNKNOWN",
+            "id not in (2, null);                  1||||;   UNKNOWN",
+            "id not in (2, 3);                     1||||;   TRUE",
+            "name in ('a', 'b');                   1||||;   UNKNOWN",
+            "amount > 1;                           1||||;   UNKNOWN"
+    })
+    void nullPropagation(final String expression, final String unl, final String expectedResult) throws IOException {
+        assertEquals(expectedResult, test(expression, unl));
+    }
+
+    @Test
+    void nullValues() throws IOException {
+        assertNull(evaluate("name || 'x'", "1||||"));
+        assertNull(evaluate("substr(name, 2)", "1||||"));
+        assertNull(evaluate("substr('abc', id)", "|a|||"));
+        assertNull(evaluate("upper(trim(name))", "1||||"));
+        assertNull(evaluate("year(birth)", "1||||"));
+        assertNull(evaluate("case id when 2 then 'two' end", "1||||"));
+        assertEquals("d", evaluate("coalesce(name, birth, 'd')", "1||||"));
+        assertEquals("01.02.2000", evaluate("nvl(name, birth, 'd')", "1||01.02.2000||"));
+        // an unknown condition is not true
+        assertEquals("n", evaluate("case when name = 'a' then 'y' else 'n' end", "1||||"));
+        // the escaped blank is an empty string, not null
+        assertEquals("x", evaluate("name || 'x'", "1|\\ |||"));
+    }
+
+    @Test
+    void numbersAndDatesAreComparedByValue() throws IOException {
+        assertEquals("TRUE", test("amount > 9.5", "1|||10.00|"));
+        assertEquals("TRUE", test("amount = 10", "1|||10.00|"));
+        assertEquals("TRUE", test("amount < -0.5", "1|||-1|"));
+        assertEquals("TRUE", test("amount = -0", "1|||0.00|"));
+        assertEquals("TRUE", test("birth < '2000-01-01'", "1||31.12.1999||"));
+        assertEquals("TRUE", test("birth = '29.02.2000'", "1||2000-02-29||"));
+        // a string compares its chars
+        assertEquals("TRUE", test("name > '10'", "1|9|||"));
+    }
+
+    @Test
+    void functions() throws IOException {
+        assertEquals("bcd", evaluate("substr('abcdef', 2, 3)", "1||||"));
+        assertEquals("ef", evaluate("substring('abcdef', 5)", "1||||"));
+        assertEquals("", evaluate("substr('abc', 5)", "1||||"));
+        assertEquals("a b", evaluate("trim('  a b ')", "1||||"));
+        assertEquals("ÄB", evaluate("upper(name)", "1|äb|||"));
+        assertEquals("1999|12|31", evaluate("year(birth) || '|' || month(birth) || '|' || day(birth)", "1||31.12.1999||"));
+        assertEquals("2", evaluate("month(birth)", "1||2000-02-29||"));
+        assertEquals("one", evaluate("case id when 1 then 'one' when 2 then 'two' else 'many' end", "1||||"));
+        assertEquals("many", evaluate("case id when 1 then 'one' when 2 then 'two' else 'many' end", "3||||"));
+    }
+
+    @Test
+    void parseErrors() {
+        assertParseError("id = 'x'", "id = 'x': not a number: x");
+        assertParseError("birth = '2000-02-30'", "birth = '2000-02-30': not a date: 2000-02-30, expected dd.mm.yyyy or yyyy-mm-dd");
+        assertParseError("birth in ('01.01.2000', 'x')", "not a date: x");
+        assertParseError("nickname = 'a'", "nickname = 'a', at nickname: unknown column");
+        assertParseError("soundex(name) = 'a'", "at soundex: unknown function");
+        assertParseError("substr(name) = 'a'", "at substr: wrong number of arguments: 1");
+        assertParseError("id = 1 id", "id = 1 id, at id: expected the end of the expression");
+        assertParseError("id 1", "at 1: expected a comparison");
+        assertParseError("(id = 1", "at end of input: expected )");
+        assertParseError("id is 1", "at 1: expected null");
+        assertParseError("case when id = 1 then 'a'", "at end of input: expected end");
+        assertParseError("id = ", "at end of input: expected a value");
+        assertParseError("id = 'unterminated", "id = 'unterminated: ");
+    }
+
+    @Test
+    void valueErrorsAreThrownPerRecord() throws IOException {
+        final ValueNode value = ExpressionParser.parseValue("year(name)", COLUMNS);
+        final IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> value.evaluate(record("1|abc|||")));
+        assertEquals("not a date: abc", e.getMessage());
+        final PredicateNode predicate = ExpressionParser.parsePredicate("amount > 1", COLUMNS);
+        assertEquals("not a number: x1", assertThrows(IllegalArgumentException.class, () -> predicate.test(record("1|||x1|"))).getMessage());
+    }
+
+    private static String test(final String expression, final String unl) throws IOException {
+        final int result = ExpressionParser.parsePredicate(expression, COLUMNS).test(record(unl));
+        return result == PredicateNode.TRUE ? "TRUE" : result == PredicateNode.FALSE ? "FALSE" : "UNKNOWN";
+    }
+
+    private static String evaluate(final String expression, final String unl) throws IOException {
+        final ValueNode value = ExpressionParser.parseValue(expression, COLUMNS);
+        value.evaluate(record(unl));
+        return value.isNull() ? null : new String(value.getChars(), value.getStart(), value.getLength());
+    }
+
+    private static void assertParseError(final String expression, final String expectedMessagePart) {
+        final ExpressionParseException e = assertThrows(ExpressionParseException.class, () -> ExpressionParser.parsePredicate(expression, COLUMNS));
+        assertTrue(e.getMessage().contains(expectedMessagePart), e.getMessage());
+    }
+
+    private static UNLRecord record(final String unl) throws IOException {
+        final UNLRecordReader recordReader = new UNLRecordReader(new ScalarUNLCharScanner());
+        final CharsetDecoder decoder = TableConverter.UNL_CHARSET.newDecoder();
+        recordReader.reset(Channels.newChannel(new ByteArrayInputStream((unl + "\n").getBytes(TableConverter.UNL_CHARSET))), decoder,
+                SingleByteCharsetTable.create(decoder), 64);
+        final UNLRecord record = new UNLRecord();
+        assertTrue(recordReader.next(record));
+        return record;
+    }
+}
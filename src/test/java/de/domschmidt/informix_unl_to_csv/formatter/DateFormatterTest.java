@@ -0,0 +1,91 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the fast paths must give what the parser gave before them, for valid dates as well as for everything the parser
+// corrects or rejects
+class DateFormatterTest {
+
+    private static final String[] YEARS = {"0000", "0001", "0004", "1582", "1600", "1899", "1900", "1999", "2000", "2004", "2023", "2024", "2100", "2400", "9999"};
+    private static final String[] MALFORMED_VALUES = {"", " ", "          ", "1.1.2000", "01.01.99", "01.01.0", "01.01.10000", "2000-01-01",
+            "01-01-2000", "ab.cd.efgh", "01.01.2000 ", " 01.01.2000", "+1.01.2000", "01.+1.2000", "01.01.+200", "01.01.-200",
+            "01,01,2000", "0１.01.2000", "31.12.2000x", "12-31", "1-31", "12-3", "12/31", "+1-01", "01-+1", "-1-01", "01-01 "};
+
+    @Test
+    void dateFormatterFastPathMatchesTheParser() {
+        final DateTimeFormatter inputPattern = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+        final DateTimeFormatter outputPattern = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        final List<String> values = new ArrayList<>(List.of(MALFORMED_VALUES));
+        for (final String year : YEARS) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    values.add(String.format("%02d.%02d.%s", day, month, year));
+                }
+            }
+        }
+        assertSameResults(new DATE_FORMATTER(), values,
+                value -> value.trim().equals("") ? value : LocalDate.parse(value, inputPattern).format(outputPattern));
+    }
+
+    @Test
+    void validDatesAreRearranged() {
+        final DATE_FORMATTER dateFormatter = new DATE_FORMATTER();
+        assertEquals("2000-02-29", format(dateFormatter, "29.02.2000"));
+        assertEquals("2024-02-29", format(dateFormatter, "29.02.2024"));
+        assertEquals("0001-01-01", format(dateFormatter, "01.01.0001"));
+        assertEquals("9999-12-31", format(dateFormatter, "31.12.9999"));
+        // the parser of the generic path corrects an invalid last day of the month instead of rejecting it
+        assertEquals("1900-02-28", format(dateFormatter, "29.02.1900"));
+        assertEquals("2023-04-30", format(dateFormatter, "31.04.2023"));
+    }
+
+    @Test
+    void monthDayFormatterFastPathMatchesTheParser() {
+        final DateTimeFormatter inputPattern = DateTimeFormatter.ofPattern("MM-dd");
+        final DateTimeFormatter outputPattern = DateTimeFormatter.ofPattern("'1970'-MM-dd");
+        final List<String> values = new ArrayList<>(List.of(MALFORMED_VALUES));
+        for (int month = 0; month <= 13; month++) {
+            for (int day = 0; day <= 32; day++) {
+                values.add(String.format("%02d-%02d", month, day));
+            }
+        }
+        assertSameResults(new MONTH_DAY_TO_DATE_FORMATTER(), values,
+                value -> value.trim().equals("") ? value : MonthDay.parse(value, inputPattern).format(outputPattern));
+    }
+
+    // the output or the class of the exception rejecting the record
+    private static void assertSameResults(final IColumnFormatter formatter, final List<String> values, final Function<String, String> parser) {
+        for (final String value : values) {
+            String expected;
+            try {
+                expected = parser.apply(value);
+            } catch (final RuntimeException e) {
+                expected = e.getClass().getName();
+            }
+            String actual;
+            try {
+                actual = format(formatter, value);
+            } catch (final RuntimeException e) {
+                actual = e.getClass().getName();
+            }
+            assertEquals(expected, actual, "'" + value + "'");
+        }
+    }
+
+    private static String format(final IColumnFormatter formatter, final String value) {
+        // not at the start of the array, as the cells of a record
+        final char[] chars = ("|" + value + "|").toCharArray();
+        final FormatterOutput output = new FormatterOutput();
+        formatter.format(chars, 1, value.length(), output);
+        return new String(output.getChars(), 0, output.getLength());
+    }
+}
@@ -0,0 +1,120 @@
+package de.domschmidt.informix_unl_to_csv.formatter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormatterResultCacheTest {
+
+    @Test
+    void autoModeSwitchesOffForMostlyDistinctValues() {
+        final CountingFormatter formatter = new CountingFormatter();
+        final FormatterResultCache formatterResultCache = new FormatterResultCache(new ColumnFormatterChain(List.of(formatter)), FormatterCacheMode.AUTO, 4096);
+        for (int currentValue = 0; currentValue < 1024; currentValue++) {
+            assertEquals("<" + currentValue + ">", format(formatterResultCache, String.valueOf(currentValue)));
+        }
+        assertFalse(formatterResultCache.isEnabled());
+        assertEquals(1024, formatterResultCache.getMisses());
+
+        // no longer counted nor cached
+        assertEquals("<1>", format(formatterResultCache, "1"));
+        assertEquals(1025, formatter.formatCount);
+        assertEquals(1024, formatterResultCache.getMisses());
+    }
+
+    @Test
+    void autoModeStaysOnForRepeatingValues() {
+        final CountingFormatter formatter = new CountingFormatter();
+        final FormatterResultCache formatterResultCache = new FormatterResultCache(new ColumnFormatterChain(List.of(formatter)), FormatterCacheMode.AUTO, 4096);
+        for (int currentValueIdx = 0; currentValueIdx < 2048; currentValueIdx++) {
+            assertEquals("<" + currentValueIdx % 10 + ">", format(formatterResultCache, String.valueOf(currentValueIdx % 10)));
+        }
+        assertTrue(formatterResultCache.isEnabled());
+        assertEquals(10, formatter.formatCount);
+        assertEquals(2038, formatterResultCache.getHits());
+    }
+
+    @Test
+    void leastRecentlyUsedValueIsEvicted() {
+        final CountingFormatter formatter = new CountingFormatter();
+        final FormatterResultCache formatterResultCache = new FormatterResultCache(new ColumnFormatterChain(List.of(formatter)), FormatterCacheMode.ALWAYS, 2);
+        format(formatterResultCache, "a");
+        format(formatterResultCache, "b");
+        // a is used again, so b is evicted by c
+        format(formatterResultCache, "a");
+        format(formatterResultCache, "c");
+        assertEquals(3, formatter.formatCount);
+
+        format(formatterResultCache, "a");
+        assertEquals(3, formatter.formatCount);
+        format(formatterResultCache, "b");
+        assertEquals(4, formatter.formatCount);
+        assertEquals(2, formatterResultCache.getHits());
+        assertEquals(4, formatterResultCache.getMisses());
+    }
+
+    @Test
+    void nullResultIsCached() {
+        final CountingFormatter formatter = new CountingFormatter();
+        final FormatterResultCache formatterResultCache = new FormatterResultCache(new ColumnFormatterChain(List.of(formatter)), FormatterCacheMode.ALWAYS, 16);
+        assertEquals(null, format(formatterResultCache, "-"));
+        assertEquals(null, format(formatterResultCache, "-"));
+        assertEquals(1, formatter.formatCount);
+        assertEquals(1, formatterResultCache.getHits());
+        // an empty result is no null
+        assertEquals("<>", format(formatterResultCache, ""));
+        assertEquals("<>", format(formatterResultCache, ""));
+    }
+
+    @Test
+    void neverModeOrNoCapacityDoesNotCache() {
+        for (final FormatterResultCache formatterResultCache : List.of(
+                new FormatterResultCache(new ColumnFormatterChain(List.of(new CountingFormatter())), FormatterCacheMode.NEVER, 16),
+                new FormatterResultCache(new ColumnFormatterChain(List.of(new CountingFormatter())), FormatterCacheMode.ALWAYS, 0))) {
+            assertFalse(formatterResultCache.isEnabled());
+            format(formatterResultCache, "a");
+            format(formatterResultCache, "a");
+            assertEquals(0, formatterResultCache.getHits() + formatterResultCache.getMisses());
+        }
+    }
+
+    // a distinct estimate of a previous analysis decides instead of the sample
+    @Test
+    void distinctEstimateDecidesInAutoMode() {
+        final FormatterResultCache repeatingCache = new FormatterResultCache(new ColumnFormatterChain(List.of(new CountingFormatter())), FormatterCacheMode.AUTO, 16);
+        repeatingCache.setDistinctEstimate(10, 1000);
+        assertTrue(repeatingCache.isEnabled());
+
+        final FormatterResultCache distinctCache = new FormatterResultCache(new ColumnFormatterChain(List.of(new CountingFormatter())), FormatterCacheMode.AUTO, 16);
+        distinctCache.setDistinctEstimate(100, 1000);
+        assertFalse(distinctCache.isEnabled());
+    }
+
+    // the cell is formatted from the middle of a larger array, as the record chars are
+    private static String format(final FormatterResultCache formatterResultCache, final String value) {
+        final char[] recordChars = ("xx|" + value + "|yy").toCharArray();
+        final FormatterOutput output = new FormatterOutput();
+        formatterResultCache.format(recordChars, 3, value.length(), output);
+        return output.isNull() ? null : new String(output.getChars(), 0, output.getLength());
+    }
+
+    // <value>, a single - formats to null
+    private static class CountingFormatter implements IColumnFormatter {
+
+        private int formatCount;
+
+        @Override
+        public void format(final char[] chars, final int start, final int length, final FormatterOutput output) {
+            this.formatCount++;
+            if (length == 1 && chars[start] == '-') {
+                output.setNull();
+                return;
+            }
+            output.append('<').append(chars, start, length).append('>');
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImportScriptGeneratorTest {
+
+    private static final String PATH_PREFIX = "/data/import/";
+    private static final String FIXUP_SQL = "UPDATE orveus.person SET name = TRIM(name);";
+
+    // the country table is referenced by the person table, which was split into two ordered parts
+    private static final List<List<ConvertedTable>> LOAD_WAVES = List.of(
+            List.of(new ConvertedTable("orveus.country", "orveus.country.csv")),
+            List.of(new ConvertedTable("orveus.person", "orveus.person.part_0001.csv", List.of("id")),
+                    new ConvertedTable("orveus.person", "orveus.person.part_0002.csv", List.of("id"))));
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void mssqlScriptBulkInsertsEveryPartWithTheOrderHint() throws IOException {
+        new MSSQLImportScriptGenerator(PATH_PREFIX, 10000, 0, FIXUP_SQL).generate(this.tempPath, LOAD_WAVES);
+        final String importScript = readScript("import.mssql.sql");
+
+        assertTrue(importScript.startsWith("EXEC sp_msforeachtable 'ALTER TABLE ? NOCHECK CONSTRAINT ALL';\n"));
+        assertTrue(importScript.contains("BULK INSERT orveus.country\n FROM '/data/import/orveus.country.csv'\n"
+                + " WITH (FORMAT = \"CSV\", ROWTERMINATOR = \"\\n\", KEEPIDENTITY, KEEPNULLS, TABLOCK, BATCHSIZE = 10000);\n"));
+        assertTrue(importScript.contains("BULK INSERT orveus.person\n FROM '/data/import/orveus.person.part_0001.csv'\n"
+                + " WITH (FORMAT = \"CSV\", ROWTERMINATOR = \"\\n\", KEEPIDENTITY, KEEPNULLS, TABLOCK, BATCHSIZE = 10000, ORDER (id ASC));\n"));
+        assertTrue(importScript.contains("FROM '/data/import/orveus.person.part_0002.csv'"));
+        assertFalse(importScript.contains("CHECK_CONSTRAINTS"));
+        // referenced tables first, the fix-up after the loads and before the constraints are checked again
+        assertTrue(importScript.indexOf("orveus.country.csv") < importScript.indexOf("orveus.person.part_0001.csv"));
+        assertTrue(importScript.indexOf("orveus.person.part_0002.csv") < importScript.indexOf(FIXUP_SQL));
+        assertTrue(importScript.endsWith(FIXUP_SQL + "\n\n"
+                + "EXEC sp_msforeachtable 'ENABLE TRIGGER ALL ON ?';\n"
+                + "EXEC sp_msforeachtable 'ALTER TABLE ? WITH CHECK CHECK CONSTRAINT ALL';\n"));
+    }
+
+    @Test
+    void postgresqlScriptIncludesOnePerPartScript() throws IOException {
+        new PostgreSQLImportScriptGenerator(PATH_PREFIX, 0, 0, FIXUP_SQL).generate(this.tempPath, LOAD_WAVES);
+
+        assertEquals("\\ir import.postgresql/orveus.country.sql\n"
+                + "\\ir import.postgresql/orveus.person.part_0001.sql\n"
+                + "\\ir import.postgresql/orveus.person.part_0002.sql\n"
+                + "\n"
+                + "SET synchronous_commit = off;\n"
+                + "SET session_replication_role = replica;\n\n"
+                + FIXUP_SQL + "\n\n"
+                + "SET session_replication_role = DEFAULT;\n", readScript("import.postgresql.sql"));
+        assertEquals("SET synchronous_commit = off;\n"
+                + "SET session_replication_role = replica;\n\n"
+                + "COPY orveus.person\n FROM '/data/import/orveus.person.part_0002.csv'\n WITH (FORMAT csv, ENCODING 'UTF8');\n\n",
+                readScript("import.postgresql/orveus.person.part_0002.sql"));
+    }
+
+    @Test
+    void mysqlScriptLoadsEveryPartWithTheChecksDisabled() throws IOException {
+        new MySQLImportScriptGenerator(PATH_PREFIX, 0, 0, null).generate(this.tempPath, LOAD_WAVES);
+
+        assertEquals("SET SESSION sql_log_bin = 0;\n"
+                + "SET SESSION foreign_key_checks = 0;\n"
+                + "SET SESSION unique_checks = 0;\n\n"
+                + loadData("orveus.country", "orveus.country.csv")
+                + loadData("orveus.person", "orveus.person.part_0001.csv")
+                + loadData("orveus.person", "orveus.person.part_0002.csv")
+                + "SET SESSION unique_checks = 1;\n"
+                + "SET SESSION foreign_key_checks = 1;\n"
+                + "SET SESSION sql_log_bin = 1;\n", readScript("import.mysql.sql"));
+    }
+
+    @Test
+    void blankFixupSqlIsLeftOut() throws IOException {
+        new MSSQLImportScriptGenerator("", 0, 0, " \n").generate(this.tempPath, LOAD_WAVES);
+        final String importScript = readScript("import.mssql.sql");
+
+        assertTrue(importScript.contains("FROM 'orveus.country.csv'"));
+        assertFalse(importScript.contains("BATCHSIZE"));
+        assertTrue(importScript.contains("ORDER (id ASC));\n\nEXEC sp_msforeachtable 'ENABLE TRIGGER ALL ON ?';\n"));
+    }
+
+    @Test
+    void waveScriptsCheckTheConstraints() throws IOException {
+        new MSSQLImportScriptGenerator(PATH_PREFIX, 0, 2, FIXUP_SQL).generate(this.tempPath, LOAD_WAVES);
+
+        final String countryScript = readScript("import.mssql.waves/wave_001.session_01.sql");
+        assertTrue(countryScript.contains("FROM '/data/import/orveus.country.csv'"));
+        assertTrue(countryScript.contains("CHECK_CONSTRAINTS"));
+        assertFalse(countryScript.contains(FIXUP_SQL));
+        assertFalse(Files.exists(this.tempPath.resolve("import.mssql.waves/wave_001.session_02.sql")));
+
+        // one part per session
+        final String firstPersonScript = readScript("import.mssql.waves/wave_002.session_01.sql");
+        final String secondPersonScript = readScript("import.mssql.waves/wave_002.session_02.sql");
+        assertTrue(firstPersonScript.contains("orveus.person.part_0001.csv") != secondPersonScript.contains("orveus.person.part_0001.csv"));
+        assertTrue(firstPersonScript.contains("orveus.person.part_0002.csv") != secondPersonScript.contains("orveus.person.part_0002.csv"));
+        assertTrue(firstPersonScript.contains("CHECK_CONSTRAINTS, ORDER (id ASC));\n"));
+    }
+
+    private static String loadData(final String tableName, final String csvName) {
+        return "LOAD DATA INFILE '/data/import/" + csvName + "'"
+                + "\n INTO TABLE " + tableName
+                + "\n CHARACTER SET utf8mb4"
+                + "\n FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '\\\\'"
+                + "\n LINES TERMINATED BY '\\n';\n\n";
+    }
+
+    private String readScript(final String scriptName) throws IOException {
+        return Files.readString(this.tempPath.resolve(scriptName), StandardCharsets.UTF_8);
+    }
+}
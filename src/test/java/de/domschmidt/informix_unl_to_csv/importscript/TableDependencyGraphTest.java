@@ -0,0 +1,71 @@
+package de.domschmidt.informix_unl_to_csv.importscript;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TableDependencyGraphTest {
+
+    @Test
+    void wavesFollowTheReferences() {
+        final TableDependencyGraph tableDependencyGraph = new TableDependencyGraph();
+        tableDependencyGraph.addTable("orveus.person");
+        tableDependencyGraph.addTable("orveus.geschaeftsjahr");
+        tableDependencyGraph.addReference("orveus.termin", "orveus.person");
+        tableDependencyGraph.addReference("orveus.adr_zu_pe", "orveus.person");
+        tableDependencyGraph.addReference("orveus.adr_zu_pe", "orveus.adresse");
+        tableDependencyGraph.addReference("orveus.adresse", "orveus.adresse");
+        // not unloaded
+        tableDependencyGraph.addReference("orveus.termin", "orveus.kalender");
+
+        assertEquals(List.of(
+                List.of("orveus.adresse", "orveus.geschaeftsjahr", "orveus.person"),
+                List.of("orveus.adr_zu_pe", "orveus.termin")
+        ), tableDependencyGraph.getLoadWaves());
+        assertEquals(List.of(), tableDependencyGraph.getCycles());
+    }
+
+    @Test
+    void cycleIsAWaveOfItsOwn() {
+        final TableDependencyGraph tableDependencyGraph = new TableDependencyGraph();
+        tableDependencyGraph.addTable("orveus.personenklasse");
+        tableDependencyGraph.addReference("orveus.person", "orveus.personenklasse");
+        // person and vertrag reference each other
+        tableDependencyGraph.addReference("orveus.person", "orveus.vertrag");
+        tableDependencyGraph.addReference("orveus.vertrag", "orveus.person");
+        tableDependencyGraph.addReference("orveus.termin", "orveus.person");
+        tableDependencyGraph.addReference("orveus.notiz", "orveus.termin");
+        // independent of the cycle, keeps its place
+        tableDependencyGraph.addReference("orveus.kasse", "orveus.personenklasse");
+
+        assertEquals(List.of(
+                List.of("orveus.personenklasse"),
+                List.of("orveus.kasse"),
+                List.of("orveus.person", "orveus.vertrag"),
+                List.of("orveus.termin"),
+                List.of("orveus.notiz")
+        ), tableDependencyGraph.getLoadWaves());
+        assertEquals(List.of(List.of("orveus.person", "orveus.vertrag")), tableDependencyGraph.getCycles());
+    }
+
+    @Test
+    void everyCycleIsAWaveOfItsOwn() {
+        final TableDependencyGraph tableDependencyGraph = new TableDependencyGraph();
+        tableDependencyGraph.addReference("orveus.a", "orveus.b");
+        tableDependencyGraph.addReference("orveus.b", "orveus.c");
+        tableDependencyGraph.addReference("orveus.c", "orveus.a");
+        tableDependencyGraph.addReference("orveus.x", "orveus.y");
+        tableDependencyGraph.addReference("orveus.y", "orveus.x");
+        tableDependencyGraph.addReference("orveus.y", "orveus.a");
+        tableDependencyGraph.addTable("orveus.z");
+
+        assertEquals(List.of(
+                List.of("orveus.z"),
+                List.of("orveus.a", "orveus.b", "orveus.c"),
+                List.of("orveus.x", "orveus.y")
+        ), tableDependencyGraph.getLoadWaves());
+        assertEquals(List.of(List.of("orveus.a", "orveus.b", "orveus.c"), List.of("orveus.x", "orveus.y")), tableDependencyGraph.getCycles());
+    }
+}
@@ -0,0 +1,235 @@
+package de.domschmidt.informix_unl_to_csv.mask;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContext;
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterOutput;
+import de.domschmidt.informix_unl_to_csv.formatter.IColumnFormatter;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MaskTest {
+
+    private static final MaskingKey KEY = MaskingKey.fromSecret("secret");
+    private static final MaskingKey OTHER_KEY = MaskingKey.fromSecret("other secret");
+    private static final DateTimeFormatter GERMAN_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void hashIsStableForTheKey() {
+        assertEquals(mask(new HashMask(KEY, 16), "Müller"), mask(new HashMask(MaskingKey.fromSecret("secret"), 16), "Müller"));
+        assertNotEquals(mask(new HashMask(KEY, 16), "Müller"), mask(new HashMask(OTHER_KEY, 16), "Müller"));
+        assertNotEquals(mask(new HashMask(KEY, 16), "Müller"), mask(new HashMask(KEY, 16), "Mueller"));
+        // a shorter pseudonym is the start of the longer one
+        assertEquals(mask(new HashMask(KEY, 16), "Müller").substring(0, 5), mask(new HashMask(KEY, 5), "Müller"));
+    }
+
+    @Test
+    void hashHasTheConfiguredLength() {
+        for (int length = 1; length <= HashMask.MAX_LENGTH; length++) {
+            for (final String value : new String[]{"", "a", "abcd", "abcdefghij"}) {
+                assertTrue(mask(new HashMask(KEY, length), value).matches("[0-9a-f]{" + length + "}"));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> new HashMask(KEY, 0));
+        assertThrows(IllegalArgumentException.class, () -> new HashMask(KEY, 17));
+    }
+
+    @Test
+    void hashKeepsValuesApart() {
+        final HashMask hashMask = new HashMask(KEY, 16);
+        final Set<String> pseudonyms = new HashSet<>();
+        for (int currentValue = 0; currentValue < 100_000; currentValue++) {
+            pseudonyms.add(mask(hashMask, "value " + currentValue));
+        }
+        assertEquals(100_000, pseudonyms.size());
+    }
+
+    @Test
+    void digitsAreStableForTheKey() {
+        assertEquals(mask(new DigitScrambleMask(KEY), "+49 171-2345678"), mask(new DigitScrambleMask(MaskingKey.fromSecret("secret")), "+49 171-2345678"));
+        assertNotEquals(mask(new DigitScrambleMask(KEY), "+49 171-2345678"), mask(new DigitScrambleMask(OTHER_KEY), "+49 171-2345678"));
+    }
+
+    // only digits are replaced, by digits, a leading 0 stays a leading 0 and no other digit becomes one
+    @Test
+    void digitsKeepTheFormat() {
+        final DigitScrambleMask digitScrambleMask = new DigitScrambleMask(KEY);
+        for (final String value : new String[]{"+49 171-2345678", "0815", "4711", "7", "0", "DE89 3704 0044 0532 0130 00",
+                "1234567890123456789012345", "0123456789012345678901", "no digits", "", "12.50 EUR", "-42"}) {
+            final String masked = mask(digitScrambleMask, value);
+            assertEquals(value.length(), masked.length(), value);
+            for (int currentIdx = 0; currentIdx < value.length(); currentIdx++) {
+                assertEquals(Character.isDigit(value.charAt(currentIdx)), Character.isDigit(masked.charAt(currentIdx)), value + " -> " + masked);
+                if (!Character.isDigit(value.charAt(currentIdx))) {
+                    assertEquals(value.charAt(currentIdx), masked.charAt(currentIdx), value + " -> " + masked);
+                }
+            }
+            final int firstDigitIdx = indexOfDigit(value);
+            if (firstDigitIdx >= 0) {
+                assertEquals(value.charAt(firstDigitIdx) == '0', masked.charAt(firstDigitIdx) == '0', value + " -> " + masked);
+            }
+        }
+    }
+
+    // every value of up to 5 digits, with and without leading zeros, maps to another one of the same length
+    @Test
+    void digitsAreABijection() {
+        final DigitScrambleMask digitScrambleMask = new DigitScrambleMask(KEY);
+        for (int digitCount = 1; digitCount <= 5; digitCount++) {
+            final int valueCount = (int) Math.pow(10, digitCount);
+            final Set<String> maskedValues = new HashSet<>();
+            for (int currentValue = 0; currentValue < valueCount; currentValue++) {
+                final String value = String.format("%0" + digitCount + "d", currentValue);
+                final String masked = mask(digitScrambleMask, value);
+                assertEquals(digitCount, masked.length());
+                assertEquals(value.charAt(0) == '0', masked.charAt(0) == '0', value + " -> " + masked);
+                maskedValues.add(masked);
+            }
+            assertEquals(valueCount, maskedValues.size(), digitCount + " digits");
+        }
+    }
+
+    // beyond 18 digits the blocks are permuted separately, the values still stay apart
+    @Test
+    void longDigitValuesStayApart() {
+        final DigitScrambleMask digitScrambleMask = new DigitScrambleMask(KEY);
+        final Set<String> maskedValues = new HashSet<>();
+        for (int currentValue = 0; currentValue < 10_000; currentValue++) {
+            maskedValues.add(mask(digitScrambleMask, "1000000000000000000" + String.format("%04d", currentValue)));
+            maskedValues.add(mask(digitScrambleMask, String.format("%04d", currentValue) + "1000000000000000000"));
+        }
+        assertEquals(20_000, maskedValues.size());
+    }
+
+    @Test
+    void dateShiftKeepsTheFormatAndStaysInRange() {
+        final DateShiftMask dateShiftMask = new DateShiftMask(KEY, 30);
+        final Set<Long> shifts = new HashSet<>();
+        for (LocalDate date = LocalDate.of(1999, 12, 1); date.isBefore(LocalDate.of(2001, 3, 31)); date = date.plusDays(1)) {
+            final String germanMasked = mask(dateShiftMask, date.format(GERMAN_DATE));
+            final String isoMasked = mask(dateShiftMask, date.toString());
+            assertTrue(germanMasked.matches("\\d{2}\\.\\d{2}\\.\\d{4}"), germanMasked);
+            assertTrue(isoMasked.matches("\\d{4}-\\d{2}-\\d{2}"), isoMasked);
+            // a date is moved the same way in both formats
+            assertEquals(LocalDate.parse(germanMasked, GERMAN_DATE), LocalDate.parse(isoMasked));
+            final long shift = ChronoUnit.DAYS.between(date, LocalDate.parse(isoMasked));
+            assertTrue(Math.abs(shift) <= 30, date + " moved by " + shift);
+            shifts.add(shift);
+        }
+        // the shifts differ between the dates
+        assertTrue(shifts.size() > 30, "shifts " + shifts);
+        assertEquals(mask(dateShiftMask, "29.02.2000"), mask(new DateShiftMask(MaskingKey.fromSecret("secret"), 30), "29.02.2000"));
+        assertEquals("29.02.2000", mask(new DateShiftMask(KEY, 0), "29.02.2000"));
+    }
+
+    @Test
+    void dateShiftRejectsInvalidDates() {
+        final DateShiftMask dateShiftMask = new DateShiftMask(KEY, 30);
+        for (final String value : new String[]{"29.02.1900", "2001-02-29", "31.04.2000", "00.01.2000", "1.1.2000", "", "2000/01/01"}) {
+            assertEquals("not a date: " + value, assertThrows(IllegalArgumentException.class, () -> mask(dateShiftMask, value)).getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new DateShiftMask(KEY, -1));
+    }
+
+    @Test
+    void replacementIsTheSameForEveryValue() {
+        assertEquals("***", mask(new ReplacementMask("***"), "Müller"));
+        assertEquals("***", mask(new ReplacementMask("***"), ""));
+    }
+
+    @Test
+    void rulesAreParsed() {
+        assertEquals(8, mask(MaskingRules.parse("hash 8", KEY), "Müller").length());
+        assertEquals(mask(new HashMask(KEY, 16), "Müller"), mask(MaskingRules.parse(" HASH ", KEY), "Müller"));
+        assertEquals(mask(new DigitScrambleMask(KEY), "0815"), mask(MaskingRules.parse("digits", KEY), "0815"));
+        assertEquals("gelöscht", mask(MaskingRules.parse("replace gelöscht", KEY), "Müller"));
+        assertEquals("", mask(MaskingRules.parse("replace", KEY), "Müller"));
+        assertEquals("shift-date needs the days, e.g. shift-date 180",
+                assertThrows(IllegalArgumentException.class, () -> MaskingRules.parse("shift-date", KEY)).getMessage());
+        assertEquals("unknown masking rule scramble, known are hash, digits, shift-date and replace",
+                assertThrows(IllegalArgumentException.class, () -> MaskingRules.parse("scramble", KEY)).getMessage());
+    }
+
+    // nulls are never formatted, the escaped blank is an empty string and masked
+    @Test
+    void nullStaysNull() throws IOException {
+        final List<String> columnNames = List.of("pe_name", "pe_tel", "pe_geb", "pe_notiz");
+        final Map<String, List<IColumnFormatter>> formatters = Map.of(
+                "pe_name", List.of(new HashMask(KEY, 8)),
+                "pe_tel", List.of(new DigitScrambleMask(KEY)),
+                "pe_geb", List.of(new DateShiftMask(KEY, 30)),
+                "pe_notiz", List.of(new ReplacementMask("x")));
+        final TableConverter tableConverter = new TableConverter(columnNames, columnNames, formatters, null, null, null, FormatterCacheMode.NEVER, 0, null);
+        final ConversionContext conversionContext = new ConversionContext(new ScalarUNLCharScanner());
+        final List<List<String>> rows = new ArrayList<>();
+        final ITableOutputSink outputSink = new ITableOutputSink() {
+            @Override
+            public void writeRow(final ConvertedRow convertedRow) {
+                final List<String> row = new ArrayList<>();
+                for (int currentColumnIdx = 0; currentColumnIdx < convertedRow.getColumnCount(); currentColumnIdx++) {
+                    row.add(convertedRow.isNull(currentColumnIdx) ? null : convertedRow.getString(currentColumnIdx));
+                }
+                rows.add(row);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try (final RejectFile rejectFile = new RejectFile(this.tempPath.resolve("rejects.unl"), TableConverter.UNL_CHARSET, new ErrorLimit(-1))) {
+            final byte[] unl = "||||\n\\ |\\ ||\\ |\n".getBytes(TableConverter.UNL_CHARSET);
+            tableConverter.convert(conversionContext.openUNL(Channels.newChannel(new ByteArrayInputStream(unl)), TableConverter.UNL_CHARSET, 64),
+                    conversionContext, outputSink, null, rejectFile);
+            assertEquals(0, rejectFile.getRejectedCount());
+        }
+
+        assertEquals(List.of(
+                Arrays.asList(null, null, null, null),
+                Arrays.asList(mask(new HashMask(KEY, 8), ""), "", null, "x")
+        ), rows);
+    }
+
+    private static String mask(final IColumnFormatter mask, final String value) {
+        final FormatterOutput output = new FormatterOutput();
+        mask.format(value.toCharArray(), 0, value.length(), output);
+        return new String(output.getChars(), 0, output.getLength());
+    }
+
+    // -1 if there is none
+    private static int indexOfDigit(final String value) {
+        for (int currentIdx = 0; currentIdx < value.length(); currentIdx++) {
+            if (Character.isDigit(value.charAt(currentIdx))) {
+                return currentIdx;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,54 @@
+package de.domschmidt.informix_unl_to_csv.orphan;
+
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KeyCollectingTableOutputSinkTest {
+
+    @Test
+    void collectsIntegerKeysAndSkipsTheOthers() throws IOException {
+        final OrphanPlaceholderRule orphanPlaceholderRule = new OrphanPlaceholderRule("orveus.person", "pe_id",
+                Map.of("orveus.adr_zu_pe", List.of("pe_id")), Map.of());
+        final int[] writtenRowCount = new int[1];
+        final ITableOutputSink outputSink = new ITableOutputSink() {
+            @Override
+            public void writeRow(final ConvertedRow convertedRow) {
+                writtenRowCount[0]++;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        try (final KeyCollectingTableOutputSink keyCollectingSink = new KeyCollectingTableOutputSink(outputSink, "orveus.adr_zu_pe",
+                List.of("adr_id", "pe_id"), List.of(orphanPlaceholderRule))) {
+            for (final String key : new String[]{"12", "-3", "12x", null, "", "1234567890123456789", "0"}) {
+                final ConvertedRow convertedRow = new ConvertedRow();
+                convertedRow.reset(null, 2);
+                convertedRow.setValue(0, "1");
+                if (key != null) {
+                    convertedRow.setValue(1, key);
+                } else {
+                    convertedRow.setNull(1);
+                }
+                keyCollectingSink.writeRow(convertedRow);
+            }
+            // nothing is added before the table is complete
+            assertEquals(0, orphanPlaceholderRule.getReferencedKeys().size());
+            keyCollectingSink.finish();
+        }
+
+        // every row is written, also those with keys which are no integers
+        assertEquals(7, writtenRowCount[0]);
+        assertArrayEquals(new long[]{-3, 0, 12}, orphanPlaceholderRule.getReferencedKeys().toSortedArray());
+    }
+}
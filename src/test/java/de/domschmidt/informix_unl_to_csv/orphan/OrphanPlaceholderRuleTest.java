@@ -0,0 +1,66 @@
+package de.domschmidt.informix_unl_to_csv.orphan;
+
+import de.domschmidt.informix_unl_to_csv.defaults.AutoIncreaseColumnDefault;
+import de.domschmidt.informix_unl_to_csv.defaults.StaticStringDefault;
+import de.domschmidt.informix_unl_to_csv.sink.ConvertedRow;
+import de.domschmidt.informix_unl_to_csv.sink.ITableOutputSink;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrphanPlaceholderRuleTest {
+
+    private static final List<String> OUTPUT_COLUMN_NAMES = List.of("pe_id", "pe_nachname", "deleted", "pe_nr", "pe_vorname");
+
+    @Test
+    void missingKeysAreReferencedButNotExisting() {
+        final OrphanPlaceholderRule orphanPlaceholderRule = newRule();
+        for (final long key : new long[]{1, 2, 3, 0, -5}) {
+            orphanPlaceholderRule.getExistingKeys().add(key);
+        }
+        for (final long key : new long[]{3, 4, 0, 7, -5, -6}) {
+            orphanPlaceholderRule.getReferencedKeys().add(key);
+        }
+        assertArrayEquals(new long[]{-6, 4, 7}, orphanPlaceholderRule.getMissingKeys());
+    }
+
+    @Test
+    void placeholdersGetTableDefaultsUnlessConfigured() throws IOException {
+        final List<List<String>> rows = new ArrayList<>();
+        newRule().writePlaceholders(new ITableOutputSink() {
+            @Override
+            public void writeRow(final ConvertedRow convertedRow) {
+                final List<String> row = new ArrayList<>();
+                for (int currentColumnIdx = 0; currentColumnIdx < convertedRow.getColumnCount(); currentColumnIdx++) {
+                    row.add(convertedRow.isNull(currentColumnIdx) ? null : convertedRow.getString(currentColumnIdx));
+                }
+                rows.add(row);
+            }
+
+            @Override
+            public void close() {
+            }
+        }, OUTPUT_COLUMN_NAMES, Map.of(
+                "deleted", new StaticStringDefault(""),
+                "pe_nr", new AutoIncreaseColumnDefault(10),
+                "pe_nachname", new StaticStringDefault("overridden")
+        ), new long[]{4, 7});
+
+        assertEquals(List.of(
+                Arrays.asList("4", "GELÖSCHTE PERSON", "", "10", null),
+                Arrays.asList("7", "GELÖSCHTE PERSON", "", "11", null)
+        ), rows);
+    }
+
+    private static OrphanPlaceholderRule newRule() {
+        return new OrphanPlaceholderRule("orveus.person", "pe_id", Map.of("orveus.adr_zu_pe", List.of("pe_id")),
+                Map.of("pe_nachname", "GELÖSCHTE PERSON"));
+    }
+}
@@ -0,0 +1,183 @@
+package de.domschmidt.informix_unl_to_csv.schema;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DDLParserTest {
+
+    // as written by dbexport
+    private static final String DDL = """
+            { DATABASE orveus  delimiter | }
+
+            grant dba to "informix";
+            grant connect to "public";
+
+            { TABLE "orveus".person row size = 120 number of columns = 6 index size = 9 }
+            { unload file name = perso00100.unl number of rows = 3 }
+
+            create table "orveus".person
+              (
+                pe_id serial not null constraint "orveus".n101_1,
+                pe_betrag decimal(16, 2) default 0.00,
+                pe_kennung char(1) default 'N' not null,
+                pe_geaendert datetime year to fraction(3) default current year to fraction(3),
+                pe_dauer interval day(3) to second,
+                pe_notiz text in blobspace1,
+                primary key (pe_id) constraint "orveus".pk_person
+              ) extent size 16 next size 16 lock mode row;
+
+            revoke all on "orveus".person from "public" as "orveus";
+
+            { TABLE "orveus".termin row size = 12 number of columns = 3 index size = 18 }
+            { unload file name = termi00101.unl number of rows = 2 }
+
+            create table "orveus".termin
+              (
+                te_id serial not null,
+                te_pe_id integer not null,
+                te_datum date,
+                unique (te_pe_id, te_datum) constraint "orveus".u_termin
+              );
+
+            grant select, update(te_datum) on "orveus".termin to "auswertung" as "orveus";
+
+            create procedure "orveus".zaehle(p_id integer) returning integer;
+              define v_anzahl integer;
+              select count(*) into v_anzahl from termin where te_pe_id = p_id;
+              return v_anzahl;
+            end procedure;
+
+            create unique cluster index "orveus".ix_termin_datum on "orveus".termin (te_datum desc, te_id) using btree;
+
+            alter table "orveus".termin add constraint (foreign key (te_pe_id) references "orveus".person (pe_id) on delete cascade constraint "orveus".fk_termin_person);
+            alter table "orveus".termin add constraint check (te_id > 0) constraint "orveus".c_termin_id;
+            """;
+
+    @Test
+    void parsesTheTables() throws DDLParseException {
+        final Schema schema = DDLParser.parse(DDL);
+        assertEquals("orveus", schema.getDatabaseName());
+        assertEquals(List.of("orveus.person", "orveus.termin"), schema.getTables().stream().map(Table::getQualifiedName).toList());
+
+        final Table person = schema.getTable("orveus.person");
+        assertEquals("perso00100.unl", person.getUnlFileName());
+        assertEquals(List.of("pe_id", "pe_betrag", "pe_kennung", "pe_geaendert", "pe_dauer", "pe_notiz"), person.getColumnNames());
+        assertTrue(person.getColumn("pe_id").isSerial());
+        assertFalse(person.getColumn("pe_id").isNullable());
+        assertTrue(person.getColumn("pe_betrag").isNullable());
+        assertEquals("0.00", person.getColumn("pe_betrag").getDefaultValue());
+        assertEquals("'N'", person.getColumn("pe_kennung").getDefaultValue());
+        assertFalse(person.getColumn("pe_kennung").isNullable());
+        assertEquals("text", person.getColumn("pe_notiz").getType().getName());
+    }
+
+    @Test
+    void parsesPrecisionAndScale() throws DDLParseException {
+        final ColumnType decimalType = DDLParser.parse(DDL).getTable("orveus.person").getColumn("pe_betrag").getType();
+        assertEquals("decimal", decimalType.getName());
+        assertEquals(16, decimalType.getPrecision());
+        assertEquals(2, decimalType.getScale());
+        assertNull(decimalType.getQualifier());
+    }
+
+    @Test
+    void parsesDateTimeAndIntervalQualifiers() throws DDLParseException {
+        final Table person = DDLParser.parse(DDL).getTable("orveus.person");
+        assertEquals("year to fraction(3)", person.getColumn("pe_geaendert").getType().getQualifier());
+        assertEquals("current year to fraction(3)", person.getColumn("pe_geaendert").getDefaultValue());
+        assertEquals("interval", person.getColumn("pe_dauer").getType().getName());
+        assertEquals("day(3) to second", person.getColumn("pe_dauer").getType().getQualifier());
+    }
+
+    @Test
+    void notNullConstraintNameNamesNoConstraint() throws DDLParseException {
+        final Table person = DDLParser.parse(DDL).getTable("orveus.person");
+        assertEquals(1, person.getConstraints().size());
+        assertEquals("pk_person", person.getPrimaryKey().getName());
+        assertEquals(List.of("pe_id"), person.getPrimaryKey().getColumnNames());
+    }
+
+    @Test
+    void columnConstraintNameNamesTheConstraintInFrontOfIt() throws DDLParseException {
+        final Table kunde = DDLParser.parse("""
+                create table kunde (
+                  ku_id integer not null constraint n1 primary key constraint pk_kunde,
+                  ku_nummer char(10) unique constraint u_kunde_nummer
+                );
+                """).getTable("kunde");
+        assertEquals(List.of("pk_kunde", "u_kunde_nummer"), kunde.getConstraints().stream().map(Constraint::getName).toList());
+        assertEquals(ConstraintType.UNIQUE, kunde.getConstraints().get(1).getType());
+    }
+
+    @Test
+    void parsesTableLevelKeysAndAddedConstraints() throws DDLParseException {
+        final Table termin = DDLParser.parse(DDL).getTable("orveus.termin");
+        assertEquals(3, termin.getConstraints().size());
+
+        final Constraint uniqueKey = termin.getConstraints().get(0);
+        assertEquals(ConstraintType.UNIQUE, uniqueKey.getType());
+        assertEquals("u_termin", uniqueKey.getName());
+        assertEquals(List.of("te_pe_id", "te_datum"), uniqueKey.getColumnNames());
+
+        final Constraint foreignKey = termin.getForeignKeys().get(0);
+        assertEquals("fk_termin_person", foreignKey.getName());
+        assertEquals(List.of("te_pe_id"), foreignKey.getColumnNames());
+        assertEquals("orveus.person", foreignKey.getReferencedTableName());
+        assertEquals(List.of("pe_id"), foreignKey.getReferencedColumnNames());
+        assertTrue(foreignKey.isCascadingDelete());
+
+        final Constraint check = termin.getConstraints().get(2);
+        assertEquals(ConstraintType.CHECK, check.getType());
+        assertEquals("c_termin_id", check.getName());
+        // symbols are joined without blanks
+        assertEquals("te_id>0", check.getCheckCondition());
+    }
+
+    @Test
+    void skipsProcedureBodiesWithSemicolons() throws DDLParseException {
+        final List<Index> indexes = DDLParser.parse(DDL).getIndexes();
+        assertEquals(1, indexes.size());
+        final Index index = indexes.get(0);
+        assertEquals("ix_termin_datum", index.getName());
+        assertEquals("orveus.termin", index.getTableName());
+        assertTrue(index.isUnique());
+        assertTrue(index.isClustered());
+        assertEquals(List.of("te_datum desc", "te_id"), index.getColumnNames());
+    }
+
+    @Test
+    void parsesGrantAndRevoke() throws DDLParseException {
+        final List<Privilege> privileges = DDLParser.parse(DDL).getPrivileges();
+        assertEquals(4, privileges.size());
+
+        assertTrue(privileges.get(0).isGranted());
+        assertEquals("dba", privileges.get(0).getPrivileges());
+        assertNull(privileges.get(0).getTableName());
+        assertEquals("informix", privileges.get(0).getGrantee());
+
+        final Privilege revoke = privileges.get(2);
+        assertFalse(revoke.isGranted());
+        assertEquals("all", revoke.getPrivileges());
+        assertEquals("orveus.person", revoke.getTableName());
+        assertEquals("public", revoke.getGrantee());
+        assertEquals("orveus", revoke.getGrantor());
+
+        final Privilege columnGrant = privileges.get(3);
+        assertEquals("select, update(te_datum)", columnGrant.getPrivileges());
+        assertEquals("orveus.termin", columnGrant.getTableName());
+        assertEquals("auswertung", columnGrant.getGrantee());
+    }
+
+    @Test
+    void unexpectedColumnAttributeIsAnError() {
+        final DDLParseException e = assertThrows(DDLParseException.class, () -> DDLParser.parse("create table kunde (\n  ku_id integer bogus\n);"));
+        assertTrue(e.getMessage().startsWith("line 2"), e.getMessage());
+    }
+}
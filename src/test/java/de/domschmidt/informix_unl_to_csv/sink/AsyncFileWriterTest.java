@@ -0,0 +1,177 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncFileWriterTest {
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void surrogatePairSplitAcrossEncodeChunksIsKept() throws IOException {
+        // the pairs are split at the end of the 8192 chars encoded at once, written char by char, as strings and as arrays
+        final StringBuilder text = new StringBuilder();
+        for (int currentChunkIdx = 0; currentChunkIdx < 4; currentChunkIdx++) {
+            text.append("a".repeat(8191 - currentChunkIdx % 2)).append("😀").append("äü€𝄞");
+        }
+        for (final Charset charset : List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16)) {
+            for (final int bufferSize : new int[]{AsyncFileWriter.getMinBufferSize(charset), 1024 * 1024}) {
+                final Path csvPath = this.tempPath.resolve("orveus.person.csv");
+                try (final AsyncFileWriter writer = new AsyncFileWriter(csvPath, charset, newBuffers(2, bufferSize), new LongAdder())) {
+                    writer.write(text.toString());
+                    writer.write(text.toString().toCharArray());
+                    for (int currentCharIdx = 0; currentCharIdx < text.length(); currentCharIdx++) {
+                        writer.write(text.charAt(currentCharIdx));
+                    }
+                }
+                assertEquals(text.toString().repeat(3), Files.readString(csvPath, charset), charset + " " + bufferSize);
+            }
+        }
+    }
+
+    @Test
+    void partialWriteIsContinued() throws IOException {
+        final Path csvPath = this.tempPath.resolve("orveus.person.csv");
+        final String text = "\"1\",\"Müller\"\n".repeat(10000);
+        try (final FileChannel fileChannel = FileChannel.open(csvPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             final AsyncFileWriter writer = new AsyncFileWriter(new TestFileChannel(fileChannel, 7, Integer.MAX_VALUE), StandardCharsets.UTF_8,
+                     newBuffers(3, 4096), new LongAdder())) {
+            writer.write(text);
+            writer.flush();
+            writer.write(text);
+        }
+        assertEquals(text.repeat(2), Files.readString(csvPath, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void failedWriteIsThrownByCloseAfterTheOtherWrites() throws IOException {
+        final Path csvPath = this.tempPath.resolve("orveus.person.csv");
+        try (final FileChannel fileChannel = FileChannel.open(csvPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            final TestFileChannel testChannel = new TestFileChannel(fileChannel, Integer.MAX_VALUE, 1);
+            final AsyncFileWriter writer = new AsyncFileWriter(testChannel, StandardCharsets.UTF_8, newBuffers(4, 16), new LongAdder());
+            // close encodes into three buffers, the write of the second one fails
+            writer.write("x".repeat(40));
+            final IOException e = assertThrows(IOException.class, writer::close);
+            assertEquals("disk full", e.getMessage());
+            assertFalse(testChannel.isOpen());
+            // closing again does nothing
+            writer.close();
+        }
+    }
+
+    private static ByteBuffer[] newBuffers(final int bufferCount, final int bufferSize) {
+        final ByteBuffer[] buffers = new ByteBuffer[bufferCount];
+        for (int currentBufferIdx = 0; currentBufferIdx < bufferCount; currentBufferIdx++) {
+            buffers[currentBufferIdx] = ByteBuffer.allocateDirect(bufferSize);
+        }
+        return buffers;
+    }
+
+    // writes at most maxWriteBytes per call, the writes after failAfterWrites fail
+    private static class TestFileChannel extends AsynchronousFileChannel {
+
+        private final FileChannel fileChannel;
+        private final int maxWriteBytes;
+        private final int failAfterWrites;
+        private int writeCount;
+        private boolean open = true;
+
+        private TestFileChannel(final FileChannel fileChannel, final int maxWriteBytes, final int failAfterWrites) {
+            this.fileChannel = fileChannel;
+            this.maxWriteBytes = maxWriteBytes;
+            this.failAfterWrites = failAfterWrites;
+        }
+
+        @Override
+        public Future<Integer> write(final ByteBuffer src, final long position) {
+            if (this.writeCount++ >= this.failAfterWrites) {
+                return CompletableFuture.failedFuture(new IOException("disk full"));
+            }
+            final ByteBuffer part = src.duplicate();
+            part.limit(Math.min(src.limit(), src.position() + this.maxWriteBytes));
+            try {
+                final int writtenBytes = this.fileChannel.write(part, position);
+                src.position(src.position() + writtenBytes);
+                return CompletableFuture.completedFuture(writtenBytes);
+            } catch (final IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        @Override
+        public <A> void write(final ByteBuffer src, final long position, final A attachment, final CompletionHandler<Integer, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<Integer> read(final ByteBuffer dst, final long position) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <A> void read(final ByteBuffer dst, final long position, final A attachment, final CompletionHandler<Integer, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.fileChannel.size();
+        }
+
+        @Override
+        public AsynchronousFileChannel truncate(final long size) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void force(final boolean metaData) {
+        }
+
+        @Override
+        public <A> void lock(final long position, final long size, final boolean shared, final A attachment, final CompletionHandler<FileLock, ? super A> handler) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<FileLock> lock(final long position, final long size, final boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FileLock tryLock(final long position, final long size, final boolean shared) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.open;
+        }
+
+        // the file channel is closed by the test
+        @Override
+        public void close() {
+            this.open = false;
+        }
+    }
+}
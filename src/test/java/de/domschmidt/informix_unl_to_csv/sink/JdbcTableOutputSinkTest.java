@@ -0,0 +1,102 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JdbcTableOutputSinkTest {
+
+    private static final String URL = "jdbc:h2:mem:jdbc_sink_test;DB_CLOSE_DELAY=-1";
+
+    // kept open, so the in-memory database lives as long as the test
+    private Connection connection;
+
+    @BeforeEach
+    void createTable() throws SQLException {
+        this.connection = DriverManager.getConnection(URL, "sa", "");
+        try (final Statement statement = this.connection.createStatement()) {
+            statement.execute("CREATE TABLE person (pe_id INTEGER, pe_name VARCHAR(30))");
+        }
+    }
+
+    @AfterEach
+    void dropTable() throws SQLException {
+        try (final Statement statement = this.connection.createStatement()) {
+            statement.execute("DROP TABLE person");
+        }
+        this.connection.close();
+    }
+
+    @Test
+    void rowsAreLoadedOverSeveralBatchesAndConnections() throws IOException, SQLException {
+        // 7 batches over 3 connections, the last one incomplete
+        try (final JdbcTableOutputSink jdbcSink = new JdbcTableOutputSink(new JdbcSinkSettings(URL, "sa", "", 3, 3, 4), "person", List.of("pe_id", "pe_name"))) {
+            for (int currentRowIdx = 0; currentRowIdx < 20; currentRowIdx++) {
+                jdbcSink.writeRow(newRow(currentRowIdx, currentRowIdx % 5 == 0 ? null : "name " + currentRowIdx));
+            }
+            jdbcSink.finish();
+        }
+
+        final List<List<String>> rows = selectRows();
+        assertEquals(20, rows.size());
+        for (int currentRowIdx = 0; currentRowIdx < 20; currentRowIdx++) {
+            assertEquals(Arrays.asList(String.valueOf(currentRowIdx), currentRowIdx % 5 == 0 ? null : "name " + currentRowIdx), rows.get(currentRowIdx));
+        }
+    }
+
+    @Test
+    void abortedLoadIsRolledBack() throws IOException, SQLException {
+        // batches are sent before the abort, but no commit interval is reached
+        try (final JdbcTableOutputSink jdbcSink = new JdbcTableOutputSink(new JdbcSinkSettings(URL, "sa", "", 2, 2, 1000), "person", List.of("pe_id", "pe_name"))) {
+            for (int currentRowIdx = 0; currentRowIdx < 11; currentRowIdx++) {
+                jdbcSink.writeRow(newRow(currentRowIdx, "name " + currentRowIdx));
+            }
+            jdbcSink.abort();
+        }
+
+        assertEquals(List.of(), selectRows());
+    }
+
+    @Test
+    void wrongPasswordFailsBeforeTheFirstRow() {
+        final IOException e = assertThrows(IOException.class,
+                () -> new JdbcTableOutputSink(new JdbcSinkSettings(URL, "sa", "wrong", 2, 2, 1000), "person", List.of("pe_id", "pe_name")));
+        assertEquals("cannot connect to " + URL, e.getMessage());
+    }
+
+    private List<List<String>> selectRows() throws SQLException {
+        final List<List<String>> rows = new ArrayList<>();
+        try (final Statement statement = this.connection.createStatement();
+             final ResultSet resultSet = statement.executeQuery("SELECT pe_id, pe_name FROM person ORDER BY pe_id")) {
+            while (resultSet.next()) {
+                rows.add(Arrays.asList(resultSet.getString(1), resultSet.getString(2)));
+            }
+        }
+        return rows;
+    }
+
+    private static ConvertedRow newRow(final int id, final String name) {
+        final ConvertedRow convertedRow = new ConvertedRow();
+        convertedRow.reset(null, 2);
+        convertedRow.setValue(0, String.valueOf(id));
+        if (name != null) {
+            convertedRow.setValue(1, name);
+        } else {
+            convertedRow.setNull(1);
+        }
+        return convertedRow;
+    }
+}
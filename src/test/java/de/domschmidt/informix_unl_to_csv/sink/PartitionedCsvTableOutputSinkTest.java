@@ -0,0 +1,116 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedCsvTableOutputSinkTest {
+
+    private static final int ENCODE_CHUNK_CHARS = 8192;
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void rollsOverAfterMaxRows() throws IOException {
+        final List<String> csvNames = write(7, 3, 0);
+        assertEquals(List.of("orveus.person.part_0001.csv", "orveus.person.part_0002.csv", "orveus.person.part_0003.csv"), csvNames);
+        assertEquals(csvRows(0, 3), readPart(csvNames.get(0)));
+        assertEquals(csvRows(3, 6), readPart(csvNames.get(1)));
+        assertEquals(csvRows(6, 7), readPart(csvNames.get(2)));
+    }
+
+    @Test
+    void exactMultipleOfMaxRowsGetsNoEmptyLastPart() throws IOException {
+        assertEquals(2, write(6, 3, 0).size());
+    }
+
+    @Test
+    void rollsOverAfterMaxBytesAtRowBoundaries() throws IOException {
+        final int maxBytes = 20000;
+        final List<String> csvNames = write(2000, 0, maxBytes);
+        assertTrue(csvNames.size() > 2, csvNames.toString());
+
+        final StringBuilder allRows = new StringBuilder();
+        for (int currentPartIdx = 0; currentPartIdx < csvNames.size(); currentPartIdx++) {
+            final String part = readPart(csvNames.get(currentPartIdx));
+            assertTrue(part.endsWith("\n"));
+            final long partBytes = Files.size(this.tempPath.resolve(csvNames.get(currentPartIdx)));
+            // the chars not yet encoded are not counted, so a part exceeds the limit by up to an encode chunk and a row
+            assertTrue(partBytes < maxBytes + ENCODE_CHUNK_CHARS * 3L + 200, csvNames.get(currentPartIdx) + ": " + partBytes);
+            if (currentPartIdx < csvNames.size() - 1) {
+                assertTrue(partBytes >= maxBytes, csvNames.get(currentPartIdx) + ": " + partBytes);
+            }
+            allRows.append(part);
+        }
+        assertEquals(csvRows(0, 2000), allRows.toString());
+    }
+
+    @Test
+    void emptyTableGetsAnEmptyFirstPart() throws IOException {
+        final List<String> csvNames = write(0, 3, 1000);
+        assertEquals(List.of("orveus.person.part_0001.csv"), csvNames);
+        assertEquals("", readPart(csvNames.get(0)));
+    }
+
+    @Test
+    void partsOfAPreviousRunAreDeleted() throws IOException {
+        for (int currentPartIdx = 1; currentPartIdx <= 5; currentPartIdx++) {
+            Files.writeString(this.tempPath.resolve(String.format("orveus.person.part_%04d.csv", currentPartIdx)), "\"old\"\n");
+        }
+        // another table and the unpartitioned csv are kept
+        Files.writeString(this.tempPath.resolve("orveus.personenklasse.part_0001.csv"), "\"other\"\n");
+        Files.writeString(this.tempPath.resolve("orveus.person.csv"), "\"unpartitioned\"\n");
+
+        assertEquals(2, write(5, 3, 0).size());
+        assertTrue(Files.exists(this.tempPath.resolve("orveus.person.part_0002.csv")));
+        assertFalse(Files.exists(this.tempPath.resolve("orveus.person.part_0003.csv")));
+        assertFalse(Files.exists(this.tempPath.resolve("orveus.person.part_0005.csv")));
+        assertTrue(Files.exists(this.tempPath.resolve("orveus.personenklasse.part_0001.csv")));
+        assertTrue(Files.exists(this.tempPath.resolve("orveus.person.csv")));
+
+        PartitionedCsvTableOutputSink.deleteParts(this.tempPath, "orveus.person");
+        assertFalse(Files.exists(this.tempPath.resolve("orveus.person.part_0001.csv")));
+        assertTrue(Files.exists(this.tempPath.resolve("orveus.personenklasse.part_0001.csv")));
+    }
+
+    private List<String> write(final int rowCount, final long maxRowsPerFile, final long maxBytesPerFile) throws IOException {
+        final ByteBuffer[] outputBuffers = {ByteBuffer.allocateDirect(4096), ByteBuffer.allocateDirect(4096)};
+        final PartitionedCsvTableOutputSink outputSink = new PartitionedCsvTableOutputSink(this.tempPath, "orveus.person", StandardCharsets.UTF_8,
+                CsvFormat.RFC_4180, maxRowsPerFile, maxBytesPerFile, outputBuffers, new LongAdder());
+        try (outputSink) {
+            final ConvertedRow convertedRow = new ConvertedRow();
+            for (int currentRowIdx = 0; currentRowIdx < rowCount; currentRowIdx++) {
+                convertedRow.reset(null, 2);
+                convertedRow.setValue(0, String.valueOf(currentRowIdx));
+                convertedRow.setValue(1, "Müller " + "x".repeat(currentRowIdx % 50));
+                outputSink.writeRow(convertedRow);
+            }
+            outputSink.finish();
+        }
+        return outputSink.getCsvNames();
+    }
+
+    private static String csvRows(final int fromRowIdx, final int toRowIdx) {
+        final StringBuilder csvRows = new StringBuilder();
+        for (int currentRowIdx = fromRowIdx; currentRowIdx < toRowIdx; currentRowIdx++) {
+            csvRows.append('"').append(currentRowIdx).append("\",\"Müller ").append("x".repeat(currentRowIdx % 50)).append("\"\n");
+        }
+        return csvRows.toString();
+    }
+
+    private String readPart(final String csvName) throws IOException {
+        return Files.readString(this.tempPath.resolve(csvName), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package de.domschmidt.informix_unl_to_csv.sink;
+
+import de.domschmidt.informix_unl_to_csv.expression.ExpressionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortingTableOutputSinkTest {
+
+    private static final List<String> COLUMN_NAMES = List.of("pe_name", "te_id", "te_klasse");
+    private static final SortKey SORT_KEY = new SortKey(List.of("te_klasse"), List.of(ExpressionType.NUMBER));
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void singleRunIsSortedInMemory() throws IOException {
+        // more rows than the parallel sort threshold
+        final List<String[]> rows = createRows(20000, 100);
+        assertEquals(sortStable(rows), sort(rows, 64L * 1024 * 1024));
+        assertNoRunsLeft();
+    }
+
+    @Test
+    void spilledRunsAreMergedStable() throws IOException {
+        final List<String[]> rows = createRows(1000, 20);
+        // a run every few rows and only two runs merged at once, so the merge takes several passes
+        assertEquals(sortStable(rows), sort(rows, 256));
+        assertNoRunsLeft();
+    }
+
+    @Test
+    void nullGoesFirst() throws IOException {
+        final List<String[]> rows = List.of(
+                new String[]{"b", "1", "10"},
+                new String[]{"a", "2", null},
+                new String[]{"c", "3", "-5"},
+                new String[]{null, "4", null});
+        final List<List<String>> expectedRows = List.of(
+                Arrays.asList("a", "2", null),
+                Arrays.asList(null, "4", null),
+                Arrays.asList("c", "3", "-5"),
+                Arrays.asList("b", "1", "10"));
+        assertEquals(expectedRows, sort(rows, 64L * 1024 * 1024));
+        assertEquals(expectedRows, sort(rows, 1));
+    }
+
+    @Test
+    void numbersAreComparedAsNumbers() throws IOException {
+        final List<String[]> rows = List.of(new String[]{"a", "1", "10"}, new String[]{"b", "2", "9.5"}, new String[]{"c", "3", "100"});
+        assertEquals(List.of(List.of("b", "2", "9.5"), List.of("a", "1", "10"), List.of("c", "3", "100")), sort(rows, 64L * 1024 * 1024));
+    }
+
+    // te_id keeps the unl order, so the stable order of equal keys is checked
+    private static List<String[]> createRows(final int rowCount, final int keyCount) {
+        final Random random = new Random(42);
+        final List<String[]> rows = new ArrayList<>();
+        for (int currentRowIdx = 0; currentRowIdx < rowCount; currentRowIdx++) {
+            final int key = random.nextInt(keyCount + 1);
+            rows.add(new String[]{"name " + random.nextInt(), String.valueOf(currentRowIdx), key == keyCount ? null : String.valueOf(key - keyCount / 2)});
+        }
+        return rows;
+    }
+
+    private static List<List<String>> sortStable(final List<String[]> rows) {
+        final List<List<String>> sortedRows = new ArrayList<>();
+        for (final String[] row : rows) {
+            sortedRows.add(Arrays.asList(row));
+        }
+        sortedRows.sort(Comparator.comparing((List<String> row) -> row.get(2) != null ? Integer.valueOf(row.get(2)) : null,
+                Comparator.nullsFirst(Comparator.naturalOrder())));
+        return sortedRows;
+    }
+
+    private List<List<String>> sort(final List<String[]> rows, final long maxBufferBytes) throws IOException {
+        final List<List<String>> writtenRows = new ArrayList<>();
+        final ITableOutputSink collectingSink = new ITableOutputSink() {
+            @Override
+            public void writeRow(final ConvertedRow convertedRow) {
+                final List<String> writtenRow = new ArrayList<>();
+                for (int currentColumnIdx = 0; currentColumnIdx < convertedRow.getColumnCount(); currentColumnIdx++) {
+                    writtenRow.add(convertedRow.isNull(currentColumnIdx) ? null : convertedRow.getString(currentColumnIdx));
+                }
+                writtenRows.add(writtenRow);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (final SortingTableOutputSink sortingSink = new SortingTableOutputSink(collectingSink, "orveus.termin", COLUMN_NAMES, SORT_KEY,
+                maxBufferBytes, this.tempPath)) {
+            final ConvertedRow convertedRow = new ConvertedRow();
+            for (final String[] row : rows) {
+                convertedRow.reset(null, row.length);
+                for (int currentColumnIdx = 0; currentColumnIdx < row.length; currentColumnIdx++) {
+                    if (row[currentColumnIdx] != null) {
+                        convertedRow.setValue(currentColumnIdx, row[currentColumnIdx]);
+                    } else {
+                        convertedRow.setNull(currentColumnIdx);
+                    }
+                }
+                sortingSink.writeRow(convertedRow);
+            }
+            sortingSink.finish();
+        }
+        return writtenRows;
+    }
+
+    private void assertNoRunsLeft() throws IOException {
+        try (final Stream<Path> tempFiles = Files.list(this.tempPath)) {
+            assertTrue(tempFiles.findAny().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetDecoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the surefire argLine adds jdk.incubator.vector, so both scanners run, with 8 to 32 chars per lane depending on the cpu
+class UNLCharScannerTest {
+
+    private static final char[] SPECIAL_CHARS = {'|', '\\', '\n', '\r'};
+    // more than three lanes of the widest vector, so every lane boundary and tail length occurs
+    private static final int MAX_LENGTH = 3 * 32 + 5;
+
+    @ParameterizedTest
+    @EnumSource(value = UNLCharScannerType.class, names = {"SCALAR", "VECTOR"})
+    void specialCharIsFoundAtEveryPosition(final UNLCharScannerType scannerType) {
+        final IUNLCharScanner scanner = scannerType.create();
+        for (final char specialChar : SPECIAL_CHARS) {
+            for (int length = 0; length <= MAX_LENGTH; length++) {
+                for (int specialCharIdx = -1; specialCharIdx < length; specialCharIdx++) {
+                    final char[] chars = new char[length];
+                    Arrays.fill(chars, 'a');
+                    if (specialCharIdx >= 0) {
+                        chars[specialCharIdx] = specialChar;
+                    }
+                    // unaligned starts, the chars before from and from to are not scanned
+                    for (int from = 0; from <= Math.min(2, length); from++) {
+                        final int expectedIdx = specialCharIdx >= from ? specialCharIdx : length;
+                        assertEquals(expectedIdx, scanner.indexOfSpecialChar(chars, from, length),
+                                "'" + specialChar + "' at " + specialCharIdx + " of " + length + " from " + from);
+                    }
+                    if (specialCharIdx >= 0) {
+                        assertEquals(specialCharIdx, scanner.indexOfSpecialChar(chars, 0, specialCharIdx),
+                                "'" + specialChar + "' at the end " + specialCharIdx + " of " + length);
+                    }
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = UNLCharScannerType.class, names = {"SCALAR", "VECTOR"})
+    void firstOfSeveralSpecialCharsIsFound(final UNLCharScannerType scannerType) {
+        final IUNLCharScanner scanner = scannerType.create();
+        final char[] chars = new char[MAX_LENGTH];
+        Arrays.fill(chars, 'a');
+        chars[40] = '\r';
+        chars[33] = '\\';
+        chars[31] = '\n';
+        chars[17] = '|';
+        assertEquals(17, scanner.indexOfSpecialChar(chars, 0, MAX_LENGTH));
+        assertEquals(31, scanner.indexOfSpecialChar(chars, 18, MAX_LENGTH));
+        assertEquals(33, scanner.indexOfSpecialChar(chars, 32, MAX_LENGTH));
+        assertEquals(40, scanner.indexOfSpecialChar(chars, 34, MAX_LENGTH));
+        assertEquals(MAX_LENGTH, scanner.indexOfSpecialChar(chars, 41, MAX_LENGTH));
+    }
+
+    // a delimiter, an escaped line feed and the record end move over every lane boundary of the first and second field
+    @ParameterizedTest
+    @EnumSource(value = UNLCharScannerType.class, names = {"SCALAR", "VECTOR"})
+    void recordsAreSplitAtEveryPosition(final UNLCharScannerType scannerType) throws IOException {
+        final StringBuilder unl = new StringBuilder();
+        final List<List<String>> expectedRecords = new ArrayList<>();
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            final String firstField = "a".repeat(length);
+            final String secondField = "b".repeat(length % 7);
+            unl.append(firstField).append('|').append(secondField).append("\\\nc\\|d|\r\n");
+            // an empty field is null
+            expectedRecords.add(Arrays.asList(length > 0 ? firstField : "<null>", secondField + "\nc|d", "<null>"));
+        }
+
+        // a small read size, so records also continue in the next read
+        for (final int readSize : new int[]{64, 1 << 16}) {
+            final UNLRecordReader recordReader = new UNLRecordReader(scannerType.create());
+            final CharsetDecoder decoder = TableConverter.UNL_CHARSET.newDecoder();
+            recordReader.reset(Channels.newChannel(new ByteArrayInputStream(unl.toString().getBytes(TableConverter.UNL_CHARSET))), decoder,
+                    SingleByteCharsetTable.create(decoder), readSize);
+            final UNLRecord record = new UNLRecord();
+            final List<List<String>> records = new ArrayList<>();
+            while (recordReader.next(record)) {
+                final List<String> fields = new ArrayList<>();
+                for (int currentFieldIdx = 0; currentFieldIdx < record.getFieldCount(); currentFieldIdx++) {
+                    fields.add(record.isNull(currentFieldIdx) ? "<null>" : record.getField(currentFieldIdx));
+                }
+                records.add(fields);
+            }
+            assertEquals(expectedRecords, records, "read size " + readSize);
+        }
+    }
+}
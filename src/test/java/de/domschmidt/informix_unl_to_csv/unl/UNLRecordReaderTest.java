@@ -0,0 +1,88 @@
+package de.domschmidt.informix_unl_to_csv.unl;
+
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.CharsetDecoder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// the empty field behind the delimiter ending a record is null
+class UNLRecordReaderTest {
+
+    @Test
+    void lineFeedEndsRecord() throws IOException {
+        final List<List<String>> records = read("1|a|\n2||\n", 64);
+        assertEquals(List.of(List.of("1", "a", "<null>"), List.of("2", "<null>", "<null>")), records);
+    }
+
+    @Test
+    void carriageReturnLineFeedEndsRecordOnce() throws IOException {
+        final List<List<String>> records = read("1|a|\r\n2|b|\r\n", 64);
+        assertEquals(List.of(List.of("1", "a", "<null>"), List.of("2", "b", "<null>")), records);
+    }
+
+    @Test
+    void carriageReturnLineFeedAcrossReads() throws IOException {
+        // every read ends between the carriage return and the line feed of a record
+        final List<List<String>> records = read("12|ab|\r\n34|cd|\r\n", 7);
+        assertEquals(List.of(List.of("12", "ab", "<null>"), List.of("34", "cd", "<null>")), records);
+    }
+
+    @Test
+    void carriageReturnWithoutLineFeedIsKept() throws IOException {
+        final List<List<String>> records = read("1|a\rb|\n", 64);
+        assertEquals(List.of(List.of("1", "a\rb", "<null>")), records);
+    }
+
+    @Test
+    void escapesAreRemoved() throws IOException {
+        final List<List<String>> records = read("a\\|b|c\\\nd|e\\\\f|\\ |\n", 64);
+        assertEquals(List.of(List.of("a|b", "c\nd", "e\\f", "", "<null>")), records);
+    }
+
+    @Test
+    void lastRecordWithoutLineFeed() throws IOException {
+        assertEquals(List.of(List.of("1", "a", "<null>")), read("1|a|", 64));
+    }
+
+    @Test
+    void escapedBlankIsEmptyNotNull() throws IOException {
+        final UNLRecordReader recordReader = open("\\ ||\n", 64);
+        final UNLRecord record = new UNLRecord();
+        assertTrue(recordReader.next(record));
+        assertFalse(record.isNull(0));
+        assertEquals(0, record.getFieldLength(0));
+        assertTrue(record.isNull(1));
+        assertFalse(recordReader.next(record));
+    }
+
+    static List<List<String>> read(final String unl, final int readSize) throws IOException {
+        final UNLRecordReader recordReader = open(unl, readSize);
+        final UNLRecord record = new UNLRecord();
+        final List<List<String>> records = new ArrayList<>();
+        while (recordReader.next(record)) {
+            final List<String> fields = new ArrayList<>();
+            for (int currentFieldIdx = 0; currentFieldIdx < record.getFieldCount(); currentFieldIdx++) {
+                fields.add(record.isNull(currentFieldIdx) ? "<null>" : record.getField(currentFieldIdx));
+            }
+            records.add(fields);
+        }
+        return records;
+    }
+
+    private static UNLRecordReader open(final String unl, final int readSize) {
+        final UNLRecordReader recordReader = new UNLRecordReader(new ScalarUNLCharScanner());
+        final CharsetDecoder decoder = TableConverter.UNL_CHARSET.newDecoder();
+        recordReader.reset(Channels.newChannel(new java.io.ByteArrayInputStream(unl.getBytes(TableConverter.UNL_CHARSET))), decoder,
+                SingleByteCharsetTable.create(decoder), readSize);
+        return recordReader;
+    }
+}
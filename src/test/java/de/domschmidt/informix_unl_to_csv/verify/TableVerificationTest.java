@@ -0,0 +1,122 @@
+package de.domschmidt.informix_unl_to_csv.verify;
+
+import de.domschmidt.informix_unl_to_csv.ConversionContext;
+import de.domschmidt.informix_unl_to_csv.TableConverter;
+import de.domschmidt.informix_unl_to_csv.formatter.FormatterCacheMode;
+import de.domschmidt.informix_unl_to_csv.reject.ErrorLimit;
+import de.domschmidt.informix_unl_to_csv.reject.RejectFile;
+import de.domschmidt.informix_unl_to_csv.sink.CsvFormat;
+import de.domschmidt.informix_unl_to_csv.sink.CsvTableOutputSink;
+import de.domschmidt.informix_unl_to_csv.unl.ScalarUNLCharScanner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TableVerificationTest {
+
+    private static final List<String> COLUMN_NAMES = List.of("id", "name", "note");
+    // quotes, an escaped backslash, a delimiter and a line feed in a value, null, the escaped blank and umlauts
+    private static final String UNL = "1|plain|a,b|\n"
+            + "2|say \"hi\"|back\\\\slash|\n"
+            + "3|multi\\\nline||\n"
+            + "4|\\ |ä ü|\n";
+
+    @TempDir
+    Path tempPath;
+
+    @Test
+    void writtenCsvIsConsistent() throws IOException {
+        for (final CsvFormat csvFormat : CsvFormat.values()) {
+            for (final Charset charset : List.of(StandardCharsets.UTF_16, StandardCharsets.UTF_8)) {
+                final TableVerification tableVerification = convert(csvFormat, charset, csv -> csv);
+                assertTrue(tableVerification.isConsistent(), csvFormat + " " + charset);
+                assertEquals(4, tableVerification.getOutputRowCount());
+                assertEquals(0, tableVerification.getMalformedOutputRowCount());
+            }
+        }
+    }
+
+    @Test
+    void lostRowIsCounted() throws IOException {
+        final TableVerification tableVerification = convert(CsvFormat.RFC_4180, StandardCharsets.UTF_8,
+                csv -> csv.substring(0, csv.indexOf("\"4\"")));
+        assertFalse(tableVerification.isCountConsistent());
+        assertEquals(3, tableVerification.getOutputRowCount());
+        assertEquals(0, tableVerification.getMalformedOutputRowCount());
+    }
+
+    @Test
+    void brokenEscapingIsMalformed() throws IOException {
+        final TableVerification tableVerification = convert(CsvFormat.RFC_4180, StandardCharsets.UTF_8,
+                csv -> csv.replace("\"\"hi\"\"", "\"hi\""));
+        assertFalse(tableVerification.isConsistent());
+        assertEquals(1, tableVerification.getMalformedOutputRowCount());
+
+        final TableVerification backslashVerification = convert(CsvFormat.MYSQL, StandardCharsets.UTF_8,
+                csv -> csv.replace("back\\\\slash", "back\\slash"));
+        assertEquals(1, backslashVerification.getMalformedOutputRowCount());
+    }
+
+    @Test
+    void nullWrittenAsEmptyStringIsAChecksumMismatch() throws IOException {
+        final TableVerification tableVerification = convert(CsvFormat.RFC_4180, StandardCharsets.UTF_8,
+                csv -> csv.replace("line\",\n", "line\",\"\"\n"));
+        assertTrue(tableVerification.isCountConsistent());
+        assertTrue(tableVerification.isColumnConsistent(1));
+        assertFalse(tableVerification.isColumnConsistent(2));
+    }
+
+    @Test
+    void wrongEncodingIsAChecksumMismatch() throws IOException {
+        // written as latin-1 and read as utf-8, the umlauts are malformed input
+        final TableVerification tableVerification = convert(CsvFormat.RFC_4180, StandardCharsets.UTF_8, csv -> csv, StandardCharsets.ISO_8859_1);
+        assertTrue(tableVerification.isCountConsistent());
+        assertTrue(tableVerification.isColumnConsistent(1));
+        assertFalse(tableVerification.isColumnConsistent(2));
+    }
+
+    @Test
+    void unterminatedLastRowIsMalformed() throws IOException {
+        final TableVerification tableVerification = convert(CsvFormat.RFC_4180, StandardCharsets.UTF_8, csv -> csv.substring(0, csv.length() - 1));
+        assertEquals(3, tableVerification.getOutputRowCount());
+        assertEquals(1, tableVerification.getMalformedOutputRowCount());
+        assertFalse(tableVerification.isConsistent());
+    }
+
+    private TableVerification convert(final CsvFormat csvFormat, final Charset charset, final UnaryOperator<String> corruption) throws IOException {
+        return convert(csvFormat, charset, corruption, charset);
+    }
+
+    // converts the unl to a csv file, corrupts it and reads it back
+    private TableVerification convert(final CsvFormat csvFormat,
+                                      final Charset charset,
+                                      final UnaryOperator<String> corruption,
+                                      final Charset writtenCharset) throws IOException {
+        final TableConverter tableConverter = new TableConverter(COLUMN_NAMES, COLUMN_NAMES, null, null, null, null, FormatterCacheMode.NEVER, 0, null);
+        final TableVerification tableVerification = tableConverter.newTableVerification("orveus.person");
+        final ConversionContext conversionContext = new ConversionContext(new ScalarUNLCharScanner());
+        final Path csvPath = this.tempPath.resolve("orveus.person.csv");
+        try (final RejectFile rejectFile = new RejectFile(this.tempPath.resolve("rejects.unl"), TableConverter.UNL_CHARSET, new ErrorLimit(-1));
+             final CsvTableOutputSink outputSink = new CsvTableOutputSink(Files.newBufferedWriter(csvPath, charset), csvFormat)) {
+            final byte[] unl = UNL.getBytes(TableConverter.UNL_CHARSET);
+            tableConverter.convert(conversionContext.openUNL(Channels.newChannel(new ByteArrayInputStream(unl)), TableConverter.UNL_CHARSET, 64),
+                    conversionContext, outputSink, tableVerification, rejectFile);
+        }
+        Files.writeString(csvPath, corruption.apply(Files.readString(csvPath, charset)), writtenCharset);
+        tableVerification.addOutputCsv(csvPath, charset, csvFormat);
+        return tableVerification;
+    }
+}